@@ -2,6 +2,7 @@ package com.avos.sipra.sipagri;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Entry point of the SipAgri backend application.
@@ -10,8 +11,12 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  * their fields and production cycles. The application relies on Oracle database with
  * Liquibase-managed schema migrations, and uses JWT-based authentication.
  * </p>
+ * <p>
+ * Scheduling is enabled for the background maintenance jobs (cache refreshes, purges).
+ * </p>
  */
 @SpringBootApplication
+@EnableScheduling
 public class SipAgriApplication {
 
     /**
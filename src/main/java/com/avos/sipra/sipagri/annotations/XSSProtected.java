@@ -6,14 +6,14 @@ import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
 /**
- * Marker annotation indicating that an endpoint method applies input sanitization
- * or validation measures to mitigate Cross-Site Scripting (XSS) risks.
+ * Marker annotation indicating that the response of an endpoint method, or of every
+ * endpoint of an annotated controller, is escaped to mitigate Cross-Site Scripting (XSS) risks.
  * <p>
- * This annotation is documentation-only unless there is an aspect/interceptor in
- * the application that actively enforces XSS protections based on this marker.
+ * The HTML special characters of every string of the response are written as HTML
+ * entities by {@code XSSResponseBodyAdvice}, while the response is serialized.
  * </p>
  */
-@Target(ElementType.METHOD)
+@Target({ElementType.TYPE, ElementType.METHOD})
 @Retention(RetentionPolicy.RUNTIME)
 public @interface XSSProtected {
 }
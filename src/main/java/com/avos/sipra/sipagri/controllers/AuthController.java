@@ -2,7 +2,10 @@ package com.avos.sipra.sipagri.controllers;
 
 import com.avos.sipra.sipagri.annotations.XSSProtected;
 import com.avos.sipra.sipagri.entities.PasswordResetToken;
+import com.avos.sipra.sipagri.security.CustomUserDetails;
 import com.avos.sipra.sipagri.security.JwtUtil;
+import com.avos.sipra.sipagri.security.LoginThrottle;
+import com.avos.sipra.sipagri.security.TokenRevocationService;
 import com.avos.sipra.sipagri.services.cores.AuthService;
 import com.avos.sipra.sipagri.services.cores.SupervisorService;
 import com.avos.sipra.sipagri.services.cores.impl.TokenService;
@@ -11,15 +14,20 @@ import com.avos.sipra.sipagri.services.dtos.LoginResponseDto;
 import com.avos.sipra.sipagri.services.dtos.PasswordResetDto;
 import com.avos.sipra.sipagri.services.dtos.SupervisorDTO;
 import com.avos.sipra.sipagri.services.mappers.SupervisorMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -34,6 +42,7 @@ import java.util.UUID;
  * Endpoints:
  * <ul>
  *   <li>POST /api/v1/auth/login — Authenticate a user and return a JWT plus supervisor profile</li>
+ *   <li>POST /api/v1/auth/logout — Revoke the JWT of the request</li>
  *   <li>POST /api/v1/auth/register — Create a new supervisor account</li>
  *   <li>POST /api/v1/auth/forgot-password — Initiate password reset and send a reset token by email</li>
  *   <li>POST /api/v1/auth/reset-password — Reset password using a previously issued token</li>
@@ -41,6 +50,7 @@ import java.util.UUID;
  * </ul>
  * </p>
  */
+@XSSProtected
 @RestController
 @RequestMapping("/api/v1/auth")
 public class AuthController {
@@ -52,6 +62,9 @@ public class AuthController {
     private final SupervisorMapper supervisorMapper;
     private final TokenService tokenService;
     private final AuthService authService;
+    private final TokenRevocationService tokenRevocationService;
+    private final LoginThrottle loginThrottle;
+    private final MeterRegistry meterRegistry;
     
     private static final String MESSAGE = "message";
     private static final String STATUS = "status";
@@ -62,13 +75,19 @@ public class AuthController {
                           SupervisorService supervisorService,
                           SupervisorMapper supervisorMapper,
                           TokenService tokenService,
-                          AuthService authService) {
+                          AuthService authService,
+                          TokenRevocationService tokenRevocationService,
+                          LoginThrottle loginThrottle,
+                          MeterRegistry meterRegistry) {
             this.authenticationManager = authenticationManager;
             this.jwtUtil = jwtUtil;
             this.supervisorService = supervisorService;
             this.supervisorMapper = supervisorMapper;
             this.tokenService = tokenService;
             this.authService = authService;
+            this.tokenRevocationService = tokenRevocationService;
+            this.loginThrottle = loginThrottle;
+            this.meterRegistry = meterRegistry;
     }
 
     /**
@@ -77,23 +96,86 @@ public class AuthController {
      * Request body: {@link LoginRequestDto} containing credentials.
      * Response: {@link LoginResponseDto} with a signed JWT token and the supervisor profile on success.
      *
-     * @return 200 OK with token and profile if authentication succeeds; 401 Unauthorized otherwise
+     * Attempts are throttled per client address and per account, and the password is verified
+     * on the bounded hashing threads. Behind the reverse proxy, the client address is the one
+     * forwarded in {@code X-Forwarded-For} ({@code server.forward-headers-strategy=native}), so
+     * that clients are not all throttled as the proxy. Latencies are recorded by the
+     * {@code sipagri.auth.login} timer.
+     *
+     * @return 200 OK with token and profile if authentication succeeds; 401 Unauthorized otherwise;
+     *         429 Too Many Requests with a Retry-After header if the attempt is throttled
      */
     @PostMapping("/login")
-    public ResponseEntity<LoginResponseDto> login(@RequestBody LoginRequestDto loginRequest) {
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(loginRequest.getEmail(), loginRequest.getPassword())
-        );
-
-        String token = jwtUtil.generateToken(loginRequest.getEmail());
-        if (authentication.isAuthenticated()) {
-            SupervisorDTO supervisor = supervisorService.findByEmail(loginRequest.getEmail());
-            return ResponseEntity.ok(new LoginResponseDto(token, supervisor));
-        } else {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+    public ResponseEntity<LoginResponseDto> login(@RequestBody LoginRequestDto loginRequest, HttpServletRequest request) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failure";
+        try {
+            // Rejet immédiat, avant tout calcul BCrypt, si l'adresse, ou le compte depuis cette adresse, dépasse sa limite
+            long retryAfter = loginThrottle.tryAttempt(loginRequest.getEmail(), request.getRemoteAddr());
+            if (retryAfter > 0) {
+                outcome = "throttled";
+                return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                        .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter))
+                        .build();
+            }
+
+            Authentication authentication;
+            try {
+                authentication = authenticationManager.authenticate(
+                        new UsernamePasswordAuthenticationToken(loginRequest.getEmail(), loginRequest.getPassword())
+                );
+            } catch (AuthenticationException e) {
+                loginThrottle.recordFailure(loginRequest.getEmail(), request.getRemoteAddr());
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+            }
+
+            if (authentication.isAuthenticated() && authentication.getPrincipal() instanceof CustomUserDetails userDetails) {
+                loginThrottle.recordSuccess(loginRequest.getEmail(), request.getRemoteAddr());
+                String token = jwtUtil.generateToken(userDetails.supervisorId(), userDetails.email(), userDetails.profile());
+                // Les détails en cache ne portent que l'identité : le profil complet est relu pour la réponse
+                SupervisorDTO supervisor = supervisorService.findOne(userDetails.supervisorId());
+                outcome = "success";
+                return ResponseEntity.ok(new LoginResponseDto(token, supervisor));
+            } else {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+            }
+        } finally {
+            sample.stop(Timer.builder("sipagri.auth.login")
+                    .description("Login latency")
+                    .tag("outcome", outcome)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry));
         }
     }
 
+    /**
+     * Revoke the JWT sent in the Authorization header, so that it is rejected until it expires.
+     *
+     * @param authorization the Authorization header, {@code Bearer <token>}
+     * @return 200 OK once the token is revoked; 400 Bad Request if the token has no identifier
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<Map<String, Object>> logout(@RequestHeader(HttpHeaders.AUTHORIZATION) String authorization) {
+        if (!authorization.startsWith("Bearer ")) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        try {
+            tokenRevocationService.revoke(jwtUtil.parseToken(authorization.substring(7)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of(
+                            STATUS, HttpStatus.BAD_REQUEST.value(),
+                            MESSAGE, e.getMessage(),
+                            TIMESTAMP, LocalDateTime.now()
+                    ));
+        }
+        return ResponseEntity.ok()
+                .body(Map.of(
+                        STATUS, HttpStatus.OK.value(),
+                        MESSAGE, "Déconnexion effectuée",
+                        TIMESTAMP, LocalDateTime.now()
+                ));
+    }
 
     /**
      * Register a new supervisor account.
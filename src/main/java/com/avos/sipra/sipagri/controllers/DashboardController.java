@@ -1,5 +1,7 @@
 package com.avos.sipra.sipagri.controllers;
 
+import com.avos.sipra.sipagri.annotations.XSSProtected;
+import com.avos.sipra.sipagri.security.SupervisorContext;
 import com.avos.sipra.sipagri.services.dtos.*;
 import com.avos.sipra.sipagri.services.cores.DashboardService;
 import lombok.RequiredArgsConstructor;
@@ -10,6 +12,7 @@ import org.springframework.web.bind.annotation.*;
 import java.util.List;
 
 @Slf4j
+@XSSProtected
 @RestController
 @RequestMapping("/api/v1/dashboard")
 @RequiredArgsConstructor
@@ -21,6 +24,11 @@ public class DashboardController {
      */
     private final DashboardService dashboardService;
 
+    /**
+     * The supervisor authenticated for the request; a supervisor only sees its own statistics.
+     */
+    private final SupervisorContext supervisorContext;
+
     /**
      * Retrieves a list of resumes data.
      *
@@ -30,13 +38,16 @@ public class DashboardController {
      */
     @GetMapping("/resumes")
     public ResponseEntity<ApiResponse<List<ResumeDTO>>> getResumesData() {
-        List<ResumeDTO> resumes = dashboardService.getResumesData();
+        Long supervisor = supervisorContext.scope(null);
+        List<ResumeDTO> resumes = supervisor != null ?
+                dashboardService.getResumesDataBySupervisor(supervisor) :
+                dashboardService.getResumesData();
         return ResponseEntity.ok(new ApiResponse<>(true, resumes, "Statistiques récupérées avec succès"));
     }
 
     @GetMapping("/resumes-by-supervisor")
     public ResponseEntity<ApiResponse<List<ResumeDTO>>> getResumesDataBySupervisor(@RequestParam Long supervisor) {
-        List<ResumeDTO> resumes = dashboardService.getResumesDataBySupervisor(supervisor);
+        List<ResumeDTO> resumes = dashboardService.getResumesDataBySupervisor(supervisorContext.scope(supervisor));
         return ResponseEntity.ok(new ApiResponse<>(true, resumes, "Statistiques récupérées avec succès"));
     }
 
@@ -53,6 +64,7 @@ public class DashboardController {
     public ResponseEntity<ApiResponse<List<ChartDataDTO>>> getProductionBySector(
             @RequestParam(required = false) Integer year,
             @RequestParam(required = false) Long supervisor) {
+        supervisor = supervisorContext.scope(supervisor);
         List<ChartDataDTO> data = supervisor != null ?
                 dashboardService.getProductionBySupervisorBySector(supervisor, year) :
                 dashboardService.getProductionBySector(year);
@@ -70,6 +82,7 @@ public class DashboardController {
     public ResponseEntity<ApiResponse<List<Integer>>> getAvailableYears(
             @RequestParam(required = false) Long supervisor
     ) {
+        supervisor = supervisorContext.scope(supervisor);
         List<Integer> years = supervisor != null ?
                 dashboardService.getAvailableYearsBySupervisor(supervisor) :
                 dashboardService.getAvailableYears();
@@ -89,6 +102,7 @@ public class DashboardController {
     public ResponseEntity<ApiResponse<List<ChartDataDTO>>> getProductionByPeriod(
             @RequestParam(defaultValue = "month") String period,
             @RequestParam(required = false) Long supervisor) {
+        supervisor = supervisorContext.scope(supervisor);
         List<ChartDataDTO> data = supervisor != null ?
                 dashboardService.getProductionBySupervisorByPeriod(supervisor, period) :
                 dashboardService.getProductionByPeriod(period);
@@ -106,6 +120,7 @@ public class DashboardController {
     public ResponseEntity<ApiResponse<List<ChartDataDTO>>> getProductionByPlantation(
             @RequestParam(required = false) Long supervisor
     ) {
+        supervisor = supervisorContext.scope(supervisor);
         List<ChartDataDTO> data = supervisor != null ?
                 dashboardService.getProductionByPlantationBySupervisor(supervisor) :
                 dashboardService.getProductionByPlantation();
@@ -123,6 +138,7 @@ public class DashboardController {
     public ResponseEntity<ApiResponse<List<ProductionTrendDTO>>> getProductionTrend(
             @RequestParam(required = false) Long supervisor
     ) {
+        supervisor = supervisorContext.scope(supervisor);
         List<ProductionTrendDTO> data = supervisor != null ?
                 dashboardService.getProductionTrendBySupervisor(supervisor) :
                 dashboardService.getProductionTrend();
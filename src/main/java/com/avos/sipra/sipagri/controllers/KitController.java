@@ -18,6 +18,7 @@ import java.util.Map;
  * This controller exposes various HTTP methods to perform CRUD operations
  * and supports features like pagination, searching, and partial updates.
  */
+@XSSProtected
 @RestController
 @RequestMapping("/api/v1/kits")
 public class KitController {
@@ -129,6 +130,20 @@ public class KitController {
         return ResponseEntity.status(HttpStatus.CREATED).body(kit);
     }
 
+    /**
+     * Creates several kits in one request, e.g. when setting up the catalog of a season.
+     * All products are resolved with a single query and the kits are inserted in batches.
+     *
+     * @param kitDTOs the kits to be created, with their lines
+     * @return a ResponseEntity containing the created kits with HTTP status 201 (Created)
+     */
+    @PostMapping("/batch")
+    @XSSProtected
+    public ResponseEntity<List<KitDTO>> saveAll(@RequestBody List<KitDTO> kitDTOs) {
+        List<KitDTO> kits = kitService.saveAll(kitDTOs);
+        return ResponseEntity.status(HttpStatus.CREATED).body(kits);
+    }
+
     /**
      * Updates an existing Kit entity with the provided data.
      *
@@ -17,6 +17,7 @@ import java.util.List;
  * Provides endpoints for fetching, creating, updating, partially updating,
  * and deleting parameter entities.
  */
+@XSSProtected
 @RestController
 @RequestMapping("/api/v1/params")
 public class ParamsController {
@@ -1,7 +1,9 @@
 package com.avos.sipra.sipagri.controllers;
 
 import com.avos.sipra.sipagri.annotations.XSSProtected;
+import com.avos.sipra.sipagri.security.SupervisorContext;
 import com.avos.sipra.sipagri.services.cores.PlantationService;
+import com.avos.sipra.sipagri.services.cores.PlanterService;
 import com.avos.sipra.sipagri.services.dtos.PaginationResponseDTO;
 import com.avos.sipra.sipagri.services.dtos.PlantationDTO;
 import com.avos.sipra.sipagri.enums.PlantationStatus;
@@ -13,6 +15,7 @@ import org.springframework.web.bind.annotation.*;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * PlantationController is a RESTful controller class handling HTTP requests related to
@@ -24,6 +27,7 @@ import java.util.List;
  * retrieving plantations, creating new plantations, or updating existing ones.
  */
 @Slf4j
+@XSSProtected
 @RestController
 @RequestMapping("/api/v1/plantations")
 public class PlantationController {
@@ -36,19 +40,34 @@ public class PlantationController {
      */
     private final PlantationService plantationService;
 
+    /**
+     * Service checking that the planter a plantation is assigned to belongs to the caller.
+     */
+    private final PlanterService planterService;
+
+    /**
+     * The supervisor authenticated for the request, scoping the listings to its records.
+     */
+    private final SupervisorContext supervisorContext;
+
     /**
      * Constructor for the PlantationController class, which initializes the controller
      * with the provided PlantationService instance for handling plantation-related operations.
      *
      * @param plantationService the service instance used to perform various operations
      *                          related to plantations
+     * @param planterService the service checking the ownership of planters
+     * @param supervisorContext the supervisor authenticated for the request
      */
-    public PlantationController(PlantationService plantationService) {
+    public PlantationController(PlantationService plantationService, PlanterService planterService,
+                                SupervisorContext supervisorContext) {
         this.plantationService = plantationService;
+        this.planterService = planterService;
+        this.supervisorContext = supervisorContext;
     }
 
     /**
-     * Retrieves a paginated list of plantations.
+     * Retrieves a paginated list of plantations, those of the authenticated supervisor only for a supervisor.
      *
      * @param page the page number to be retrieved, default is 0
      * @param size the number of items per page, default is 10
@@ -60,7 +79,10 @@ public class PlantationController {
             @RequestParam(required = false, defaultValue = "10") int size
     ) {
         Pageable pageable = PageRequest.of(page, size);
-        PaginationResponseDTO<PlantationDTO> response = plantationService.findAllPaged(pageable);
+        Long supervisorId = supervisorContext.scope(null);
+        PaginationResponseDTO<PlantationDTO> response = supervisorId != null ?
+                plantationService.findAllPagedPlantationByPlanterSupervisor(pageable, supervisorId) :
+                plantationService.findAllPaged(pageable);
         if (response.getData() == null) {
             return ResponseEntity.notFound().build();
         }
@@ -73,9 +95,13 @@ public class PlantationController {
      * @param id the unique identifier of the plantation to retrieve
      * @return a ResponseEntity containing the PlantationDTO object if found,
      *         or a ResponseEntity with a not-found status if the plantation does not exist
+     *         or, for a supervisor, is not one of its plantations
      */
     @GetMapping("/{id}")
     public ResponseEntity<PlantationDTO> getPlantation(@PathVariable Long id){
+        if (!canAccess(id)) {
+            return ResponseEntity.notFound().build();
+        }
         PlantationDTO plantationDTO = plantationService.findOne(id);
         if(plantationDTO == null){
             return ResponseEntity.notFound().build();
@@ -93,6 +119,7 @@ public class PlantationController {
     public ResponseEntity<List<PlantationDTO>> getAllPlantations(
             @RequestParam(required = false) Long supervisorId
     ){
+        supervisorId = supervisorContext.scope(supervisorId);
         List<PlantationDTO> plantationDTOs = supervisorId != null ?
                 plantationService.findAll(supervisorId) :
                 plantationService.findAll();
@@ -107,16 +134,22 @@ public class PlantationController {
      *
      * @param page the page number to be retrieved, default is 0
      * @param size the number of items per page, default is 10
-     * @param supervisorId the ID of the supervisor whose plantations are to be retrieved
+     * @param supervisorId the ID of the supervisor whose plantations are to be retrieved;
+     *                     defaults to, and is forced to for a supervisor, the authenticated one
      * @return a ResponseEntity containing the paginated response of PlantationDTO objects,
-     *         or a ResponseEntity with a not-found status if no data is available
+     *         or a ResponseEntity with a not-found status if no data is available,
+     *         or a bad request status if no supervisor is known
      */
     @GetMapping("/by_supervisor")
     public ResponseEntity<PaginationResponseDTO<PlantationDTO>> getAll(
             @RequestParam(required = false, defaultValue = "0") int page,
             @RequestParam(required = false, defaultValue = "10") int size,
-            @RequestParam Long supervisorId
+            @RequestParam(required = false) Long supervisorId
     ) {
+        supervisorId = supervisorContext.scope(supervisorId != null ? supervisorId : supervisorContext.getSupervisorId());
+        if (supervisorId == null) {
+            return ResponseEntity.badRequest().build();
+        }
         Pageable pageable = PageRequest.of(page, size);
         PaginationResponseDTO<PlantationDTO> response = plantationService.findAllPagedPlantationByPlanterSupervisor(pageable, supervisorId);
         if (response.getData() == null) {
@@ -146,6 +179,7 @@ public class PlantationController {
             @RequestParam(required = false, defaultValue = "10") int size) {
 
         Pageable pageable = PageRequest.of(page, size);
+        supervisorId = supervisorContext.scope(supervisorId);
 
         PaginationResponseDTO<PlantationDTO> responseDTO;
 
@@ -183,6 +217,9 @@ public class PlantationController {
     @PostMapping
     @XSSProtected
     public ResponseEntity<PlantationDTO> createPlantation(@RequestBody PlantationDTO dto){
+        if (!canUsePlanter(dto.getPlanterId())) {
+            return ResponseEntity.notFound().build();
+        }
         PlantationDTO plantationDTO = plantationService.save(dto);
         if(plantationDTO == null){
             return ResponseEntity.notFound().build();
@@ -200,6 +237,9 @@ public class PlantationController {
     @PutMapping
     @XSSProtected
     public ResponseEntity<PlantationDTO> updatePlantation(@RequestBody PlantationDTO dto){
+        if ((dto.getId() != null && !canAccess(dto.getId())) || !canUsePlanter(dto.getPlanterId())) {
+            return ResponseEntity.notFound().build();
+        }
         PlantationDTO plantationDTO = plantationService.update(dto);
         if(plantationDTO == null){
             return ResponseEntity.notFound().build();
@@ -216,6 +256,9 @@ public class PlantationController {
      */
     @PatchMapping
     public ResponseEntity<PlantationDTO> patchPlantation(@RequestBody PlantationDTO dto){
+        if ((dto.getId() != null && !canAccess(dto.getId())) || !canUsePlanter(dto.getPlanterId())) {
+            return ResponseEntity.notFound().build();
+        }
         PlantationDTO plantationDTO = plantationService.partialUpdate(dto);
         if(plantationDTO == null){
             return ResponseEntity.notFound().build();
@@ -223,6 +266,33 @@ public class PlantationController {
         return ResponseEntity.accepted().body(plantationDTO);
     }
 
+    /**
+     * Assigns another existing kit to a plantation. The kit itself is not modified.
+     *
+     * @param id the identifier of the plantation
+     * @param kitId the identifier of the kit to assign
+     * @return a {@code ResponseEntity} containing the updated {@code PlantationDTO}
+     */
+    @PutMapping("/{id}/kit/{kitId}")
+    public ResponseEntity<PlantationDTO> changeKit(@PathVariable Long id, @PathVariable Long kitId) {
+        if (!canAccess(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(plantationService.changeKit(id, kitId));
+    }
+
+    /**
+     * Deletes several plantations, with their productions, in a constant number of statements.
+     * A supervisor only deletes, among them, the plantations it manages.
+     *
+     * @param ids the identifiers of the plantations to delete
+     * @return a {@code ResponseEntity} holding the number of deleted plantations
+     */
+    @DeleteMapping(params = "ids")
+    public ResponseEntity<Map<String, Integer>> deletePlantations(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(Map.of("deleted", plantationService.deleteAll(ids, supervisorContext.scope(null))));
+    }
+
     /**
      * Deletes a plantation identified by its unique ID.
      * If the plantation does not exist, a "Not Found" response will be returned.
@@ -233,6 +303,9 @@ public class PlantationController {
      */
     @DeleteMapping("/{id}")
     public ResponseEntity<PlantationDTO> deletePlantation(@PathVariable Long id){
+        if (!canAccess(id)) {
+            return ResponseEntity.notFound().build();
+        }
         PlantationDTO plantationDTO = plantationService.findOne(id);
         if(plantationDTO == null){
             return ResponseEntity.notFound().build();
@@ -240,4 +313,17 @@ public class PlantationController {
         plantationService.delete(id);
         return ResponseEntity.ok().build();
     }
+
+    private boolean canAccess(Long id) {
+        return supervisorContext.canAccess(supervisorId -> plantationService.isOwnedBy(id, supervisorId));
+    }
+
+    /**
+     * @param planterId the planter a plantation is assigned to, may be null
+     * @return true if no planter is given or the caller may assign plantations to it
+     */
+    private boolean canUsePlanter(Long planterId) {
+        return planterId == null
+                || supervisorContext.canAccess(supervisorId -> planterService.isOwnedBy(planterId, supervisorId));
+    }
 }
@@ -1,6 +1,7 @@
 package com.avos.sipra.sipagri.controllers;
 
 import com.avos.sipra.sipagri.annotations.XSSProtected;
+import com.avos.sipra.sipagri.security.SupervisorContext;
 import com.avos.sipra.sipagri.services.cores.PlanterService;
 import com.avos.sipra.sipagri.services.dtos.PaginationResponseDTO;
 import com.avos.sipra.sipagri.services.dtos.PlanterDTO;
@@ -12,6 +13,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * The PlanterController class is a REST controller responsible for handling HTTP requests
@@ -38,6 +40,7 @@ import java.util.List;
  * - Some endpoints, such as those handling `POST`, `PUT`, and `PATCH` operations, use input validation to handle data.
  */
 @Slf4j
+@XSSProtected
 @RestController
 @RequestMapping("/api/v1/planters")
 public class PlanterController {
@@ -49,17 +52,24 @@ public class PlanterController {
      */
     private final PlanterService planterService;
 
+    /**
+     * The supervisor authenticated for the request, scoping the listings to its records.
+     */
+    private final SupervisorContext supervisorContext;
+
     /**
      * Constructs a PlanterController with the provided PlanterService instance.
      *
      * @param planterService the service layer dependency to manage planter-related operations
+     * @param supervisorContext the supervisor authenticated for the request
      */
-    public PlanterController(PlanterService planterService) {
+    public PlanterController(PlanterService planterService, SupervisorContext supervisorContext) {
         this.planterService = planterService;
+        this.supervisorContext = supervisorContext;
     }
 
     /**
-     * Retrieves a paginated list of planters.
+     * Retrieves a paginated list of planters, those of the authenticated supervisor only for a supervisor.
      *
      * @param page the page number to be retrieved, defaults to 0 if not provided.
      * @param size the number of items per page, defaults to 10 if not provided.
@@ -72,8 +82,11 @@ public class PlanterController {
             @RequestParam(required = false, defaultValue = "10") int size)
     {
         Pageable pageable = PageRequest.of(page, size);
+        Long supervisorId = supervisorContext.scope(null);
 
-        PaginationResponseDTO<PlanterDTO> responseDTO = planterService.findAllPaged(pageable);
+        PaginationResponseDTO<PlanterDTO> responseDTO = supervisorId != null ?
+                planterService.findPlanterBySupervisor(pageable, supervisorId) :
+                planterService.findAllPaged(pageable);
         if (responseDTO.getData() == null) {
             return ResponseEntity.notFound().build();
         }
@@ -85,16 +98,21 @@ public class PlanterController {
      *
      * @param page the page number to retrieve; defaults to 0 if not specified
      * @param size the number of items per page; defaults to 10 if not specified
-     * @param supervisorId the ID of the supervisor whose associated planters are to be retrieved
+     * @param supervisorId the ID of the supervisor whose associated planters are to be retrieved;
+     *                     defaults to, and is forced to for a supervisor, the authenticated one
      * @return a ResponseEntity containing a PaginationResponseDTO of PlanterDTOs;
-     *         returns 404 Not Found if no data is available
+     *         returns 404 Not Found if no data is available, 400 Bad Request if no supervisor is known
      */
     @GetMapping("/by_supervisor")
     public ResponseEntity<PaginationResponseDTO<PlanterDTO>> getPlantersBySupervisor(
             @RequestParam(required = false, defaultValue = "0") int page,
             @RequestParam(required = false, defaultValue = "10") int size,
-            @RequestParam Long supervisorId)
+            @RequestParam(required = false) Long supervisorId)
     {
+        supervisorId = supervisorContext.scope(supervisorId != null ? supervisorId : supervisorContext.getSupervisorId());
+        if (supervisorId == null) {
+            return ResponseEntity.badRequest().build();
+        }
         Pageable pageable = PageRequest.of(page, size);
 
         PaginationResponseDTO<PlanterDTO> responseDTO = planterService.findPlanterBySupervisor(pageable, supervisorId);
@@ -116,6 +134,7 @@ public class PlanterController {
     @GetMapping("/all")
     public ResponseEntity<List<PlanterDTO>> getAllPlanters(
             @RequestParam(required = false) Long supervisorId) {
+        supervisorId = supervisorContext.scope(supervisorId);
         List<PlanterDTO> planterDTO = supervisorId != null ?
                 planterService.findAll(supervisorId) :
                 planterService.findAll();
@@ -130,10 +149,14 @@ public class PlanterController {
      *
      * @param id the unique identifier of the planter to retrieve
      * @return a {@code ResponseEntity} containing the {@code PlanterDTO} if found;
-     *         otherwise, a {@code ResponseEntity} with a not found status
+     *         otherwise, a {@code ResponseEntity} with a not found status, also returned to a
+     *         supervisor asking for a planter it does not manage
      */
     @GetMapping("/{id}")
     public ResponseEntity<PlanterDTO> getPlanterById(@PathVariable Long id) {
+        if (!canAccess(id)) {
+            return ResponseEntity.notFound().build();
+        }
         PlanterDTO planterDTO = planterService.findOne(id);
         if (planterDTO == null) {
             return ResponseEntity.notFound().build();
@@ -150,8 +173,8 @@ public class PlanterController {
      *                 defaults to "false" if not provided
      * @param page the zero-based page index for pagination; defaults to 0
      * @param size the size of the page for pagination; defaults to 10
-     * @return a paginated response containing a list of matching planters;
-     *         if no matches are found, a 404 response is returned
+     * @return a paginated response containing a list of matching planters, among those of the
+     *         authenticated supervisor for a supervisor; if no matches are found, a 404 response is returned
      */
     @GetMapping("/search")
     public ResponseEntity<PaginationResponseDTO<PlanterDTO>> searchPlanters(
@@ -160,9 +183,17 @@ public class PlanterController {
             @RequestParam(required = false, defaultValue = "0") int page,
             @RequestParam(required = false, defaultValue = "10") int size) {
         Pageable pageable = PageRequest.of(page, size);
-        PaginationResponseDTO<PlanterDTO> responseDTO = "village".equalsIgnoreCase(criteria) ?
-                planterService.findAllPagedByVillage(pageable, search) :
-                planterService.findAllPagedByParams(pageable, search);
+        Long supervisorId = supervisorContext.scope(null);
+        PaginationResponseDTO<PlanterDTO> responseDTO;
+        if ("village".equalsIgnoreCase(criteria)) {
+            responseDTO = supervisorId != null ?
+                    planterService.findAllPagedByVillage(pageable, search, supervisorId) :
+                    planterService.findAllPagedByVillage(pageable, search);
+        } else {
+            responseDTO = supervisorId != null ?
+                    planterService.findAllPagedByParams(pageable, search, supervisorId) :
+                    planterService.findAllPagedByParams(pageable, search);
+        }
 
         if (responseDTO == null || responseDTO.getData() == null) {
             return ResponseEntity.notFound().build();
@@ -198,6 +229,9 @@ public class PlanterController {
     @PutMapping
     @XSSProtected
     public ResponseEntity<PlanterDTO> updatePlanter(@RequestBody PlanterDTO planterDTO) {
+        if (planterDTO.getId() != null && !canAccess(planterDTO.getId())) {
+            return ResponseEntity.notFound().build();
+        }
         PlanterDTO planter = planterService.update(planterDTO);
         if (planter == null) {
             return ResponseEntity.notFound().build();
@@ -215,6 +249,9 @@ public class PlanterController {
     @PatchMapping
     @XSSProtected
     public ResponseEntity<PlanterDTO> patchPlanter(@RequestBody PlanterDTO planterDTO) {
+        if (planterDTO.getId() != null && !canAccess(planterDTO.getId())) {
+            return ResponseEntity.notFound().build();
+        }
         PlanterDTO planter = planterService.partialUpdate(planterDTO);
         if (planter == null) {
             return ResponseEntity.notFound().build();
@@ -234,11 +271,42 @@ public class PlanterController {
      */
     @DeleteMapping("/{id}")
     public ResponseEntity<PlanterDTO> deletePlanter(@PathVariable Long id) {
-        PlanterDTO planterDTO = planterService.findOne(id);
-        if (planterDTO == null) {
+        if (Boolean.FALSE.equals(planterService.existsById(id)) || !canAccess(id)) {
             return ResponseEntity.notFound().build();
         }
         planterService.delete(id);
         return ResponseEntity.ok().build();
     }
+
+    /**
+     * Deletes several planters, with their plantations and productions, in a constant number
+     * of statements. A supervisor only deletes, among them, the planters it manages.
+     *
+     * @param ids the identifiers of the planters to delete
+     * @return a {@code ResponseEntity} holding the number of deleted planters
+     */
+    @DeleteMapping(params = "ids")
+    public ResponseEntity<Map<String, Integer>> deletePlanters(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(Map.of("deleted", planterService.deleteAll(ids, supervisorContext.scope(null))));
+    }
+
+    /**
+     * Deletes the planters of a supervisor and/or a village, with their plantations and
+     * productions, in a constant number of statements. At least one filter is required.
+     *
+     * @param supervisorId the supervisor of the planters to delete; forced to the authenticated one for a supervisor
+     * @param village the village of the planters to delete, compared ignoring case
+     * @return a {@code ResponseEntity} holding the number of deleted planters
+     */
+    @DeleteMapping
+    public ResponseEntity<Map<String, Integer>> deletePlantersByFilter(
+            @RequestParam(required = false) Long supervisorId,
+            @RequestParam(required = false) String village) {
+        return ResponseEntity.ok(Map.of("deleted",
+                planterService.deleteByFilter(supervisorContext.scope(supervisorId), village)));
+    }
+
+    private boolean canAccess(Long id) {
+        return supervisorContext.canAccess(supervisorId -> planterService.isOwnedBy(id, supervisorId));
+    }
 }
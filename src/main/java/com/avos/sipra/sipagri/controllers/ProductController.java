@@ -2,6 +2,7 @@ package com.avos.sipra.sipagri.controllers;
 
 import com.avos.sipra.sipagri.annotations.XSSProtected;
 import com.avos.sipra.sipagri.services.cores.ProductService;
+import com.avos.sipra.sipagri.services.dtos.KitRepricingReportDTO;
 import com.avos.sipra.sipagri.services.dtos.PaginationResponseDTO;
 import com.avos.sipra.sipagri.services.dtos.ProductDTO;
 import org.springframework.data.domain.PageRequest;
@@ -17,6 +18,7 @@ import java.util.List;
  * Provides endpoints to perform CRUD operations on products
  * and to retrieve product data with pagination and search capabilities.
  */
+@XSSProtected
 @RestController
 @RequestMapping("/api/v1/products")
 public class ProductController {
@@ -164,6 +166,21 @@ public class ProductController {
         return ResponseEntity.status(HttpStatus.ACCEPTED).body(product);
     }
 
+    /**
+     * Changes the price of a product and reprices, in the same transaction, the kits
+     * containing it and the repayment balances of the plantations equipped with them.
+     *
+     * @param id the unique identifier of the product
+     * @param price the new unit price of the product
+     * @return a {@link ResponseEntity} containing the {@link KitRepricingReportDTO} with a status of 202 Accepted
+     */
+    @PatchMapping("/{id}/price")
+    @XSSProtected
+    public ResponseEntity<KitRepricingReportDTO> updatePrice(@PathVariable long id, @RequestParam Double price) {
+        KitRepricingReportDTO report = productService.updatePrice(id, price);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(report);
+    }
+
     /**
      * Deletes a product identified by its unique identifier.
      * If the product does not exist, returns a 404 (Not Found) response.
@@ -1,9 +1,15 @@
 package com.avos.sipra.sipagri.controllers;
 
 import com.avos.sipra.sipagri.annotations.XSSProtected;
+import com.avos.sipra.sipagri.security.SupervisorContext;
+import com.avos.sipra.sipagri.services.cores.PlantationService;
+import com.avos.sipra.sipagri.services.cores.ProductionIngestionService;
 import com.avos.sipra.sipagri.services.cores.ProductionService;
+import com.avos.sipra.sipagri.services.cores.ProductionSyncService;
+import com.avos.sipra.sipagri.services.dtos.IngestionStatusDTO;
 import com.avos.sipra.sipagri.services.dtos.PaginationResponseDTO;
 import com.avos.sipra.sipagri.services.dtos.ProductionDTO;
+import com.avos.sipra.sipagri.services.dtos.ProductionSyncResultDTO;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
@@ -11,12 +17,14 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Controller class that manages production-related endpoints.
  * This class provides RESTful APIs for handling operations such as retrieving, creating,
  * updating, searching, and deleting production records.
  */
+@XSSProtected
 @RestController
 @RequestMapping("/api/v1/productions")
 public class ProductionController {
@@ -28,13 +36,45 @@ public class ProductionController {
      */
     private final ProductionService productionService;
 
+    /**
+     * Service recording the batches of productions synchronized by field agents.
+     */
+    private final ProductionSyncService productionSyncService;
+
+    /**
+     * Service queuing productions in the write-ahead log when the ingestion mode is enabled.
+     */
+    private final ProductionIngestionService productionIngestionService;
+
+    /**
+     * Service checking that the plantation a production is recorded on belongs to the caller.
+     */
+    private final PlantationService plantationService;
+
+    /**
+     * The supervisor authenticated for the request, scoping the listings to its records.
+     */
+    private final SupervisorContext supervisorContext;
+
     /**
      * Constructor for ProductionController.
      *
      * @param productionService the production service used to handle production-related business logic
+     * @param productionSyncService the service recording synchronized batches of productions
+     * @param productionIngestionService the service queuing productions in the write-ahead log
+     * @param plantationService the service checking the ownership of plantations
+     * @param supervisorContext the supervisor authenticated for the request
      */
-    public ProductionController(ProductionService productionService) {
+    public ProductionController(ProductionService productionService,
+                                ProductionSyncService productionSyncService,
+                                ProductionIngestionService productionIngestionService,
+                                PlantationService plantationService,
+                                SupervisorContext supervisorContext) {
         this.productionService = productionService;
+        this.productionSyncService = productionSyncService;
+        this.productionIngestionService = productionIngestionService;
+        this.plantationService = plantationService;
+        this.supervisorContext = supervisorContext;
     }
 
     /**
@@ -51,7 +91,10 @@ public class ProductionController {
             @RequestParam(required = false, defaultValue = "10") int size
     ) {
         Pageable pageable = PageRequest.of(page, size);
-        PaginationResponseDTO<ProductionDTO> response = productionService.findAllPaged(pageable);
+        Long supervisorId = supervisorContext.scope(null);
+        PaginationResponseDTO<ProductionDTO> response = supervisorId != null ?
+                productionService.findProductionByPlantationPlanterSupervisor(pageable, supervisorId) :
+                productionService.findAllPaged(pageable);
 
         if (response.getData() == null) {
             return ResponseEntity.notFound().build();
@@ -63,16 +106,21 @@ public class ProductionController {
      *
      * @param page the page number to retrieve, default value is 0.
      * @param size the size of the page to retrieve, default value is 10.
-     * @param supervisorId the ID of the supervisor whose productions should be retrieved.
+     * @param supervisorId the ID of the supervisor whose productions should be retrieved; defaults to,
+     *                     and is forced to for a supervisor, the authenticated one.
      * @return a ResponseEntity containing a PaginationResponseDTO of ProductionDTO objects if data is found,
-     *         or a 404 Not Found response if no data is available.
+     *         a 404 Not Found response if no data is available, or a 400 Bad Request if no supervisor is known.
      */
     @GetMapping("/by_supervisor")
     public ResponseEntity<PaginationResponseDTO<ProductionDTO>> findProductionsBySupervisor(
             @RequestParam(required = false, defaultValue = "0") int page,
             @RequestParam(required = false, defaultValue = "10") int size,
-            @RequestParam Long supervisorId
+            @RequestParam(required = false) Long supervisorId
     ) {
+        supervisorId = supervisorContext.scope(supervisorId != null ? supervisorId : supervisorContext.getSupervisorId());
+        if (supervisorId == null) {
+            return ResponseEntity.badRequest().build();
+        }
         Pageable pageable = PageRequest.of(page, size);
         PaginationResponseDTO<ProductionDTO> response = productionService.findProductionByPlantationPlanterSupervisor(pageable, supervisorId);
 
@@ -90,6 +138,7 @@ public class ProductionController {
      */
     @GetMapping("/all")
     public ResponseEntity<List<ProductionDTO>> findAll(@RequestParam(required = false) Long supervisorId) {
+        supervisorId = supervisorContext.scope(supervisorId);
         List<ProductionDTO> productions = supervisorId != null?
                 productionService.findAll(supervisorId) :
                 productionService.findAll();
@@ -104,9 +153,13 @@ public class ProductionController {
      *
      * @param id the ID of the production record to retrieve
      * @return a ResponseEntity containing the ProductionDTO if found, or a 404 Not Found response if the record does not exist
+     *         or, for a supervisor, is not one of its productions
      */
     @GetMapping("/{id}")
     public ResponseEntity<ProductionDTO> findById(@PathVariable long id) {
+        if (!canAccess(id)) {
+            return ResponseEntity.notFound().build();
+        }
         ProductionDTO productionDTO = productionService.findOne(id);
         if (productionDTO == null) {
             return ResponseEntity.notFound().build();
@@ -120,8 +173,9 @@ public class ProductionController {
      * @param search the search query to filter productions
      * @param page the page number to retrieve, default value is 0
      * @param size the number of records per page, default value is 10
-     * @return a ResponseEntity containing a PaginationResponseDTO of ProductionDTO objects
-     *         if data is found, or a 404 Not Found response if no data is available
+     * @return a ResponseEntity containing a PaginationResponseDTO of ProductionDTO objects, among those of
+     *         the authenticated supervisor for a supervisor, if data is found, or a 404 Not Found response
+     *         if no data is available
      */
     @GetMapping("/search")
     public ResponseEntity<PaginationResponseDTO<ProductionDTO>> searchProductions(
@@ -130,7 +184,10 @@ public class ProductionController {
             @RequestParam(required = false, defaultValue = "10") int size) {
         Pageable pageable = PageRequest.of(page, size);
 
-        PaginationResponseDTO<ProductionDTO> responseDTO = productionService.findAllPagedByParams(pageable, search);
+        Long supervisorId = supervisorContext.scope(null);
+        PaginationResponseDTO<ProductionDTO> responseDTO = supervisorId != null ?
+                productionService.findAllPagedByParams(pageable, search, supervisorId) :
+                productionService.findAllPagedByParams(pageable, search);
         if (responseDTO.getData() == null) {
             return ResponseEntity.notFound().build();
         }
@@ -139,14 +196,23 @@ public class ProductionController {
 
     /**
      * Saves a new production record based on the provided ProductionDTO object.
+     * When the write-ahead ingestion is enabled, the production is queued and acknowledged
+     * with an ACCEPTED status and its idempotency key; it is recorded synchronously when
+     * the log is full.
      *
      * @param productionDTO the ProductionDTO object containing the details of the production to be saved
      * @return a ResponseEntity containing the saved ProductionDTO with a CREATED status if successful,
-     *         or a NOT FOUND status if the operation fails
+     *         the queued ProductionDTO with an ACCEPTED status, or a NOT FOUND status if the operation fails
      */
     @PostMapping
     @XSSProtected
     public ResponseEntity<ProductionDTO> save(@RequestBody ProductionDTO productionDTO) {
+        if (!canUsePlantation(productionDTO.getPlantationId())) {
+            return ResponseEntity.notFound().build();
+        }
+        if (productionIngestionService.isEnabled() && productionIngestionService.offer(productionDTO)) {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(productionDTO);
+        }
         ProductionDTO production = productionService.save(productionDTO);
         if (production == null) {
             return ResponseEntity.notFound().build();
@@ -154,6 +220,38 @@ public class ProductionController {
         return ResponseEntity.status(HttpStatus.CREATED).body(production);
     }
 
+    /**
+     * Records a batch of productions collected offline, each carrying a client-generated
+     * idempotency key. Replaying a batch is safe: already recorded keys are reported as
+     * duplicates and not written again.
+     *
+     * @param productionDTOs the productions to record
+     * @return a ResponseEntity containing one result per production, in the order of the request
+     */
+    @PostMapping("/batch")
+    @XSSProtected
+    public ResponseEntity<List<ProductionSyncResultDTO>> saveBatch(@RequestBody List<ProductionDTO> productionDTOs) {
+        // Un lot visant une plantation d'un autre superviseur est refusé en entier
+        if (productionDTOs != null && !productionDTOs.stream()
+                .filter(Objects::nonNull)
+                .map(ProductionDTO::getPlantationId)
+                .distinct()
+                .allMatch(this::canUsePlantation)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(productionSyncService.sync(productionDTOs));
+    }
+
+    /**
+     * Reports the backlog of the write-ahead ingestion log.
+     *
+     * @return a ResponseEntity containing the state of the ingestion log
+     */
+    @GetMapping("/ingestion")
+    public ResponseEntity<IngestionStatusDTO> ingestionStatus() {
+        return ResponseEntity.ok(productionIngestionService.status());
+    }
+
     /**
      * Updates an existing production entity with the provided details```.
      java *
@@ -162,6 +260,10 @@ public class ProductionController {
     @PutMapping
     @XSSProtected
     public ResponseEntity<ProductionDTO> update(@RequestBody ProductionDTO productionDTO) {
+        if ((productionDTO.getId() != null && !canAccess(productionDTO.getId()))
+                || !canUsePlantation(productionDTO.getPlantationId())) {
+            return ResponseEntity.notFound().build();
+        }
         ProductionDTO production = productionService.update(productionDTO);
         if (production == null) {
             return ResponseEntity.notFound().build();
@@ -180,6 +282,10 @@ public class ProductionController {
     @PatchMapping
     @XSSProtected
     public ResponseEntity<ProductionDTO> patch(@RequestBody ProductionDTO productionDTO) {
+        if ((productionDTO.getId() != null && !canAccess(productionDTO.getId()))
+                || !canUsePlantation(productionDTO.getPlantationId())) {
+            return ResponseEntity.notFound().build();
+        }
         ProductionDTO production = productionService.partialUpdate(productionDTO);
         if (production == null) {
             return ResponseEntity.notFound().build();
@@ -193,15 +299,31 @@ public class ProductionController {
      * @param id the ID of the production record to delete
      * @return a ResponseEntity indicating the outcome of the operation:
      *         - 200 OK if the production record was successfully deleted
-     *         - 404 Not Found if the production record could not be found
+     *         - 404 Not Found if the production record could not be found, or is archived
      */
     @DeleteMapping("/{id}")
     public ResponseEntity<ProductionDTO> delete(@PathVariable long id) {
-        ProductionDTO productionDTO = productionService.findOne(id);
-        if (productionDTO == null) {
+        if (!canAccess(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        // Une production archivée est lue mais jamais supprimée : seule la table chaude compte
+        if (!Boolean.TRUE.equals(productionService.existsById(id))) {
             return ResponseEntity.notFound().build();
         }
         productionService.delete(id);
         return ResponseEntity.ok().build();
     }
+
+    private boolean canAccess(Long id) {
+        return supervisorContext.canAccess(supervisorId -> productionService.isOwnedBy(id, supervisorId));
+    }
+
+    /**
+     * @param plantationId the plantation a production is recorded on, may be null
+     * @return true if no plantation is given or the caller may record productions on it
+     */
+    private boolean canUsePlantation(Long plantationId) {
+        return plantationId == null
+                || supervisorContext.canAccess(supervisorId -> plantationService.isOwnedBy(plantationId, supervisorId));
+    }
 }
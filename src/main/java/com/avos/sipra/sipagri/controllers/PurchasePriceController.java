@@ -0,0 +1,119 @@
+package com.avos.sipra.sipagri.controllers;
+
+import com.avos.sipra.sipagri.annotations.XSSProtected;
+import com.avos.sipra.sipagri.enums.CropType;
+import com.avos.sipra.sipagri.services.cores.PurchasePriceService;
+import com.avos.sipra.sipagri.services.dtos.PaginationResponseDTO;
+import com.avos.sipra.sipagri.services.dtos.PurchasePriceDTO;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Date;
+import java.util.List;
+
+@XSSProtected
+@RestController
+@RequestMapping("/api/v1/purchase-prices")
+public class PurchasePriceController {
+    private final PurchasePriceService purchasePriceService;
+
+    public PurchasePriceController(PurchasePriceService purchasePriceService) {
+        this.purchasePriceService = purchasePriceService;
+    }
+
+    @GetMapping
+    public ResponseEntity<PaginationResponseDTO<PurchasePriceDTO>> findPurchasePrices(
+            @RequestParam(required = false, defaultValue = "0") int page,
+            @RequestParam(required = false, defaultValue = "10") int size
+    ) {
+        Pageable pageable = PageRequest.of(page, size);
+        PaginationResponseDTO<PurchasePriceDTO> response = purchasePriceService.findAllPaged(pageable);
+
+        if (response.getData() == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/all")
+    public ResponseEntity<List<PurchasePriceDTO>> findAll() {
+        List<PurchasePriceDTO> purchasePrices = purchasePriceService.findAll();
+        if (purchasePrices == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(purchasePrices);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<PurchasePriceDTO> findById(@PathVariable long id) {
+        PurchasePriceDTO purchasePriceDTO = purchasePriceService.findOne(id);
+        if (purchasePriceDTO == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(purchasePriceDTO);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<PaginationResponseDTO<PurchasePriceDTO>> searchPurchasePrices(
+            @RequestParam CropType crop,
+            @RequestParam(required = false, defaultValue = "0") int page,
+            @RequestParam(required = false, defaultValue = "10") int size) {
+        Pageable pageable = PageRequest.of(page, size);
+
+        PaginationResponseDTO<PurchasePriceDTO> responseDTO = purchasePriceService.findAllPagedByParams(pageable, crop.name());
+        if (responseDTO.getData() == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(responseDTO);
+    }
+
+    @GetMapping("/effective")
+    public ResponseEntity<Double> findEffectivePrice(
+            @RequestParam CropType crop,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date date) {
+        return ResponseEntity.ok(purchasePriceService.findPricePerKg(crop, date));
+    }
+
+    @PostMapping
+    @XSSProtected
+    public ResponseEntity<PurchasePriceDTO> save(@RequestBody PurchasePriceDTO purchasePriceDTO) {
+        PurchasePriceDTO purchasePrice = purchasePriceService.save(purchasePriceDTO);
+        if (purchasePrice == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.status(HttpStatus.CREATED).body(purchasePrice);
+    }
+
+    @PutMapping
+    @XSSProtected
+    public ResponseEntity<PurchasePriceDTO> update(@RequestBody PurchasePriceDTO purchasePriceDTO) {
+        PurchasePriceDTO purchasePrice = purchasePriceService.update(purchasePriceDTO);
+        if (purchasePrice == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(purchasePrice);
+    }
+
+    @PatchMapping
+    @XSSProtected
+    public ResponseEntity<PurchasePriceDTO> patch(@RequestBody PurchasePriceDTO purchasePriceDTO) {
+        PurchasePriceDTO purchasePrice = purchasePriceService.partialUpdate(purchasePriceDTO);
+        if (purchasePrice == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(purchasePrice);
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<PurchasePriceDTO> delete(@PathVariable long id) {
+        if (Boolean.FALSE.equals(purchasePriceService.existsById(id))) {
+            return ResponseEntity.notFound().build();
+        }
+        purchasePriceService.delete(id);
+        return ResponseEntity.ok().build();
+    }
+}
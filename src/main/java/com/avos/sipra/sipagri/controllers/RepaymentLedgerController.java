@@ -0,0 +1,46 @@
+package com.avos.sipra.sipagri.controllers;
+
+import com.avos.sipra.sipagri.annotations.XSSProtected;
+import com.avos.sipra.sipagri.security.SupervisorContext;
+import com.avos.sipra.sipagri.services.cores.PlantationService;
+import com.avos.sipra.sipagri.services.cores.RepaymentLedgerService;
+import com.avos.sipra.sipagri.services.dtos.RepaymentLedgerDTO;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@XSSProtected
+@RestController
+@RequestMapping("/api/v1/repayment-ledgers")
+public class RepaymentLedgerController {
+    private final RepaymentLedgerService repaymentLedgerService;
+    private final PlantationService plantationService;
+    private final SupervisorContext supervisorContext;
+
+    public RepaymentLedgerController(RepaymentLedgerService repaymentLedgerService,
+                                     PlantationService plantationService,
+                                     SupervisorContext supervisorContext) {
+        this.repaymentLedgerService = repaymentLedgerService;
+        this.plantationService = plantationService;
+        this.supervisorContext = supervisorContext;
+    }
+
+    @GetMapping("/{plantationId}")
+    public ResponseEntity<RepaymentLedgerDTO> findByPlantation(@PathVariable Long plantationId) {
+        if (!supervisorContext.canAccess(supervisorId -> plantationService.isOwnedBy(plantationId, supervisorId))) {
+            return ResponseEntity.notFound().build();
+        }
+        RepaymentLedgerDTO repaymentLedgerDTO = repaymentLedgerService.findByPlantationId(plantationId);
+        if (repaymentLedgerDTO == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(repaymentLedgerDTO);
+    }
+
+    @PostMapping("/rebuild")
+    public ResponseEntity<Map<String, Integer>> rebuild() {
+        int rebuilt = repaymentLedgerService.rebuild();
+        return ResponseEntity.accepted().body(Map.of("rebuilt", rebuilt));
+    }
+}
@@ -0,0 +1,45 @@
+package com.avos.sipra.sipagri.controllers;
+
+import com.avos.sipra.sipagri.annotations.XSSProtected;
+import com.avos.sipra.sipagri.services.cores.SeasonArchiveService;
+import com.avos.sipra.sipagri.services.dtos.SeasonArchiveReportDTO;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Controller closing seasons, which moves their productions to the archive.
+ * Closed seasons are also archived periodically (see {@code app.archive.cron}).
+ */
+@XSSProtected
+@RestController
+@RequestMapping("/api/v1/seasons")
+public class SeasonController {
+    private final SeasonArchiveService seasonArchiveService;
+
+    public SeasonController(SeasonArchiveService seasonArchiveService) {
+        this.seasonArchiveService = seasonArchiveService;
+    }
+
+    /**
+     * Archives the productions of a closed season.
+     *
+     * @param season the season to close
+     * @return the number of archived productions and written summaries
+     */
+    @PostMapping("/{season}/close")
+    public ResponseEntity<SeasonArchiveReportDTO> close(@PathVariable int season) {
+        return ResponseEntity.ok(seasonArchiveService.closeSeason(season));
+    }
+
+    /**
+     * Archives every closed season still present in the hot table.
+     *
+     * @return one report per archived season
+     */
+    @PostMapping("/close")
+    public ResponseEntity<List<SeasonArchiveReportDTO>> closeEnded() {
+        return ResponseEntity.ok(seasonArchiveService.closeEndedSeasons());
+    }
+}
@@ -2,6 +2,8 @@ package com.avos.sipra.sipagri.controllers;
 
 import com.avos.sipra.sipagri.annotations.XSSProtected;
 import com.avos.sipra.sipagri.enums.SupervisorProfile;
+import com.avos.sipra.sipagri.security.SupervisorContext;
+import com.avos.sipra.sipagri.security.TokenRevocationService;
 import com.avos.sipra.sipagri.services.cores.SupervisorService;
 import com.avos.sipra.sipagri.services.dtos.PaginationResponseDTO;
 import com.avos.sipra.sipagri.services.dtos.SupervisorDTO;
@@ -18,6 +20,7 @@ import java.util.List;
  * It handles operations such as retrieving, searching, adding, updating, and deleting supervisor records.
  * The controller interacts with the SupervisorService to process and manage supervisor data.
  */
+@XSSProtected
 @RestController
 @RequestMapping("/api/v1/supervisors")
 public class SupervisorController {
@@ -29,13 +32,28 @@ public class SupervisorController {
      */
     private final SupervisorService supervisorService;
 
+    /**
+     * The supervisor authenticated for the request.
+     */
+    private final SupervisorContext supervisorContext;
+
+    /**
+     * Service revoking the tokens of a supervisor on every node.
+     */
+    private final TokenRevocationService tokenRevocationService;
+
     /**
      * Constructs a new instance of SupervisorController with the specified SupervisorService.
      *
      * @param supervisorService the service layer used for supervisor operations
+     * @param supervisorContext the supervisor authenticated for the request
+     * @param tokenRevocationService the service revoking the tokens of a supervisor
      */
-    public SupervisorController(SupervisorService supervisorService) {
+    public SupervisorController(SupervisorService supervisorService, SupervisorContext supervisorContext,
+                                TokenRevocationService tokenRevocationService) {
         this.supervisorService = supervisorService;
+        this.supervisorContext = supervisorContext;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     /**
@@ -76,6 +94,22 @@ public class SupervisorController {
         return ResponseEntity.ok(supervisors);
     }
 
+    /**
+     * Retrieves the authenticated supervisor, without reloading it when it was loaded to
+     * authenticate the request.
+     *
+     * @return a {@code ResponseEntity} containing the authenticated {@code SupervisorDTO},
+     *         or a not found (404) status if the request is not authenticated as a supervisor
+     */
+    @GetMapping("/me")
+    public ResponseEntity<SupervisorDTO> findCurrent() {
+        SupervisorDTO supervisorDTO = supervisorContext.getSupervisor();
+        if (supervisorDTO == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(supervisorDTO);
+    }
+
     /**
      * Retrieves a supervisor by their unique identifier.
      *
@@ -185,4 +219,26 @@ public class SupervisorController {
         supervisorService.delete(id);
         return ResponseEntity.ok().build();
     }
+
+    /**
+     * Revokes all the tokens issued to a supervisor so far, on every node, for instance when
+     * a device is lost. The supervisor has to log in again. Reserved to administrators.
+     *
+     * @param id the unique identifier of the supervisor
+     * @return a {@code ResponseEntity} with HTTP 204 status once the tokens are revoked,
+     *         HTTP 403 status if the caller is not an administrator,
+     *         or HTTP 404 status if the supervisor is not found
+     */
+    @PostMapping("/{id}/revoke-tokens")
+    public ResponseEntity<Void> revokeTokens(@PathVariable long id) {
+        SupervisorProfile profile = supervisorContext.getProfile();
+        if (profile != SupervisorProfile.ADMINISTRATOR && profile != SupervisorProfile.SUPER_ADMIN) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        if (Boolean.FALSE.equals(supervisorService.existsById(id))) {
+            return ResponseEntity.notFound().build();
+        }
+        tokenRevocationService.revokeIssuedBefore(id);
+        return ResponseEntity.noContent().build();
+    }
 }
@@ -0,0 +1,39 @@
+package com.avos.sipra.sipagri.controllers;
+
+import com.avos.sipra.sipagri.annotations.XSSProtected;
+import com.avos.sipra.sipagri.security.SupervisorContext;
+import com.avos.sipra.sipagri.services.cores.SyncService;
+import com.avos.sipra.sipagri.services.dtos.SyncResponseDTO;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Controller serving the delta synchronization of the mobile application.
+ * Responses are compressed by the server (see {@code server.compression.*}).
+ */
+@XSSProtected
+@RestController
+@RequestMapping("/api/v1/sync")
+public class SyncController {
+    private final SyncService syncService;
+    private final SupervisorContext supervisorContext;
+
+    public SyncController(SyncService syncService, SupervisorContext supervisorContext) {
+        this.syncService = syncService;
+        this.supervisorContext = supervisorContext;
+    }
+
+    /**
+     * Retrieves the records changed and deleted since the last synchronization.
+     *
+     * @param since the token returned by the previous synchronization; omitted for a full download
+     * @param supervisorId the supervisor whose records are synchronized; omitted for all records,
+     *                     forced to the authenticated one for a supervisor
+     * @return the changes and the token to send on the next synchronization
+     */
+    @GetMapping
+    public ResponseEntity<SyncResponseDTO> sync(@RequestParam(required = false) String since,
+                                                @RequestParam(required = false) Long supervisorId) {
+        return ResponseEntity.ok(syncService.changesSince(since, supervisorContext.scope(supervisorId)));
+    }
+}
@@ -5,7 +5,11 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.SourceType;
+import org.hibernate.annotations.UpdateTimestamp;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -26,6 +30,7 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@DynamicUpdate
 @Table(name = "Kits")
 public class Kit {
 
@@ -86,4 +91,15 @@ public class Kit {
     @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true)
     @JoinColumn(name = "kit")
     private List<KitProduct> kitProducts;
+
+    /**
+     * The timestamp of the last modification.
+     * <p>
+     * Managed by Hibernate through {@code @UpdateTimestamp} and mapped to the "updated_at"
+     * column, it lets clients download only the records changed since their last synchronization.
+     * Read from the database clock, the one the synchronization watermark is taken from.
+     */
+    @UpdateTimestamp(source = SourceType.DB)
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
 }
\ No newline at end of file
@@ -5,6 +5,10 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.SourceType;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
 
 /**
  * Represents the Params entity in the system.
@@ -91,4 +95,15 @@ public class Params {
      */
     @Column(name = "encrypted")
     private Boolean encrypted;
+
+    /**
+     * The timestamp of the last modification.
+     * <p>
+     * Managed by Hibernate through {@code @UpdateTimestamp} and mapped to the "updated_at"
+     * column, it lets clients download only the records changed since their last synchronization.
+     * Read from the database clock, the one the synchronization watermark is taken from.
+     */
+    @UpdateTimestamp(source = SourceType.DB)
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
 }
\ No newline at end of file
@@ -7,7 +7,11 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.SourceType;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
@@ -40,6 +44,7 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@DynamicUpdate
 @Table(name = "plantations")
 public class Plantation {
     /**
@@ -129,9 +134,13 @@ public class Plantation {
      * This relationship helps in identifying the farmer responsible for managing
      * the plantation. A planter can manage multiple plantations, but each plantation
      * is linked to only one planter.
+     * <p>
+     * Deleting the planter deletes its plantations in the database through the
+     * {@code ON DELETE CASCADE} foreign key, without loading them.
      */
     @ManyToOne
     @JoinColumn(name = "planter_id")
+    @OnDelete(action = OnDeleteAction.CASCADE)
     private Planter planter;
 
     /**
@@ -167,14 +176,14 @@ public class Plantation {
      * This relationship is defined with the following attributes:
      * - {@code optional = false}: The relationship is mandatory, and a {@code Plantation}
      *   cannot exist without an associated {@code Kit}.
-     * - {@code cascade = CascadeType.ALL}: All persistence operations performed on
-     *   {@code Plantation} are cascaded to the related {@code Kit}.
+     * - No cascade: the kit is shared by many plantations and managed on its own, so a
+     *   plantation write only stores the {@code kit_id} reference and never merges the kit.
      * <p>
      * The {@code @JoinColumn} annotation specifies that the foreign key column in the
      * {@code Plantation} table, named {@code kit_id}, is used to establish this relationship
      * with the {@code Kit} entity.
      */
-    @ManyToOne(optional = false, cascade = CascadeType.ALL)
+    @ManyToOne(optional = false)
     @JoinColumn(name = "kit_id")
     private Kit kit;
 
@@ -199,9 +208,10 @@ public class Plantation {
      * the entity is modified. It is annotated with {@code @UpdateTimestamp},
      * ensuring that the value is managed by the persistence provider without
      * requiring manual updates in the code. The {@code updatedAt} field is mapped
-     * to the "updated_at" column in the database table.
+     * to the "updated_at" column in the database table. The timestamp is read from the
+     * database clock, the one the synchronization watermark is taken from.
      */
-    @UpdateTimestamp
+    @UpdateTimestamp(source = SourceType.DB)
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 }
\ No newline at end of file
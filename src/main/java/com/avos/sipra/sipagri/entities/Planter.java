@@ -8,7 +8,9 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.SourceType;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
@@ -29,6 +31,7 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@DynamicUpdate
 @Table(name = "Planters")
 public class Planter {
     /**
@@ -233,9 +236,10 @@ public class Planter {
      * <p>
      * The @UpdateTimestamp annotation ensures that the field is automatically
      * updated to the current timestamp whenever an update operation is performed
-     * on the entity.
+     * on the entity. The timestamp is read from the database clock, the one the
+     * synchronization watermark is taken from.
      */
-    @UpdateTimestamp
+    @UpdateTimestamp(source = SourceType.DB)
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 }
\ No newline at end of file
@@ -0,0 +1,43 @@
+package com.avos.sipra.sipagri.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Represents the per-year counter used to allocate planter registration numbers.
+ * <p>
+ * Mapped to the database table "planter_uid_counters". Each row holds the next
+ * registration number that has not yet been handed out for a given year. Application
+ * nodes lock the row only to reserve a whole block of numbers at once, then serve the
+ * numbers of that block from memory.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "planter_uid_counters")
+public class PlanterUidCounter {
+    /**
+     * The registration year this counter belongs to.
+     * <p>
+     * Serves as the primary key of the counter table: there is exactly one counter
+     * row per calendar year in which planters are registered.
+     */
+    @Id
+    @Column(name = "registration_year")
+    private Integer registrationYear;
+
+    /**
+     * The first registration number that has not been reserved yet for the year.
+     * <p>
+     * Reserving a block of {@code n} numbers returns the current value and advances
+     * it by {@code n}. Numbers of a block that are never used (for instance after a
+     * restart) are simply skipped, which leaves gaps but never duplicates.
+     */
+    @Column(name = "next_value", nullable = false)
+    private Long nextValue;
+}
@@ -5,7 +5,11 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.SourceType;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
@@ -25,6 +29,7 @@ import java.util.Date;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@DynamicUpdate
 @Table(name = "Productions")
 public class Production {
     /**
@@ -45,10 +50,12 @@ public class Production {
      * Indicates that multiple production records can be associated with a single plantation.
      * This is a many-to-one association where this entity holds the foreign key.
      * <p>
-     * The plantation information is joined via the plantation_id column in the database.
+     * The plantation information is joined via the plantation_id column in the database,
+     * whose foreign key deletes the productions of a deleted plantation.
      */
     @ManyToOne
     @JoinColumn(name = "plantation_id")
+    @OnDelete(action = OnDeleteAction.CASCADE)
     private Plantation plantation;
 
     /**
@@ -95,6 +102,25 @@ public class Production {
     @Column(name = "year")
     private Date year;
 
+    /**
+     * The key generated by the field client when the production was recorded.
+     * <p>
+     * Unique per supervisor when present, it lets a client replay a synchronization
+     * without recording the same production twice. Null for productions entered directly.
+     */
+    @Column(name = "idempotency_key", length = 64, updatable = false)
+    private String idempotencyKey;
+
+    /**
+     * The supervisor the idempotency key is scoped to: the one of the planter when the
+     * production was synchronized.
+     * <p>
+     * Kept apart from the plantation so that reassigning a planter does not change the
+     * scope of the keys already recorded.
+     */
+    @Column(name = "idempotency_supervisor_id", updatable = false)
+    private Long idempotencySupervisorId;
+
     /**
      * Represents the timestamp when the production entity was created.
      * <p>
@@ -117,9 +143,10 @@ public class Production {
      * <p>
      * It is mapped to the "updated_at" column in the database.
      * The field uses the {@code LocalDateTime} type to store date
-     * and time information.
+     * and time information. The timestamp is read from the database clock,
+     * the one the synchronization watermark is taken from.
      */
-    @UpdateTimestamp
+    @UpdateTimestamp(source = SourceType.DB)
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 }
\ No newline at end of file
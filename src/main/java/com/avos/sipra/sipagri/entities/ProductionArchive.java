@@ -0,0 +1,93 @@
+package com.avos.sipra.sipagri.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Date;
+
+/**
+ * Represents a production of a closed season, moved out of the hot "Productions" table.
+ * <p>
+ * Mapped to the database table "productions_archive", partitioned by harvest year on Oracle.
+ * Rows are copied as they were when the season was closed, keeping their original id, and
+ * are never updated afterwards; their totals are kept in {@link SeasonSummary}.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "productions_archive")
+public class ProductionArchive {
+    /**
+     * The identifier the production had in the hot table.
+     */
+    @Id
+    private Long id;
+
+    /**
+     * The identifier of the plantation of the production. Not a foreign key, so that the
+     * history outlives the plantation.
+     */
+    @Column(name = "plantation_id", nullable = false)
+    private Long plantationId;
+
+    /**
+     * The quantity produced, in kilograms.
+     */
+    @Column(name = "prod_in_kg", nullable = false)
+    private Double productionInKg;
+
+    /**
+     * The purchase price paid for the production.
+     */
+    @Column(name = "purchase_price")
+    private Double purchasePrice;
+
+    /**
+     * Whether the production had to be paid to the planter.
+     */
+    @Column(name = "must_be_paid")
+    private Boolean mustBePaid;
+
+    /**
+     * The harvest date, which determines the season and the partition of the row.
+     */
+    @Column(name = "year", nullable = false)
+    private Date year;
+
+    /**
+     * The client-generated idempotency key of the production, if any.
+     */
+    @Column(name = "idempotency_key", length = 64)
+    private String idempotencyKey;
+
+    /**
+     * The supervisor within whose scope the idempotency key was recorded, copied from the
+     * hot table.
+     */
+    @Column(name = "idempotency_supervisor_id")
+    private Long idempotencySupervisorId;
+
+    /**
+     * The creation timestamp of the production.
+     */
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    /**
+     * The last modification timestamp of the production.
+     */
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    /**
+     * The time the production was archived.
+     */
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
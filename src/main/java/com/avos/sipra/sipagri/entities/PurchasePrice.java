@@ -0,0 +1,84 @@
+package com.avos.sipra.sipagri.entities;
+
+import com.avos.sipra.sipagri.enums.CropType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Represents a purchase price of a crop over a period of time.
+ * <p>
+ * Mapped to the database table "purchase_prices". Each row gives the price per kilogram
+ * in force for a crop from {@code effectiveFrom} (inclusive) until {@code effectiveTo}
+ * (exclusive). A null {@code effectiveTo} means the price is still in force. Periods of
+ * the same crop never overlap, so a harvest date always resolves to at most one price.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "purchase_prices")
+public class PurchasePrice {
+    /**
+     * The unique identifier of the purchase price.
+     * <p>
+     * Generated using the "purchase_price_seq" sequence with an allocation size of 1.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "purchase_price_seq")
+    @SequenceGenerator(name = "purchase_price_seq", sequenceName = "purchase_price_seq", allocationSize = 1)
+    private Long id;
+
+    /**
+     * The crop this price applies to.
+     * <p>
+     * Stored as a string in the "crop" column.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "crop", nullable = false, length = 50)
+    private CropType crop;
+
+    /**
+     * The price paid per kilogram of crop during the period.
+     * <p>
+     * Mapped to the "price_per_kg" column; this field is mandatory.
+     */
+    @Column(name = "price_per_kg", nullable = false)
+    private Double pricePerKg;
+
+    /**
+     * The first day on which the price applies (inclusive).
+     */
+    @Column(name = "effective_from", nullable = false)
+    private LocalDate effectiveFrom;
+
+    /**
+     * The first day on which the price no longer applies (exclusive).
+     * <p>
+     * A null value means the period is open-ended.
+     */
+    @Column(name = "effective_to")
+    private LocalDate effectiveTo;
+
+    /**
+     * Timestamp of the creation of the price, set by Hibernate on insert.
+     */
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * Timestamp of the last update of the price, maintained by Hibernate.
+     */
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
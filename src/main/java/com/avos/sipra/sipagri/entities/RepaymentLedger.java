@@ -0,0 +1,56 @@
+package com.avos.sipra.sipagri.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Represents the running repayment balance of a plantation.
+ * <p>
+ * Mapped to the database table "repayment_ledgers". Each row holds the cost of the kit
+ * delivered to the plantation and the cumulative purchase value of its productions, so
+ * that the repayment status of a plantation is read from a single row instead of being
+ * recomputed from all of its productions. The purchase total is advanced atomically on
+ * each new production and recomputed from the productions on other writes.
+ * <p>
+ * Every write increments {@code version}, so that a production whose payment status was
+ * computed from an outdated balance is detected and recomputed.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "repayment_ledgers")
+public class RepaymentLedger {
+    /**
+     * The identifier of the plantation this balance belongs to.
+     * <p>
+     * Serves as the primary key: there is exactly one ledger row per plantation.
+     */
+    @Id
+    @Column(name = "plantation_id")
+    private Long plantationId;
+
+    /**
+     * The total cost of the kit delivered to the plantation, i.e. the amount the
+     * planter has to repay. Zero when the plantation has no kit.
+     */
+    @Column(name = "kit_debt", nullable = false)
+    private Double kitDebt;
+
+    /**
+     * The sum of the purchase prices of all productions of the plantation.
+     */
+    @Column(name = "cumulative_purchase", nullable = false)
+    private Double cumulativePurchase;
+
+    /**
+     * The optimistic lock version, incremented by every write of the balance.
+     */
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+}
@@ -0,0 +1,48 @@
+package com.avos.sipra.sipagri.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Represents a JWT revoked before its expiry, for instance on logout.
+ * <p>
+ * Mapped to the database table "revoked_tokens". The row is only needed until the token
+ * expires, after which the token is rejected anyway and the row is pruned.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "revoked_tokens")
+public class RevokedToken {
+    /**
+     * The unique identifier of the token, its {@code jti} claim.
+     */
+    @Id
+    @Column(name = "jti", length = 64)
+    private String jti;
+
+    /**
+     * The supervisor the token was issued to.
+     */
+    @Column(name = "supervisor_id")
+    private Long supervisorId;
+
+    /**
+     * The expiry of the token.
+     */
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    /**
+     * The time of the revocation.
+     */
+    @Column(name = "revoked_at", nullable = false)
+    private LocalDateTime revokedAt;
+}
@@ -0,0 +1,49 @@
+package com.avos.sipra.sipagri.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Represents the lock of a scheduled job shared by all the nodes.
+ * <p>
+ * Mapped to the database table "scheduler_locks". The job is held by the node
+ * {@code lockedBy} until {@code lockedUntil}; past that time any node may take it, so a
+ * lock left by a stopped node does not block the job forever.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "scheduler_locks")
+public class SchedulerLock {
+    /**
+     * The name of the job.
+     */
+    @Id
+    @Column(name = "name", length = 64)
+    private String name;
+
+    /**
+     * The time until which the job is held.
+     */
+    @Column(name = "locked_until", nullable = false)
+    private LocalDateTime lockedUntil;
+
+    /**
+     * The time the job was last taken.
+     */
+    @Column(name = "locked_at", nullable = false)
+    private LocalDateTime lockedAt;
+
+    /**
+     * The node that last took the job.
+     */
+    @Column(name = "locked_by", nullable = false)
+    private String lockedBy;
+}
@@ -0,0 +1,77 @@
+package com.avos.sipra.sipagri.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Represents the totals of the archived productions of a plantation for one season.
+ * <p>
+ * Mapped to the database table "production_season_summaries", with one row per season and
+ * plantation. Written when a season is closed, and advanced if late productions of that
+ * season are archived afterwards, so that historical figures and repayment balances are
+ * computed without reading {@link ProductionArchive}.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "production_season_summaries")
+public class SeasonSummary {
+    /**
+     * The unique identifier of the summary.
+     * <p>
+     * Generated using the "season_summary_seq" sequence with an allocation size of 1.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "season_summary_seq")
+    @SequenceGenerator(name = "season_summary_seq", sequenceName = "season_summary_seq", allocationSize = 1)
+    private Long id;
+
+    /**
+     * The season, i.e. the harvest year of the productions.
+     */
+    @Column(name = "season", nullable = false)
+    private Integer season;
+
+    /**
+     * The plantation the productions belong to; the summary is deleted with it.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "plantation_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Plantation plantation;
+
+    /**
+     * The number of archived productions.
+     */
+    @Column(name = "production_count", nullable = false)
+    private Long productionCount;
+
+    /**
+     * The total quantity produced, in kilograms.
+     */
+    @Column(name = "total_kg", nullable = false)
+    private Double totalKg;
+
+    /**
+     * The total purchase value of the productions.
+     */
+    @Column(name = "total_purchase", nullable = false)
+    private Double totalPurchase;
+
+    /**
+     * The time the summary was last advanced.
+     */
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
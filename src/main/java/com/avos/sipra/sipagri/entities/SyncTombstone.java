@@ -0,0 +1,62 @@
+package com.avos.sipra.sipagri.entities;
+
+import com.avos.sipra.sipagri.enums.SyncEntityType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Represents the deletion of a synchronized record.
+ * <p>
+ * Mapped to the database table "sync_tombstones". Deleted rows cannot be found through
+ * their {@code updated_at} column anymore, so each deletion leaves a tombstone that the
+ * delta synchronization sends to the clients, which then drop the record locally.
+ * Records deleted through a cascade are dropped by the clients with their parent.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "sync_tombstones")
+public class SyncTombstone {
+    /**
+     * The unique identifier of the tombstone.
+     * <p>
+     * Generated using the "sync_tombstone_seq" sequence with an allocation size of 1.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sync_tombstone_seq")
+    @SequenceGenerator(name = "sync_tombstone_seq", sequenceName = "sync_tombstone_seq", allocationSize = 1)
+    private Long id;
+
+    /**
+     * The type of the deleted record.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", nullable = false, length = 32)
+    private SyncEntityType entityType;
+
+    /**
+     * The identifier of the deleted record.
+     */
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    /**
+     * The supervisor the deleted record belonged to, null for data shared by all
+     * supervisors such as kits and parameters.
+     */
+    @Column(name = "supervisor_id")
+    private Long supervisorId;
+
+    /**
+     * The time of the deletion.
+     */
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+}
@@ -0,0 +1,44 @@
+package com.avos.sipra.sipagri.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Represents the time before which the tokens issued to a supervisor are refused.
+ * <p>
+ * Mapped to the database table "token_not_before". The threshold is set when the account
+ * of the supervisor changes or when an administrator revokes its tokens, and only ever
+ * moves forward. The row is only needed while tokens issued before it can still be valid,
+ * after which it is pruned.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "token_not_before")
+public class TokenNotBefore {
+    /**
+     * The identifier of the supervisor the threshold applies to.
+     */
+    @Id
+    @Column(name = "supervisor_id")
+    private Long supervisorId;
+
+    /**
+     * The tokens issued before this time are refused.
+     */
+    @Column(name = "not_before", nullable = false)
+    private LocalDateTime notBefore;
+
+    /**
+     * The time of the last change of the threshold, from which the other nodes read it.
+     */
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,14 @@
+package com.avos.sipra.sipagri.enums;
+
+/**
+ * Enumeration of the crops bought from the planters.
+ * <p>
+ * Used to key the purchase price history: each crop has its own sequence of
+ * effective-dated prices.
+ */
+public enum CropType {
+    /**
+     * Corn, the crop currently collected from SIPRA planters.
+     */
+    MAIS
+}
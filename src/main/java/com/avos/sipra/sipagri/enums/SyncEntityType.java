@@ -0,0 +1,13 @@
+package com.avos.sipra.sipagri.enums;
+
+/**
+ * Enumeration of the record types exchanged with the mobile application during a
+ * delta synchronization.
+ */
+public enum SyncEntityType {
+    PLANTER,
+    PLANTATION,
+    PRODUCTION,
+    KIT,
+    PARAMS
+}
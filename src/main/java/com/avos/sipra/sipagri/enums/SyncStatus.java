@@ -0,0 +1,19 @@
+package com.avos.sipra.sipagri.enums;
+
+/**
+ * Enumeration representing the outcome of a record sent in a batch synchronization.
+ */
+public enum SyncStatus {
+    /**
+     * The record was new and has been persisted.
+     */
+    CREATED,
+    /**
+     * A record with the same idempotency key was already persisted; nothing was written.
+     */
+    DUPLICATE,
+    /**
+     * The record is invalid and has not been persisted. The result carries the reason.
+     */
+    REJECTED
+}
@@ -0,0 +1,10 @@
+package com.avos.sipra.sipagri.events;
+
+/**
+ * Published when the account of a supervisor is modified or deleted, so that the tokens
+ * issued before the change stop being accepted.
+ *
+ * @param supervisorId the identifier of the supervisor
+ */
+public record SupervisorChangedEvent(Long supervisorId) {
+}
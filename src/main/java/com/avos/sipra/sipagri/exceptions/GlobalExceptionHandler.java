@@ -1,6 +1,7 @@
 package com.avos.sipra.sipagri.exceptions;
 
 import com.avos.sipra.sipagri.services.dtos.ApiResponse;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -10,6 +11,7 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * GlobalExceptionHandler is a centralized exception handling class that intercepts exceptions
@@ -93,6 +95,26 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * Handles the rejection of a task by a saturated bounded executor, such as the password
+     * hashing one, and returns HTTP status 503 (SERVICE_UNAVAILABLE) with a Retry-After header.
+     *
+     * @param ex the {@link RejectedExecutionException} instance that was thrown
+     * @return a {@link ResponseEntity} containing an {@link ApiResponse} with the error details
+     */
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<ApiResponse<Object>> handleRejectedExecutionException(
+            RejectedExecutionException ex) {
+        ApiResponse<Object> response = new ApiResponse<>(
+                false,
+                null,
+                "Serveur momentanément surchargé, veuillez réessayer"
+        );
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(response);
+    }
+
     /**
      * Handles a generic exception in the application and returns a standardized response
      * with HTTP status 500 (INTERNAL_SERVER_ERROR).
@@ -4,6 +4,9 @@ import com.avos.sipra.sipagri.entities.KitProduct;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -27,4 +30,20 @@ public interface KitProductRepository extends JpaRepository<KitProduct, Long> {
      * @return a paginated list of KitProduct entities that match the specified product name or quantity
      */
     Page<KitProduct> findKitProductByProduct_NameOrQuantity(Pageable pageable, String productName, String quantity);
+
+    /**
+     * Recomputes, in a single statement, the total cost of every kit line using a product
+     * after a change of its price.
+     *
+     * @param productId the identifier of the product
+     * @param price the new unit price of the product
+     * @return the number of updated kit lines
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("""
+            UPDATE KitProduct kp
+            SET kp.totalCost = kp.quantity * :price
+            WHERE kp.product.id = :productId
+            """)
+    int repriceByProduct(@Param("productId") Long productId, @Param("price") double price);
 }
@@ -4,8 +4,14 @@ import com.avos.sipra.sipagri.entities.Kit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 /**
  * Repository interface for performing CRUD operations and custom queries
  * on {@link Kit} entities.
@@ -25,4 +31,36 @@ public interface KitRepository extends JpaRepository<Kit, Long> {
      * @return a paginated list of kits that match the search criteria
      */
     Page<Kit> findKitByNameContainingIgnoreCase(Pageable pageable, String name);
+
+    /**
+     * Recomputes, in a single {@code MERGE}, the total cost of every kit containing a product
+     * from the total cost of its lines.
+     *
+     * @param productId the identifier of the product
+     * @return the number of updated kits
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            MERGE INTO Kits k
+            USING (SELECT kp.kit AS kit_id, SUM(kp.total_cost) AS total_cost
+                   FROM Kit_Products kp
+                   WHERE kp.kit IN (SELECT kp2.kit FROM Kit_Products kp2 WHERE kp2.product_id = :productId)
+                   GROUP BY kp.kit) s
+            ON (k.id = s.kit_id)
+            WHEN MATCHED THEN UPDATE SET k.total_cost = s.total_cost, k.updated_at = CURRENT_TIMESTAMP
+            """, nativeQuery = true)
+    int recomputeTotalCostsByProduct(@Param("productId") Long productId);
+
+    /**
+     * Retrieves the kits modified after a point in time, with their lines.
+     *
+     * @param since the exclusive lower bound of the modification time
+     * @return the kits modified after {@code since}
+     */
+    @Query("""
+            SELECT DISTINCT k FROM Kit k
+            LEFT JOIN FETCH k.kitProducts
+            WHERE k.updatedAt > :since
+            """)
+    List<Kit> findChangedSince(@Param("since") LocalDateTime since);
 }
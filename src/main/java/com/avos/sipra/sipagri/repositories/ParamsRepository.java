@@ -4,8 +4,11 @@ import com.avos.sipra.sipagri.entities.Params;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -46,4 +49,18 @@ public interface ParamsRepository extends JpaRepository<Params, Long> {
      * @return a paginated list of Params entities matching the specified code or name criteria
      */
     Page<Params> findParamsByCodeParamsOrName(Pageable pageable, String code, String name);
+
+    /**
+     * Retrieves the unencrypted parameters modified after a point in time.
+     * Encrypted parameters are server secrets and are never synchronized.
+     *
+     * @param since the exclusive lower bound of the modification time
+     * @return the parameters modified after {@code since}
+     */
+    @Query("""
+            SELECT p FROM Params p
+            WHERE p.updatedAt > :since
+            AND (p.encrypted IS NULL OR p.encrypted = false)
+            """)
+    List<Params> findChangedSince(@Param("since") LocalDateTime since);
 }
@@ -3,6 +3,11 @@ package com.avos.sipra.sipagri.repositories;
 import com.avos.sipra.sipagri.entities.PasswordResetToken;
 import com.avos.sipra.sipagri.entities.Supervisor;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Date;
 
 /**
  * Repository interface for managing {@link PasswordResetToken} entities.
@@ -28,4 +33,19 @@ public interface PasswordResetTokenRepository extends JpaRepository<PasswordRese
      * @return the password reset token associated with the specified supervisor, or null if no token is found
      */
     PasswordResetToken findBySupervisor(Supervisor user_id);
-}
\ No newline at end of file
+
+    /**
+     * Deletes a batch of expired tokens, through the index on the expiry date.
+     *
+     * @param now the current time
+     * @param batchSize the maximum number of tokens to delete
+     * @return the number of deleted tokens, lower than the batch size once none is left
+     */
+    @Modifying
+    @Query(value = """
+            DELETE FROM password_reset_token
+            WHERE expiry_date < :now
+              AND ROWNUM <= :batchSize
+            """, nativeQuery = true)
+    int deleteExpiredBatch(@Param("now") Date now, @Param("batchSize") int batchSize);
+}
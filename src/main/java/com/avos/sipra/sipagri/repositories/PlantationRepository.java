@@ -5,10 +5,13 @@ import com.avos.sipra.sipagri.enums.PlantationStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -34,6 +37,95 @@ public interface PlantationRepository extends JpaRepository<Plantation, Long> {
      */
     Optional<Plantation> findByProductions_id(Long productionsId);
 
+    /**
+     * Sets the status of a plantation in a single {@code UPDATE}, without loading it, and
+     * stamps its modification time.
+     * Rows already in the requested status are left untouched.
+     *
+     * @param id the identifier of the plantation
+     * @param status the new status
+     * @return the number of updated rows
+     */
+    @Modifying
+    @Query("""
+            UPDATE Plantation p
+            SET p.status = :status, p.updatedAt = LOCAL DATETIME
+            WHERE p.id = :id
+            AND (p.status IS NULL OR p.status <> :status)
+            """)
+    int updateStatus(@Param("id") Long id, @Param("status") PlantationStatus status);
+
+    /**
+     * Sets the status of several plantations in a single {@code UPDATE}, without loading them,
+     * and stamps their modification time.
+     * Rows already in the requested status are left untouched.
+     *
+     * @param ids the identifiers of the plantations
+     * @param status the new status
+     * @return the number of updated rows
+     */
+    @Modifying
+    @Query("""
+            UPDATE Plantation p
+            SET p.status = :status, p.updatedAt = LOCAL DATETIME
+            WHERE p.id IN :ids
+            AND (p.status IS NULL OR p.status <> :status)
+            """)
+    int updateStatusByIds(@Param("ids") Collection<Long> ids, @Param("status") PlantationStatus status);
+
+    /**
+     * Retrieves which of the given plantations exist, with the supervisor of their planter.
+     *
+     * @param ids the identifiers to check
+     * @return rows of {@code [plantation id (Long), supervisor id (Long, may be null)]}, one per
+     *         existing plantation
+     */
+    @Query("""
+            SELECT p.id, s.id
+            FROM Plantation p
+            LEFT JOIN p.planter pl
+            LEFT JOIN pl.supervisor s
+            WHERE p.id IN :ids
+            """)
+    List<Object[]> findSupervisorIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Checks whether a plantation belongs to a planter managed by a supervisor.
+     *
+     * @param id the identifier of the plantation
+     * @param supervisorId the identifier of the supervisor
+     * @return true if the plantation exists and is managed by the supervisor
+     */
+    boolean existsByIdAndPlanter_Supervisor_Id(Long id, Long supervisorId);
+
+    /**
+     * Retrieves, among the given plantations, those managed by a supervisor.
+     *
+     * @param ids the identifiers of the plantations, at most 1000
+     * @param supervisorId the identifier of the supervisor
+     * @return the identifiers of the given plantations managed by the supervisor
+     */
+    @Query("SELECT p.id FROM Plantation p WHERE p.id IN :ids AND p.planter.supervisor.id = :supervisorId")
+    List<Long> findIdsOwnedBy(@Param("ids") Collection<Long> ids, @Param("supervisorId") Long supervisorId);
+
+    /**
+     * Counts the plantations with a given status whose kit contains a product, and sums
+     * the total cost of their kits.
+     *
+     * @param status the plantation status
+     * @param productId the identifier of the product
+     * @return a single row of {@code [plantation count (Long), kit value (Double)]}
+     */
+    @Query("""
+            SELECT COUNT(p), COALESCE(SUM(k.totalCost), 0.0)
+            FROM Plantation p
+            JOIN p.kit k
+            WHERE p.status = :status
+            AND k.id IN (SELECT kit.id FROM Kit kit JOIN kit.kitProducts kp WHERE kp.product.id = :productId)
+            """)
+    List<Object[]> sumKitValueByStatusAndProduct(@Param("status") PlantationStatus status,
+                                                 @Param("productId") Long productId);
+
     /**
      * Retrieves a paginated list of plantations where the name contains the given string,
      * ignoring case sensitivity.
@@ -194,4 +286,32 @@ public interface PlantationRepository extends JpaRepository<Plantation, Long> {
             """)
     Double sumKitsValueForActivePlantationsBySupervisor(@Param("status") PlantationStatus status,
                                             @Param("supervisorId") Long supervisorId);
-}
\ No newline at end of file
+
+    /**
+     * Retrieves the plantations modified after a point in time, with their planter and kit.
+     *
+     * @param since the exclusive lower bound of the modification time
+     * @param supervisorId the supervisor whose plantations are retrieved, or null for all plantations
+     * @return the plantations modified after {@code since}
+     */
+    @Query("""
+            SELECT p FROM Plantation p
+            LEFT JOIN FETCH p.planter pt
+            LEFT JOIN FETCH p.kit
+            WHERE p.updatedAt > :since
+            AND (:supervisorId IS NULL OR pt.supervisor.id = :supervisorId)
+            """)
+    List<Plantation> findChangedSince(@Param("since") LocalDateTime since, @Param("supervisorId") Long supervisorId);
+
+    /**
+     * Deletes several plantations in a single {@code DELETE}, without loading them. Their
+     * productions, repayment balances and season summaries are removed by the
+     * {@code ON DELETE CASCADE} foreign keys.
+     *
+     * @param ids the identifiers of the plantations
+     * @return the number of deleted plantations
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Plantation p WHERE p.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+}
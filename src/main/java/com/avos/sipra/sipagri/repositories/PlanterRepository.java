@@ -4,11 +4,13 @@ import com.avos.sipra.sipagri.entities.Planter;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -58,6 +60,54 @@ public interface PlanterRepository extends JpaRepository<Planter, Long> {
      */
     Page<Planter> findPlanterByVillageContainingIgnoreCase(Pageable pageable, String village);
 
+    /**
+     * Retrieves a paginated list of the planters of a supervisor whose first name or last name
+     * contains a specified string, ignoring case sensitivity.
+     *
+     * @param pageable the pagination information
+     * @param search the substring to search for in the first name or last name of planters
+     * @param supervisorId the ID of the supervisor whose planters are searched
+     * @return a paginated list of the supervisor's planters that match the search criteria
+     */
+    @Query("""
+            SELECT pl FROM Planter pl
+            WHERE pl.supervisor.id = :supervisorId
+            AND (LOWER(pl.firstname) LIKE LOWER(CONCAT('%', :search, '%'))
+                 OR LOWER(pl.lastname) LIKE LOWER(CONCAT('%', :search, '%')))
+            """)
+    Page<Planter> searchBySupervisor(Pageable pageable, @Param("search") String search,
+                                     @Param("supervisorId") Long supervisorId);
+
+    /**
+     * Finds a page of the planters of a supervisor whose village names contain the specified
+     * string, ignoring case.
+     *
+     * @param pageable the pagination information
+     * @param village the string to search for within village names
+     * @param supervisorId the ID of the supervisor whose planters are searched
+     * @return a page of the supervisor's planters that match the specified village
+     */
+    Page<Planter> findPlanterByVillageContainingIgnoreCaseAndSupervisor_Id(Pageable pageable, String village, Long supervisorId);
+
+    /**
+     * Checks whether a planter is managed by a supervisor.
+     *
+     * @param id the ID of the planter
+     * @param supervisorId the ID of the supervisor
+     * @return true if the planter exists and is managed by the supervisor
+     */
+    boolean existsByIdAndSupervisor_Id(Long id, Long supervisorId);
+
+    /**
+     * Retrieves, among the given planters, those managed by a supervisor.
+     *
+     * @param ids the identifiers of the planters, at most 1000
+     * @param supervisorId the ID of the supervisor
+     * @return the identifiers of the given planters managed by the supervisor
+     */
+    @Query("SELECT pl.id FROM Planter pl WHERE pl.id IN :ids AND pl.supervisor.id = :supervisorId")
+    List<Long> findIdsOwnedBy(@Param("ids") Collection<Long> ids, @Param("supervisorId") Long supervisorId);
+
     /**
      * Counts the number of planters created on or after the specified date.
      *
@@ -106,4 +156,60 @@ public interface PlanterRepository extends JpaRepository<Planter, Long> {
             WHERE YEAR(p.createdAt) = :year
             """)
     Long countPlantersByRegistrationYear(@Param("year") int year);
-}
\ No newline at end of file
+
+    /**
+     * Retrieves the UIDs of the planters created in the specified year.
+     * <p>
+     * Used once per year to seed the registration counter from the numbers
+     * already in use.
+     *
+     * @param year the registration year
+     * @return the UIDs of the planters registered during that year
+     */
+    @Query("""
+            SELECT p.uidPlanter FROM Planter p
+            WHERE YEAR(p.createdAt) = :year
+            """)
+    List<String> findUidsByRegistrationYear(@Param("year") int year);
+
+    /**
+     * Retrieves the planters modified after a point in time, with their supervisor.
+     *
+     * @param since the exclusive lower bound of the modification time
+     * @param supervisorId the supervisor whose planters are retrieved, or null for all planters
+     * @return the planters modified after {@code since}
+     */
+    @Query("""
+            SELECT pl FROM Planter pl
+            LEFT JOIN FETCH pl.supervisor s
+            WHERE pl.updatedAt > :since
+            AND (:supervisorId IS NULL OR s.id = :supervisorId)
+            """)
+    List<Planter> findChangedSince(@Param("since") LocalDateTime since, @Param("supervisorId") Long supervisorId);
+
+    /**
+     * Retrieves the identifiers of the planters matching the given filters.
+     *
+     * @param supervisorId the supervisor of the planters, or null for any supervisor
+     * @param village the village of the planters, compared ignoring case, or null for any village
+     * @return the identifiers of the matching planters
+     */
+    @Query("""
+            SELECT pl.id FROM Planter pl
+            WHERE (:supervisorId IS NULL OR pl.supervisor.id = :supervisorId)
+            AND (:village IS NULL OR LOWER(pl.village) = LOWER(:village))
+            """)
+    List<Long> findIdsByFilter(@Param("supervisorId") Long supervisorId, @Param("village") String village);
+
+    /**
+     * Deletes several planters in a single {@code DELETE}, without loading them. Their
+     * plantations, productions and repayment balances are removed by the
+     * {@code ON DELETE CASCADE} foreign keys.
+     *
+     * @param ids the identifiers of the planters
+     * @return the number of deleted planters
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Planter pl WHERE pl.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+}
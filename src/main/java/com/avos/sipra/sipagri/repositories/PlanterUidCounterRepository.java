@@ -0,0 +1,31 @@
+package com.avos.sipra.sipagri.repositories;
+
+import com.avos.sipra.sipagri.entities.PlanterUidCounter;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Repository interface for managing {@link PlanterUidCounter} entities.
+ * <p>
+ * Only used by the planter UID allocator to reserve blocks of registration numbers.
+ */
+@Repository
+public interface PlanterUidCounterRepository extends JpaRepository<PlanterUidCounter, Integer> {
+    /**
+     * Retrieves the counter of the given year and locks its row until the end of the
+     * current transaction ({@code SELECT ... FOR UPDATE}), so that concurrent nodes
+     * reserving a block for the same year are serialized.
+     *
+     * @param year the registration year
+     * @return the locked counter, or an empty Optional if the year has no counter yet
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM PlanterUidCounter c WHERE c.registrationYear = :year")
+    Optional<PlanterUidCounter> findForUpdate(@Param("year") int year);
+}
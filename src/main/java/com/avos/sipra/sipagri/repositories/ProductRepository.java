@@ -4,8 +4,12 @@ import com.avos.sipra.sipagri.entities.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
+
 /**
  * Repository interface for performing CRUD operations and custom queries on
  * {@link Product} entities.
@@ -25,4 +29,13 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
      * @return a paginated list of products that match the search criteria
      */
     Page<Product> findProductsByNameContainingIgnoreCase(Pageable pageable, String name);
+
+    /**
+     * Retrieves the current price of a product without loading the entity.
+     *
+     * @param id the identifier of the product
+     * @return the price, or an empty Optional if the product does not exist
+     */
+    @Query("SELECT p.price FROM Product p WHERE p.id = :id")
+    Optional<Double> findPriceById(@Param("id") Long id);
 }
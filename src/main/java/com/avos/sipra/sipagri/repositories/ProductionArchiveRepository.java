@@ -0,0 +1,67 @@
+package com.avos.sipra.sipagri.repositories;
+
+import com.avos.sipra.sipagri.entities.ProductionArchive;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Repository interface for managing {@link ProductionArchive} entities.
+ */
+@Repository
+public interface ProductionArchiveRepository extends JpaRepository<ProductionArchive, Long> {
+    /**
+     * Copies the productions harvested in a date range from the hot table into the archive,
+     * in a single {@code INSERT ... SELECT}. Productions without plantation are left in place.
+     *
+     * @param from the first day of the range, inclusive
+     * @param to the first day after the range, exclusive
+     * @return the number of archived productions
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            INSERT INTO productions_archive (id, plantation_id, prod_in_kg, purchase_price, must_be_paid, year,
+                                             idempotency_key, idempotency_supervisor_id, created_at, updated_at, archived_at)
+            SELECT pr.id, pr.plantation_id, pr.prod_in_kg, pr.purchase_price, pr.must_be_paid, pr.year,
+                   pr.idempotency_key, pr.idempotency_supervisor_id, pr.created_at, pr.updated_at, CURRENT_TIMESTAMP
+            FROM Productions pr
+            WHERE pr.year >= :from AND pr.year < :to
+              AND pr.plantation_id IS NOT NULL
+            """, nativeQuery = true)
+    int copyFromHot(@Param("from") Date from, @Param("to") Date to);
+
+    /**
+     * Checks whether an archived production belongs to a plantation managed by a supervisor.
+     *
+     * @param id the identifier of the archived production
+     * @param supervisorId the identifier of the supervisor
+     * @return true if the production is archived and its plantation is managed by the supervisor
+     */
+    @Query("""
+            SELECT COUNT(a) > 0 FROM ProductionArchive a, Plantation p
+            WHERE p.id = a.plantationId
+            AND a.id = :id
+            AND p.planter.supervisor.id = :supervisorId
+            """)
+    boolean existsOwnedBy(@Param("id") Long id, @Param("supervisorId") Long supervisorId);
+
+    /**
+     * Retrieves the archived productions recorded under some idempotency keys.
+     *
+     * @param idempotencyKeys the keys to look up
+     * @return rows of {@code [supervisor id (Long, may be null), idempotency key (String),
+     *         production id (Long)]}
+     */
+    @Query("""
+            SELECT a.idempotencySupervisorId, a.idempotencyKey, a.id
+            FROM ProductionArchive a
+            WHERE a.idempotencyKey IN :idempotencyKeys
+            """)
+    List<Object[]> findIdsByIdempotencyKeys(@Param("idempotencyKeys") Collection<String> idempotencyKeys);
+}
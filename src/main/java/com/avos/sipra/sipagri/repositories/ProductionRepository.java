@@ -4,11 +4,16 @@ import com.avos.sipra.sipagri.entities.Production;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repository interface for managing {@code Production} entities.
@@ -44,6 +49,33 @@ public interface ProductionRepository extends JpaRepository<Production, Long> {
      */
     Page<Production> findProductionsByPlantation_Planter_Supervisor_Id(Pageable pageable, Long supervisorId);
 
+    /**
+     * Searches the productions of a supervisor whose plantation name or production amount
+     * contains the given value, as {@link #findProductionsByPlantation_NameOrProductionInKg} does.
+     *
+     * @param pageable the pagination and sorting information
+     * @param search the value to search for in the plantation name or the production amount
+     * @param supervisorId the ID of the supervisor whose productions are searched
+     * @return a paginated list of the supervisor's productions matching the search
+     */
+    @Query("""
+            SELECT p FROM Production p
+            WHERE p.plantation.planter.supervisor.id = :supervisorId
+            AND (p.plantation.name LIKE CONCAT('%', :search, '%')
+                 OR CAST(p.productionInKg AS string) LIKE CONCAT('%', :search, '%'))
+            """)
+    Page<Production> searchBySupervisor(Pageable pageable, @Param("search") String search,
+                                        @Param("supervisorId") Long supervisorId);
+
+    /**
+     * Checks whether a production belongs to a plantation managed by a supervisor.
+     *
+     * @param id the identifier of the production
+     * @param supervisorId the identifier of the supervisor
+     * @return true if the production exists and is managed by the supervisor
+     */
+    boolean existsByIdAndPlantation_Planter_Supervisor_Id(Long id, Long supervisorId);
+
     /**
      * Retrieves a list of all Production entities, ordered by the year in ascending order.
      *
@@ -300,4 +332,77 @@ public interface ProductionRepository extends JpaRepository<Production, Long> {
             """)
     Double sumRevenueForYearBySupervisor(@Param("year") int year,
                                          @Param("supervisorId") Long supervisorId);
-}
\ No newline at end of file
+
+    /**
+     * Retrieves, in a single query, the plantation and the stored purchase price of each
+     * given production. Used to discount the previous value of productions being updated
+     * from the repayment balance of their plantation.
+     *
+     * @param ids the identifiers of the productions
+     * @return rows of {@code [production id (Long), plantation id (Long), purchase price (Double)]};
+     *         productions without plantation are absent
+     */
+    @Query("""
+            SELECT pr.id, pr.plantation.id, pr.purchasePrice
+            FROM Production pr
+            WHERE pr.id IN :ids
+            """)
+    List<Object[]> findPlantationAndPurchasePriceByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Retrieves the identifier of the plantation owning a production.
+     *
+     * @param id the identifier of the production
+     * @return the plantation identifier, or an empty Optional if the production does not
+     *         exist or has no plantation
+     */
+    @Query("SELECT pr.plantation.id FROM Production pr WHERE pr.id = :id")
+    Optional<Long> findPlantationIdById(@Param("id") Long id);
+
+    /**
+     * Retrieves the productions already recorded under some idempotency keys.
+     *
+     * @param idempotencyKeys the keys to look up
+     * @return rows of {@code [supervisor id (Long, may be null), idempotency key (String),
+     *         production id (Long)]}, one per key recorded for a supervisor
+     */
+    @Query("""
+            SELECT pr.idempotencySupervisorId, pr.idempotencyKey, pr.id
+            FROM Production pr
+            WHERE pr.idempotencyKey IN :idempotencyKeys
+            """)
+    List<Object[]> findIdsByIdempotencyKeys(@Param("idempotencyKeys") Collection<String> idempotencyKeys);
+
+    /**
+     * Retrieves the productions modified after a point in time, with their plantation.
+     *
+     * @param since the exclusive lower bound of the modification time
+     * @param supervisorId the supervisor whose productions are retrieved, or null for all productions
+     * @return the productions modified after {@code since}
+     */
+    @Query("""
+            SELECT pr FROM Production pr
+            LEFT JOIN FETCH pr.plantation p
+            LEFT JOIN FETCH p.planter pt
+            LEFT JOIN FETCH p.kit
+            WHERE pr.updatedAt > :since
+            AND (:supervisorId IS NULL OR pt.supervisor.id = :supervisorId)
+            """)
+    List<Production> findChangedSince(@Param("since") LocalDateTime since, @Param("supervisorId") Long supervisorId);
+
+    /**
+     * Deletes the productions harvested in a date range, once they have been copied into the
+     * archive. Productions without plantation are left in place.
+     *
+     * @param from the first day of the range, inclusive
+     * @param to the first day after the range, exclusive
+     * @return the number of deleted productions
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("""
+            DELETE FROM Production p
+            WHERE p.year >= :from AND p.year < :to
+            AND p.plantation IS NOT NULL
+            """)
+    int deleteHarvestedBetween(@Param("from") Date from, @Param("to") Date to);
+}
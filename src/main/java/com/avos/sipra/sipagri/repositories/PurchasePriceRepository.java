@@ -0,0 +1,67 @@
+package com.avos.sipra.sipagri.repositories;
+
+import com.avos.sipra.sipagri.entities.PurchasePrice;
+import com.avos.sipra.sipagri.enums.CropType;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+/**
+ * Repository interface for managing {@link PurchasePrice} entities.
+ * <p>
+ * The whole table is small (a few rows per crop and per season) and is read at once
+ * to build the in-memory price lookup; the paged query backs the admin screens.
+ */
+@Repository
+public interface PurchasePriceRepository extends JpaRepository<PurchasePrice, Long> {
+    /**
+     * Retrieves a paginated list of the prices of a crop.
+     *
+     * @param pageable the pagination information
+     * @param crop the crop whose prices are to be retrieved
+     * @return a page of the prices of the given crop
+     */
+    Page<PurchasePrice> findPurchasePricesByCrop(Pageable pageable, CropType crop);
+
+    /**
+     * Retrieves the open-ended price of a crop, that is the price currently in force
+     * with no end date, and locks its row until the end of the current transaction
+     * ({@code SELECT ... FOR UPDATE}), so that two new prices cannot close it at once.
+     *
+     * @param crop the crop
+     * @return the locked open-ended price, if any
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM PurchasePrice p WHERE p.crop = :crop AND p.effectiveTo IS NULL")
+    Optional<PurchasePrice> findOpenForUpdate(@Param("crop") CropType crop);
+
+    /**
+     * Checks whether a price of the crop, other than the one identified by {@code id},
+     * covers at least one day of the period {@code [from, to)}.
+     *
+     * @param crop the crop
+     * @param from the first day of the period (inclusive)
+     * @param to the end of the period (exclusive), or null for an open-ended period
+     * @param id the identifier of the price being updated, or null for a new price
+     * @return true if another price overlaps the period
+     */
+    @Query("""
+            SELECT COUNT(p) > 0 FROM PurchasePrice p
+            WHERE p.crop = :crop
+            AND (:id IS NULL OR p.id <> :id)
+            AND (:to IS NULL OR p.effectiveFrom < :to)
+            AND (p.effectiveTo IS NULL OR p.effectiveTo > :from)
+            """)
+    boolean existsOverlapping(@Param("crop") CropType crop,
+                              @Param("from") LocalDate from,
+                              @Param("to") LocalDate to,
+                              @Param("id") Long id);
+}
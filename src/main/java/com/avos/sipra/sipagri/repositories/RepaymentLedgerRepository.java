@@ -0,0 +1,152 @@
+package com.avos.sipra.sipagri.repositories;
+
+import com.avos.sipra.sipagri.entities.RepaymentLedger;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+
+/**
+ * Repository interface for managing {@link RepaymentLedger} entities.
+ * <p>
+ * Besides the by-id reads, every write is a single set-based statement so that the
+ * balances are advanced or recomputed by the database without loading productions.
+ * Purchases of archived seasons are read from their season summaries.
+ */
+@Repository
+public interface RepaymentLedgerRepository extends JpaRepository<RepaymentLedger, Long> {
+    /**
+     * Atomically adds an amount to the cumulative purchase value of a plantation, provided
+     * the balance is still at the given version.
+     * <p>
+     * The increment is computed by the database ({@code SET x = x + :delta}), so concurrent
+     * productions of the same plantation never overwrite each other's contribution, and the
+     * version guard reports a balance changed since it was read.
+     *
+     * @param plantationId the identifier of the plantation
+     * @param delta the amount to add, negative to subtract
+     * @param version the version of the balance read by the caller
+     * @return the number of updated rows, 0 when the balance has changed or does not exist
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("""
+            UPDATE RepaymentLedger l
+            SET l.cumulativePurchase = l.cumulativePurchase + :delta,
+                l.version = l.version + 1
+            WHERE l.plantationId = :plantationId
+              AND l.version = :version
+            """)
+    int addPurchase(@Param("plantationId") Long plantationId, @Param("delta") double delta, @Param("version") Long version);
+
+    /**
+     * Locks the ledger table in exclusive mode until the end of the current transaction.
+     * <p>
+     * Reads go on, but every other write of a balance waits for the transaction to end, so
+     * that a rebuild cannot interleave with the increments and insertions of concurrent
+     * productions. A production that already wrote its balance makes the lock wait for its
+     * commit, and is therefore seen by the rebuild. The statement is specific to Oracle.
+     */
+    @Modifying
+    @Query(value = "LOCK TABLE repayment_ledgers IN EXCLUSIVE MODE", nativeQuery = true)
+    void lockTable();
+
+    /**
+     * Creates the missing ledger rows of the given plantations, computed from their kit
+     * and productions in a single {@code INSERT ... SELECT}, at version 0.
+     *
+     * @param plantationIds the identifiers of the plantations
+     * @return the number of created rows
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            INSERT INTO repayment_ledgers (plantation_id, kit_debt, cumulative_purchase, version)
+            SELECT p.id,
+                   COALESCE(k.total_cost, 0),
+                   COALESCE((SELECT SUM(pr.purchase_price) FROM Productions pr WHERE pr.plantation_id = p.id), 0)
+                   + COALESCE((SELECT SUM(s.total_purchase) FROM production_season_summaries s WHERE s.plantation_id = p.id), 0),
+                   0
+            FROM plantations p
+            LEFT JOIN Kits k ON k.id = p.kit_id
+            WHERE p.id IN (:plantationIds)
+              AND NOT EXISTS (SELECT 1 FROM repayment_ledgers l WHERE l.plantation_id = p.id)
+            """, nativeQuery = true)
+    int insertMissing(@Param("plantationIds") Collection<Long> plantationIds);
+
+    /**
+     * Creates the ledger rows of all plantations, computed from their kit and productions
+     * in a single {@code INSERT ... SELECT}, at version 0. Expects the table to be empty.
+     *
+     * @return the number of created rows
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            INSERT INTO repayment_ledgers (plantation_id, kit_debt, cumulative_purchase, version)
+            SELECT p.id,
+                   COALESCE(k.total_cost, 0),
+                   COALESCE((SELECT SUM(pr.purchase_price) FROM Productions pr WHERE pr.plantation_id = p.id), 0)
+                   + COALESCE((SELECT SUM(s.total_purchase) FROM production_season_summaries s WHERE s.plantation_id = p.id), 0),
+                   0
+            FROM plantations p
+            LEFT JOIN Kits k ON k.id = p.kit_id
+            """, nativeQuery = true)
+    int insertAll();
+
+    /**
+     * Recomputes the kit debt and the cumulative purchase value of the given plantations
+     * from their kit and productions, in a single {@code UPDATE}.
+     *
+     * @param plantationIds the identifiers of the plantations
+     * @return the number of updated rows
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            UPDATE repayment_ledgers l
+            SET kit_debt = COALESCE((SELECT k.total_cost FROM plantations p JOIN Kits k ON k.id = p.kit_id
+                                     WHERE p.id = l.plantation_id), 0),
+                cumulative_purchase = COALESCE((SELECT SUM(pr.purchase_price) FROM Productions pr
+                                                WHERE pr.plantation_id = l.plantation_id), 0)
+                                      + COALESCE((SELECT SUM(s.total_purchase) FROM production_season_summaries s
+                                                  WHERE s.plantation_id = l.plantation_id), 0),
+                version = version + 1
+            WHERE l.plantation_id IN (:plantationIds)
+            """, nativeQuery = true)
+    int recompute(@Param("plantationIds") Collection<Long> plantationIds);
+
+    /**
+     * Recomputes the kit debt of the plantations equipped with the given kit, after a
+     * change of its total cost.
+     *
+     * @param kitId the identifier of the kit
+     * @return the number of updated rows
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            UPDATE repayment_ledgers l
+            SET kit_debt = (SELECT k.total_cost FROM Kits k WHERE k.id = :kitId),
+                version = version + 1
+            WHERE l.plantation_id IN (SELECT p.id FROM plantations p WHERE p.kit_id = :kitId)
+            """, nativeQuery = true)
+    int recomputeKitDebt(@Param("kitId") Long kitId);
+
+    /**
+     * Recomputes the kit debt of the plantations whose kit contains a product, after a
+     * change of the product price.
+     *
+     * @param productId the identifier of the product
+     * @return the number of updated rows
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            UPDATE repayment_ledgers l
+            SET kit_debt = COALESCE((SELECT k.total_cost FROM plantations p JOIN Kits k ON k.id = p.kit_id
+                                     WHERE p.id = l.plantation_id), 0),
+                version = version + 1
+            WHERE l.plantation_id IN (SELECT p.id FROM plantations p
+                                      JOIN Kit_Products kp ON kp.kit = p.kit_id
+                                      WHERE kp.product_id = :productId)
+            """, nativeQuery = true)
+    int recomputeKitDebtByProduct(@Param("productId") Long productId);
+}
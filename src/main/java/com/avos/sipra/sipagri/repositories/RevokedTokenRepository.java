@@ -0,0 +1,41 @@
+package com.avos.sipra.sipagri.repositories;
+
+import com.avos.sipra.sipagri.entities.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository interface for managing {@link RevokedToken} entities.
+ */
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+    /**
+     * Finds the revocations recorded since a given time whose tokens are not expired yet.
+     *
+     * @param since the lower bound of the revocation time, inclusive
+     * @param now the current time
+     * @return the revocations still in effect
+     */
+    @Query("""
+            SELECT r FROM RevokedToken r
+            WHERE r.revokedAt >= :since
+              AND r.expiresAt > :now
+            """)
+    List<RevokedToken> findActiveSince(@Param("since") LocalDateTime since, @Param("now") LocalDateTime now);
+
+    /**
+     * Deletes the revocations of the expired tokens.
+     *
+     * @param now the current time
+     * @return the number of deleted revocations
+     */
+    @Modifying
+    @Query("DELETE FROM RevokedToken r WHERE r.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,80 @@
+package com.avos.sipra.sipagri.repositories;
+
+import com.avos.sipra.sipagri.entities.SchedulerLock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Repository interface for managing {@link SchedulerLock} entities.
+ * <p>
+ * A lock is taken with a single conditional statement, so that two nodes can never both
+ * see it free: the update only matches an expired lock, and the insertion of a new lock
+ * fails on the primary key if another node inserted it first.
+ */
+@Repository
+public interface SchedulerLockRepository extends JpaRepository<SchedulerLock, String> {
+    /**
+     * Takes an existing lock if it has expired.
+     *
+     * @param name the name of the job
+     * @param now the current time
+     * @param until the time until which the lock is held
+     * @param lockedBy the node taking the lock
+     * @return 1 if the lock was taken, 0 if it is held or does not exist
+     */
+    @Modifying
+    @Query(value = """
+            UPDATE scheduler_locks
+            SET locked_until = :until, locked_at = :now, locked_by = :lockedBy
+            WHERE name = :name
+              AND locked_until <= :now
+            """, nativeQuery = true)
+    int takeExpired(@Param("name") String name,
+                    @Param("now") LocalDateTime now,
+                    @Param("until") LocalDateTime until,
+                    @Param("lockedBy") String lockedBy);
+
+    /**
+     * Creates and takes a lock that does not exist yet.
+     *
+     * @param name the name of the job
+     * @param now the current time
+     * @param until the time until which the lock is held
+     * @param lockedBy the node taking the lock
+     * @return 1 if the lock was created, 0 if it already exists
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO scheduler_locks (name, locked_until, locked_at, locked_by)
+            SELECT :name, :until, :now, :lockedBy FROM dual
+            WHERE NOT EXISTS (SELECT 1 FROM scheduler_locks WHERE name = :name)
+            """, nativeQuery = true)
+    int insertTaken(@Param("name") String name,
+                    @Param("now") LocalDateTime now,
+                    @Param("until") LocalDateTime until,
+                    @Param("lockedBy") String lockedBy);
+
+    /**
+     * Releases a lock held by a node.
+     *
+     * @param name the name of the job
+     * @param now the current time, from which the lock is free
+     * @param lockedBy the node holding the lock
+     * @return 1 if the lock was released, 0 if the node no longer held it
+     */
+    @Modifying
+    @Query(value = """
+            UPDATE scheduler_locks
+            SET locked_until = :now
+            WHERE name = :name
+              AND locked_by = :lockedBy
+            """, nativeQuery = true)
+    int release(@Param("name") String name,
+                @Param("now") LocalDateTime now,
+                @Param("lockedBy") String lockedBy);
+}
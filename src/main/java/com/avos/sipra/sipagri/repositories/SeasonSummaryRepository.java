@@ -0,0 +1,188 @@
+package com.avos.sipra.sipagri.repositories;
+
+import com.avos.sipra.sipagri.entities.SeasonSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Repository interface for managing {@link SeasonSummary} entities.
+ * <p>
+ * The aggregate reads mirror those of {@link ProductionRepository} on the archived seasons;
+ * callers add both when a range covering closed seasons is requested.
+ */
+@Repository
+public interface SeasonSummaryRepository extends JpaRepository<SeasonSummary, Long> {
+    /**
+     * Adds the totals of the productions harvested in a date range to the summaries of a
+     * season, per plantation, in a single {@code MERGE}. Must run before the productions
+     * are moved out of the hot table.
+     *
+     * @param season the season of the range
+     * @param from the first day of the range, inclusive
+     * @param to the first day after the range, exclusive
+     * @return the number of created or advanced summaries
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            MERGE INTO production_season_summaries s
+            USING (SELECT pr.plantation_id,
+                          COUNT(*) AS production_count,
+                          COALESCE(SUM(pr.prod_in_kg), 0) AS total_kg,
+                          COALESCE(SUM(pr.purchase_price), 0) AS total_purchase
+                   FROM Productions pr
+                   WHERE pr.year >= :from AND pr.year < :to
+                     AND pr.plantation_id IS NOT NULL
+                   GROUP BY pr.plantation_id) src
+            ON (s.season = :season AND s.plantation_id = src.plantation_id)
+            WHEN MATCHED THEN UPDATE SET
+                s.production_count = s.production_count + src.production_count,
+                s.total_kg = s.total_kg + src.total_kg,
+                s.total_purchase = s.total_purchase + src.total_purchase,
+                s.updated_at = CURRENT_TIMESTAMP
+            WHEN NOT MATCHED THEN INSERT (id, season, plantation_id, production_count, total_kg, total_purchase, updated_at)
+                VALUES (season_summary_seq.NEXTVAL, :season, src.plantation_id, src.production_count,
+                        src.total_kg, src.total_purchase, CURRENT_TIMESTAMP)
+            """, nativeQuery = true)
+    int mergeFromHot(@Param("season") int season, @Param("from") Date from, @Param("to") Date to);
+
+    /**
+     * Calculates the total archived production, in kilograms.
+     *
+     * @return the total archived production, 0.0 when no season is archived
+     */
+    @Query("SELECT COALESCE(SUM(s.totalKg), 0.0) FROM SeasonSummary s")
+    Double sumTotalProduction();
+
+    /**
+     * Calculates the total purchase value of the archived productions.
+     *
+     * @return the total archived revenue, 0.0 when no season is archived
+     */
+    @Query("SELECT COALESCE(SUM(s.totalPurchase), 0.0) FROM SeasonSummary s")
+    Double sumTotalRevenue();
+
+    /**
+     * Counts the archived productions of the plantations of a supervisor.
+     *
+     * @param supervisorId the ID of the supervisor
+     * @return the number of archived productions
+     */
+    @Query("""
+            SELECT COALESCE(SUM(s.productionCount), 0)
+            FROM SeasonSummary s
+            WHERE s.plantation.planter.supervisor.id = :supervisorId
+            """)
+    Long countTotalProductionBySupervisor(@Param("supervisorId") Long supervisorId);
+
+    /**
+     * Calculates the total purchase value of the archived productions of the plantations
+     * of a supervisor.
+     *
+     * @param supervisorId the ID of the supervisor
+     * @return the total archived revenue, 0.0 when nothing is archived
+     */
+    @Query("""
+            SELECT COALESCE(SUM(s.totalPurchase), 0.0)
+            FROM SeasonSummary s
+            WHERE s.plantation.planter.supervisor.id = :supervisorId
+            """)
+    Double sumTotalRevenueBySupervisor(@Param("supervisorId") Long supervisorId);
+
+    /**
+     * Retrieves the archived production grouped by plantation.
+     *
+     * @return rows of [plantation name (String), total production in kilograms (Double)]
+     */
+    @Query("""
+            SELECT pl.name, COALESCE(SUM(s.totalKg), 0.0)
+            FROM SeasonSummary s
+            JOIN s.plantation pl
+            GROUP BY pl.id, pl.name
+            """)
+    List<Object[]> sumProductionByPlantation();
+
+    /**
+     * Retrieves the archived production grouped by plantation, for the plantations of a supervisor.
+     *
+     * @param supervisorId the ID of the supervisor
+     * @return rows of [plantation name (String), total production in kilograms (Double)]
+     */
+    @Query("""
+            SELECT pl.name, COALESCE(SUM(s.totalKg), 0.0)
+            FROM SeasonSummary s
+            JOIN s.plantation pl
+            WHERE pl.planter.supervisor.id = :supervisorId
+            GROUP BY pl.id, pl.name
+            """)
+    List<Object[]> sumProductionByPlantationBySupervisor(@Param("supervisorId") Long supervisorId);
+
+    /**
+     * Retrieves the archived production grouped by sector, for one season or all of them.
+     *
+     * @param season the season, null for all archived seasons
+     * @return rows of [sector (String), total production in kilograms (Double)]
+     */
+    @Query("""
+            SELECT pl.sector, COALESCE(SUM(s.totalKg), 0.0)
+            FROM SeasonSummary s
+            JOIN s.plantation pl
+            WHERE pl.sector IS NOT NULL
+            AND (:season IS NULL OR s.season = :season)
+            GROUP BY pl.sector
+            """)
+    List<Object[]> sumProductionBySector(@Param("season") Integer season);
+
+    /**
+     * Retrieves the archived production grouped by sector for the plantations of a supervisor,
+     * for one season or all of them.
+     *
+     * @param supervisorId the ID of the supervisor
+     * @param season the season, null for all archived seasons
+     * @return rows of [sector (String), total production in kilograms (Double)]
+     */
+    @Query("""
+            SELECT pl.sector, COALESCE(SUM(s.totalKg), 0.0)
+            FROM SeasonSummary s
+            JOIN s.plantation pl
+            WHERE pl.sector IS NOT NULL
+            AND pl.planter.supervisor.id = :supervisorId
+            AND (:season IS NULL OR s.season = :season)
+            GROUP BY pl.sector
+            """)
+    List<Object[]> sumProductionBySupervisorBySector(@Param("supervisorId") Long supervisorId, @Param("season") Integer season);
+
+    /**
+     * Retrieves the archived production per season, in chronological order.
+     *
+     * @return rows of [season (Integer), total production in kilograms (Double)]
+     */
+    @Query("""
+            SELECT s.season, COALESCE(SUM(s.totalKg), 0.0)
+            FROM SeasonSummary s
+            GROUP BY s.season
+            ORDER BY s.season
+            """)
+    List<Object[]> sumProductionBySeason();
+
+    /**
+     * Retrieves the archived production per season for the plantations of a supervisor,
+     * in chronological order.
+     *
+     * @param supervisorId the ID of the supervisor
+     * @return rows of [season (Integer), total production in kilograms (Double)]
+     */
+    @Query("""
+            SELECT s.season, COALESCE(SUM(s.totalKg), 0.0)
+            FROM SeasonSummary s
+            WHERE s.plantation.planter.supervisor.id = :supervisorId
+            GROUP BY s.season
+            ORDER BY s.season
+            """)
+    List<Object[]> sumProductionBySeasonBySupervisor(@Param("supervisorId") Long supervisorId);
+}
@@ -0,0 +1,165 @@
+package com.avos.sipra.sipagri.repositories;
+
+import com.avos.sipra.sipagri.entities.SyncTombstone;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository interface for managing {@link SyncTombstone} entities.
+ * <p>
+ * The tombstones of supervisor-scoped records are written with a single
+ * {@code INSERT ... SELECT} that resolves the supervisor from the record itself,
+ * which must therefore still exist when the tombstone is recorded.
+ */
+@Repository
+public interface SyncTombstoneRepository extends JpaRepository<SyncTombstone, Long> {
+    /**
+     * Records the deletion of a planter, scoped to its supervisor.
+     *
+     * @param id the identifier of the planter about to be deleted
+     * @return the number of recorded tombstones, 0 if the planter does not exist
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            INSERT INTO sync_tombstones (id, entity_type, entity_id, supervisor_id, deleted_at)
+            SELECT sync_tombstone_seq.NEXTVAL, 'PLANTER', pl.id, pl.supervisor_id, CURRENT_TIMESTAMP
+            FROM Planters pl
+            WHERE pl.id = :id
+            """, nativeQuery = true)
+    int insertForPlanter(@Param("id") Long id);
+
+    /**
+     * Records the deletion of a plantation, scoped to the supervisor of its planter.
+     *
+     * @param id the identifier of the plantation about to be deleted
+     * @return the number of recorded tombstones, 0 if the plantation does not exist
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            INSERT INTO sync_tombstones (id, entity_type, entity_id, supervisor_id, deleted_at)
+            SELECT sync_tombstone_seq.NEXTVAL, 'PLANTATION', p.id, pl.supervisor_id, CURRENT_TIMESTAMP
+            FROM plantations p
+            LEFT JOIN Planters pl ON pl.id = p.planter_id
+            WHERE p.id = :id
+            """, nativeQuery = true)
+    int insertForPlantation(@Param("id") Long id);
+
+    /**
+     * Records the deletion of a production, scoped to the supervisor of its plantation.
+     *
+     * @param id the identifier of the production about to be deleted
+     * @return the number of recorded tombstones, 0 if the production does not exist
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            INSERT INTO sync_tombstones (id, entity_type, entity_id, supervisor_id, deleted_at)
+            SELECT sync_tombstone_seq.NEXTVAL, 'PRODUCTION', pr.id, pl.supervisor_id, CURRENT_TIMESTAMP
+            FROM Productions pr
+            LEFT JOIN plantations p ON p.id = pr.plantation_id
+            LEFT JOIN Planters pl ON pl.id = p.planter_id
+            WHERE pr.id = :id
+            """, nativeQuery = true)
+    int insertForProduction(@Param("id") Long id);
+
+    /**
+     * Records the deletion of a record shared by all supervisors, such as a kit or a
+     * parameter.
+     *
+     * @param entityType the type of the deleted record
+     * @param id the identifier of the deleted record
+     * @return the number of recorded tombstones
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            INSERT INTO sync_tombstones (id, entity_type, entity_id, supervisor_id, deleted_at)
+            VALUES (sync_tombstone_seq.NEXTVAL, :entityType, :id, NULL, CURRENT_TIMESTAMP)
+            """, nativeQuery = true)
+    int insertShared(@Param("entityType") String entityType, @Param("id") Long id);
+
+    /**
+     * Reads the current time from the database clock, which stamps the {@code updated_at}
+     * columns and the tombstones.
+     *
+     * @return the current time of the database, in the session time zone
+     */
+    @Query(value = "SELECT CAST(CURRENT_TIMESTAMP AS TIMESTAMP) FROM DUAL", nativeQuery = true)
+    LocalDateTime currentTimestamp();
+
+    /**
+     * Retrieves the deletions recorded after a point in time and visible to a supervisor:
+     * those of its own records and those of shared records.
+     *
+     * @param since the exclusive lower bound of the deletion time
+     * @param supervisorId the supervisor, or null for all deletions
+     * @return the matching tombstones
+     */
+    @Query("""
+            SELECT t FROM SyncTombstone t
+            WHERE t.deletedAt > :since
+            AND (:supervisorId IS NULL OR t.supervisorId IS NULL OR t.supervisorId = :supervisorId)
+            """)
+    List<SyncTombstone> findRecordedSince(@Param("since") LocalDateTime since, @Param("supervisorId") Long supervisorId);
+
+    /**
+     * Records the deletion of several planters and of their plantations and productions,
+     * each scoped to the supervisor of the planter.
+     *
+     * @param ids the identifiers of the planters about to be deleted
+     * @return the number of recorded tombstones
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            INSERT INTO sync_tombstones (id, entity_type, entity_id, supervisor_id, deleted_at)
+            SELECT sync_tombstone_seq.NEXTVAL, g.entity_type, g.entity_id, g.supervisor_id, CURRENT_TIMESTAMP
+            FROM (
+                SELECT 'PLANTER' entity_type, pl.id entity_id, pl.supervisor_id
+                FROM Planters pl
+                WHERE pl.id IN (:ids)
+                UNION ALL
+                SELECT 'PLANTATION', p.id, pl.supervisor_id
+                FROM plantations p
+                JOIN Planters pl ON pl.id = p.planter_id
+                WHERE pl.id IN (:ids)
+                UNION ALL
+                SELECT 'PRODUCTION', pr.id, pl.supervisor_id
+                FROM Productions pr
+                JOIN plantations p ON p.id = pr.plantation_id
+                JOIN Planters pl ON pl.id = p.planter_id
+                WHERE pl.id IN (:ids)
+            ) g
+            """, nativeQuery = true)
+    int insertForPlanters(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Records the deletion of several plantations and of their productions, each scoped to
+     * the supervisor of the planter.
+     *
+     * @param ids the identifiers of the plantations about to be deleted
+     * @return the number of recorded tombstones
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            INSERT INTO sync_tombstones (id, entity_type, entity_id, supervisor_id, deleted_at)
+            SELECT sync_tombstone_seq.NEXTVAL, g.entity_type, g.entity_id, g.supervisor_id, CURRENT_TIMESTAMP
+            FROM (
+                SELECT 'PLANTATION' entity_type, p.id entity_id, pl.supervisor_id
+                FROM plantations p
+                LEFT JOIN Planters pl ON pl.id = p.planter_id
+                WHERE p.id IN (:ids)
+                UNION ALL
+                SELECT 'PRODUCTION', pr.id, pl.supervisor_id
+                FROM Productions pr
+                JOIN plantations p ON p.id = pr.plantation_id
+                LEFT JOIN Planters pl ON pl.id = p.planter_id
+                WHERE p.id IN (:ids)
+            ) g
+            """, nativeQuery = true)
+    int insertForPlantations(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,58 @@
+package com.avos.sipra.sipagri.repositories;
+
+import com.avos.sipra.sipagri.entities.TokenNotBefore;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository interface for managing {@link TokenNotBefore} entities.
+ */
+@Repository
+public interface TokenNotBeforeRepository extends JpaRepository<TokenNotBefore, Long> {
+    /**
+     * Sets the threshold of a supervisor, in a single {@code MERGE}. An existing threshold
+     * only moves forward, so concurrent revocations on several nodes keep the latest one.
+     *
+     * @param supervisorId the identifier of the supervisor
+     * @param notBefore the tokens issued before this time are refused
+     * @param now the current time
+     * @return the number of merged rows
+     */
+    @Modifying
+    @Query(value = """
+            MERGE INTO token_not_before t
+            USING (SELECT :supervisorId supervisor_id, :notBefore not_before FROM DUAL) s
+            ON (t.supervisor_id = s.supervisor_id)
+            WHEN MATCHED THEN UPDATE SET t.not_before = GREATEST(t.not_before, s.not_before), t.updated_at = :now
+            WHEN NOT MATCHED THEN INSERT (supervisor_id, not_before, updated_at)
+                VALUES (s.supervisor_id, s.not_before, :now)
+            """, nativeQuery = true)
+    int raise(@Param("supervisorId") Long supervisorId,
+              @Param("notBefore") LocalDateTime notBefore,
+              @Param("now") LocalDateTime now);
+
+    /**
+     * Finds the thresholds changed since a given time.
+     *
+     * @param since the lower bound of the change time, inclusive
+     * @return the thresholds changed since then
+     */
+    @Query("SELECT t FROM TokenNotBefore t WHERE t.updatedAt >= :since")
+    List<TokenNotBefore> findUpdatedSince(@Param("since") LocalDateTime since);
+
+    /**
+     * Deletes the thresholds no unexpired token can be issued before.
+     *
+     * @param horizon the issue time of the oldest token still valid
+     * @return the number of deleted thresholds
+     */
+    @Modifying
+    @Query("DELETE FROM TokenNotBefore t WHERE t.notBefore < :horizon")
+    int deleteOlderThan(@Param("horizon") LocalDateTime horizon);
+}
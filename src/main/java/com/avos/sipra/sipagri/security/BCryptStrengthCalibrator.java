@@ -0,0 +1,63 @@
+package com.avos.sipra.sipagri.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+
+/**
+ * Picks the BCrypt strength whose hashing time on the current machine is closest to a
+ * target, without exceeding it.
+ * <p>
+ * Each additional unit of strength doubles the work, so a single measurement at a base
+ * strength is enough to estimate all the others. The same configuration then costs about
+ * the same time per login on a small and on a large server.
+ */
+@Slf4j
+final class BCryptStrengthCalibrator {
+    static final int MIN_STRENGTH = 10;
+    static final int MAX_STRENGTH = 16;
+    private static final int BASE_STRENGTH = MIN_STRENGTH;
+    private static final int MEASUREMENTS = 3;
+
+    private BCryptStrengthCalibrator() {
+    }
+
+    /**
+     * Measures the hashing time at the base strength and derives the strength for the target.
+     *
+     * @param target the target hashing time of a password
+     * @return the calibrated strength, between {@value #MIN_STRENGTH} and {@value #MAX_STRENGTH}
+     */
+    static int calibrate(Duration target) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(BASE_STRENGTH);
+        // Un premier calcul à vide : chargement des classes et compilation JIT
+        encoder.encode("calibration");
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < MEASUREMENTS; i++) {
+            long start = System.nanoTime();
+            encoder.encode("calibration");
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        int strength = strengthFor(best, target);
+        log.info("BCrypt strength calibrated to {} ({} ms at strength {}, target {} ms)",
+                strength, Duration.ofNanos(best).toMillis(), BASE_STRENGTH, target.toMillis());
+        return strength;
+    }
+
+    /**
+     * @param baseNanos the hashing time measured at the base strength
+     * @param target the target hashing time
+     * @return the highest strength whose estimated time does not exceed the target, within bounds
+     */
+    static int strengthFor(long baseNanos, Duration target) {
+        long targetNanos = target.toNanos();
+        int strength = BASE_STRENGTH;
+        long estimate = Math.max(baseNanos, 1);
+        while (strength < MAX_STRENGTH && estimate * 2 <= targetNanos) {
+            estimate *= 2;
+            strength++;
+        }
+        return Math.max(strength, MIN_STRENGTH);
+    }
+}
@@ -0,0 +1,92 @@
+package com.avos.sipra.sipagri.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the password hashing and verification of a delegate encoder on a dedicated,
+ * bounded pool of threads.
+ * <p>
+ * A BCrypt computation keeps a core busy for tens of milliseconds. Run on the request
+ * threads, a burst of logins can occupy every core and starve the rest of the API. Here at
+ * most {@code threads} computations run at once and at most {@code queueCapacity} wait;
+ * beyond that the call fails at once with a {@link RejectedExecutionException} instead of
+ * piling up, and the waiting request threads do not consume CPU.
+ */
+@Slf4j
+public class BoundedPasswordEncoder implements PasswordEncoder {
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * @param delegate the encoder doing the hashing
+     * @param threads the number of concurrent hashing computations
+     * @param queueCapacity the number of computations allowed to wait for a thread
+     */
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity) {
+        this.delegate = delegate;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return call(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return call(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T call(Callable<T> computation) {
+        Future<T> future;
+        try {
+            future = executor.submit(computation);
+        } catch (RejectedExecutionException e) {
+            log.warn("Password hashing saturated: {} running, {} waiting", executor.getActiveCount(), executor.getQueue().size());
+            throw e;
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing a password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * @return the number of computations waiting for a thread
+     */
+    int queued() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Stops the hashing threads, called when the context closes.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -1,6 +1,7 @@
 package com.avos.sipra.sipagri.security;
 
 import com.avos.sipra.sipagri.entities.Supervisor;
+import com.avos.sipra.sipagri.enums.SupervisorProfile;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
@@ -8,45 +9,64 @@ import java.util.Collection;
 
 /**
  * Represents a custom implementation of {@link UserDetails} for authentication purposes.
- * This implementation wraps a {@link Supervisor} entity and provides the required methods
- * for Spring Security integration. Instances of this class are immutable due to its record structure.
+ * This implementation holds a snapshot of the {@link Supervisor} fields needed for Spring
+ * Security integration. Instances of this class are immutable due to its record structure.
  * <p>
- * The class overrides the necessary methods of {@link UserDetails} and adapts them to
- * use the properties of the wrapped {@link Supervisor} object.
+ * Instances are cached and shared between requests by the {@link UserDetailsCache}, which is
+ * why they copy the fields instead of wrapping the entity: a detached entity could be
+ * modified by a request, or lazily loaded outside of its session, while another one reads it.
+ * The account of a supervisor cannot be disabled, so the account is always enabled.
+ *
+ * @param supervisorId the identifier of the supervisor
+ * @param email the email address of the supervisor, used as the username
+ * @param passwordHash the BCrypt hash of its password
+ * @param profile the profile of the supervisor
  */
-public record CustomUserDetails(Supervisor supervisor) implements UserDetails {
+public record CustomUserDetails(Long supervisorId, String email, String passwordHash,
+                                SupervisorProfile profile) implements UserDetails {
 
     /**
-     * Retrieves the collection of authorities granted to the user.
+     * Takes the snapshot of a supervisor.
      *
-     * @return a collection of granted authorities, or {@code null} if no authorities
-     *         are assigned to the user
+     * @param supervisor the supervisor loaded for authentication
+     * @return the user details of the supervisor
+     */
+    public static CustomUserDetails of(Supervisor supervisor) {
+        return new CustomUserDetails(supervisor.getId(), supervisor.getEmail(), supervisor.getPassword(),
+                supervisor.getProfile());
+    }
+
+    /**
+     * Retrieves the collection of authorities granted to the user, the same as those of a
+     * {@link JwtPrincipal} with this profile.
+     *
+     * @return {@code ROLE_<profile>}, or an empty collection if the supervisor has no profile
      */
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return null;
+        return JwtPrincipal.authoritiesOf(profile);
     }
 
     /**
-     * Retrieves the password of the user wrapped within the {@link Supervisor} instance.
+     * Retrieves the password hash of the supervisor.
      * This method is part of the {@link UserDetails} interface implementation and is
      * used for authentication purposes.
      *
-     * @return the password of the associated {@link Supervisor}
+     * @return the password hash of the supervisor
      */
     @Override
     public String getPassword() {
-        return supervisor.getPassword();
+        return passwordHash;
     }
 
     /**
-     * Retrieves the username of the associated {@link Supervisor}.
+     * Retrieves the username of the supervisor.
      *
      * @return the email address of the supervisor, which is used as the username
      */
     @Override
     public String getUsername() {
-        return supervisor.getEmail();
+        return email;
     }
 
     /**
@@ -92,4 +112,14 @@ public record CustomUserDetails(Supervisor supervisor) implements UserDetails {
     public boolean isEnabled() {
         return true;
     }
+
+    /**
+     * Describes the user without its password hash, which must never reach the logs.
+     *
+     * @return the identifier, email and profile of the supervisor
+     */
+    @Override
+    public String toString() {
+        return "CustomUserDetails[supervisorId=" + supervisorId + ", email=" + email + ", profile=" + profile + "]";
+    }
 }
@@ -2,10 +2,13 @@ package com.avos.sipra.sipagri.security;
 
 import com.avos.sipra.sipagri.entities.Supervisor;
 import com.avos.sipra.sipagri.repositories.SupervisorRepository;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Service implementation of {@link UserDetailsService} for loading user-specific data
@@ -14,15 +17,22 @@ import org.springframework.stereotype.Service;
  * <p>
  * The primary role of this implementation is to retrieve user details from a data source
  * using the {@link SupervisorRepository}, specifically for {@link Supervisor} entities.
- * The returned {@link UserDetails} is wrapped in a {@link CustomUserDetails} object which
- * extends Spring Security's {@link UserDetails} interface.
+ * The returned {@link UserDetails} is an immutable {@link CustomUserDetails} snapshot of the
+ * supervisor, which implements Spring Security's {@link UserDetails} interface.
  * <p>
  * The {@code username} parameter is treated as the email address associated with a supervisor.
  * If the supervisor corresponding to the provided username is not found, the service will
  * throw a {@link UsernameNotFoundException}.
+ * <p>
+ * Loaded supervisors are kept in the {@link UserDetailsCache}, so the requests of the same
+ * supervisor do not query the database each time.
+ * <p>
+ * As a {@link UserDetailsPasswordService}, it stores the new hash computed by Spring Security
+ * after a successful login whose stored hash has an outdated BCrypt strength.
  */
+@Slf4j
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     /**
      * Repository used for performing database operations related to {@link Supervisor} entities.
@@ -35,22 +45,29 @@ public class CustomUserDetailsService implements UserDetailsService {
      */
     private final SupervisorRepository supervisorRepository;
 
+    /**
+     * Cache of the loaded supervisors, invalidated when a supervisor changes.
+     */
+    private final UserDetailsCache userDetailsCache;
+
     /**
      * Constructs a new instance of {@link CustomUserDetailsService}.
      * The service relies on the provided {@link SupervisorRepository} to fetch
      * user-specific data during authentication processes.
      *
      * @param supervisorRepository the repository used to retrieve {@link Supervisor} entities
+     * @param userDetailsCache the cache of the loaded supervisors
      */
-    public CustomUserDetailsService(SupervisorRepository supervisorRepository) {
+    public CustomUserDetailsService(SupervisorRepository supervisorRepository, UserDetailsCache userDetailsCache) {
         this.supervisorRepository = supervisorRepository;
+        this.userDetailsCache = userDetailsCache;
     }
 
     /**
      * Loads a user by their username (email address) for authentication purposes.
      * <p>
      * This method fetches a {@link Supervisor} entity from the data source using the provided
-     * email address and wraps it into a {@link CustomUserDetails} object to adhere to the
+     * email address and copies it into a {@link CustomUserDetails} object to adhere to the
      * {@link UserDetails} interface required by Spring Security.
      *
      * @param username the email address of the user to be loaded
@@ -59,9 +76,33 @@ public class CustomUserDetailsService implements UserDetailsService {
      */
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        return userDetailsCache.get(username, this::loadSupervisor);
+    }
+
+    /**
+     * Replaces the stored hash of a supervisor with one of the current BCrypt strength,
+     * computed from the password it just logged in with. The password itself is unchanged,
+     * so the tokens of the supervisor stay valid.
+     *
+     * @param user the authenticated user
+     * @param newPassword the new hash of its password
+     * @return the user with its new hash
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        Supervisor supervisor = supervisorRepository.findByEmail(user.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("Utilisateur non trouvé"));
+        supervisor.setPassword(newPassword);
+        userDetailsCache.invalidate(supervisor.getId());
+        log.info("Password hash of supervisor {} upgraded", supervisor.getId());
+        return CustomUserDetails.of(supervisor);
+    }
+
+    private CustomUserDetails loadSupervisor(String username) {
         Supervisor supervisor = supervisorRepository.findByEmail(username)
                 .orElseThrow(() -> new UsernameNotFoundException("Utilisateur non trouvé"));
-        return new CustomUserDetails(supervisor);
+        return CustomUserDetails.of(supervisor);
     }
 }
 
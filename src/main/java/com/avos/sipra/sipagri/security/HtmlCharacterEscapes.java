@@ -0,0 +1,78 @@
+package com.avos.sipra.sipagri.security;
+
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.CharacterEscapes;
+import com.fasterxml.jackson.core.io.SerializedString;
+
+/**
+ * Jackson {@link CharacterEscapes} writing the HTML special characters of JSON strings as
+ * HTML entities: {@code & < > " ' /}.
+ * <p>
+ * The generator consults the escape table for every character it writes, so each string
+ * is escaped in the same single pass that writes it, without building an escaped copy;
+ * the entities are shared, pre-encoded instances. As every character is handled once,
+ * {@code &} is never escaped twice.
+ */
+final class HtmlCharacterEscapes extends CharacterEscapes {
+    static final HtmlCharacterEscapes INSTANCE = new HtmlCharacterEscapes();
+
+    private static final String[] ENTITIES = new String[128];
+
+    static {
+        ENTITIES['&'] = "&amp;";
+        ENTITIES['<'] = "&lt;";
+        ENTITIES['>'] = "&gt;";
+        ENTITIES['"'] = "&quot;";
+        ENTITIES['\''] = "&#x27;";
+        ENTITIES['/'] = "&#x2F;";
+    }
+
+    private final int[] asciiEscapes;
+    private final SerializableString[] sequences = new SerializableString[128];
+
+    private HtmlCharacterEscapes() {
+        asciiEscapes = CharacterEscapes.standardAsciiEscapesForJSON();
+        for (int c = 0; c < ENTITIES.length; c++) {
+            if (ENTITIES[c] != null) {
+                asciiEscapes[c] = CharacterEscapes.ESCAPE_CUSTOM;
+                sequences[c] = new SerializedString(ENTITIES[c]);
+            }
+        }
+    }
+
+    @Override
+    public int[] getEscapeCodesForAscii() {
+        return asciiEscapes;
+    }
+
+    @Override
+    public SerializableString getEscapeSequence(int ch) {
+        return ch < sequences.length ? sequences[ch] : null;
+    }
+
+    /**
+     * Escapes a string outside of JSON, for bodies written as plain text.
+     *
+     * @param input the string to escape, may be null
+     * @return the escaped string, the input itself if it has nothing to escape
+     */
+    static String escape(String input) {
+        if (input == null) {
+            return null;
+        }
+        StringBuilder escaped = null;
+        int copied = 0;
+        for (int i = 0; i < input.length(); i++) {
+            char c = input.charAt(i);
+            String entity = c < ENTITIES.length ? ENTITIES[c] : null;
+            if (entity != null) {
+                if (escaped == null) {
+                    escaped = new StringBuilder(input.length() + 16);
+                }
+                escaped.append(input, copied, i).append(entity);
+                copied = i + 1;
+            }
+        }
+        return escaped == null ? input : escaped.append(input, copied, input.length()).toString();
+    }
+}
@@ -0,0 +1,64 @@
+package com.avos.sipra.sipagri.security;
+
+import com.avos.sipra.sipagri.enums.SupervisorProfile;
+import io.jsonwebtoken.Claims;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.security.Principal;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The authenticated supervisor, as described by the claims of its token.
+ * <p>
+ * Used as the principal in stateless mode, where the {@code Authentication} is built from
+ * the token alone without loading the supervisor from the database.
+ *
+ * @param supervisorId the identifier of the supervisor, claim {@value JwtUtil#SUPERVISOR_ID_CLAIM}
+ * @param email the email of the supervisor, subject of the token
+ * @param profile the profile of the supervisor, claim {@value JwtUtil#PROFILE_CLAIM}
+ */
+public record JwtPrincipal(Long supervisorId, String email, SupervisorProfile profile) implements Principal {
+
+    /**
+     * Builds the principal from the claims of a verified token.
+     *
+     * @param claims the claims of the token
+     * @return the principal, or null if the token does not carry the supervisor id and profile
+     */
+    public static JwtPrincipal fromClaims(Claims claims) {
+        Number supervisorId = claims.get(JwtUtil.SUPERVISOR_ID_CLAIM, Number.class);
+        String profile = claims.get(JwtUtil.PROFILE_CLAIM, String.class);
+        if (supervisorId == null || profile == null || claims.getSubject() == null) {
+            return null;
+        }
+        try {
+            return new JwtPrincipal(supervisorId.longValue(), claims.getSubject(), SupervisorProfile.valueOf(profile));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return the authority granted by the profile of the supervisor, {@code ROLE_<profile>}
+     */
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authoritiesOf(profile);
+    }
+
+    /**
+     * Grants the same authorities whichever mode authenticated the supervisor.
+     *
+     * @param profile the profile of the supervisor, may be null
+     * @return {@code ROLE_<profile>}, or no authority without a profile
+     */
+    static List<GrantedAuthority> authoritiesOf(SupervisorProfile profile) {
+        return profile != null ? List.of(new SimpleGrantedAuthority("ROLE_" + profile.name())) : List.of();
+    }
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
@@ -1,5 +1,6 @@
 package com.avos.sipra.sipagri.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -34,6 +35,12 @@ import java.util.List;
  * <p>
  * The {@link CustomUserDetailsService} is utilized to load user-specific data required for
  * authentication, and the {@link JwtUtil} is used for token parsing and validation.
+ * <p>
+ * In stateless mode, a token carrying the supervisor id and profile is authenticated from its
+ * claims alone as a {@link JwtPrincipal}; no query is made.
+ * <p>
+ * In both modes, {@link TokenRevocationService} rejects from memory the tokens revoked on
+ * logout and those issued before the last change of their supervisor.
  */
 @Component
 @Profile("!test")
@@ -71,6 +78,10 @@ public class JwtRequestFilter extends OncePerRequestFilter {
      * This instance is injected to facilitate JWT-driven authentication and authorization logic.
      */
     private final JwtUtil jwtUtil;
+    /**
+     * Service rejecting the revoked tokens.
+     */
+    private final TokenRevocationService tokenRevocationService;
 
     /**
      * Constructs a new instance of {@link JwtRequestFilter}.
@@ -79,10 +90,13 @@ public class JwtRequestFilter extends OncePerRequestFilter {
      *
      * @param userDetailsService the service used to retrieve user details and verify user-specific information
      * @param jwtUtil the utility component for creating, validating, and extracting data from JWT tokens
+     * @param tokenRevocationService the service rejecting the revoked tokens
      */
-    public JwtRequestFilter(CustomUserDetailsService userDetailsService, JwtUtil jwtUtil) {
+    public JwtRequestFilter(CustomUserDetailsService userDetailsService, JwtUtil jwtUtil,
+                            TokenRevocationService tokenRevocationService) {
         this.userDetailsService = userDetailsService;
         this.jwtUtil = jwtUtil;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     /**
@@ -132,25 +146,39 @@ public class JwtRequestFilter extends OncePerRequestFilter {
                 return;
             }
 
-            final String username = jwtUtil.extractUsername(token);
+            // Un seul décodage du jeton par requête : toutes les revendications en sont tirées
+            final Claims claims = jwtUtil.parseToken(token);
+            final String username = claims.getSubject();
 
             if (username == null) {
                 response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Unauthorized");
                 return;
             }
 
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-
-            if (!jwtUtil.validateToken(token, userDetails)) {
-                response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Invalid or expired token");
+            if (tokenRevocationService.isRevoked(claims)) {
+                response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Token revoked");
                 return;
             }
 
-            UsernamePasswordAuthenticationToken authentication =
-                    new UsernamePasswordAuthenticationToken(
-                            userDetails,
-                            null,
-                            userDetails.getAuthorities());
+            JwtPrincipal principal = JwtPrincipal.fromClaims(claims);
+
+            UsernamePasswordAuthenticationToken authentication;
+            if (jwtUtil.isStateless() && principal != null) {
+                // Mode sans état : l'authentification est construite à partir du jeton seul
+                authentication = new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+            } else {
+                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+
+                if (!jwtUtil.validateToken(claims, userDetails)) {
+                    response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Invalid or expired token");
+                    return;
+                }
+
+                authentication = new UsernamePasswordAuthenticationToken(
+                        userDetails,
+                        null,
+                        userDetails.getAuthorities());
+            }
 
             authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
             SecurityContextHolder.getContext().setAuthentication(authentication);
@@ -1,6 +1,10 @@
 package com.avos.sipra.sipagri.security;
 
+import com.avos.sipra.sipagri.enums.SupervisorProfile;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -11,14 +15,39 @@ import org.springframework.stereotype.Component;
 
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Utility class for generating, parsing, and validating JSON Web Tokens (JWTs).
  * This class relies on an HMAC signing key derived from a secret injected via application properties.
+ * <p>
+ * Tokens are parsed by a single thread-safe parser, once per request, and the claims of the
+ * tokens already verified are kept in a bounded concurrent map keyed by the SHA-256 digest of
+ * the token, so a token presented again skips the signature check until it expires. Lookups
+ * take no lock; an entry is dropped when its token expires and, when the map is full, the
+ * entries whose tokens expire first are dropped.
+ * <p>
+ * Tokens issued for a supervisor also carry its identifier and profile. In stateless mode
+ * ({@code app.jwt.stateless=true}) they are issued with a shorter lifetime and requests are
+ * authenticated from these claims alone, without loading the supervisor.
  */
 @Component
 public class JwtUtil {
+    /**
+     * Claim holding the identifier of the supervisor.
+     */
+    public static final String SUPERVISOR_ID_CLAIM = "sid";
+
+    /**
+     * Claim holding the {@link SupervisorProfile} of the supervisor.
+     */
+    public static final String PROFILE_CLAIM = "profile";
 
     /**
      * Represents the secret key used for signing and validating JSON Web Tokens (JWTs).
@@ -36,6 +65,41 @@ public class JwtUtil {
      */
     private Key key;
 
+    /**
+     * Whether requests are authenticated from the claims of the token alone.
+     */
+    @Value("${app.jwt.stateless:false}")
+    private boolean stateless;
+
+    /**
+     * Lifetime of the tokens, in minutes.
+     */
+    @Value("${app.jwt.ttl-minutes:60}")
+    private long ttlMinutes;
+
+    /**
+     * Lifetime of the tokens in stateless mode, in minutes; kept short since the claims are
+     * trusted until the token expires unless the supervisor's tokens are revoked.
+     */
+    @Value("${app.jwt.stateless-ttl-minutes:15}")
+    private long statelessTtlMinutes;
+
+    /**
+     * Maximum number of verified tokens whose claims are kept.
+     */
+    @Value("${app.jwt.verified-cache-size:10000}")
+    private int verifiedCacheSize;
+
+    /**
+     * The parser verifying the signature of the tokens, immutable and shared by all requests.
+     */
+    private JwtParser parser;
+
+    /**
+     * Claims of the verified tokens by digest of the token.
+     */
+    private final ConcurrentHashMap<String, Claims> verified = new ConcurrentHashMap<>();
+
     /**
      * Initializes the HMAC signing key used for JWT generation and validation.
      * This method is called automatically after the class is constructed and all
@@ -49,26 +113,90 @@ public class JwtUtil {
     @PostConstruct
     public void init() {
         this.key = Keys.hmacShaKeyFor(secretKey.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parserBuilder().setSigningKey(key).build();
     }
 
     /**
      * Generates a JSON Web Token (JWT) for the specified username.
      * The token includes the username as its subject, a timestamp for when it was issued,
-     * an expiration time of one hour from the current time, and is signed with an HMAC
-     * derived key using the HS256 algorithm.
+     * an expiration time of {@code app.jwt.ttl-minutes} from the current time, and is signed
+     * with an HMAC derived key using the HS256 algorithm.
      *
      * @param username the username to include as the subject in the token
      * @return a compact JWT as a String
      */
     public String generateToken(String username) {
+        long now = System.currentTimeMillis();
         return Jwts.builder()
                 .setSubject(username)
-                .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60))
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + ttlMinutes * 60_000))
+                .signWith(key, SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    /**
+     * Generates a JSON Web Token (JWT) for a supervisor, carrying its identifier and profile
+     * so that requests can be authenticated without loading it, and a unique identifier
+     * ({@code jti}) allowing the token to be revoked on its own.
+     *
+     * @param supervisorId the identifier of the supervisor
+     * @param email the email of the supervisor, subject of the token
+     * @param profile the profile of the supervisor
+     * @return a compact JWT as a String
+     */
+    public String generateToken(Long supervisorId, String email, SupervisorProfile profile) {
+        long now = System.currentTimeMillis();
+        long ttl = stateless ? statelessTtlMinutes : ttlMinutes;
+        return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
+                .setSubject(email)
+                .claim(SUPERVISOR_ID_CLAIM, supervisorId)
+                .claim(PROFILE_CLAIM, profile != null ? profile.name() : null)
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + ttl * 60_000))
                 .signWith(key, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    /**
+     * @return true if requests are authenticated from the claims of the token alone
+     */
+    public boolean isStateless() {
+        return stateless;
+    }
+
+    /**
+     * Verifies the given token and returns its claims. The signature is only checked the first
+     * time a token is seen; the claims are then served from the cache until the token expires.
+     *
+     * @param token the JWT to verify
+     * @return the claims of the token
+     * @throws JwtException if the token is malformed, its signature is invalid or it has expired
+     */
+    public Claims parseToken(String token) {
+        String digest = digest(token);
+        Claims claims = verified.get(digest);
+        if (claims == null) {
+            try {
+                claims = parser.parseClaimsJws(token).getBody();
+            } catch (ExpiredJwtException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new JwtException("Invalid token structure: " + e.getMessage());
+            }
+            verified.put(digest, claims);
+            if (verified.size() > verifiedCacheSize) {
+                evict();
+            }
+        } else if (isExpired(claims)) {
+            // L'entrée expire avec le jeton
+            verified.remove(digest, claims);
+            throw new ExpiredJwtException(null, claims, "Token expired");
+        }
+        return claims;
+    }
+
     /**
      * Extracts the username (subject) from the given JSON Web Token (JWT).
      *
@@ -77,16 +205,7 @@ public class JwtUtil {
      * @throws JwtException if the token structure is invalid or the parsing fails
      */
     public String extractUsername(String token) {
-        try {
-            return Jwts.parserBuilder()
-                    .setSigningKey(key)
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody()
-                    .getSubject();
-        } catch (Exception e) {
-            throw new JwtException("Invalid token structure: " + e.getMessage());
-        }
+        return parseToken(token).getSubject();
     }
 
     /**
@@ -100,28 +219,64 @@ public class JwtUtil {
      */
     public boolean validateToken(String token, UserDetails userDetails) {
         try {
-            final String username = extractUsername(token);
-            return username != null
-                    && username.equals(userDetails.getUsername())
-                    && !isTokenExpired(token);
+            return validateToken(parseToken(token), userDetails);
         } catch (Exception e) {
             return false;
         }
     }
 
     /**
-     * Checks if the given JSON Web Token (JWT) is expired based on its expiration claim.
+     * Validates the claims of an already parsed token against the provided user details.
      *
-     * @param token the JWT to be checked for expiration
-     * @return {@code true} if the token is expired, {@code false} otherwise
-     */
-    private boolean isTokenExpired(String token) {
-        Date expiration = Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getExpiration();
-        return expiration.before(new Date());
+     * @param claims the claims returned by {@link #parseToken(String)}
+     * @param userDetails the user details containing the expected username for validation
+     * @return {@code true} if the token belongs to the user and has not expired; {@code false} otherwise
+     */
+    public boolean validateToken(Claims claims, UserDetails userDetails) {
+        final String username = claims.getSubject();
+        return username != null
+                && username.equals(userDetails.getUsername())
+                && !isExpired(claims);
+    }
+
+    /**
+     * @return the number of verified tokens currently cached
+     */
+    int verifiedCount() {
+        return verified.size();
+    }
+
+    /**
+     * Drops the expired tokens, then the tokens expiring first until the cache is back to its size.
+     */
+    private synchronized void evict() {
+        verified.values().removeIf(JwtUtil::isExpired);
+        int excess = verified.size() - verifiedCacheSize;
+        if (excess > 0) {
+            verified.entrySet().stream()
+                    .sorted(Comparator.comparing(e -> expirationOf(e.getValue())))
+                    .limit(excess)
+                    .toList()
+                    .forEach(e -> verified.remove(e.getKey(), e.getValue()));
+        }
+    }
+
+    private static Date expirationOf(Claims claims) {
+        Date expiration = claims.getExpiration();
+        return expiration != null ? expiration : new Date(Long.MAX_VALUE);
+    }
+
+    private static boolean isExpired(Claims claims) {
+        Date expiration = claims.getExpiration();
+        return expiration != null && expiration.before(new Date());
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
 }
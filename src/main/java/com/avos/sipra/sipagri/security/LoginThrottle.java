@@ -0,0 +1,81 @@
+package com.avos.sipra.sipagri.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Limits login attempts before any password is verified.
+ * <p>
+ * Two sliding windows are kept in memory: the attempts of each client address, and the
+ * failed attempts on each account from each address. An attempt over either limit is
+ * rejected at once, so a credential-stuffing run or a guessing attack against one account
+ * cannot keep the hashing threads busy. The failures are counted per address so that
+ * failing on purpose against an account only locks it out from the attacker's address,
+ * never from the supervisor's own. A successful login clears the failures of its account
+ * from its address.
+ */
+@Component
+public class LoginThrottle {
+    private final SlidingWindowCounter attemptsByAddress;
+    private final SlidingWindowCounter failuresByAccountAndAddress;
+
+    public LoginThrottle(@Value("${app.security.login.ip-max-attempts:20}") int ipMaxAttempts,
+                         @Value("${app.security.login.ip-window-seconds:60}") long ipWindowSeconds,
+                         @Value("${app.security.login.account-max-failures:5}") int accountMaxFailures,
+                         @Value("${app.security.login.account-window-seconds:900}") long accountWindowSeconds) {
+        this.attemptsByAddress = new SlidingWindowCounter(ipMaxAttempts, Duration.ofSeconds(ipWindowSeconds).toMillis());
+        this.failuresByAccountAndAddress = new SlidingWindowCounter(accountMaxFailures, Duration.ofSeconds(accountWindowSeconds).toMillis());
+    }
+
+    /**
+     * Records a login attempt unless the address, or the account from this address, is over
+     * its limit.
+     *
+     * @param email the email of the account
+     * @param address the address of the client
+     * @return 0 if the attempt may proceed, otherwise the seconds to wait before retrying
+     */
+    public long tryAttempt(String email, String address) {
+        long now = System.currentTimeMillis();
+        long retryAfter = failuresByAccountAndAddress.retryAfter(failureKey(email, address), now);
+        if (retryAfter == 0) {
+            retryAfter = attemptsByAddress.acquire(address, now);
+        }
+        return retryAfter == 0 ? 0 : Math.max(1, Duration.ofMillis(retryAfter).toSeconds() + 1);
+    }
+
+    /**
+     * @param email the email of the account whose password did not match
+     * @param address the address of the client
+     */
+    public void recordFailure(String email, String address) {
+        failuresByAccountAndAddress.record(failureKey(email, address), System.currentTimeMillis());
+    }
+
+    /**
+     * @param email the email of the account that logged in
+     * @param address the address of the client
+     */
+    public void recordSuccess(String email, String address) {
+        failuresByAccountAndAddress.reset(failureKey(email, address));
+    }
+
+    /**
+     * Drops the addresses and accounts without recent attempts.
+     */
+    @Scheduled(fixedDelayString = "${app.security.login.prune-interval-ms:60000}")
+    public void prune() {
+        long now = System.currentTimeMillis();
+        attemptsByAddress.prune(now);
+        failuresByAccountAndAddress.prune(now);
+    }
+
+    private static String failureKey(String email, String address) {
+        String account = email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+        return account + '|' + address;
+    }
+}
@@ -0,0 +1,35 @@
+package com.avos.sipra.sipagri.security;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Registers the {@link RateLimitInterceptor} on the API and periodically evicts the buckets
+ * of inactive supervisors.
+ */
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitConfig implements WebMvcConfigurer {
+    private final RateLimitInterceptor rateLimitInterceptor;
+
+    public RateLimitConfig(RateLimitProperties properties) {
+        this.rateLimitInterceptor = new RateLimitInterceptor(properties);
+    }
+
+    @Override
+    public void addInterceptors(@NonNull InterceptorRegistry registry) {
+        registry.addInterceptor(rateLimitInterceptor).addPathPatterns("/api/**");
+    }
+
+    /**
+     * Sweeps one stripe of buckets per run.
+     */
+    @Scheduled(fixedDelayString = "${app.rate-limit.eviction-interval-ms:30000}")
+    public void evictIdleBuckets() {
+        rateLimitInterceptor.evictIdle();
+    }
+}
@@ -0,0 +1,91 @@
+package com.avos.sipra.sipagri.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Limits the rate at which each supervisor calls the expensive endpoints (full listings,
+ * searches, dashboard aggregates), with one token bucket per supervisor and class of
+ * endpoints as configured in {@link RateLimitProperties}.
+ * <p>
+ * A request over the limit is answered 429 Too Many Requests with a Retry-After header,
+ * before reaching the controller. Requests without an authenticated supervisor are left to
+ * the security filters.
+ */
+@Slf4j
+public class RateLimitInterceptor implements HandlerInterceptor {
+    private final RateLimitProperties properties;
+    private final RateLimiter rateLimiter = new RateLimiter();
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    public RateLimitInterceptor(RateLimitProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                             @NonNull Object handler) throws IOException {
+        if (!properties.enabled()) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        Map.Entry<String, RateLimitProperties.Route> route = findRoute(path);
+        if (route == null) {
+            return true;
+        }
+        Long supervisorId = currentSupervisorId();
+        if (supervisorId == null) {
+            return true;
+        }
+
+        long waitNanos = rateLimiter.tryAcquire(supervisorId, route.getKey(), route.getValue(), System.nanoTime());
+        if (waitNanos == 0) {
+            return true;
+        }
+        long retryAfter = Math.max(1, (waitNanos + 999_999_999L) / 1_000_000_000L);
+        log.debug("Supervisor {} rate limited on {} for {} s", supervisorId, route.getKey(), retryAfter);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+        response.setContentType("application/json");
+        response.getWriter().write(String.format("{\"error\":\"%s\",\"message\":\"%s\"}",
+                "Too Many Requests", "Trop de requêtes, réessayez dans " + retryAfter + " s"));
+        return false;
+    }
+
+    /**
+     * Drops the buckets of the supervisors inactive for longer than the idle timeout.
+     */
+    public void evictIdle() {
+        rateLimiter.evictIdle(properties.idleTimeout().toNanos(), System.nanoTime());
+    }
+
+    private Map.Entry<String, RateLimitProperties.Route> findRoute(String path) {
+        for (Map.Entry<String, RateLimitProperties.Route> route : properties.routes().entrySet()) {
+            for (String pattern : route.getValue().patterns()) {
+                if (pathMatcher.match(pattern, path)) {
+                    return route;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static Long currentSupervisorId() {
+        JwtPrincipal principal = SupervisorContext.principalOf(SecurityContextHolder.getContext().getAuthentication());
+        return principal != null ? principal.supervisorId() : null;
+    }
+
+    int bucketCount() {
+        return rateLimiter.size();
+    }
+}
@@ -0,0 +1,38 @@
+package com.avos.sipra.sipagri.security;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Configuration of the per-supervisor rate limiting, under {@code app.rate-limit}.
+ *
+ * @param enabled whether requests are limited
+ * @param idleTimeout the time after which the bucket of an inactive supervisor is dropped
+ * @param routes the limited classes of endpoints, by name; a request is counted against the
+ *               first class with a matching pattern
+ */
+@ConfigurationProperties(prefix = "app.rate-limit")
+public record RateLimitProperties(@DefaultValue("true") boolean enabled,
+                                  @DefaultValue("10m") Duration idleTimeout,
+                                  Map<String, Route> routes) {
+
+    /**
+     * A class of endpoints sharing one bucket per supervisor.
+     *
+     * @param patterns the Ant-style path patterns of the endpoints
+     * @param capacity the number of requests allowed in a burst
+     * @param refillPerSecond the sustained number of requests per second
+     */
+    public record Route(List<String> patterns,
+                        @DefaultValue("10") int capacity,
+                        @DefaultValue("1") double refillPerSecond) {
+    }
+
+    public RateLimitProperties {
+        routes = routes != null ? routes : Map.of();
+    }
+}
@@ -0,0 +1,71 @@
+package com.avos.sipra.sipagri.security;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The token buckets of the supervisors, one per supervisor and class of endpoints.
+ * <p>
+ * Buckets are spread over independent stripes by the hash of their key. Idle buckets are
+ * evicted one stripe at a time, so a sweep never walks all the buckets at once.
+ */
+final class RateLimiter {
+    private static final int STRIPES = 16;
+
+    private record Key(Long supervisorId, String route) {
+    }
+
+    @SuppressWarnings("unchecked")
+    private final ConcurrentHashMap<Key, TokenBucket>[] stripes = new ConcurrentHashMap[STRIPES];
+    private int nextStripe;
+
+    RateLimiter() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ConcurrentHashMap<>();
+        }
+    }
+
+    /**
+     * Takes a token from the bucket of the supervisor for the class of endpoints.
+     *
+     * @param supervisorId the identifier of the authenticated supervisor
+     * @param route the name of the class of endpoints
+     * @param config the limits of the class of endpoints
+     * @param now the current time, from {@link System#nanoTime()}
+     * @return 0 if the request may proceed, otherwise the nanoseconds until it may
+     */
+    long tryAcquire(Long supervisorId, String route, RateLimitProperties.Route config, long now) {
+        Key key = new Key(supervisorId, route);
+        TokenBucket bucket = stripe(key).computeIfAbsent(key,
+                k -> new TokenBucket(config.capacity(), config.refillPerSecond(), now));
+        return bucket.tryConsume(now);
+    }
+
+    /**
+     * Drops the buckets of one stripe unused for longer than the idle timeout; successive
+     * calls visit the stripes in turn.
+     *
+     * @param idleNanos the idle timeout, in nanoseconds
+     * @param now the current time, from {@link System#nanoTime()}
+     */
+    void evictIdle(long idleNanos, long now) {
+        int stripe;
+        synchronized (this) {
+            stripe = nextStripe;
+            nextStripe = (nextStripe + 1) % STRIPES;
+        }
+        stripes[stripe].values().removeIf(bucket -> now - bucket.updatedAt() > idleNanos);
+    }
+
+    int size() {
+        int size = 0;
+        for (ConcurrentHashMap<Key, TokenBucket> stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    private ConcurrentHashMap<Key, TokenBucket> stripe(Key key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+    }
+}
@@ -19,6 +19,7 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import java.time.Duration;
 import java.util.List;
 
 /**
@@ -166,12 +167,27 @@ public class SecurityConfig {
 
     /**
      * Provides a {@link PasswordEncoder} bean for encoding passwords.
-     * This bean utilizes the BCrypt hashing algorithm to ensure password security.
+     * This bean utilizes the BCrypt hashing algorithm to ensure password security, run on a
+     * bounded pool of threads so that hashing cannot occupy every core.
+     * <p>
+     * Unless a strength is configured, the strength is calibrated at startup so that hashing a
+     * password takes about the target time on this machine. Stored hashes of a lower strength
+     * are upgraded on the next successful login through
+     * {@link CustomUserDetailsService#updatePassword}.
      *
+     * @param strength the BCrypt strength, 0 to calibrate it
+     * @param targetMs the target hashing time of the calibration, in milliseconds
+     * @param threads the number of concurrent hashing computations, 0 for half the cores
+     * @param queueCapacity the number of computations allowed to wait for a thread
      * @return an instance of {@link PasswordEncoder} using BCrypt hashing
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${app.security.bcrypt.strength:0}") int strength,
+                                           @Value("${app.security.bcrypt.target-ms:150}") long targetMs,
+                                           @Value("${app.security.hashing.threads:0}") int threads,
+                                           @Value("${app.security.hashing.queue-capacity:100}") int queueCapacity) {
+        int bcryptStrength = strength > 0 ? strength : BCryptStrengthCalibrator.calibrate(Duration.ofMillis(targetMs));
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(bcryptStrength), poolSize, queueCapacity);
     }
 }
@@ -0,0 +1,110 @@
+package com.avos.sipra.sipagri.security;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Counts events per key over a sliding time window.
+ * <p>
+ * Each key keeps the times of its events within the window, at most {@code limit} of them,
+ * so a key costs a bounded amount of memory and a check is a few comparisons. Keys whose
+ * events have all left the window are dropped by {@link #prune(long)}.
+ * <p>
+ * The events of a key are only read and changed within the map's atomic per-key operations,
+ * so a key dropped by the pruning cannot lose an event recorded at the same time.
+ */
+final class SlidingWindowCounter {
+    private final int limit;
+    private final long windowMillis;
+    private final ConcurrentHashMap<String, ArrayDeque<Long>> events = new ConcurrentHashMap<>();
+
+    SlidingWindowCounter(int limit, long windowMillis) {
+        this.limit = limit;
+        this.windowMillis = windowMillis;
+    }
+
+    /**
+     * @param key the counted key
+     * @param now the current time, in milliseconds
+     * @return 0 if the key is under its limit, otherwise the milliseconds until it is again
+     */
+    long retryAfter(String key, long now) {
+        long[] retryAfter = {0};
+        events.computeIfPresent(key, (k, times) -> {
+            evict(times, now);
+            if (times.size() >= limit) {
+                retryAfter[0] = times.peekFirst() + windowMillis - now;
+            }
+            return times.isEmpty() ? null : times;
+        });
+        return retryAfter[0];
+    }
+
+    /**
+     * Records an event if the key is under its limit.
+     *
+     * @param key the counted key
+     * @param now the current time, in milliseconds
+     * @return 0 if the event was recorded, otherwise the milliseconds until the key is under its limit
+     */
+    long acquire(String key, long now) {
+        long[] retryAfter = {0};
+        events.compute(key, (k, current) -> {
+            ArrayDeque<Long> times = current == null ? new ArrayDeque<>() : current;
+            evict(times, now);
+            if (times.size() >= limit) {
+                retryAfter[0] = times.peekFirst() + windowMillis - now;
+            } else {
+                times.addLast(now);
+            }
+            return times;
+        });
+        return retryAfter[0];
+    }
+
+    /**
+     * Records an event, dropping the oldest one if the key is at its limit.
+     *
+     * @param key the counted key
+     * @param now the current time, in milliseconds
+     */
+    void record(String key, long now) {
+        events.compute(key, (k, current) -> {
+            ArrayDeque<Long> times = current == null ? new ArrayDeque<>() : current;
+            evict(times, now);
+            if (times.size() >= limit) {
+                times.pollFirst();
+            }
+            times.addLast(now);
+            return times;
+        });
+    }
+
+    void reset(String key) {
+        events.remove(key);
+    }
+
+    /**
+     * Drops the keys without any event left in the window.
+     *
+     * @param now the current time, in milliseconds
+     */
+    void prune(long now) {
+        for (String key : events.keySet()) {
+            events.computeIfPresent(key, (k, times) -> {
+                evict(times, now);
+                return times.isEmpty() ? null : times;
+            });
+        }
+    }
+
+    int size() {
+        return events.size();
+    }
+
+    private void evict(ArrayDeque<Long> times, long now) {
+        while (!times.isEmpty() && times.peekFirst() <= now - windowMillis) {
+            times.pollFirst();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.avos.sipra.sipagri.security;
+
+import com.avos.sipra.sipagri.enums.SupervisorProfile;
+import com.avos.sipra.sipagri.services.cores.SupervisorService;
+import com.avos.sipra.sipagri.services.dtos.SupervisorDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
+
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * The supervisor authenticated for the current request.
+ * <p>
+ * Its identifier and profile are resolved once per request from the principal set by the
+ * security filters, and the {@link SupervisorDTO} is only read, once by identifier, when
+ * first asked for. Every later lookup within the request is served from this context.
+ * <p>
+ * {@link #scope(Long)} restricts the queries of a {@link SupervisorProfile#SUPERVISOR} to
+ * their own records whatever the requested supervisor, so that listings and the caches keyed
+ * by supervisor always see the identifier of the caller rather than a client parameter.
+ */
+@Slf4j
+@Component
+@RequestScope
+public class SupervisorContext {
+    private final SupervisorService supervisorService;
+
+    private boolean resolved;
+    private JwtPrincipal principal;
+
+    private SupervisorDTO supervisor;
+
+    public SupervisorContext(SupervisorService supervisorService) {
+        this.supervisorService = supervisorService;
+    }
+
+    /**
+     * @return true if the request is authenticated as a supervisor
+     */
+    public boolean isAuthenticated() {
+        return principal() != null;
+    }
+
+    /**
+     * @return the identifier of the authenticated supervisor, null if none
+     */
+    public Long getSupervisorId() {
+        JwtPrincipal current = principal();
+        return current != null ? current.supervisorId() : null;
+    }
+
+    /**
+     * @return the profile of the authenticated supervisor, null if none
+     */
+    public SupervisorProfile getProfile() {
+        JwtPrincipal current = principal();
+        return current != null ? current.profile() : null;
+    }
+
+    /**
+     * Returns the authenticated supervisor, built on the first call and memoized for the rest
+     * of the request.
+     *
+     * @return the authenticated supervisor, null if none
+     */
+    public SupervisorDTO getSupervisor() {
+        if (supervisor == null && isAuthenticated()) {
+            supervisor = supervisorService.findOne(principal.supervisorId());
+        }
+        return supervisor;
+    }
+
+    /**
+     * Returns the supervisor whose records a query may read or change.
+     *
+     * @param requestedSupervisorId the supervisor asked for by the client, may be null
+     * @return the identifier of the authenticated supervisor if it has the
+     *         {@link SupervisorProfile#SUPERVISOR} profile, otherwise the requested one
+     */
+    public Long scope(Long requestedSupervisorId) {
+        if (getProfile() != SupervisorProfile.SUPERVISOR) {
+            return requestedSupervisorId;
+        }
+        Long supervisorId = principal.supervisorId();
+        if (requestedSupervisorId != null && !Objects.equals(requestedSupervisorId, supervisorId)) {
+            log.debug("Supervisor {} asked for the records of supervisor {}, scoped to its own",
+                    supervisorId, requestedSupervisorId);
+        }
+        return supervisorId;
+    }
+
+    /**
+     * Tells whether the caller may read or change a record.
+     *
+     * @param ownedBy tells whether the record belongs to a given supervisor
+     * @return false if the caller has the {@link SupervisorProfile#SUPERVISOR} profile and the
+     *         record is not theirs, true otherwise
+     */
+    public boolean canAccess(Predicate<Long> ownedBy) {
+        Long supervisorId = scope(null);
+        return supervisorId == null || ownedBy.test(supervisorId);
+    }
+
+    private JwtPrincipal principal() {
+        if (!resolved) {
+            principal = principalOf(SecurityContextHolder.getContext().getAuthentication());
+            resolved = true;
+        }
+        return principal;
+    }
+
+    /**
+     * Describes the supervisor of an authentication, whichever mode authenticated it.
+     *
+     * @param authentication the authentication, may be null
+     * @return the supervisor, or null if the authentication is not a supervisor's
+     */
+    public static JwtPrincipal principalOf(Authentication authentication) {
+        if (authentication == null) {
+            return null;
+        }
+        Object principal = authentication.getPrincipal();
+        if (principal instanceof JwtPrincipal jwtPrincipal) {
+            return jwtPrincipal;
+        }
+        if (principal instanceof CustomUserDetails userDetails) {
+            return new JwtPrincipal(userDetails.supervisorId(), userDetails.email(), userDetails.profile());
+        }
+        return null;
+    }
+}
@@ -0,0 +1,52 @@
+package com.avos.sipra.sipagri.security;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lock-free token bucket.
+ * <p>
+ * The bucket holds up to {@code capacity} tokens and gains {@code refillPerSecond} of them
+ * per second; each request takes one. The token count and the time it was computed at are
+ * kept in one immutable state replaced by compare-and-set, so concurrent requests never
+ * block each other and the refill is computed lazily, only when a request arrives.
+ */
+final class TokenBucket {
+    private record State(double tokens, long updatedAt) {
+    }
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private final AtomicReference<State> state;
+
+    TokenBucket(int capacity, double refillPerSecond, long now) {
+        this.capacity = capacity;
+        this.tokensPerNano = refillPerSecond / 1_000_000_000d;
+        this.state = new AtomicReference<>(new State(capacity, now));
+    }
+
+    /**
+     * Takes a token if one is available.
+     *
+     * @param now the current time, from {@link System#nanoTime()}
+     * @return 0 if a token was taken, otherwise the nanoseconds until one is available
+     */
+    long tryConsume(long now) {
+        while (true) {
+            State current = state.get();
+            double tokens = Math.min(capacity, current.tokens() + Math.max(0, now - current.updatedAt()) * tokensPerNano);
+            if (tokens < 1) {
+                return tokensPerNano > 0 ? (long) Math.ceil((1 - tokens) / tokensPerNano) : Long.MAX_VALUE;
+            }
+            if (state.compareAndSet(current, new State(tokens - 1, Math.max(now, current.updatedAt())))) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * @return the time of the last request that took a token
+     */
+    long updatedAt() {
+        return state.get().updatedAt();
+    }
+}
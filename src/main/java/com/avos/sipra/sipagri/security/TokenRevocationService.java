@@ -0,0 +1,267 @@
+package com.avos.sipra.sipagri.security;
+
+import com.avos.sipra.sipagri.entities.RevokedToken;
+import com.avos.sipra.sipagri.entities.TokenNotBefore;
+import com.avos.sipra.sipagri.events.SupervisorChangedEvent;
+import com.avos.sipra.sipagri.repositories.RevokedTokenRepository;
+import com.avos.sipra.sipagri.repositories.TokenNotBeforeRepository;
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rejects the revoked tokens.
+ * <p>
+ * A token is revoked on its own by its identifier ({@code jti}), on logout, or together
+ * with all the tokens issued to a supervisor before its account last changed.
+ * <p>
+ * Revoked identifiers are persisted in the {@code revoked_tokens} table and mirrored in
+ * memory as a Bloom filter in front of an exact set. Almost every checked token is not
+ * revoked, and the Bloom filter tells so after a few bit tests, without hashing into the
+ * set nor querying the database; only its rare positives are confirmed against the set.
+ * The table is read again periodically to learn the revocations made on the other nodes,
+ * and identifiers are pruned, and the filter rebuilt, once their tokens have expired.
+ * <p>
+ * Each {@link SupervisorChangedEvent} sets, once the change is committed, a not-before time
+ * for the supervisor: tokens issued before that second are refused, so a profile or
+ * password change or a deletion takes effect at once even for tokens authenticated from
+ * their claims alone. Issue times have a one-second precision, so a token issued within the
+ * second of the change, such as the one of the login that follows it, is still accepted.
+ * Not-before times are persisted in the {@code token_not_before} table and read again with
+ * the revoked identifiers, so they apply on every node and survive a restart. A not-before
+ * time is only needed while tokens issued before it can still be valid, so entries older
+ * than the longest token lifetime are pruned. A not-before time learnt from another node
+ * also drops the supervisor from the {@link UserDetailsCache} of this node, which would
+ * otherwise keep its previous profile or password hash until the entry expires.
+ */
+@Slf4j
+@Service
+public class TokenRevocationService {
+    private static final double BLOOM_FALSE_POSITIVE_RATE = 0.01;
+
+    private final ConcurrentHashMap<Long, Instant> notBefore = new ConcurrentHashMap<>();
+    private final Duration retention;
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final TokenNotBeforeRepository tokenNotBeforeRepository;
+    private final UserDetailsCache userDetailsCache;
+    private final int bloomCapacity;
+    private final Duration syncOverlap;
+
+    /**
+     * Revoked identifiers and the expiry of their tokens.
+     */
+    private final ConcurrentHashMap<String, Instant> revokedIds = new ConcurrentHashMap<>();
+
+    /**
+     * Filter over {@link #revokedIds}; only replaced, and only added to, under this service's lock.
+     */
+    private volatile BloomFilter revokedFilter;
+
+    /**
+     * Revocation time from which the next synchronization reads the table.
+     */
+    private LocalDateTime syncedUntil = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    public TokenRevocationService(@Value("${app.jwt.ttl-minutes:60}") long ttlMinutes,
+                                  @Value("${app.jwt.revocation-bloom-capacity:10000}") int bloomCapacity,
+                                  @Value("${app.jwt.revocation-sync-overlap-ms:5000}") long syncOverlapMs,
+                                  RevokedTokenRepository revokedTokenRepository,
+                                  TokenNotBeforeRepository tokenNotBeforeRepository,
+                                  UserDetailsCache userDetailsCache) {
+        this.retention = Duration.ofMinutes(ttlMinutes);
+        this.bloomCapacity = bloomCapacity;
+        this.syncOverlap = Duration.ofMillis(syncOverlapMs);
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.tokenNotBeforeRepository = tokenNotBeforeRepository;
+        this.userDetailsCache = userDetailsCache;
+        this.revokedFilter = new BloomFilter(bloomCapacity, BLOOM_FALSE_POSITIVE_RATE);
+    }
+
+    /**
+     * Loads the revocations in effect at startup.
+     */
+    @PostConstruct
+    public void init() {
+        sync();
+    }
+
+    /**
+     * Revokes a single token, for instance on logout.
+     *
+     * @param claims the claims of the verified token
+     * @throws IllegalArgumentException if the token carries no identifier
+     */
+    @Transactional
+    public void revoke(Claims claims) {
+        String jti = claims.getId();
+        if (jti == null) {throw new IllegalArgumentException("Token has no identifier and cannot be revoked");}
+        Instant expiresAt = claims.getExpiration().toInstant();
+        Number supervisorId = claims.get(JwtUtil.SUPERVISOR_ID_CLAIM, Number.class);
+
+        revokedTokenRepository.save(RevokedToken.builder()
+                .jti(jti)
+                .supervisorId(supervisorId != null ? supervisorId.longValue() : null)
+                .expiresAt(toLocalDateTime(expiresAt))
+                .revokedAt(LocalDateTime.now())
+                .build());
+        remember(jti, expiresAt);
+        log.debug("Token {} revoked", jti);
+    }
+
+    /**
+     * Revokes the tokens issued to the supervisor so far, on every node.
+     *
+     * @param supervisorId the identifier of the supervisor
+     */
+    @Transactional
+    public void revokeIssuedBefore(Long supervisorId) {
+        if (supervisorId == null) {
+            return;
+        }
+        // Les dates d'émission sont à la seconde : un jeton émis dans la seconde en cours reste valide
+        Instant threshold = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        tokenNotBeforeRepository.raise(supervisorId, toLocalDateTime(threshold), LocalDateTime.now());
+        raise(supervisorId, threshold);
+        log.debug("Tokens of supervisor {} issued before {} revoked", supervisorId, threshold);
+    }
+
+    /**
+     * @param claims the claims of a verified token
+     * @return true if the token was revoked on its own or with the tokens of its supervisor
+     */
+    public boolean isRevoked(Claims claims) {
+        String jti = claims.getId();
+        // Chemin courant : le filtre de Bloom écarte presque tous les jetons sans consulter l'ensemble
+        if (jti != null && revokedFilter.mightContain(jti) && revokedIds.containsKey(jti)) {
+            return true;
+        }
+        Number supervisorId = claims.get(JwtUtil.SUPERVISOR_ID_CLAIM, Number.class);
+        return supervisorId != null && isRevoked(supervisorId.longValue(), claims.getIssuedAt());
+    }
+
+    /**
+     * @param supervisorId the identifier of the supervisor the token was issued to
+     * @param issuedAt the issue time of the token
+     * @return true if the token was issued before the second of the last change of the supervisor
+     */
+    public boolean isRevoked(Long supervisorId, Date issuedAt) {
+        Instant threshold = notBefore.get(supervisorId);
+        if (threshold == null) {
+            return false;
+        }
+        return issuedAt == null || issuedAt.toInstant().truncatedTo(ChronoUnit.SECONDS).isBefore(threshold);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onSupervisorChanged(SupervisorChangedEvent event) {
+        revokeIssuedBefore(event.supervisorId());
+    }
+
+    /**
+     * Reads the revocations recorded since the last synchronization, including those of the
+     * other nodes.
+     */
+    @Scheduled(fixedDelayString = "${app.jwt.revocation-sync-interval-ms:30000}",
+            initialDelayString = "${app.jwt.revocation-sync-interval-ms:30000}")
+    public void sync() {
+        LocalDateTime now = LocalDateTime.now();
+        // Recouvrement : une révocation validée en retard sur un autre noeud n'est pas manquée
+        LocalDateTime since = syncedUntil.minus(syncOverlap);
+        int loaded = 0;
+        for (RevokedToken revokedToken : revokedTokenRepository.findActiveSince(since, now)) {
+            if (!revokedIds.containsKey(revokedToken.getJti())) {
+                remember(revokedToken.getJti(), toInstant(revokedToken.getExpiresAt()));
+                loaded++;
+            }
+        }
+        for (TokenNotBefore threshold : tokenNotBeforeRepository.findUpdatedSince(since)) {
+            // Un seuil qui avance vient d'un changement fait sur un autre noeud : le cache local est périmé
+            if (raise(threshold.getSupervisorId(), toInstant(threshold.getNotBefore()))) {
+                userDetailsCache.invalidate(threshold.getSupervisorId());
+            }
+        }
+        syncedUntil = now;
+        if (loaded > 0) {
+            log.debug("{} token revocation(s) loaded", loaded);
+        }
+    }
+
+    /**
+     * Drops the revocations that no unexpired token can match anymore, in memory and in the
+     * table, and rebuilds the Bloom filter over the remaining ones.
+     */
+    @Scheduled(fixedDelayString = "${app.jwt.revocation-prune-interval-ms:600000}")
+    @Transactional
+    public void prune() {
+        Instant now = Instant.now();
+        Instant horizon = now.minus(retention);
+        notBefore.values().removeIf(threshold -> threshold.isBefore(horizon));
+        tokenNotBeforeRepository.deleteOlderThan(toLocalDateTime(horizon));
+
+        int deleted = revokedTokenRepository.deleteExpired(toLocalDateTime(now));
+        synchronized (this) {
+            if (revokedIds.values().removeIf(expiresAt -> !expiresAt.isAfter(now))) {
+                BloomFilter rebuilt = new BloomFilter(Math.max(bloomCapacity, revokedIds.size() * 2),
+                        BLOOM_FALSE_POSITIVE_RATE);
+                revokedIds.keySet().forEach(rebuilt::put);
+                revokedFilter = rebuilt;
+            }
+        }
+        if (deleted > 0) {
+            log.debug("{} expired token revocation(s) pruned", deleted);
+        }
+    }
+
+    /**
+     * Moves the not-before time of a supervisor in memory, never backwards.
+     *
+     * @return true if the not-before time moved
+     */
+    private boolean raise(Long supervisorId, Instant threshold) {
+        Instant previous = notBefore.get(supervisorId);
+        Instant raised = notBefore.merge(supervisorId, threshold, (current, next) -> next.isAfter(current) ? next : current);
+        return !raised.equals(previous);
+    }
+
+    /**
+     * Adds a revoked identifier in memory, under the lock so that a concurrent rebuild of the
+     * filter cannot miss it.
+     */
+    private synchronized void remember(String jti, Instant expiresAt) {
+        revokedIds.put(jti, expiresAt);
+        revokedFilter.put(jti);
+    }
+
+    private static LocalDateTime toLocalDateTime(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+    }
+
+    private static Instant toInstant(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant();
+    }
+
+    int size() {
+        return notBefore.size();
+    }
+
+    int revokedCount() {
+        return revokedIds.size();
+    }
+}
@@ -0,0 +1,167 @@
+package com.avos.sipra.sipagri.security;
+
+import com.avos.sipra.sipagri.events.SupervisorChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of the supervisors loaded for authentication, keyed by email.
+ * <p>
+ * The cached {@link CustomUserDetails} are immutable snapshots, so one instance can be
+ * handed to concurrent requests.
+ * <p>
+ * Each entry lives for a fixed time. Concurrent misses for the same email share a single
+ * load: the first caller registers a pending future and loads the supervisor, the others
+ * wait for that future instead of querying the database again. The entries of a supervisor
+ * are dropped on every {@link SupervisorChangedEvent}, once the change is committed, so a
+ * new profile or password is seen by the next request. A load running while an
+ * invalidation happens is not kept, as it may have read the previous state.
+ * <p>
+ * The event only reaches the node where the change was made. The other nodes drop their
+ * entries when {@link TokenRevocationService#sync()} reads the new not-before time that
+ * every change persists, so a change is seen cluster-wide within the revocation sync
+ * interval; the fixed lifetime of the entries still bounds it should that sync fail.
+ * <p>
+ * Hits and misses are published as {@code sipagri.user.details.cache} counters, tagged by
+ * {@code result}, and the number of entries as the {@code sipagri.user.details.cache.size} gauge.
+ */
+@Slf4j
+@Component
+public class UserDetailsCache {
+    private record Entry(CustomUserDetails userDetails, long expiresAt) {
+    }
+
+    private final ConcurrentHashMap<String, CompletableFuture<Entry>> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Incremented by each invalidation, so that loads overlapping one are not cached.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    private final long ttlNanos;
+    private final int maxSize;
+    private final Counter hits;
+    private final Counter misses;
+
+    public UserDetailsCache(@Value("${app.security.user-cache.ttl-seconds:300}") long ttlSeconds,
+                            @Value("${app.security.user-cache.max-size:1000}") int maxSize,
+                            MeterRegistry meterRegistry) {
+        this.ttlNanos = Duration.ofSeconds(ttlSeconds).toNanos();
+        this.maxSize = maxSize;
+        this.hits = Counter.builder("sipagri.user.details.cache").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("sipagri.user.details.cache").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("sipagri.user.details.cache.size", entries, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached supervisor of the email, loading it on a miss.
+     *
+     * @param email the email of the supervisor
+     * @param loader loads the supervisor from the database
+     * @return the user details of the supervisor
+     */
+    public CustomUserDetails get(String email, Function<String, CustomUserDetails> loader) {
+        while (true) {
+            CompletableFuture<Entry> cached = entries.get(email);
+            if (cached == null) {
+                CompletableFuture<Entry> pending = new CompletableFuture<>();
+                cached = entries.putIfAbsent(email, pending);
+                if (cached == null) {
+                    misses.increment();
+                    return load(email, pending, loader);
+                }
+            }
+
+            Entry entry;
+            try {
+                entry = cached.join();
+            } catch (CompletionException e) {
+                // Le chargement partagé a échoué : même erreur pour tous ceux qui l'attendaient
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+            if (entry.expiresAt() - System.nanoTime() > 0) {
+                hits.increment();
+                return entry.userDetails();
+            }
+            entries.remove(email, cached);
+        }
+    }
+
+    private CustomUserDetails load(String email, CompletableFuture<Entry> pending,
+                                   Function<String, CustomUserDetails> loader) {
+        long startGeneration = generation.get();
+        CustomUserDetails userDetails;
+        try {
+            userDetails = loader.apply(email);
+        } catch (RuntimeException e) {
+            entries.remove(email, pending);
+            pending.completeExceptionally(e);
+            throw e;
+        }
+        pending.complete(new Entry(userDetails, System.nanoTime() + ttlNanos));
+        if (generation.get() != startGeneration) {
+            entries.remove(email, pending);
+        } else if (entries.size() > maxSize) {
+            evict();
+        }
+        return userDetails;
+    }
+
+    /**
+     * Drops the expired entries, then the oldest ones until the cache is back to its size.
+     */
+    private synchronized void evict() {
+        long now = System.nanoTime();
+        entries.values().removeIf(future -> future.isDone() && !future.isCompletedExceptionally()
+                && future.join().expiresAt() - now <= 0);
+        int excess = entries.size() - maxSize;
+        if (excess > 0) {
+            entries.entrySet().stream()
+                    .filter(e -> e.getValue().isDone() && !e.getValue().isCompletedExceptionally())
+                    .sorted(Comparator.comparingLong(e -> e.getValue().join().expiresAt()))
+                    .limit(excess)
+                    .toList()
+                    .forEach(e -> entries.remove(e.getKey(), e.getValue()));
+        }
+    }
+
+    /**
+     * Drops the cached entries of a supervisor, and the loads in progress.
+     *
+     * @param supervisorId the identifier of the supervisor
+     */
+    public void invalidate(Long supervisorId) {
+        generation.incrementAndGet();
+        entries.values().removeIf(future -> !future.isDone() || future.isCompletedExceptionally()
+                || supervisorId.equals(future.join().userDetails().supervisorId()));
+        log.debug("User details of supervisor {} invalidated", supervisorId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSupervisorChanged(SupervisorChangedEvent event) {
+        if (event.supervisorId() != null) {
+            invalidate(event.supervisorId());
+        }
+    }
+
+    int size() {
+        return entries.size();
+    }
+}
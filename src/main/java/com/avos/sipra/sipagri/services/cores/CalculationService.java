@@ -1,13 +1,13 @@
 package com.avos.sipra.sipagri.services.cores;
 
-import com.avos.sipra.sipagri.entities.Plantation;
-import com.avos.sipra.sipagri.repositories.PlantationRepository;
-import com.avos.sipra.sipagri.services.dtos.ParamsDTO;
+import com.avos.sipra.sipagri.enums.CropType;
+import com.avos.sipra.sipagri.repositories.ProductionRepository;
 import com.avos.sipra.sipagri.services.dtos.ProductionDTO;
+import com.avos.sipra.sipagri.services.dtos.RepaymentLedgerDTO;
 import org.springframework.stereotype.Service;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.Optional;
+import java.util.*;
 
 /**
  * Service class responsible for performing various calculations related
@@ -15,69 +15,68 @@ import java.util.Optional;
  * Uses external services and repositories to fetch required data for the computations.
  * <p>
  * It provides methods for:
- * - Calculating production values based on input data.
- * - Determining whether production payments satisfy plantation costs.
+ * - Calculating production values based on input data, one production at a time or
+ *   for a whole batch of productions with a constant number of queries.
+ * - Determining whether the cumulative purchases of a plantation cover its kit cost.
  * <p>
  * Dependencies include:
- * - ParamsService for retrieving parameter values.
- * - PlantationRepository for accessing plantation data.
+ * - PurchasePriceService for resolving the purchase price in force at the harvest date.
+ * - RepaymentLedgerService for reading the running repayment balance of plantations.
+ * - ProductionRepository for reading the stored value of productions being updated.
  */
 @Slf4j
 @Service
 public class CalculationService {
     /**
-     * Service responsible for managing and retrieving parameter-related data.
-     * This service provides methods to perform CRUD operations and custom
-     * queries on parameter entities, such as finding parameters by code or name.
+     * Service holding the effective-dated purchase price history.
+     * Prices are resolved from its in-memory table, without any database access.
      */
-    private final ParamsService paramsService;
+    private final PurchasePriceService purchasePriceService;
     /**
-     * Repository interface for managing and accessing plantation data.
-     * This is used to interface with the data layer and perform CRUD operations
-     * or query plantation-related entities.
-     * <p>
-     * The repository acts as a bridge between the service layer (e.g., CalculationService)
-     * and the underlying data source, abstracting the complexities of data access.
-     * Typical operations may include fetching, saving, updating, or deleting data
-     * related to plantations.
+     * Service holding the running repayment balance of each plantation, read by primary key.
+     */
+    private final RepaymentLedgerService repaymentLedgerService;
+    /**
+     * Repository used to read the plantation and previous purchase price of productions
+     * being updated, whose old value is already part of the repayment balance.
      */
-    private final PlantationRepository plantationRepository;
+    private final ProductionRepository productionRepository;
 
     /**
      * Constructs a CalculationService instance with the specified services and repository.
      *
-     * @param paramsService the service to handle parameter-related operations
-     * @param plantationRepository the repository for accessing plantation data
+     * @param purchasePriceService the service resolving purchase prices by date
+     * @param repaymentLedgerService the service holding the repayment balances
+     * @param productionRepository the repository for accessing production data
      */
-    public CalculationService(ParamsService paramsService, PlantationRepository plantationRepository) {
-        this.paramsService = paramsService;
-        this.plantationRepository = plantationRepository;
+    public CalculationService(PurchasePriceService purchasePriceService,
+                              RepaymentLedgerService repaymentLedgerService,
+                              ProductionRepository productionRepository) {
+        this.purchasePriceService = purchasePriceService;
+        this.repaymentLedgerService = repaymentLedgerService;
+        this.productionRepository = productionRepository;
     }
 
     /**
      * Calculates and sets specific production values for the provided {@code ProductionDTO}.
-     * The method computes the purchase price based on the production in kilograms and predefined
-     * price parameters, and determines whether the production must be paid using additional plantation details.
+     * The method computes the purchase price based on the production in kilograms and the corn
+     * price in force at the production date ({@code year}, today when absent), and determines whether the production must be paid using additional plantation details.
      *
      * @param productionDTO the {@link ProductionDTO} containing production data, including production amount in kilograms
      *                      and related plantation details.
      * @return the updated {@link ProductionDTO} with calculated values such as purchase price and payment status.
      * @throws IllegalArgumentException if the production in kilograms is null or less than or equal to zero.
-     * @throws IllegalStateException if the required parameter for price calculation is not found or is invalid.
+     * @throws IllegalStateException if no purchase price is in force at the production date.
      */
     public ProductionDTO calculateProductionValues(ProductionDTO productionDTO) {
         if (productionDTO.getProductionInKg() == null || productionDTO.getProductionInKg() <= 0) {
             throw new IllegalArgumentException("Production en kg doit être positive et non nulle");
         }
 
-        // Récupération du paramètre de prix
-        ParamsDTO paramsDTO = paramsService.findByName("PRIX_ACHAT_MAIS");
-        if (paramsDTO == null || paramsDTO.getValue() == null) {
-            throw new IllegalStateException("Paramètre PRIX_ACHAT_MAIS non trouvé ou invalide");
-        }
+        // Prix en vigueur à la date de la récolte
+        double pricePerKg = purchasePriceService.findPricePerKg(CropType.MAIS, productionDTO.getYear());
 
         // Calcul du prix d'achat
-        double pricePerKg = Double.parseDouble(paramsDTO.getValue());
         double purchasePrice = productionDTO.getProductionInKg() * pricePerKg;
         productionDTO.setPurchasePrice(purchasePrice);
 
@@ -88,8 +87,44 @@ public class CalculationService {
     }
 
     /**
-     * Calculates whether a production must be paid based on its purchase price and the associated plantation's kit cost.
+     * Calculates the purchase price and payment status of a batch of productions.
+     * <p>
+     * Equivalent to calling {@link #calculateProductionValues(ProductionDTO)} on each production
+     * in order, each production seeing the purchases of the previous ones of the same plantation.
+     * The repayment balances and the stored values of updated productions are loaded with one
+     * {@code IN} query each instead of one query per production. Prices come from the in-memory
+     * price table.
+     *
+     * @param productionDTOs the productions to compute, updated in place
+     * @return the updated productions, in the same order
+     * @throws IllegalArgumentException if a production in kilograms is null or less than or equal to zero.
+     * @throws IllegalStateException if no purchase price is in force at a production date.
+     */
+    public List<ProductionDTO> calculateProductionValues(Collection<ProductionDTO> productionDTOs) {
+        if (productionDTOs == null || productionDTOs.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<ProductionDTO> results = new ArrayList<>(productionDTOs.size());
+        for (ProductionDTO productionDTO : productionDTOs) {
+            if (productionDTO.getProductionInKg() == null || productionDTO.getProductionInKg() <= 0) {
+                throw new IllegalArgumentException("Production en kg doit être positive et non nulle");
+            }
+            double pricePerKg = purchasePriceService.findPricePerKg(CropType.MAIS, productionDTO.getYear());
+            productionDTO.setPurchasePrice(productionDTO.getProductionInKg() * pricePerKg);
+            results.add(productionDTO);
+        }
+
+        applyMustBePaid(results, Collections.nCopies(results.size(), null));
+        return results;
+    }
+
+    /**
+     * Calculates whether the purchases of the plantation, including this production, cover the cost of its kit.
      * Updates the {@code mustBePaid} field in the provided {@link ProductionDTO}.
+     * <p>
+     * The plantation balance is read from the repayment ledger by primary key; when the production
+     * already exists, its previously stored purchase price is replaced by the new one.
      *
      * @param productionDTO the production data transfer object containing purchase price and other details
      * @param plantationId the identifier of the plantation to retrieve data from, can be null
@@ -97,32 +132,73 @@ public class CalculationService {
      * @throws IllegalStateException if an error occurs while fetching plantation data or performing the calculation
      */
     public ProductionDTO calculateMustBePaid(ProductionDTO productionDTO, Long plantationId) {
-        boolean mustBePaid = false;
-
         try {
-            if (plantationId != null) {
-                Optional<Plantation> plantationOpt = plantationRepository.findById(plantationId);
-                if (plantationOpt.isPresent()) {
-                    Plantation plantation = plantationOpt.get();
-                    if (plantation.getKit() != null && plantation.getKit().getTotalCost() != null) {
-                        mustBePaid = productionDTO.getPurchasePrice() >= plantation.getKit().getTotalCost();
-                    }
-                }
-            } else if (productionDTO.getId() != null) {
-                Optional<Plantation> plantationOpt = plantationRepository.findByProductions_id(productionDTO.getId());
-                if (plantationOpt.isPresent()) {
-                    Plantation plantation = plantationOpt.get();
-                    if (plantation.getKit() != null && plantation.getKit().getTotalCost() != null) {
-                        mustBePaid = productionDTO.getPurchasePrice() >= plantation.getKit().getTotalCost();
-                    }
-                }
-            }
+            applyMustBePaid(List.of(productionDTO), Collections.singletonList(plantationId));
         } catch (Exception e) {
             log.debug("Erreur calcul mustBePaid: " + e.getMessage());
             throw new  IllegalStateException("Erreur calcul mustBePaid: " + e.getMessage());
         }
-
-        productionDTO.setMustBePaid(mustBePaid);
         return productionDTO;
     }
+
+    /**
+     * Sets the payment status of productions whose purchase price is known, in order.
+     *
+     * @param productionDTOs the productions
+     * @param plantationIds the plantation of each production, null to use the production's own
+     *                      plantation id, or the stored plantation of the production
+     */
+    private void applyMustBePaid(List<ProductionDTO> productionDTOs, List<Long> plantationIds) {
+        // Valeurs déjà enregistrées des productions modifiées : [id, plantation, prix d'achat]
+        Set<Long> productionIds = new HashSet<>();
+        for (ProductionDTO productionDTO : productionDTOs) {
+            if (productionDTO.getId() != null) {
+                productionIds.add(productionDTO.getId());
+            }
+        }
+        Map<Long, Object[]> storedById = new HashMap<>();
+        if (!productionIds.isEmpty()) {
+            for (Object[] row : productionRepository.findPlantationAndPurchasePriceByIds(productionIds)) {
+                storedById.put((Long) row[0], row);
+            }
+        }
+
+        Long[] plantationOf = new Long[productionDTOs.size()];
+        Set<Long> ledgerIds = new HashSet<>();
+        for (int i = 0; i < productionDTOs.size(); i++) {
+            ProductionDTO productionDTO = productionDTOs.get(i);
+            Long plantationId = plantationIds.get(i) != null ? plantationIds.get(i) : productionDTO.getPlantationId();
+            if (plantationId == null && productionDTO.getId() != null && storedById.containsKey(productionDTO.getId())) {
+                plantationId = (Long) storedById.get(productionDTO.getId())[1];
+            }
+            plantationOf[i] = plantationId;
+            if (plantationId != null) {
+                ledgerIds.add(plantationId);
+            }
+        }
+        Map<Long, RepaymentLedgerDTO> ledgers = repaymentLedgerService.findByPlantationIds(ledgerIds);
+
+        // Solde de départ : cumul du registre sans l'ancienne valeur des productions modifiées
+        Map<Long, Double> running = new HashMap<>();
+        for (RepaymentLedgerDTO ledger : ledgers.values()) {
+            running.put(ledger.getPlantationId(), ledger.getCumulativePurchase());
+        }
+        for (Object[] stored : storedById.values()) {
+            if (stored[2] != null) {
+                running.computeIfPresent((Long) stored[1], (id, sum) -> sum - ((Number) stored[2]).doubleValue());
+            }
+        }
+
+        for (int i = 0; i < productionDTOs.size(); i++) {
+            ProductionDTO productionDTO = productionDTOs.get(i);
+            RepaymentLedgerDTO ledger = plantationOf[i] == null ? null : ledgers.get(plantationOf[i]);
+            if (ledger == null) {
+                productionDTO.setMustBePaid(false);
+                continue;
+            }
+            double purchasePrice = productionDTO.getPurchasePrice() == null ? 0 : productionDTO.getPurchasePrice();
+            double cumulative = running.merge(plantationOf[i], purchasePrice, Double::sum);
+            productionDTO.setMustBePaid(cumulative >= ledger.getKitDebt());
+        }
+    }
 }
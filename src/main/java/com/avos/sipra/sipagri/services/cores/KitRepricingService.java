@@ -0,0 +1,21 @@
+package com.avos.sipra.sipagri.services.cores;
+
+import com.avos.sipra.sipagri.services.dtos.KitRepricingReportDTO;
+
+/**
+ * Propagates product price changes to the kits containing the product.
+ */
+public interface KitRepricingService {
+    /**
+     * Recomputes the cost of the kit lines and kits containing a product, and the kit
+     * debt of the plantations equipped with them, after a change of the product price.
+     * Runs as a single transaction made of a constant number of set-based statements,
+     * whatever the size of the catalog.
+     *
+     * @param productId the identifier of the product
+     * @param previousPrice the price before the change, reported only; may be null
+     * @param price the new unit price of the product
+     * @return the impact of the repricing on the active plantations
+     */
+    KitRepricingReportDTO repriceProduct(Long productId, Double previousPrice, double price);
+}
@@ -2,6 +2,15 @@ package com.avos.sipra.sipagri.services.cores;
 
 import com.avos.sipra.sipagri.services.dtos.KitDTO;
 
-public interface KitService extends CrudService<KitDTO, Long> {
+import java.util.List;
 
+public interface KitService extends CrudService<KitDTO, Long> {
+    /**
+     * Saves several kits with their lines in one transaction, resolving all products
+     * with a single query.
+     *
+     * @param kitDTOs the kits to save
+     * @return the saved kits, in the same order
+     */
+    List<KitDTO> saveAll(List<KitDTO> kitDTOs);
 }
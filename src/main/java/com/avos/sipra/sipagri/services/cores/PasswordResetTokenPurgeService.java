@@ -0,0 +1,13 @@
+package com.avos.sipra.sipagri.services.cores;
+
+/**
+ * Deletes the expired password reset tokens, which are otherwise only removed when used.
+ */
+public interface PasswordResetTokenPurgeService {
+    /**
+     * Deletes the expired tokens in bounded batches, on a single node.
+     *
+     * @return the number of deleted tokens, -1 if another node is running the purge
+     */
+    int purgeExpired();
+}
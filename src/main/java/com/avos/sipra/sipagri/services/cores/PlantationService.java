@@ -5,6 +5,7 @@ import com.avos.sipra.sipagri.services.dtos.PlantationDTO;
 import com.avos.sipra.sipagri.enums.PlantationStatus;
 import org.springframework.data.domain.Pageable;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface PlantationService extends CrudService<PlantationDTO, Long> {
@@ -93,4 +94,40 @@ public interface PlantationService extends CrudService<PlantationDTO, Long> {
      *         pagination metadata (e.g., current page, total pages, total elements), and other relevant information
      */
     PaginationResponseDTO<PlantationDTO> findAllPagedByParams(Pageable pageable, String params, Long supervisorId);
+
+    /**
+     * Assigns another existing kit to a plantation. The kit is referenced by its identifier
+     * and never modified through the plantation.
+     *
+     * @param plantationId the identifier of the plantation
+     * @param kitId the identifier of the kit to assign
+     * @return the updated plantation
+     */
+    PlantationDTO changeKit(Long plantationId, Long kitId);
+
+    /**
+     * Deletes several plantations with set-based statements, leaving their productions,
+     * repayment balances and season summaries to the database cascades.
+     *
+     * @param ids the identifiers of the plantations
+     * @return the number of deleted plantations
+     */
+    int deleteAll(Collection<Long> ids);
+
+    /**
+     * Deletes, as {@link #deleteAll(Collection)} does, those of the given plantations that are
+     * managed by a supervisor; the others are left untouched.
+     *
+     * @param ids the identifiers of the plantations
+     * @param supervisorId the supervisor of the plantations, or null for any supervisor
+     * @return the number of deleted plantations
+     */
+    int deleteAll(Collection<Long> ids, Long supervisorId);
+
+    /**
+     * @param id the identifier of the plantation
+     * @param supervisorId the identifier of the supervisor
+     * @return true if the plantation exists and its planter is managed by the supervisor
+     */
+    boolean isOwnedBy(Long id, Long supervisorId);
 }
@@ -4,6 +4,7 @@ import com.avos.sipra.sipagri.services.dtos.PaginationResponseDTO;
 import com.avos.sipra.sipagri.services.dtos.PlanterDTO;
 import org.springframework.data.domain.Pageable;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface PlanterService extends CrudService<PlanterDTO, Long> {
@@ -12,5 +13,62 @@ public interface PlanterService extends CrudService<PlanterDTO, Long> {
 
     PaginationResponseDTO<PlanterDTO> findAllPagedByVillage(Pageable pageable, String params);
 
+    /**
+     * Searches the planters of a supervisor by first name or last name.
+     *
+     * @param pageable the pagination information
+     * @param params the text searched in the first name or last name
+     * @param supervisorId the supervisor of the planters
+     * @return the matching planters of the supervisor
+     */
+    PaginationResponseDTO<PlanterDTO> findAllPagedByParams(Pageable pageable, String params, Long supervisorId);
+
+    /**
+     * Searches the planters of a supervisor by village.
+     *
+     * @param pageable the pagination information
+     * @param params the text searched in the village
+     * @param supervisorId the supervisor of the planters
+     * @return the matching planters of the supervisor
+     */
+    PaginationResponseDTO<PlanterDTO> findAllPagedByVillage(Pageable pageable, String params, Long supervisorId);
+
+    /**
+     * @param id the identifier of the planter
+     * @param supervisorId the identifier of the supervisor
+     * @return true if the planter exists and is managed by the supervisor
+     */
+    boolean isOwnedBy(Long id, Long supervisorId);
+
     List<PlanterDTO> findAll(Long supervisorId);
+
+    /**
+     * Deletes several planters with set-based statements. Their plantations, productions and
+     * repayment balances are deleted by the database, and the deletions are recorded for the
+     * mobile synchronization.
+     *
+     * @param ids the identifiers of the planters
+     * @return the number of deleted planters
+     */
+    int deleteAll(Collection<Long> ids);
+
+    /**
+     * Deletes, as {@link #deleteAll(Collection)} does, those of the given planters that are
+     * managed by a supervisor; the others are left untouched.
+     *
+     * @param ids the identifiers of the planters
+     * @param supervisorId the supervisor of the planters, or null for any supervisor
+     * @return the number of deleted planters
+     */
+    int deleteAll(Collection<Long> ids, Long supervisorId);
+
+    /**
+     * Deletes the planters matching the given filters, as {@link #deleteAll(Collection)} does.
+     * At least one filter is required.
+     *
+     * @param supervisorId the supervisor of the planters, or null for any supervisor
+     * @param village the village of the planters, compared ignoring case, or null for any village
+     * @return the number of deleted planters
+     */
+    int deleteByFilter(Long supervisorId, String village);
 }
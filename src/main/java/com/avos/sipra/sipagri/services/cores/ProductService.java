@@ -1,6 +1,26 @@
 package com.avos.sipra.sipagri.services.cores;
 
+import com.avos.sipra.sipagri.services.dtos.KitRepricingReportDTO;
 import com.avos.sipra.sipagri.services.dtos.ProductDTO;
 
+import java.util.Collection;
+import java.util.Map;
+
 public interface ProductService extends CrudService<ProductDTO, Long> {
+    /**
+     * Retrieves several products with a single query.
+     *
+     * @param ids the identifiers of the products
+     * @return the products found, indexed by id; unknown ids are absent
+     */
+    Map<Long, ProductDTO> findAllById(Collection<Long> ids);
+
+    /**
+     * Changes the price of a product and reprices the kits containing it, in one transaction.
+     *
+     * @param id the identifier of the product
+     * @param price the new unit price
+     * @return the impact of the repricing on the active plantations
+     */
+    KitRepricingReportDTO updatePrice(Long id, Double price);
 }
@@ -0,0 +1,43 @@
+package com.avos.sipra.sipagri.services.cores;
+
+import com.avos.sipra.sipagri.services.dtos.IngestionStatusDTO;
+import com.avos.sipra.sipagri.services.dtos.ProductionDTO;
+
+/**
+ * Optional write-ahead ingestion of productions, absorbing the harvest peaks.
+ * <p>
+ * When enabled, a production is acknowledged as soon as it is durably appended to a local
+ * log, and recorded in the database later by batches.
+ */
+public interface ProductionIngestionService {
+    /**
+     * @return true if productions are ingested through the log
+     */
+    boolean isEnabled();
+
+    /**
+     * Appends a production to the log. An idempotency key is generated when the production
+     * has none, so that a replay of the log after a crash never records it twice. The
+     * plantation and the purchase price are checked before the production is queued.
+     *
+     * @param productionDTO the production to record
+     * @return true if the production was durably queued, false if the log is disabled or full
+     *         and the production must be recorded synchronously
+     * @throws IllegalArgumentException if the production is invalid, its plantation does not
+     *         exist or no purchase price applies to its date
+     */
+    boolean offer(ProductionDTO productionDTO);
+
+    /**
+     * Records the queued productions in the database, batch after batch, until the log is
+     * empty or the database fails.
+     *
+     * @return the number of productions drained from the log
+     */
+    int drain();
+
+    /**
+     * @return the state of the log and of its backlog
+     */
+    IngestionStatusDTO status();
+}
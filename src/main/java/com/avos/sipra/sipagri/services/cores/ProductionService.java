@@ -12,4 +12,22 @@ public interface ProductionService extends CrudService<ProductionDTO, Long> {
     PaginationResponseDTO<ProductionDTO> findProductionByPlantationPlanterSupervisor(Pageable pageable, Long supervisorId);
 
     List<ProductionDTO> findAll(Long supervisorId);
+
+    /**
+     * Searches the productions of a supervisor by plantation name or production amount.
+     *
+     * @param pageable the pagination information
+     * @param params the text searched
+     * @param supervisorId the supervisor of the productions
+     * @return the matching productions of the supervisor
+     */
+    PaginationResponseDTO<ProductionDTO> findAllPagedByParams(Pageable pageable, String params, Long supervisorId);
+
+    /**
+     * @param id the identifier of the production
+     * @param supervisorId the identifier of the supervisor
+     * @return true if the production exists, in the hot table or the archive, and its plantation
+     *         is managed by the supervisor
+     */
+    boolean isOwnedBy(Long id, Long supervisorId);
 }
@@ -0,0 +1,24 @@
+package com.avos.sipra.sipagri.services.cores;
+
+import com.avos.sipra.sipagri.services.dtos.ProductionDTO;
+import com.avos.sipra.sipagri.services.dtos.ProductionSyncResultDTO;
+
+import java.util.List;
+
+/**
+ * Records the productions collected offline by field agents.
+ */
+public interface ProductionSyncService {
+    /**
+     * Records a batch of productions, each identified by a client-generated idempotency key.
+     * <p>
+     * Productions whose key has already been recorded are reported as duplicates and left
+     * untouched, so a client can safely replay a batch after a lost response. Invalid
+     * productions are rejected individually without failing the rest of the batch.
+     *
+     * @param productionDTOs the productions to record
+     * @return one result per production, in the order of the request
+     * @throws IllegalArgumentException if the batch is null or larger than the allowed size
+     */
+    List<ProductionSyncResultDTO> sync(List<ProductionDTO> productionDTOs);
+}
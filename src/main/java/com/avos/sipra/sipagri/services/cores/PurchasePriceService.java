@@ -0,0 +1,25 @@
+package com.avos.sipra.sipagri.services.cores;
+
+import com.avos.sipra.sipagri.enums.CropType;
+import com.avos.sipra.sipagri.services.dtos.PurchasePriceDTO;
+
+import java.util.Date;
+
+public interface PurchasePriceService extends CrudService<PurchasePriceDTO, Long> {
+    /**
+     * Returns the price per kilogram of a crop in force at the given date.
+     * <p>
+     * Served from the in-memory price table: no database access is made.
+     *
+     * @param crop the crop
+     * @param date the harvest date; today when null
+     * @return the price per kilogram in force at that date
+     * @throws IllegalStateException if no price is in force at that date
+     */
+    double findPricePerKg(CropType crop, Date date);
+
+    /**
+     * Rebuilds the in-memory price table from the database and swaps it in.
+     */
+    void reload();
+}
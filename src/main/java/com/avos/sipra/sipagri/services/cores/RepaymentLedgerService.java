@@ -0,0 +1,77 @@
+package com.avos.sipra.sipagri.services.cores;
+
+import com.avos.sipra.sipagri.services.dtos.RepaymentLedgerDTO;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Maintains the per-plantation repayment balances (kit debt against the cumulative
+ * purchase value of the productions).
+ */
+public interface RepaymentLedgerService {
+    /**
+     * Returns the repayment balance of a plantation, creating it from the plantation's
+     * kit and productions when it does not exist yet.
+     *
+     * @param plantationId the identifier of the plantation
+     * @return the balance, or null if the plantation does not exist
+     */
+    RepaymentLedgerDTO findByPlantationId(Long plantationId);
+
+    /**
+     * Returns the repayment balances of several plantations with a single query in the
+     * usual case, creating the missing ones.
+     *
+     * @param plantationIds the identifiers of the plantations
+     * @return the balances indexed by plantation id; unknown plantations are absent
+     */
+    Map<Long, RepaymentLedgerDTO> findByPlantationIds(Collection<Long> plantationIds);
+
+    /**
+     * Atomically adds a purchase amount to the balance of a plantation. Must be called
+     * once the production carrying that amount has been saved.
+     * <p>
+     * When the balance was read earlier in the same transaction, the increment only applies
+     * if no other transaction has changed it since, so that a payment status computed from
+     * that balance stays exact. Call it at most once per plantation and transaction.
+     *
+     * @param plantationId the identifier of the plantation
+     * @param delta the purchase amount to add, negative to subtract
+     * @throws org.springframework.dao.OptimisticLockingFailureException if the balance has
+     *         changed since it was read; the transaction must be retried
+     */
+    void recordPurchase(Long plantationId, double delta);
+
+    /**
+     * Recomputes the balances of the given plantations from their kit and productions,
+     * creating the missing ones.
+     *
+     * @param plantationIds the identifiers of the plantations
+     */
+    void refresh(Collection<Long> plantationIds);
+
+    /**
+     * Recomputes the kit debt of the plantations equipped with a kit after a change of
+     * its total cost.
+     *
+     * @param kitId the identifier of the kit
+     */
+    void refreshKitDebt(Long kitId);
+
+    /**
+     * Recomputes the kit debt of the plantations whose kit contains a product after a
+     * change of its price.
+     *
+     * @param productId the identifier of the product
+     * @return the number of balances updated
+     */
+    int refreshKitDebtByProduct(Long productId);
+
+    /**
+     * Rebuilds all balances from the kits and productions in one set-based pass.
+     *
+     * @return the number of balances rebuilt
+     */
+    int rebuild();
+}
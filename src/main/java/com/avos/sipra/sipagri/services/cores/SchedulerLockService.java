@@ -0,0 +1,22 @@
+package com.avos.sipra.sipagri.services.cores;
+
+import java.time.Duration;
+
+/**
+ * Runs a scheduled job on a single node at a time, through a lock row shared by all the
+ * nodes in the database.
+ */
+public interface SchedulerLockService {
+    /**
+     * Runs the job if no other node is running it.
+     * <p>
+     * The lock is held at most {@code lockAtMostFor}, even if this node stops before
+     * releasing it; the job must finish within that time.
+     *
+     * @param name the name of the job
+     * @param lockAtMostFor the longest time the job may hold the lock
+     * @param job the job to run
+     * @return true if the job was run, false if another node holds the lock
+     */
+    boolean runExclusively(String name, Duration lockAtMostFor, Runnable job);
+}
@@ -0,0 +1,44 @@
+package com.avos.sipra.sipagri.services.cores;
+
+import com.avos.sipra.sipagri.services.dtos.SeasonArchiveReportDTO;
+
+import java.util.List;
+
+/**
+ * Moves the productions of closed seasons out of the hot table.
+ * <p>
+ * Only the current season and the previous ones still open are kept in "Productions"; the
+ * productions of older seasons are copied into the archive and their totals written to
+ * season summaries, from which historical figures are read.
+ */
+public interface SeasonArchiveService {
+    /**
+     * @return the oldest season whose productions are kept in the hot table
+     */
+    int firstHotSeason();
+
+    /**
+     * Tells whether a requested season range reaches archived data.
+     *
+     * @param season the requested season, null for all seasons
+     * @return true for all seasons or for a closed season
+     */
+    boolean coversArchive(Integer season);
+
+    /**
+     * Archives the productions of a closed season in one transaction. Can be run again to
+     * archive productions of that season recorded late.
+     *
+     * @param season the season to close
+     * @return the number of archived productions and written summaries
+     * @throws IllegalArgumentException if the season is not closed yet
+     */
+    SeasonArchiveReportDTO closeSeason(int season);
+
+    /**
+     * Archives every closed season still present in the hot table, one transaction per season.
+     *
+     * @return one report per archived season
+     */
+    List<SeasonArchiveReportDTO> closeEndedSeasons();
+}
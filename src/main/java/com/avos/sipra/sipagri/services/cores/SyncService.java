@@ -0,0 +1,40 @@
+package com.avos.sipra.sipagri.services.cores;
+
+import com.avos.sipra.sipagri.enums.SyncEntityType;
+import com.avos.sipra.sipagri.services.dtos.SyncResponseDTO;
+
+import java.util.Collection;
+
+/**
+ * Serves the delta synchronization of the mobile application.
+ */
+public interface SyncService {
+    /**
+     * Retrieves the records changed and deleted since a watermark.
+     *
+     * @param token the watermark returned by the previous synchronization, or null for a full download
+     * @param supervisorId the supervisor whose records are synchronized, or null for all records
+     * @return the changes and the watermark of the next synchronization
+     * @throws IllegalArgumentException if the token is invalid
+     */
+    SyncResponseDTO changesSince(String token, Long supervisorId);
+
+    /**
+     * Records the deletion of a synchronized record. Must be called before the record is
+     * deleted, in the same transaction.
+     *
+     * @param entityType the type of the record
+     * @param id the identifier of the record
+     */
+    void recordDeletion(SyncEntityType entityType, Long id);
+
+    /**
+     * Records the deletion of several synchronized records and of the records deleted with
+     * them by the database cascades. Must be called before the records are deleted, in the
+     * same transaction.
+     *
+     * @param entityType the type of the records
+     * @param ids the identifiers of the records
+     */
+    void recordDeletions(SyncEntityType entityType, Collection<Long> ids);
+}
@@ -0,0 +1,239 @@
+package com.avos.sipra.sipagri.services.cores.impl;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Durable append-only log of opaque records, stored in a memory-mapped file of fixed capacity.
+ * <p>
+ * Layout: a header holding the checkpoint (offset of the first record not yet consumed),
+ * followed by records {@code [length:int][crc32:int][payload]}. Each append writes a zero
+ * length after the record and forces the written range to disk before returning, so an
+ * acknowledged record survives a crash. On opening, records are scanned from the checkpoint
+ * and the scan stops at the first zero length or checksum mismatch, which discards a torn
+ * last write. Once every record is consumed the log is rewound to the start of the file.
+ * <p>
+ * A reader that keeps up without ever catching up exactly would otherwise let the file
+ * fill with consumed records. So once the consumed prefix holds at least a quarter of the
+ * file and more bytes than the records left, those records are compacted to the start of
+ * the file. They are copied to a range that does not overlap their current one and forced
+ * to disk before the checkpoint is moved onto them, so a crash at any point recovers
+ * either the old or the new copy.
+ * <p>
+ * Not thread-safe on its own: callers serialize access.
+ */
+final class AppendLog implements AutoCloseable {
+    private static final int HEADER_SIZE = 16;
+    private static final int RECORD_HEADER_SIZE = 8;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private long readPosition;
+    private long writePosition;
+    private int pending;
+
+    /**
+     * A group of consecutive records read from the log.
+     *
+     * @param payloads the record payloads, in append order
+     * @param end the offset following the last record, to pass to {@link #commit(long)}
+     */
+    record Batch(List<byte[]> payloads, long end) {
+        boolean isEmpty() {
+            return payloads.isEmpty();
+        }
+    }
+
+    private AppendLog(FileChannel channel, MappedByteBuffer buffer, int capacity) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Opens or creates the log and recovers the records not consumed yet.
+     *
+     * @param path the log file
+     * @param capacity the size of the file, in bytes
+     * @return the opened log
+     * @throws IOException if the file cannot be opened or mapped
+     */
+    static AppendLog open(Path path, int capacity) throws IOException {
+        if (capacity <= HEADER_SIZE + RECORD_HEADER_SIZE) {
+            throw new IllegalArgumentException("Capacity is too small");
+        }
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        AppendLog log = new AppendLog(channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity), capacity);
+        log.recover();
+        return log;
+    }
+
+    private void recover() {
+        long checkpoint = buffer.getLong(0);
+        readPosition = checkpoint >= HEADER_SIZE && checkpoint < capacity ? checkpoint : HEADER_SIZE;
+        writePosition = readPosition;
+        pending = 0;
+        while (true) {
+            byte[] payload = readAt(writePosition);
+            if (payload == null) {
+                break;
+            }
+            writePosition += RECORD_HEADER_SIZE + payload.length;
+            pending++;
+        }
+    }
+
+    /**
+     * Appends a record and forces it to disk.
+     *
+     * @param payload the record content, not empty
+     * @return false if the log has no room left for the record
+     */
+    boolean append(byte[] payload) {
+        if (payload.length == 0) {
+            throw new IllegalArgumentException("Payload cannot be empty");
+        }
+        long size = RECORD_HEADER_SIZE + (long) payload.length;
+        if (writePosition + size > capacity) {
+            return false;
+        }
+        int position = (int) writePosition;
+        buffer.putInt(position + 4, checksum(payload));
+        buffer.put(position + RECORD_HEADER_SIZE, payload);
+        long terminator = writePosition + size;
+        int forced = (int) size;
+        if (terminator + 4 <= capacity) {
+            buffer.putInt((int) terminator, 0);
+            forced += 4;
+        }
+        // La longueur est écrite en dernier : l'enregistrement n'existe qu'une fois complet
+        buffer.putInt(position, payload.length);
+        buffer.force(position, forced);
+        writePosition = terminator;
+        pending++;
+        return true;
+    }
+
+    /**
+     * Reads, without consuming them, up to {@code max} records following the checkpoint.
+     */
+    Batch read(int max) {
+        List<byte[]> payloads = new ArrayList<>();
+        long position = readPosition;
+        while (payloads.size() < max && position < writePosition) {
+            byte[] payload = readAt(position);
+            if (payload == null) {
+                break;
+            }
+            payloads.add(payload);
+            position += RECORD_HEADER_SIZE + payload.length;
+        }
+        return new Batch(payloads, position);
+    }
+
+    /**
+     * Marks the records before {@code end} as consumed and forces the checkpoint to disk.
+     * Rewinds the log when no record is left.
+     */
+    void commit(long end) {
+        if (end < readPosition || end > writePosition) {
+            throw new IllegalArgumentException("Invalid checkpoint " + end);
+        }
+        pending -= count(readPosition, end);
+        if (end == writePosition) {
+            // Le premier emplacement est vidé avant de reculer le point de reprise
+            buffer.putInt(HEADER_SIZE, 0);
+            buffer.force(HEADER_SIZE, 4);
+            end = HEADER_SIZE;
+            writePosition = HEADER_SIZE;
+        }
+        checkpoint(end);
+        compactIfWorthIt();
+    }
+
+    /**
+     * Moves the records not consumed yet to the start of the file, once the consumed prefix
+     * is large enough and can hold them with their terminator. Only called from
+     * {@link #commit(long)}, when no batch read earlier is waiting for its commit.
+     */
+    private void compactIfWorthIt() {
+        long consumed = readPosition - HEADER_SIZE;
+        long live = writePosition - readPosition;
+        if (live == 0 || consumed < (capacity - HEADER_SIZE) / 4 || consumed < live + 4) {
+            return;
+        }
+        // Copie vers une zone disjointe, forcée avant le point de reprise : l'ancienne copie reste valide jusque-là
+        buffer.put(HEADER_SIZE, buffer, (int) readPosition, (int) live);
+        buffer.putInt((int) (HEADER_SIZE + live), 0);
+        buffer.force(HEADER_SIZE, (int) live + 4);
+        writePosition = HEADER_SIZE + live;
+        checkpoint(HEADER_SIZE);
+    }
+
+    private void checkpoint(long position) {
+        buffer.putLong(0, position);
+        buffer.force(0, HEADER_SIZE);
+        readPosition = position;
+    }
+
+    int pending() {
+        return pending;
+    }
+
+    long usedBytes() {
+        return writePosition - HEADER_SIZE;
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    private int count(long from, long to) {
+        int count = 0;
+        long position = from;
+        while (position < to) {
+            position += RECORD_HEADER_SIZE + buffer.getInt((int) position);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * @return the payload of the record at the given offset, or null if there is no valid record there
+     */
+    private byte[] readAt(long position) {
+        if (position + RECORD_HEADER_SIZE > capacity) {
+            return null;
+        }
+        int length = buffer.getInt((int) position);
+        if (length <= 0 || position + RECORD_HEADER_SIZE + length > capacity) {
+            return null;
+        }
+        byte[] payload = new byte[length];
+        buffer.get((int) position + RECORD_HEADER_SIZE, payload);
+        return checksum(payload) == buffer.getInt((int) position + 4) ? payload : null;
+    }
+
+    private static int checksum(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+}
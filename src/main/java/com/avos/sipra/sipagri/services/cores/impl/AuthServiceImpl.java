@@ -10,7 +10,7 @@ import com.avos.sipra.sipagri.services.mappers.SupervisorMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.util.Calendar;
@@ -28,7 +28,7 @@ import java.util.Map;
  * - SupervisorMapper for mapping SupervisorDTO to entity and vice versa.
  * - SupervisorService for saving supervisor data.
  * - PasswordResetTokenRepository for managing PasswordResetToken entities.
- * - BCryptPasswordEncoder for securely encoding passwords.
+ * - PasswordEncoder (BCrypt) for securely encoding passwords.
  * <p>
  * The class interacts with a frontend URL to help specify the reset link while resetting user passwords.
  */
@@ -55,14 +55,14 @@ public class AuthServiceImpl implements AuthService {
      */
     private final PasswordResetTokenRepository tokenRepository;
     /**
-     * The BCryptPasswordEncoder object responsible for encrypting and verifying passwords
-     * using the BCrypt hashing algorithm. This is primarily used to secure user
-     * passwords by hashing them before saving and verifying them during authentication.
+     * The PasswordEncoder object responsible for encrypting and verifying passwords
+     * using the BCrypt hashing algorithm, on the bounded hashing executor. This is primarily
+     * used to secure user passwords by hashing them before saving and verifying them during authentication.
      * <p>
      * This instance is declared as final, ensuring that the same encoder is used
      * throughout the lifecycle of the associated system component or service.
      */
-    private final BCryptPasswordEncoder bCryptPasswordEncoder;
+    private final PasswordEncoder passwordEncoder;
 
     /**
      * The URL of the frontend application, used for constructing links or redirecting
@@ -78,18 +78,18 @@ public class AuthServiceImpl implements AuthService {
      * @param tokenRepository the repository used for managing password reset tokens
      * @param supervisorMapper the mapper used for converting between SupervisorDTO and other models
      * @param supervisorService the service that provides supervisor-specific operations
-     * @param bCryptPasswordEncoder the encoder used for encoding passwords securely
+     * @param passwordEncoder the encoder used for encoding passwords securely
      */
     public AuthServiceImpl(
             PasswordResetTokenRepository tokenRepository,
             SupervisorMapper supervisorMapper,
             SupervisorService supervisorService,
-            BCryptPasswordEncoder bCryptPasswordEncoder) {
+            PasswordEncoder passwordEncoder) {
      
         this.tokenRepository = tokenRepository;
         this.supervisorMapper = supervisorMapper;
         this.supervisorService = supervisorService;
-        this.bCryptPasswordEncoder = bCryptPasswordEncoder;
+        this.passwordEncoder = passwordEncoder;
     }
 
     /**
@@ -99,7 +99,7 @@ public class AuthServiceImpl implements AuthService {
      * @return the SupervisorDTO object representing the saved user with updated information
      */
     public SupervisorDTO registerUser(SupervisorDTO supervisorDTO) {
-        String mdpCrypter = bCryptPasswordEncoder.encode(supervisorDTO.getPassword());
+        String mdpCrypter = passwordEncoder.encode(supervisorDTO.getPassword());
         supervisorDTO.setPassword(mdpCrypter);
         if (supervisorDTO.getProfile() == null) {
             supervisorDTO.setProfile(SupervisorProfile.SUPERVISOR);
@@ -176,7 +176,7 @@ public class AuthServiceImpl implements AuthService {
      * @param newPassword the new password to be encoded and set for the supervisor
      */
     public void changeUserPassword(SupervisorDTO supervisor, String newPassword) {
-        String mdpCrypter = bCryptPasswordEncoder.encode(newPassword);
+        String mdpCrypter = passwordEncoder.encode(newPassword);
         supervisor.setPassword(mdpCrypter);
         supervisorService.save(supervisor);
     }
@@ -10,6 +10,8 @@ import com.avos.sipra.sipagri.entities.Production;
 import com.avos.sipra.sipagri.repositories.PlanterRepository;
 import com.avos.sipra.sipagri.repositories.PlantationRepository;
 import com.avos.sipra.sipagri.repositories.ProductionRepository;
+import com.avos.sipra.sipagri.repositories.SeasonSummaryRepository;
+import com.avos.sipra.sipagri.services.cores.SeasonArchiveService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -33,6 +35,7 @@ import java.util.*;
  * - planterRepository: Repository for accessing and querying planter-related data.
  * - plantationRepository: Repository for accessing and querying plantation-related data.
  * - productionRepository: Repository for accessing and querying production-related data.
+ * - seasonSummaryRepository: Repository for the totals of archived seasons, added when a request covers them.
  * <p>
  * Methods:
  * - getResumesData(): Provides summarized data for planters, production, revenues, plantations, and kit values.
@@ -62,6 +65,8 @@ public class DashboardServiceImpl implements DashboardService {
     private final PlanterRepository planterRepository;
     private final PlantationRepository plantationRepository;
     private final ProductionRepository productionRepository;
+    private final SeasonSummaryRepository seasonSummaryRepository;
+    private final SeasonArchiveService seasonArchiveService;
 
     /**
      * Retrieves summarized data for various categories including planters, production, revenue, plantations, and kit values.
@@ -89,6 +94,7 @@ public class DashboardServiceImpl implements DashboardService {
         // 2. Production totale (total + cette année)
         Double totalProduction = productionRepository.sumTotalProduction();
         if (totalProduction == null) totalProduction = 0.0;
+        totalProduction += seasonSummaryRepository.sumTotalProduction();
         Double currentYearProduction = productionRepository.sumProductionForYear(now.getYear());
         if (currentYearProduction == null) currentYearProduction = 0.0;
         resumes.add(new ResumeDTO(
@@ -99,8 +105,9 @@ public class DashboardServiceImpl implements DashboardService {
 
         // 3. Revenus générés (total + cette année)
         Double totalRevenue = productionRepository.sumTotalRevenue();
-        log.info("Total revenue: {}", totalRevenue);
         if (totalRevenue == null) totalRevenue = 0.0;
+        totalRevenue += seasonSummaryRepository.sumTotalRevenue();
+        log.info("Total revenue: {}", totalRevenue);
         Double currentYearRevenue = productionRepository.sumRevenueForYear(now.getYear());
         log.info("Current year revenue: {}", currentYearRevenue);
         if (currentYearRevenue == null) currentYearRevenue = 0.0;
@@ -161,6 +168,7 @@ public class DashboardServiceImpl implements DashboardService {
         // 2. Production totale (total + cette année)
         Double totalProduction = productionRepository.countTotalProductionBySupervisor(supervisor);
         if (totalProduction == null) totalProduction = 0.0;
+        totalProduction += seasonSummaryRepository.countTotalProductionBySupervisor(supervisor);
         Double currentYearProduction = productionRepository.sumProductionForYearBySupervisor(now.getYear(), supervisor);
         if (currentYearProduction == null) currentYearProduction = 0.0;
         resumes.add(new ResumeDTO(
@@ -171,8 +179,9 @@ public class DashboardServiceImpl implements DashboardService {
 
         // 3. Revenus générés (total + cette année)
         Double totalRevenue = productionRepository.sumTotalRevenueBySupervisor(supervisor);
-        log.info("Total revenue: {}", totalRevenue);
         if (totalRevenue == null) totalRevenue = 0.0;
+        totalRevenue += seasonSummaryRepository.sumTotalRevenueBySupervisor(supervisor);
+        log.info("Total revenue: {}", totalRevenue);
         Double currentYearRevenue = productionRepository.sumRevenueForYearBySupervisor(now.getYear(), supervisor);
         log.info("Current year revenue: {}", currentYearRevenue);
         if (currentYearRevenue == null) currentYearRevenue = 0.0;
@@ -231,6 +240,9 @@ public class DashboardServiceImpl implements DashboardService {
             results = productionRepository.sumProductionBySector();
             log.debug("Production totale par secteur : {} secteurs", results.size());
         }
+        if (seasonArchiveService.coversArchive(year)) {
+            results = mergeTotals(results, seasonSummaryRepository.sumProductionBySector(year));
+        }
 
         return results.stream()
                 .map(result -> {
@@ -265,6 +277,9 @@ public class DashboardServiceImpl implements DashboardService {
             results = productionRepository.sumProductionBySupervisorBySector(supervisor);
             log.debug("Production totale par secteur : {} secteurs", results.size());
         }
+        if (seasonArchiveService.coversArchive(year)) {
+            results = mergeTotals(results, seasonSummaryRepository.sumProductionBySupervisorBySector(supervisor, year));
+        }
 
         return results.stream()
                 .map(result -> {
@@ -284,7 +299,7 @@ public class DashboardServiceImpl implements DashboardService {
      */
     @Override
     public List<Integer> getAvailableYears() {
-        List<Integer> years = productionRepository.findDistinctYears();
+        List<Integer> years = mergeYears(productionRepository.findDistinctYears(), seasonSummaryRepository.sumProductionBySeason());
         log.debug("Années disponibles : {}", years);
         return years;
     }
@@ -296,7 +311,8 @@ public class DashboardServiceImpl implements DashboardService {
      */
     @Override
     public List<Integer> getAvailableYearsBySupervisor(Long supervisor) {
-        List<Integer> years = productionRepository.findDistinctYearsBySupervisor(supervisor);
+        List<Integer> years = mergeYears(productionRepository.findDistinctYearsBySupervisor(supervisor),
+                seasonSummaryRepository.sumProductionBySeasonBySupervisor(supervisor));
         log.debug("Années disponibles : {}", years);
         return years;
     }
@@ -340,7 +356,8 @@ public class DashboardServiceImpl implements DashboardService {
      */
     @Override
     public List<ChartDataDTO> getProductionByPlantation() {
-        List<Object[]> results = productionRepository.sumProductionByPlantation();
+        List<Object[]> results = mergeTotals(productionRepository.sumProductionByPlantation(),
+                seasonSummaryRepository.sumProductionByPlantation());
 
         return results.stream()
                 .map(result -> new ChartDataDTO(
@@ -358,7 +375,8 @@ public class DashboardServiceImpl implements DashboardService {
      */
     @Override
     public List<ChartDataDTO> getProductionByPlantationBySupervisor(Long supervisor) {
-        List<Object[]> results = productionRepository.sumProductionByPlantationBySupervisor(supervisor);
+        List<Object[]> results = mergeTotals(productionRepository.sumProductionByPlantationBySupervisor(supervisor),
+                seasonSummaryRepository.sumProductionByPlantationBySupervisor(supervisor));
 
         return results.stream()
                 .map(result -> new ChartDataDTO(
@@ -384,7 +402,7 @@ public class DashboardServiceImpl implements DashboardService {
     public List<ProductionTrendDTO> getProductionTrend() {
         List<Production> productions = productionRepository.findAllOrderByYear();
 
-        return getProductionTrendDTOS(productions);
+        return getProductionTrendDTOS(productions, seasonSummaryRepository.sumProductionBySeason());
     }
 
     /**
@@ -397,11 +415,55 @@ public class DashboardServiceImpl implements DashboardService {
     public List<ProductionTrendDTO> getProductionTrendBySupervisor(Long supervisor) {
         List<Production> productions = productionRepository.findAllBySupervisorOrderByYear(supervisor);
 
-        return getProductionTrendDTOS(productions);
+        return getProductionTrendDTOS(productions, seasonSummaryRepository.sumProductionBySeasonBySupervisor(supervisor));
     }
 
     // ============ Méthodes utilitaires privées ============
 
+    /**
+     * Adds archived totals to the totals read from the hot table, by label, ordered by
+     * decreasing total.
+     *
+     * @param hot rows of [label, total] read from the hot table
+     * @param archived rows of [label, total] read from the season summaries
+     * @return the merged rows of [label, total (Double)]
+     */
+    private static List<Object[]> mergeTotals(List<Object[]> hot, List<Object[]> archived) {
+        if (archived.isEmpty()) {
+            return hot;
+        }
+        Map<Object, Double> totals = new LinkedHashMap<>();
+        for (Object[] row : hot) {
+            totals.merge(row[0], ((Number) row[1]).doubleValue(), Double::sum);
+        }
+        for (Object[] row : archived) {
+            totals.merge(row[0], ((Number) row[1]).doubleValue(), Double::sum);
+        }
+        return totals.entrySet().stream()
+                .sorted(Map.Entry.<Object, Double>comparingByValue().reversed())
+                .map(entry -> new Object[]{entry.getKey(), entry.getValue()})
+                .toList();
+    }
+
+    /**
+     * Adds the archived seasons to the years read from the hot table, most recent first.
+     *
+     * @param hot the years read from the hot table
+     * @param archivedSeasons rows of [season, total] read from the season summaries
+     * @return the distinct years, in descending order
+     */
+    private static List<Integer> mergeYears(List<Integer> hot, List<Object[]> archivedSeasons) {
+        if (archivedSeasons.isEmpty()) {
+            return hot;
+        }
+        Set<Integer> years = new TreeSet<>(Comparator.reverseOrder());
+        hot.stream().filter(Objects::nonNull).forEach(years::add);
+        for (Object[] season : archivedSeasons) {
+            years.add((Integer) season[0]);
+        }
+        return new ArrayList<>(years);
+    }
+
     /**
      * Formats a production value in kilograms into a more readable string representation
      * with units of kg, tons (T), or kilotons (kT) depending on the scale of the value.
@@ -507,8 +569,11 @@ public class DashboardServiceImpl implements DashboardService {
      * @return a list of ProductionTrendDTO objects, where each object contains
      *         the year (as a string) and the corresponding total production value
      */
-    private static List<ProductionTrendDTO> getProductionTrendDTOS(List<Production> productions) {
+    private static List<ProductionTrendDTO> getProductionTrendDTOS(List<Production> productions, List<Object[]> archivedSeasons) {
         Map<Integer, Double> yearlyData = new TreeMap<>();
+        for (Object[] season : archivedSeasons) {
+            yearlyData.merge((Integer) season[0], ((Number) season[1]).doubleValue(), Double::sum);
+        }
 
         for (Production production : productions) {
             Date productionDate = production.getYear();
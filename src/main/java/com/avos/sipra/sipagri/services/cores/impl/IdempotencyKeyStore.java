@@ -0,0 +1,56 @@
+package com.avos.sipra.sipagri.services.cores.impl;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded in-memory record of the idempotency keys recently persisted, with the
+ * identifier of the row created for each.
+ * <p>
+ * Replays of a recent synchronization are answered from memory; the least recently used
+ * keys are evicted beyond the capacity, and the database stays the reference for them.
+ */
+final class IdempotencyKeyStore {
+    private final Map<Key, Long> keys;
+
+    IdempotencyKeyStore(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.keys = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Long> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * @return the identifier recorded under the key, or null if the key is not in memory
+     */
+    synchronized Long get(Key key) {
+        return keys.get(key);
+    }
+
+    synchronized void put(Key key, Long id) {
+        keys.put(key, id);
+    }
+
+    synchronized void putAll(Map<Key, Long> entries) {
+        keys.putAll(entries);
+    }
+
+    synchronized int size() {
+        return keys.size();
+    }
+
+    /**
+     * An idempotency key within the scope of the supervisor owning the production, so that
+     * the same key sent for two supervisors designates two productions.
+     *
+     * @param supervisorId the supervisor of the plantation, null if it has none
+     * @param key the key generated by the client
+     */
+    record Key(Long supervisorId, String key) {
+    }
+}
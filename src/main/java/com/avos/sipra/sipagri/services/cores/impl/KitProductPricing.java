@@ -0,0 +1,72 @@
+package com.avos.sipra.sipagri.services.cores.impl;
+
+import com.avos.sipra.sipagri.services.cores.ProductService;
+import com.avos.sipra.sipagri.services.dtos.KitProductDTO;
+import com.avos.sipra.sipagri.services.dtos.ProductDTO;
+
+import java.util.*;
+
+/**
+ * Computes the cost of kit lines with all products resolved up front.
+ * <p>
+ * The products of every line still lacking a cost are loaded with a single
+ * {@link ProductService#findAllById(Collection)} call, validated in memory, and the line
+ * costs are then computed in one pass, instead of one product lookup per line.
+ */
+final class KitProductPricing {
+    private KitProductPricing() {
+    }
+
+    /**
+     * Resolves the products of the lines without cost and sets their cost.
+     *
+     * @param lines the kit lines, updated in place
+     * @param productService the service used to load the products
+     * @throws IllegalArgumentException if a line has no product or quantity, or references an unknown product
+     */
+    static void priceLines(Collection<KitProductDTO> lines, ProductService productService) {
+        Set<Long> productIds = new HashSet<>();
+        for (KitProductDTO line : lines) {
+            if (line.getTotalCost() != null) {
+                continue;
+            }
+            if (line.getProduct() == null || line.getProduct().getId() == null || line.getQuantity() == null) {
+                throw new IllegalArgumentException("Product or quantity is null");
+            }
+            productIds.add(line.getProduct().getId());
+        }
+        if (productIds.isEmpty()) {
+            return;
+        }
+
+        Map<Long, ProductDTO> products = productService.findAllById(productIds);
+        if (products.size() < productIds.size()) {
+            Set<Long> missing = new TreeSet<>(productIds);
+            missing.removeAll(products.keySet());
+            throw new IllegalArgumentException("Products not found: " + missing);
+        }
+
+        for (KitProductDTO line : lines) {
+            if (line.getTotalCost() == null) {
+                ProductDTO product = products.get(line.getProduct().getId());
+                line.setTotalCost(product.getPrice() * line.getQuantity());
+            }
+        }
+    }
+
+    /**
+     * Sums the cost of kit lines already priced.
+     *
+     * @param lines the kit lines, may be null
+     * @return the total cost, 0 without lines
+     */
+    static double totalCost(Collection<KitProductDTO> lines) {
+        double total = 0.0;
+        if (lines != null) {
+            for (KitProductDTO line : lines) {
+                total += line.getTotalCost();
+            }
+        }
+        return total;
+    }
+}
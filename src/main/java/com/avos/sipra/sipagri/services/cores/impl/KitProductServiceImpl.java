@@ -6,7 +6,6 @@ import com.avos.sipra.sipagri.services.cores.KitProductService;
 import com.avos.sipra.sipagri.services.cores.ProductService;
 import com.avos.sipra.sipagri.services.dtos.KitProductDTO;
 import com.avos.sipra.sipagri.services.dtos.PaginationResponseDTO;
-import com.avos.sipra.sipagri.services.dtos.ProductDTO;
 import com.avos.sipra.sipagri.services.mappers.KitProductMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -64,25 +63,14 @@ public class KitProductServiceImpl implements KitProductService{
      *
      * @param kitProductDTO the data transfer object containing information about the KitProduct to be saved
      * @return the saved KitProduct as a data transfer object
-     * @throws IllegalArgumentException if the product or quantity is null, making total cost calculation impossible
+     * @throws IllegalArgumentException if the product or quantity is null, or if the product does not exist,
+     *                                  making total cost calculation impossible
      */
     @Override
     public KitProductDTO save(KitProductDTO kitProductDTO) {
-        KitProduct kitProduct = kitProductMapper.toEntity(kitProductDTO);
-
         // Calculer le totalCost si nécessaire
-        if (kitProduct.getTotalCost() == null) {
-            ProductDTO product = productService.findOne(kitProduct.getProduct().getId());
-            if (product != null && kitProduct.getQuantity() != null) {
-                double totalCost = kitProduct.getQuantity() * product.getPrice();
-                kitProduct.setTotalCost(totalCost);
-                kitProductDTO.setTotalCost(totalCost);
-            } else {
-                log.error("Cannot calculate totalCost - product: {}, quantity: {}",
-                        product, kitProduct.getQuantity());
-                throw new IllegalArgumentException("Product or quantity is null");
-            }
-        }
+        KitProductPricing.priceLines(List.of(kitProductDTO), productService);
+        KitProduct kitProduct = kitProductMapper.toEntity(kitProductDTO);
 
         log.debug("Saving KitProduct - quantity: {}, productId: {}, totalCost: {}",
                 kitProduct.getQuantity(),
@@ -0,0 +1,83 @@
+package com.avos.sipra.sipagri.services.cores.impl;
+
+import com.avos.sipra.sipagri.enums.PlantationStatus;
+import com.avos.sipra.sipagri.repositories.KitProductRepository;
+import com.avos.sipra.sipagri.repositories.KitRepository;
+import com.avos.sipra.sipagri.repositories.PlantationRepository;
+import com.avos.sipra.sipagri.services.cores.KitRepricingService;
+import com.avos.sipra.sipagri.services.cores.RepaymentLedgerService;
+import com.avos.sipra.sipagri.services.dtos.KitRepricingReportDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Reprices kits with set-based statements when a product price changes.
+ * <p>
+ * The kit lines using the product are updated with one bulk {@code UPDATE}, the kits
+ * containing them with one {@code MERGE} aggregating their lines, and the repayment
+ * balances of the equipped plantations with one more {@code UPDATE}. Two aggregate
+ * queries measure the value of the kits of the active plantations before and after.
+ */
+@Slf4j
+@Service
+public class KitRepricingServiceImpl implements KitRepricingService {
+    private final KitProductRepository kitProductRepository;
+    private final KitRepository kitRepository;
+    private final PlantationRepository plantationRepository;
+    private final RepaymentLedgerService repaymentLedgerService;
+
+    public KitRepricingServiceImpl(KitProductRepository kitProductRepository,
+                                   KitRepository kitRepository,
+                                   PlantationRepository plantationRepository,
+                                   RepaymentLedgerService repaymentLedgerService) {
+        this.kitProductRepository = kitProductRepository;
+        this.kitRepository = kitRepository;
+        this.plantationRepository = plantationRepository;
+        this.repaymentLedgerService = repaymentLedgerService;
+    }
+
+    @Override
+    @Transactional
+    public KitRepricingReportDTO repriceProduct(Long productId, Double previousPrice, double price) {
+        if (Objects.isNull(productId)) {throw new IllegalArgumentException("Product id cannot be null");}
+        if (price < 0) {throw new IllegalArgumentException("Le prix du produit ne peut pas être négatif");}
+
+        Object[] before = activeKitValue(productId);
+
+        int updatedKitProducts = kitProductRepository.repriceByProduct(productId, price);
+        int updatedKits = updatedKitProducts == 0 ? 0 : kitRepository.recomputeTotalCostsByProduct(productId);
+        if (updatedKits > 0) {
+            repaymentLedgerService.refreshKitDebtByProduct(productId);
+        }
+
+        Object[] after = activeKitValue(productId);
+        double valueBefore = ((Number) before[1]).doubleValue();
+        double valueAfter = ((Number) after[1]).doubleValue();
+
+        log.info("Product {} repriced: {} kit line(s), {} kit(s), active kit value {} -> {}",
+                productId, updatedKitProducts, updatedKits, valueBefore, valueAfter);
+        return KitRepricingReportDTO.builder()
+                .productId(productId)
+                .previousPrice(previousPrice)
+                .price(price)
+                .updatedKitProducts(updatedKitProducts)
+                .updatedKits(updatedKits)
+                .affectedActivePlantations(((Number) after[0]).longValue())
+                .activeKitValueBefore(valueBefore)
+                .activeKitValueAfter(valueAfter)
+                .activeKitValueDelta(valueAfter - valueBefore)
+                .build();
+    }
+
+    /**
+     * Returns {@code [count, kit value]} of the active plantations whose kit contains the product.
+     */
+    private Object[] activeKitValue(Long productId) {
+        List<Object[]> rows = plantationRepository.sumKitValueByStatusAndProduct(PlantationStatus.ACTIVE, productId);
+        return rows.isEmpty() ? new Object[]{0L, 0.0} : rows.get(0);
+    }
+}
@@ -1,17 +1,20 @@
 package com.avos.sipra.sipagri.services.cores.impl;
 
 import com.avos.sipra.sipagri.entities.Kit;
+import com.avos.sipra.sipagri.enums.SyncEntityType;
 import com.avos.sipra.sipagri.repositories.KitRepository;
 import com.avos.sipra.sipagri.services.cores.KitService;
 import com.avos.sipra.sipagri.services.cores.ProductService;
+import com.avos.sipra.sipagri.services.cores.RepaymentLedgerService;
+import com.avos.sipra.sipagri.services.cores.SyncService;
 import com.avos.sipra.sipagri.services.dtos.KitDTO;
 import com.avos.sipra.sipagri.services.dtos.KitProductDTO;
 import com.avos.sipra.sipagri.services.dtos.PaginationResponseDTO;
-import com.avos.sipra.sipagri.services.dtos.ProductDTO;
 import com.avos.sipra.sipagri.services.mappers.KitMapper;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -30,6 +33,8 @@ import java.util.Optional;
  * - KitRepository: Handles persistence operations for Kit entities.
  * - KitMapper: Converts between Kit entity and KitDTO objects.
  * - ProductService: Provides product data for cost calculations.
+ * - RepaymentLedgerService: Propagates kit cost changes to the repayment balances.
+ * - SyncService: Records kit deletions for the mobile synchronization.
  */
 @Service
 public class KitServiceImpl implements KitService {
@@ -54,6 +59,15 @@ public class KitServiceImpl implements KitService {
      * to handle operations involving products within its methods.
      */
     private final ProductService productService;
+    /**
+     * Service maintaining the repayment balances, whose kit debt follows the total
+     * cost of the kit delivered to each plantation.
+     */
+    private final RepaymentLedgerService repaymentLedgerService;
+    /**
+     * Service recording the deletions for the delta synchronization of the mobile application.
+     */
+    private final SyncService syncService;
 
     /**
      * Constructs a new KitServiceImpl with the given dependencies.
@@ -61,11 +75,16 @@ public class KitServiceImpl implements KitService {
      * @param kitRepository the repository for managing Kit entities
      * @param kitMapper the mapper to convert between Kit and KitDTO
      * @param productService the service for handling operations related to products
+     * @param repaymentLedgerService the service maintaining the repayment balances
+     * @param syncService the service recording deletions for the mobile synchronization
      */
-    KitServiceImpl(KitRepository kitRepository, KitMapper kitMapper, ProductService productService) {
+    KitServiceImpl(KitRepository kitRepository, KitMapper kitMapper, ProductService productService,
+                   RepaymentLedgerService repaymentLedgerService, SyncService syncService) {
         this.kitRepository = kitRepository;
         this.kitMapper = kitMapper;
         this.productService = productService;
+        this.repaymentLedgerService = repaymentLedgerService;
+        this.syncService = syncService;
     }
 
     /**
@@ -80,28 +99,67 @@ public class KitServiceImpl implements KitService {
      */
     @Override
     public KitDTO save(KitDTO kitDTO) {
-        // D'abord calculer les coûts sur les DTOs
-        double totalKitCost = 0.0;
-
+        // D'abord calculer les coûts sur les DTOs, tous les produits du kit étant chargés en une requête
         if (kitDTO.getKitProducts() != null) {
-            for (KitProductDTO kitProductDTO : kitDTO.getKitProducts()) {
-                if (kitProductDTO.getTotalCost() == null) {
-                    ProductDTO productDTO = productService.findOne(kitProductDTO.getProduct().getId());
-                    double productTotalCost = productDTO.getPrice() * kitProductDTO.getQuantity();
-                    kitProductDTO.setTotalCost(productTotalCost);
-                }
-                totalKitCost += kitProductDTO.getTotalCost();
-            }
+            KitProductPricing.priceLines(kitDTO.getKitProducts(), productService);
         }
 
         // Ensuite convertir en entité (maintenant les DTOs ont les bons totalCost)
         Kit kit = kitMapper.toEntity(kitDTO);
-        kit.setTotalCost(totalKitCost);
+        kit.setTotalCost(KitProductPricing.totalCost(kitDTO.getKitProducts()));
 
         kit = kitRepository.save(kit);
+        if (kitDTO.getId() != null) {
+            // Le coût d'un kit existant a pu changer : mettre à jour la dette des plantations équipées
+            repaymentLedgerService.refreshKitDebt(kit.getId());
+        }
         return kitMapper.toDTO(kit);
     }
 
+    /**
+     * Saves several kits at once, typically when setting up the catalog of a season.
+     * <p>
+     * The products of all lines of all kits are loaded with a single query and the kits
+     * are persisted with one {@code saveAll}, letting Hibernate batch the inserts.
+     *
+     * @param kitDTOs the kits to save, with their lines
+     * @return the saved kits, in the same order
+     * @throws IllegalArgumentException if a line has no product or quantity, or references an unknown product
+     */
+    @Override
+    @Transactional
+    public List<KitDTO> saveAll(List<KitDTO> kitDTOs) {
+        if (kitDTOs == null || kitDTOs.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<KitProductDTO> lines = new ArrayList<>();
+        for (KitDTO kitDTO : kitDTOs) {
+            if (kitDTO.getKitProducts() != null) {
+                lines.addAll(kitDTO.getKitProducts());
+            }
+        }
+        KitProductPricing.priceLines(lines, productService);
+
+        List<Kit> kits = new ArrayList<>(kitDTOs.size());
+        for (KitDTO kitDTO : kitDTOs) {
+            Kit kit = kitMapper.toEntity(kitDTO);
+            kit.setTotalCost(KitProductPricing.totalCost(kitDTO.getKitProducts()));
+            kits.add(kit);
+        }
+
+        List<KitDTO> savedKits = new ArrayList<>(kits.size());
+        for (Kit kit : kitRepository.saveAll(kits)) {
+            savedKits.add(kitMapper.toDTO(kit));
+        }
+        for (KitDTO kitDTO : kitDTOs) {
+            if (kitDTO.getId() != null) {
+                repaymentLedgerService.refreshKitDebt(kitDTO.getId());
+            }
+        }
+        return savedKits;
+    }
+
     /**
      * Updates an existing Kit with new details provided in the given KitDTO.
      * Validates that the Kit ID is not null and that it exists in the repository before performing the update.
@@ -128,7 +186,9 @@ public class KitServiceImpl implements KitService {
      * @param id the unique identifier of the entity to delete
      */
     @Override
+    @Transactional
     public void delete(Long id) {
+        syncService.recordDeletion(SyncEntityType.KIT, id);
         kitRepository.deleteById(id);
     }
 
@@ -237,6 +297,7 @@ public class KitServiceImpl implements KitService {
         if (kitOptional.isPresent()) {
             Kit kit = kitMapper.partialUpdate(kitOptional.get(), kitDTO);
             kit = kitRepository.save(kit);
+            repaymentLedgerService.refreshKitDebt(kit.getId());
             return kitMapper.toDTO(kit);
         } else {
             throw new IllegalArgumentException("Kit with ID " + kitDTO.getId() + " does not exist");
@@ -1,14 +1,17 @@
 package com.avos.sipra.sipagri.services.cores.impl;
 
 import com.avos.sipra.sipagri.entities.Params;
+import com.avos.sipra.sipagri.enums.SyncEntityType;
 import com.avos.sipra.sipagri.repositories.ParamsRepository;
 import com.avos.sipra.sipagri.services.cores.ParamsService;
+import com.avos.sipra.sipagri.services.cores.SyncService;
 import com.avos.sipra.sipagri.services.dtos.PaginationResponseDTO;
 import com.avos.sipra.sipagri.services.dtos.ParamsDTO;
 import com.avos.sipra.sipagri.services.mappers.ParamsMapper;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -19,10 +22,12 @@ import java.util.Optional;
 public class ParamsServiceImpl implements ParamsService {
     private final ParamsMapper paramsMapper;
     private final ParamsRepository paramsRepository;
+    private final SyncService syncService;
 
-    public ParamsServiceImpl(ParamsMapper paramsMapper, ParamsRepository paramsRepository) {
+    public ParamsServiceImpl(ParamsMapper paramsMapper, ParamsRepository paramsRepository, SyncService syncService) {
         this.paramsMapper = paramsMapper;
         this.paramsRepository = paramsRepository;
+        this.syncService = syncService;
     }
 
     @Override
@@ -40,7 +45,9 @@ public class ParamsServiceImpl implements ParamsService {
     }
 
     @Override
+    @Transactional
     public void delete(Long id) {
+        syncService.recordDeletion(SyncEntityType.PARAMS, id);
         paramsRepository.deleteById(id);
     }
 
@@ -0,0 +1,83 @@
+package com.avos.sipra.sipagri.services.cores.impl;
+
+import com.avos.sipra.sipagri.repositories.PasswordResetTokenRepository;
+import com.avos.sipra.sipagri.services.cores.PasswordResetTokenPurgeService;
+import com.avos.sipra.sipagri.services.cores.SchedulerLockService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Date;
+
+/**
+ * Purges the expired password reset tokens in batches of bounded size, each deleted and
+ * committed in its own transaction, so that the purge never holds many row locks nor a
+ * long transaction. A database lock keeps the other nodes from running it at the same time.
+ * <p>
+ * The deleted tokens are counted by {@code sipagri.password.reset.tokens.purged}, each run
+ * is timed by {@code sipagri.password.reset.tokens.purge}, and runs left to another node
+ * are counted by {@code sipagri.password.reset.tokens.purge.skipped}.
+ */
+@Slf4j
+@Service
+public class PasswordResetTokenPurgeServiceImpl implements PasswordResetTokenPurgeService {
+    static final String LOCK_NAME = "password-reset-token-purge";
+
+    private final PasswordResetTokenRepository passwordResetTokenRepository;
+    private final SchedulerLockService schedulerLockService;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration lockAtMostFor;
+    private final Counter purged;
+    private final Counter skipped;
+    private final Timer duration;
+
+    public PasswordResetTokenPurgeServiceImpl(PasswordResetTokenRepository passwordResetTokenRepository,
+                                              SchedulerLockService schedulerLockService,
+                                              TransactionTemplate transactionTemplate,
+                                              MeterRegistry meterRegistry,
+                                              @Value("${app.password-reset.purge.batch-size:1000}") int batchSize,
+                                              @Value("${app.password-reset.purge.lock-at-most-minutes:10}") long lockAtMostMinutes) {
+        if (batchSize < 1) {throw new IllegalArgumentException("Purge batch size must be positive");}
+        this.passwordResetTokenRepository = passwordResetTokenRepository;
+        this.schedulerLockService = schedulerLockService;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.lockAtMostFor = Duration.ofMinutes(lockAtMostMinutes);
+        this.purged = meterRegistry.counter("sipagri.password.reset.tokens.purged");
+        this.skipped = meterRegistry.counter("sipagri.password.reset.tokens.purge.skipped");
+        this.duration = meterRegistry.timer("sipagri.password.reset.tokens.purge");
+    }
+
+    @Override
+    @Scheduled(cron = "${app.password-reset.purge.cron:0 15 * * * *}")
+    public int purgeExpired() {
+        int[] deleted = {0};
+        boolean ran = schedulerLockService.runExclusively(LOCK_NAME, lockAtMostFor, () -> duration.record(() -> {
+            Date now = new Date();
+            int batch;
+            do {
+                // Un lot par transaction : verrous et journal d'annulation restent bornés
+                Integer count = transactionTemplate.execute(status ->
+                        passwordResetTokenRepository.deleteExpiredBatch(now, batchSize));
+                batch = count != null ? count : 0;
+                deleted[0] += batch;
+                purged.increment(batch);
+            } while (batch == batchSize);
+        }));
+        if (!ran) {
+            skipped.increment();
+            return -1;
+        }
+        if (deleted[0] > 0) {
+            log.info("{} expired password reset token(s) purged", deleted[0]);
+        }
+        return deleted[0];
+    }
+}
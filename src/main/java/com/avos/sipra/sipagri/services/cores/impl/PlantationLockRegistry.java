@@ -0,0 +1,63 @@
+package com.avos.sipra.sipagri.services.cores.impl;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * One lock per plantation, serializing on this node the writes that price a production
+ * against the repayment balance of its plantation.
+ * <p>
+ * A lock exists only while it is held or awaited: each entry counts its holders and is
+ * removed by the last one, so the registry stays as small as the number of plantations
+ * being written and writes to different plantations never share a lock. Writes from other
+ * nodes are caught by the version of the balance instead.
+ */
+@Component
+public class PlantationLockRegistry {
+    private final ConcurrentHashMap<Long, Entry> locks = new ConcurrentHashMap<>();
+
+    /**
+     * A held lock, released by {@link #close()}.
+     */
+    public interface Handle extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private static final class Entry {
+        private final ReentrantLock lock = new ReentrantLock();
+
+        /**
+         * Threads holding or awaiting the lock; only changed under the map's per-key atomicity.
+         */
+        private int holders;
+    }
+
+    /**
+     * Blocks until the lock of the plantation is acquired.
+     *
+     * @param plantationId the identifier of the plantation
+     * @return the handle releasing the lock
+     */
+    public Handle acquire(Long plantationId) {
+        Entry entry = locks.compute(plantationId, (id, current) -> {
+            Entry acquired = current == null ? new Entry() : current;
+            acquired.holders++;
+            return acquired;
+        });
+        entry.lock.lock();
+        return () -> {
+            entry.lock.unlock();
+            locks.computeIfPresent(plantationId, (id, current) -> --current.holders == 0 ? null : current);
+        };
+    }
+
+    /**
+     * @return the number of plantations whose lock is currently held or awaited
+     */
+    int size() {
+        return locks.size();
+    }
+}
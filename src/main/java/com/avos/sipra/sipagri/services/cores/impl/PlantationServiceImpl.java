@@ -1,27 +1,38 @@
 package com.avos.sipra.sipagri.services.cores.impl;
 
+import com.avos.sipra.sipagri.entities.Kit;
 import com.avos.sipra.sipagri.entities.Plantation;
 import com.avos.sipra.sipagri.enums.PlantationStatus;
+import com.avos.sipra.sipagri.enums.SyncEntityType;
+import com.avos.sipra.sipagri.repositories.KitRepository;
 import com.avos.sipra.sipagri.repositories.PlantationRepository;
 import com.avos.sipra.sipagri.repositories.PlanterRepository;
 import com.avos.sipra.sipagri.services.cores.CalculationService;
 import com.avos.sipra.sipagri.services.cores.PlantationService;
+import com.avos.sipra.sipagri.services.cores.RepaymentLedgerService;
+import com.avos.sipra.sipagri.services.cores.SyncService;
 import com.avos.sipra.sipagri.services.dtos.PaginationResponseDTO;
 import com.avos.sipra.sipagri.services.dtos.PlantationDTO;
-import com.avos.sipra.sipagri.services.dtos.ProductionDTO;
 import com.avos.sipra.sipagri.services.mappers.PlantationMapper;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 
 @Service
 public class PlantationServiceImpl implements PlantationService {
+    /**
+     * Maximum number of identifiers bound to one {@code IN} list, the limit of Oracle.
+     */
+    private static final int DELETE_BATCH_SIZE = 1000;
+
     /**
      * An instance of PlantationMapper used to map plantation data between
      * different layers of the application. This is typically responsible
@@ -53,6 +64,20 @@ public class PlantationServiceImpl implements PlantationService {
      * related to Planter entities.
      */
     private final PlanterRepository planterRepository;
+    /**
+     * Repository providing references to the kits assigned to plantations; kits are never
+     * written through a plantation.
+     */
+    private final KitRepository kitRepository;
+    /**
+     * Service maintaining the repayment balance of each plantation, recomputed after
+     * every plantation write since the kit or the productions may have changed.
+     */
+    private final RepaymentLedgerService repaymentLedgerService;
+    /**
+     * Service recording the deletions for the delta synchronization of the mobile application.
+     */
+    private final SyncService syncService;
 
     /**
      * Constructs a new instance of PlantationServiceImpl with the provided dependencies.
@@ -61,42 +86,59 @@ public class PlantationServiceImpl implements PlantationService {
      * @param plantationRepository the repository for performing CRUD operations on Plantation entities
      * @param calculationService the service responsible for various calculations related to plantations
      * @param planterRepository the repository for managing Planter-related data and operations
+     * @param kitRepository the repository providing references to the assigned kits
+     * @param repaymentLedgerService the service maintaining the repayment balances of plantations
+     * @param syncService the service recording deletions for the mobile synchronization
      */
     public PlantationServiceImpl(PlantationMapper plantationMapper,
                                  PlantationRepository plantationRepository,
                                  CalculationService calculationService,
-                                 PlanterRepository planterRepository) {
+                                 PlanterRepository planterRepository,
+                                 KitRepository kitRepository,
+                                 RepaymentLedgerService repaymentLedgerService,
+                                 SyncService syncService) {
         this.plantationMapper = plantationMapper;
         this.plantationRepository = plantationRepository;
         this.calculationService = calculationService;
         this.planterRepository = planterRepository;
+        this.kitRepository = kitRepository;
+        this.repaymentLedgerService = repaymentLedgerService;
+        this.syncService = syncService;
     }
 
     /**
      * Saves a new plantation or updates an existing one in the repository.
      * If the creation date is not set in the provided DTO, it will be initialized to the current date and time.
-     * Additionally, production values are calculated for each associated production if present.
+     * Additionally, production values are calculated in one batch for the associated productions if present,
+     * before the productions are mapped so that the computed values are persisted.
+     * The kit is only referenced by its identifier, and the repayment balance of the plantation
+     * is then recomputed.
      *
      * @param plantationDTO the {@code PlantationDTO} object containing the plantation data to be saved.
      *                       It may also include associated production data to process.
      * @return the saved {@code PlantationDTO} object, mapped from the persisted entity.
+     * @throws IllegalArgumentException if the kit has no identifier or does not exist
      */
     @Override
+    @Transactional
     public PlantationDTO save(PlantationDTO plantationDTO) {
+        // Un kit est seulement référencé : sans identifiant, il serait ignoré sans erreur
+        if (Objects.nonNull(plantationDTO.getKit()) && Objects.isNull(plantationDTO.getKit().getId())) {
+            throw new IllegalArgumentException("Kit id cannot be null");
+        }
+        // Calculer les valeurs des productions en un seul lot
+        if (plantationDTO.getProductions() != null) {
+            calculationService.calculateProductionValues(plantationDTO.getProductions());
+        }
+
         Plantation plantation = plantationMapper.toEntity(plantationDTO);
+        attachKit(plantation);
         if (plantationDTO.getCreatedAt() == null) {
             plantation.setCreatedAt(LocalDateTime.now());
         }
 
-        // Calculer les valeurs des productions
-        if (plantationDTO.getProductions() != null) {
-            for (ProductionDTO productionDTO : plantationDTO.getProductions()) {
-                calculationService.calculateProductionValues(productionDTO);
-                // mustBePaid sera calculé après sauvegarde
-            }
-        }
-
         plantation = plantationRepository.save(plantation);
+        repaymentLedgerService.refresh(List.of(plantation.getId()));
         return plantationMapper.toDTO(plantation);
     }
 
@@ -110,6 +152,7 @@ public class PlantationServiceImpl implements PlantationService {
      * @throws IllegalArgumentException if the plantation ID is null or the plantation does not exist.
      */
     @Override
+    @Transactional
     public PlantationDTO update(PlantationDTO plantationDTO) {
         if (Objects.isNull(plantationDTO.getId())) {throw new IllegalArgumentException("Id cannot be null");}
         if (Boolean.FALSE.equals(existsById(plantationDTO.getId()))) {throw new IllegalArgumentException("Plantation does not exist");}
@@ -118,13 +161,74 @@ public class PlantationServiceImpl implements PlantationService {
     }
 
     /**
-     * Deletes a plantation entity by its unique identifier.
+     * Deletes a plantation entity by its unique identifier, without loading it.
      *
      * @param id the unique identifier of the plantation entity to be deleted
      */
     @Override
+    @Transactional
     public void delete(Long id) {
-        plantationRepository.deleteById(id);
+        if (Objects.isNull(id)) {throw new IllegalArgumentException("Id cannot be null");}
+        deleteAll(List.of(id));
+    }
+
+    /**
+     * Deletes several plantations with set-based statements. Their productions, repayment
+     * balances and season summaries are deleted by the database cascades, and the deletions
+     * are recorded for the mobile synchronization beforehand.
+     *
+     * @param ids the identifiers of the plantations to delete
+     * @return the number of deleted plantations
+     */
+    @Override
+    @Transactional
+    public int deleteAll(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return 0;
+        }
+        List<Long> distinctIds = ids.stream().filter(Objects::nonNull).distinct().toList();
+        int deleted = 0;
+        for (int from = 0; from < distinctIds.size(); from += DELETE_BATCH_SIZE) {
+            List<Long> batch = distinctIds.subList(from, Math.min(from + DELETE_BATCH_SIZE, distinctIds.size()));
+            syncService.recordDeletions(SyncEntityType.PLANTATION, batch);
+            deleted += plantationRepository.deleteByIds(batch);
+        }
+        return deleted;
+    }
+
+    /**
+     * Deletes those of the given plantations that are managed by the supervisor, checking
+     * ownership in batches of at most {@value #DELETE_BATCH_SIZE} identifiers.
+     *
+     * @param ids the identifiers of the plantations to delete
+     * @param supervisorId the supervisor of the plantations, or null for any supervisor
+     * @return the number of deleted plantations
+     */
+    @Override
+    @Transactional
+    public int deleteAll(Collection<Long> ids, Long supervisorId) {
+        if (Objects.isNull(supervisorId) || ids == null) {
+            return deleteAll(ids);
+        }
+        List<Long> distinctIds = ids.stream().filter(Objects::nonNull).distinct().toList();
+        List<Long> ownedIds = new ArrayList<>();
+        for (int from = 0; from < distinctIds.size(); from += DELETE_BATCH_SIZE) {
+            List<Long> batch = distinctIds.subList(from, Math.min(from + DELETE_BATCH_SIZE, distinctIds.size()));
+            ownedIds.addAll(plantationRepository.findIdsOwnedBy(batch, supervisorId));
+        }
+        return deleteAll(ownedIds);
+    }
+
+    /**
+     * Checks whether a plantation is managed by a supervisor, without loading it.
+     *
+     * @param id the identifier of the plantation
+     * @param supervisorId the identifier of the supervisor
+     * @return true if the plantation exists and its planter is managed by the supervisor
+     */
+    @Override
+    public boolean isOwnedBy(Long id, Long supervisorId) {
+        return plantationRepository.existsByIdAndPlanter_Supervisor_Id(id, supervisorId);
     }
 
     /**
@@ -337,41 +441,108 @@ public class PlantationServiceImpl implements PlantationService {
      * Partially updates the provided plantation data. It performs checks to ensure the plantation exists
      * before updating. If the provided plantation ID is null or the plantation does not exist, it throws
      * an exception. Feeds the updated data into the repository and returns the updated plantation DTO.
+     * Only the changed columns are written, and the repayment balance is recomputed only when the kit
+     * or the productions changed.
      *
      * @param plantationDTO the {@code PlantationDTO} object containing the plantation's partial data
      *                       that needs to be updated
      * @return the updated {@code PlantationDTO} object with the latest changes
-     * @throws IllegalArgumentException if the plantation ID is null or the plantation does not exist
+     * @throws IllegalArgumentException if the plantation ID is null, the plantation does not exist,
+     *         or the kit has no identifier
      * @throws NullPointerException if the plantation does not exist in the repository
      */
     @Override
+    @Transactional
     public PlantationDTO partialUpdate(PlantationDTO plantationDTO) {
         if (Objects.isNull(plantationDTO.getId())) {
             throw new IllegalArgumentException("Id cannot be null");
         }
+        if (Objects.nonNull(plantationDTO.getKit()) && Objects.isNull(plantationDTO.getKit().getId())) {
+            throw new IllegalArgumentException("Kit id cannot be null");
+        }
         if (Boolean.FALSE.equals(existsById(plantationDTO.getId()))) {
             throw new IllegalArgumentException("Plantation does not exist");
         }
 
         Optional<Plantation> plantationOptional = plantationRepository.findById(plantationDTO.getId());
         if (plantationOptional.isPresent()) {
-            // Calculer les valeurs des nouvelles productions
+            // Calculer les valeurs des productions en un seul lot
             if (plantationDTO.getProductions() != null) {
-                List<ProductionDTO> productionDTOS = new ArrayList<>();
-                for (ProductionDTO production : plantationDTO.getProductions()) {
-                    productionDTOS.add(calculationService.calculateProductionValues(production));
-                }
-
-                plantationDTO.setProductions(productionDTOS);
+                plantationDTO.setProductions(calculationService.calculateProductionValues(plantationDTO.getProductions()));
             }
+            // Pierres tombales des productions retirées, tant qu'elles existent encore en base
+            syncService.recordDeletions(SyncEntityType.PRODUCTION,
+                    plantationMapper.removedProductionIds(plantationOptional.get(), plantationDTO));
 
+            Long previousKitId = kitId(plantationOptional.get());
             Plantation plantation = plantationMapper.partialUpdate(plantationOptional.get(), plantationDTO);
+            boolean kitChanged = !Objects.equals(previousKitId, kitId(plantation));
+            if (kitChanged) {
+                attachKit(plantation);
+            }
             plantation = plantationRepository.save(plantation);
+            if (kitChanged || plantationDTO.getProductions() != null) {
+                repaymentLedgerService.refresh(List.of(plantation.getId()));
+            }
             return plantationMapper.toDTO(plantation);
         }
         throw new NullPointerException("Plantation does not exist");
     }
 
+    /**
+     * Assigns another existing kit to a plantation and recomputes its repayment balance.
+     * The kit itself is left untouched.
+     *
+     * @param plantationId the identifier of the plantation
+     * @param kitId the identifier of the kit to assign
+     * @return the updated {@code PlantationDTO}
+     * @throws IllegalArgumentException if an identifier is null, or the plantation or the kit does not exist
+     */
+    @Override
+    @Transactional
+    public PlantationDTO changeKit(Long plantationId, Long kitId) {
+        if (Objects.isNull(plantationId)) {throw new IllegalArgumentException("Id cannot be null");}
+        if (Objects.isNull(kitId)) {throw new IllegalArgumentException("Kit id cannot be null");}
+        Plantation plantation = plantationRepository.findById(plantationId)
+                .orElseThrow(() -> new IllegalArgumentException("Plantation does not exist"));
+        if (!kitId.equals(kitId(plantation))) {
+            plantation.setKit(kitReference(kitId));
+            plantation.setStatus(PlantationStatus.ACTIVE);
+            repaymentLedgerService.refresh(List.of(plantationId));
+        }
+        return plantationMapper.toDTO(plantation);
+    }
+
+    /**
+     * Replaces the kit reference built from the request with a reference managed by the
+     * persistence context, without loading or merging the kit.
+     *
+     * @param plantation the plantation whose kit reference is resolved
+     * @throws IllegalArgumentException if the referenced kit does not exist
+     */
+    private void attachKit(Plantation plantation) {
+        Long kitId = kitId(plantation);
+        if (kitId != null) {
+            plantation.setKit(kitReference(kitId));
+        }
+    }
+
+    /**
+     * @param kitId the identifier of an existing kit
+     * @return a reference to the kit, managed by the persistence context and not loaded
+     * @throws IllegalArgumentException if the kit does not exist
+     */
+    private Kit kitReference(Long kitId) {
+        if (Boolean.FALSE.equals(kitRepository.existsById(kitId))) {
+            throw new IllegalArgumentException("Kit with ID " + kitId + " does not exist");
+        }
+        return kitRepository.getReferenceById(kitId);
+    }
+
+    private static Long kitId(Plantation plantation) {
+        return plantation.getKit() != null ? plantation.getKit().getId() : null;
+    }
+
     /**
      * Checks whether a plantation entity exists in the repository by its unique identifier.
      *
@@ -1,29 +1,43 @@
 package com.avos.sipra.sipagri.services.cores.impl;
 
 import com.avos.sipra.sipagri.entities.Planter;
+import com.avos.sipra.sipagri.enums.SyncEntityType;
 import com.avos.sipra.sipagri.repositories.PlanterRepository;
 import com.avos.sipra.sipagri.services.cores.PlanterService;
+import com.avos.sipra.sipagri.services.cores.SyncService;
 import com.avos.sipra.sipagri.services.dtos.PaginationResponseDTO;
 import com.avos.sipra.sipagri.services.dtos.PlanterDTO;
 import com.avos.sipra.sipagri.services.mappers.PlanterMapper;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 
 @Service
 public class PlanterServiceImpl implements PlanterService {
+    /**
+     * Maximum number of identifiers bound to one {@code IN} list, the limit of Oracle.
+     */
+    private static final int DELETE_BATCH_SIZE = 1000;
+
     private final PlanterMapper planterMapper;
     private final PlanterRepository planterRepository;
+    private final PlanterUidGenerator planterUidGenerator;
+    private final SyncService syncService;
 
-    public PlanterServiceImpl(PlanterMapper planterMapper, PlanterRepository planterRepository) {
+    public PlanterServiceImpl(PlanterMapper planterMapper, PlanterRepository planterRepository,
+                              PlanterUidGenerator planterUidGenerator, SyncService syncService) {
         this.planterMapper = planterMapper;
         this.planterRepository = planterRepository;
+        this.planterUidGenerator = planterUidGenerator;
+        this.syncService = syncService;
     }
 
     @Override
@@ -34,13 +48,8 @@ public class PlanterServiceImpl implements PlanterService {
             LocalDateTime now = LocalDateTime.now();
             planter.setCreatedAt(now);
 
-            long countForYear = planterRepository.countPlantersByRegistrationYear(now.getYear());
-            String uid = String.format("%02d", now.getYear() % 100) + "-SIPAGRI"
-                    + String.format("%04d", countForYear + 1)
-                    + planter.getFirstname().charAt(0)
-                    + planter.getVillage().charAt(0);
-
-            planter.setUidPlanter(uid);
+            planter.setUidPlanter(planterUidGenerator.nextUid(
+                    now.getYear(), planter.getFirstname(), planter.getVillage()));
         }
 
         planter = planterRepository.save(planter);
@@ -57,8 +66,52 @@ public class PlanterServiceImpl implements PlanterService {
     }
 
     @Override
+    @Transactional
     public void delete(Long id) {
-        planterRepository.deleteById(id);
+        if (Objects.isNull(id)) {throw new IllegalArgumentException("Id cannot be null");}
+        deleteAll(List.of(id));
+    }
+
+    @Override
+    @Transactional
+    public int deleteAll(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return 0;
+        }
+        List<Long> distinctIds = ids.stream().filter(Objects::nonNull).distinct().toList();
+        int deleted = 0;
+        for (int from = 0; from < distinctIds.size(); from += DELETE_BATCH_SIZE) {
+            List<Long> batch = distinctIds.subList(from, Math.min(from + DELETE_BATCH_SIZE, distinctIds.size()));
+            // Les pierres tombales sont écrites avant que la cascade ne supprime les lignes
+            syncService.recordDeletions(SyncEntityType.PLANTER, batch);
+            deleted += planterRepository.deleteByIds(batch);
+        }
+        return deleted;
+    }
+
+    @Override
+    @Transactional
+    public int deleteAll(Collection<Long> ids, Long supervisorId) {
+        if (Objects.isNull(supervisorId) || ids == null) {
+            return deleteAll(ids);
+        }
+        List<Long> distinctIds = ids.stream().filter(Objects::nonNull).distinct().toList();
+        List<Long> ownedIds = new ArrayList<>();
+        for (int from = 0; from < distinctIds.size(); from += DELETE_BATCH_SIZE) {
+            List<Long> batch = distinctIds.subList(from, Math.min(from + DELETE_BATCH_SIZE, distinctIds.size()));
+            ownedIds.addAll(planterRepository.findIdsOwnedBy(batch, supervisorId));
+        }
+        return deleteAll(ownedIds);
+    }
+
+    @Override
+    @Transactional
+    public int deleteByFilter(Long supervisorId, String village) {
+        if (Objects.isNull(supervisorId) && (village == null || village.isBlank())) {
+            throw new IllegalArgumentException("At least one filter is required");
+        }
+        String villageFilter = village == null || village.isBlank() ? null : village.trim();
+        return deleteAll(planterRepository.findIdsByFilter(supervisorId, villageFilter));
     }
 
     @Override
@@ -118,6 +171,25 @@ public class PlanterServiceImpl implements PlanterService {
         return getPlanterDTOPaginationResponseDTO(page);
     }
 
+    @Override
+    public PaginationResponseDTO<PlanterDTO> findAllPagedByParams(Pageable pageable, String search, Long supervisorId) {
+        final Page<Planter> page = planterRepository.searchBySupervisor(pageable, search, supervisorId);
+
+        return getPlanterDTOPaginationResponseDTO(page);
+    }
+
+    @Override
+    public PaginationResponseDTO<PlanterDTO> findAllPagedByVillage(Pageable pageable, String search, Long supervisorId) {
+        final Page<Planter> page = planterRepository.findPlanterByVillageContainingIgnoreCaseAndSupervisor_Id(pageable, search, supervisorId);
+
+        return getPlanterDTOPaginationResponseDTO(page);
+    }
+
+    @Override
+    public boolean isOwnedBy(Long id, Long supervisorId) {
+        return planterRepository.existsByIdAndSupervisor_Id(id, supervisorId);
+    }
+
     private PaginationResponseDTO<PlanterDTO> getPlanterDTOPaginationResponseDTO(Page<Planter> page) {
         final int currentPage = page.getNumber();
         final int totalPages = page.getTotalPages();
@@ -132,11 +204,17 @@ public class PlanterServiceImpl implements PlanterService {
     }
 
     @Override
+    @Transactional
     public PlanterDTO partialUpdate(PlanterDTO planterDTO) {
         if (Objects.isNull(planterDTO.getId())) {throw new IllegalArgumentException("Id cannot be null");}
         if (Boolean.FALSE.equals(existsById(planterDTO.getId()))) {throw new IllegalArgumentException("Planter cannot be null");}
         Optional<Planter> planterOptional = planterRepository.findById(planterDTO.getId());
         if(planterOptional.isPresent()) {
+            // Pierres tombales des plantations et productions retirées, tant qu'elles existent encore en base
+            syncService.recordDeletions(SyncEntityType.PLANTATION,
+                    planterMapper.removedPlantationIds(planterOptional.get(), planterDTO));
+            syncService.recordDeletions(SyncEntityType.PRODUCTION,
+                    planterMapper.removedProductionIds(planterOptional.get(), planterDTO));
             Planter planter = planterMapper.partialUpdate(planterOptional.get(), planterDTO);
             planter = planterRepository.save(planter);
             return planterMapper.toDTO(planter);
@@ -0,0 +1,202 @@
+package com.avos.sipra.sipagri.services.cores.impl;
+
+import com.avos.sipra.sipagri.entities.PlanterUidCounter;
+import com.avos.sipra.sipagri.repositories.PlanterRepository;
+import com.avos.sipra.sipagri.repositories.PlanterUidCounterRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Allocates the registration numbers embedded in planter UIDs
+ * ({@code YY-SIPAGRI####XY}).
+ * <p>
+ * Numbers are reserved from the {@code planter_uid_counters} table by blocks: the
+ * counter row of the year is locked only long enough to advance it by the block size,
+ * in its own short transaction. The numbers of the current block are then handed out
+ * from memory with a single atomic increment, so concurrent registrations neither
+ * count the planters table nor wait on each other. Several application nodes can
+ * allocate at the same time since each of them reserves disjoint blocks.
+ * <p>
+ * Numbers reserved but not used before a restart are lost, so the sequence may contain
+ * gaps; it never contains duplicates.
+ */
+@Slf4j
+@Service
+public class PlanterUidGenerator {
+    /**
+     * Number of attempts made to create the counter row of a new year when several
+     * nodes race to create it.
+     */
+    private static final int MAX_RESERVATION_ATTEMPTS = 3;
+
+    /**
+     * Repository giving access to the per-year counter rows.
+     */
+    private final PlanterUidCounterRepository counterRepository;
+
+    /**
+     * Repository used once per year to seed the counter from the UIDs already in use.
+     */
+    private final PlanterRepository planterRepository;
+
+    /**
+     * Runs each block reservation in a dedicated transaction so that the counter row
+     * lock is released as soon as the block is reserved, whatever the caller does next.
+     */
+    private final TransactionTemplate reservationTemplate;
+
+    /**
+     * Number of registration numbers reserved per round trip to the database.
+     */
+    private final int blockSize;
+
+    /**
+     * Block currently being consumed, per registration year.
+     */
+    private final Map<Integer, YearSequence> sequences = new ConcurrentHashMap<>();
+
+    public PlanterUidGenerator(PlanterUidCounterRepository counterRepository,
+                               PlanterRepository planterRepository,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${app.planter.uid.block-size:20}") int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Planter UID block size must be positive");
+        }
+        this.counterRepository = counterRepository;
+        this.planterRepository = planterRepository;
+        this.blockSize = blockSize;
+        this.reservationTemplate = new TransactionTemplate(transactionManager);
+        this.reservationTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Builds a new, unique planter UID for the given registration year.
+     *
+     * @param year the registration year
+     * @param firstname the first name of the planter; its first letter ends the UID
+     * @param village the village of the planter; its first letter ends the UID
+     * @return the generated UID
+     */
+    public String nextUid(int year, String firstname, String village) {
+        long number = nextNumber(year);
+        return String.format("%02d", year % 100) + "-SIPAGRI"
+                + String.format("%04d", number)
+                + firstname.charAt(0)
+                + village.charAt(0);
+    }
+
+    /**
+     * Returns the next registration number of the given year.
+     * <p>
+     * The fast path is a single {@code getAndIncrement} on the current block. Only the
+     * thread that finds the block exhausted takes the per-year monitor to reserve the
+     * next one; threads racing with it retry on the fresh block.
+     *
+     * @param year the registration year
+     * @return a registration number never returned before for that year
+     */
+    long nextNumber(int year) {
+        YearSequence sequence = sequences.computeIfAbsent(year, y -> new YearSequence());
+        while (true) {
+            Block block = sequence.current;
+            long number = block.next.getAndIncrement();
+            if (number < block.end) {
+                return number;
+            }
+            synchronized (sequence) {
+                if (sequence.current == block) {
+                    sequence.current = reserveBlock(year);
+                }
+            }
+        }
+    }
+
+    private Block reserveBlock(int year) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Long first = reservationTemplate.execute(status -> {
+                    PlanterUidCounter counter = counterRepository.findForUpdate(year)
+                            .orElseGet(() -> counterRepository.saveAndFlush(
+                                    new PlanterUidCounter(year, firstFreeNumber(year))));
+                    long start = counter.getNextValue();
+                    counter.setNextValue(start + blockSize);
+                    counterRepository.save(counter);
+                    return start;
+                });
+                if (first == null) {
+                    throw new IllegalStateException("Unable to reserve planter UIDs for year " + year);
+                }
+                log.debug("Reserved planter UID block [{}, {}) for year {}", first, first + blockSize, year);
+                return new Block(first, first + blockSize);
+            } catch (DataIntegrityViolationException e) {
+                // Un autre noeud a créé le compteur de l'année en même temps : on relit la ligne
+                if (attempt >= MAX_RESERVATION_ATTEMPTS) {
+                    throw new IllegalStateException("Unable to reserve planter UIDs for year " + year, e);
+                }
+                log.debug("Planter UID counter for year {} created concurrently, retrying", year);
+            }
+        }
+    }
+
+    /**
+     * Computes the first number never used by an existing UID of the year, so that
+     * the counter continues the numbering of planters registered before it existed.
+     */
+    private long firstFreeNumber(int year) {
+        long max = 0;
+        for (String uid : planterRepository.findUidsByRegistrationYear(year)) {
+            max = Math.max(max, parseNumber(uid));
+        }
+        return max + 1;
+    }
+
+    /**
+     * Extracts the registration number of a UID, or 0 when the UID does not follow
+     * the {@code YY-SIPAGRI####XY} format.
+     */
+    static long parseNumber(String uid) {
+        if (uid == null) {
+            return 0;
+        }
+        int start = uid.indexOf("SIPAGRI");
+        if (start < 0) {
+            return 0;
+        }
+        start += "SIPAGRI".length();
+        int end = start;
+        while (end < uid.length() && Character.isDigit(uid.charAt(end))) {
+            end++;
+        }
+        return end == start ? 0 : Long.parseLong(uid.substring(start, end));
+    }
+
+    /**
+     * Holder of the block being consumed for one year; also used as the monitor
+     * serializing block reservations of that year.
+     */
+    private static final class YearSequence {
+        private volatile Block current = new Block(0, 0);
+    }
+
+    /**
+     * Half-open range {@code [next, end)} of reserved registration numbers.
+     */
+    private static final class Block {
+        private final AtomicLong next;
+        private final long end;
+
+        private Block(long first, long end) {
+            this.next = new AtomicLong(first);
+            this.end = end;
+        }
+    }
+}
@@ -2,18 +2,18 @@ package com.avos.sipra.sipagri.services.cores.impl;
 
 import com.avos.sipra.sipagri.entities.Product;
 import com.avos.sipra.sipagri.repositories.ProductRepository;
+import com.avos.sipra.sipagri.services.cores.KitRepricingService;
 import com.avos.sipra.sipagri.services.cores.ProductService;
+import com.avos.sipra.sipagri.services.dtos.KitRepricingReportDTO;
 import com.avos.sipra.sipagri.services.dtos.PaginationResponseDTO;
 import com.avos.sipra.sipagri.services.dtos.ProductDTO;
 import com.avos.sipra.sipagri.services.mappers.ProductMapper;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Objects;
-import java.util.Optional;
+import java.util.*;
 
 /**
  * Service implementation for managing products.
@@ -21,6 +21,7 @@ import java.util.Optional;
  * and perform batch operations like finding all products or paginated retrieval.
  * Products are mapped between entities and DTOs using a ProductMapper.
  * The underlying persistence is managed by a ProductRepository.
+ * A price change reprices the kits containing the product within the same transaction.
  */
 @Service
 public class ProductServiceImpl implements ProductService {
@@ -41,16 +42,24 @@ public class ProductServiceImpl implements ProductService {
      * required by the business logic implemented within the service.
      */
     private final ProductRepository productRepository;
+    /**
+     * Service recomputing the kit lines, kits and repayment balances affected by a
+     * product price change.
+     */
+    private final KitRepricingService kitRepricingService;
 
     /**
      * Constructs a new instance of ProductServiceImpl.
      *
      * @param productMapper       the mapper responsible for transforming domain objects to DTOs and vice versa
      * @param productRepository   the repository interface for managing product persistence operations
+     * @param kitRepricingService the service repricing kits after a product price change
      */
-    public ProductServiceImpl(ProductMapper productMapper, ProductRepository productRepository) {
+    public ProductServiceImpl(ProductMapper productMapper, ProductRepository productRepository,
+                              KitRepricingService kitRepricingService) {
         this.productMapper = productMapper;
         this.productRepository = productRepository;
+        this.kitRepricingService = kitRepricingService;
     }
 
     /**
@@ -77,10 +86,14 @@ public class ProductServiceImpl implements ProductService {
      * @throws IllegalArgumentException if the product ID is null or the product does not exist
      */
     @Override
+    @Transactional
     public ProductDTO update(ProductDTO productDTO) {
         if(Objects.isNull(productDTO.getId())) {throw new IllegalArgumentException("Id cannot be null");}
         if(Boolean.FALSE.equals(existsById(productDTO.getId()))) {throw new IllegalArgumentException("Product not found");}
-        return save(productDTO);
+        Double previousPrice = productRepository.findPriceById(productDTO.getId()).orElse(null);
+        ProductDTO saved = save(productDTO);
+        repriceIfChanged(saved, previousPrice);
+        return saved;
     }
 
     /**
@@ -105,6 +118,24 @@ public class ProductServiceImpl implements ProductService {
         return product.map(productMapper::toDTO).orElse(null);
     }
 
+    /**
+     * Retrieves several products with a single {@code IN} query and indexes them by id.
+     *
+     * @param ids the identifiers of the products
+     * @return the products found, indexed by id; unknown ids are absent
+     */
+    @Override
+    public Map<Long, ProductDTO> findAllById(Collection<Long> ids) {
+        Map<Long, ProductDTO> products = new HashMap<>();
+        if (ids == null || ids.isEmpty()) {
+            return products;
+        }
+        for (Product product : productRepository.findAllById(ids)) {
+            products.put(product.getId(), productMapper.toDTO(product));
+        }
+        return products;
+    }
+
     /**
      * Retrieves all products from the repository, converts them into ProductDTO objects using the productMapper,
      * and returns a list of these ProductDTOs.
@@ -180,18 +211,54 @@ public class ProductServiceImpl implements ProductService {
      * @throws IllegalArgumentException if the product ID is null or the product cannot be found
      */
     @Override
+    @Transactional
     public ProductDTO partialUpdate(ProductDTO productDTO) {
         if(Objects.isNull(productDTO.getId())) {throw new IllegalArgumentException("Id cannot be null");}
         if(Boolean.FALSE.equals(existsById(productDTO.getId()))) {throw new IllegalArgumentException("Product not found");}
         Optional<Product> productOp = productRepository.findById(productDTO.getId());
         if(productOp.isPresent()) {
+            Double previousPrice = productOp.get().getPrice();
             Product product = productMapper.partialUpdate(productOp.get(), productDTO);
             product = productRepository.save(product);
-            return productMapper.toDTO(product);
+            ProductDTO saved = productMapper.toDTO(product);
+            repriceIfChanged(saved, previousPrice);
+            return saved;
         }
         return null;
     }
 
+    /**
+     * Changes the price of a product and reprices the kits containing it.
+     *
+     * @param id the identifier of the product
+     * @param price the new unit price, positive
+     * @return the repricing report
+     * @throws IllegalArgumentException if the id is null, the price is invalid or the product does not exist
+     */
+    @Override
+    @Transactional
+    public KitRepricingReportDTO updatePrice(Long id, Double price) {
+        if(Objects.isNull(id)) {throw new IllegalArgumentException("Id cannot be null");}
+        if(price == null || price < 0) {throw new IllegalArgumentException("Le prix du produit ne peut pas être négatif");}
+        Optional<Product> productOp = productRepository.findById(id);
+        if(productOp.isEmpty()) {throw new IllegalArgumentException("Product not found");}
+
+        Product product = productOp.get();
+        Double previousPrice = product.getPrice();
+        product.setPrice(price);
+        productRepository.save(product);
+        return kitRepricingService.repriceProduct(id, previousPrice, price);
+    }
+
+    /**
+     * Reprices the kits containing a product when its price has changed.
+     */
+    private void repriceIfChanged(ProductDTO productDTO, Double previousPrice) {
+        if (productDTO != null && productDTO.getPrice() != null && !productDTO.getPrice().equals(previousPrice)) {
+            kitRepricingService.repriceProduct(productDTO.getId(), previousPrice, productDTO.getPrice());
+        }
+    }
+
     /**
      * Checks whether an entity with the specified ID exists in the repository.
      *
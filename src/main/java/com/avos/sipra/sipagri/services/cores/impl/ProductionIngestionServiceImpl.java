@@ -0,0 +1,259 @@
+package com.avos.sipra.sipagri.services.cores.impl;
+
+import com.avos.sipra.sipagri.enums.CropType;
+import com.avos.sipra.sipagri.enums.SyncStatus;
+import com.avos.sipra.sipagri.repositories.PlantationRepository;
+import com.avos.sipra.sipagri.services.cores.ProductionIngestionService;
+import com.avos.sipra.sipagri.services.cores.ProductionSyncService;
+import com.avos.sipra.sipagri.services.cores.PurchasePriceService;
+import com.avos.sipra.sipagri.services.dtos.IngestionStatusDTO;
+import com.avos.sipra.sipagri.services.dtos.ProductionDTO;
+import com.avos.sipra.sipagri.services.dtos.ProductionSyncResultDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Queues productions in a local {@link AppendLog} and records them through
+ * {@link ProductionSyncService} in the background.
+ * <p>
+ * A production is acknowledged once its JSON form is forced to disk, which costs a few
+ * milliseconds instead of a database transaction. The log is drained by batches of up to
+ * {@code app.ingestion.wal.batch-size} productions, each written with one
+ * {@link ProductionSyncService#sync(List)} call, so that size cannot exceed
+ * {@code app.sync.max-batch-size} and is checked at startup; the checkpoint moves only after the batch
+ * has committed. Every queued production carries an idempotency key, so the batch replayed
+ * after a crash between the commit and the checkpoint is reported as duplicates instead of
+ * being recorded twice. When the database is unavailable the batch stays in the log and is
+ * retried on the next run.
+ * <p>
+ * The plantation and its purchase price are checked before a production is acknowledged,
+ * so a queued production is only rejected at drain time when its plantation was deleted in
+ * the meantime. Such productions, and entries the log can no longer decode, are taken out
+ * of the log and counted in {@link #status()} with the reason of the last one.
+ */
+@Slf4j
+@Service
+public class ProductionIngestionServiceImpl implements ProductionIngestionService {
+    private final ProductionSyncService productionSyncService;
+    private final PlantationRepository plantationRepository;
+    private final PurchasePriceService purchasePriceService;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Path path;
+    private final int capacity;
+    private final int batchSize;
+    private final int syncMaxBatchSize;
+
+    /**
+     * Serializes the drains; appends only take the lock of the log.
+     */
+    private final Object drainLock = new Object();
+
+    private AppendLog appendLog;
+    private volatile LocalDateTime lastDrainAt;
+    private volatile String lastError;
+    private volatile long rejectedProductions;
+    private volatile String lastRejection;
+
+    public ProductionIngestionServiceImpl(ProductionSyncService productionSyncService,
+                                          PlantationRepository plantationRepository,
+                                          PurchasePriceService purchasePriceService,
+                                          ObjectMapper objectMapper,
+                                          @Value("${app.ingestion.wal.enabled:false}") boolean enabled,
+                                          @Value("${app.ingestion.wal.path:data/production-ingestion.log}") String path,
+                                          @Value("${app.ingestion.wal.capacity-bytes:67108864}") int capacity,
+                                          @Value("${app.ingestion.wal.batch-size:500}") int batchSize,
+                                          @Value("${app.sync.max-batch-size:500}") int syncMaxBatchSize) {
+        this.productionSyncService = productionSyncService;
+        this.plantationRepository = plantationRepository;
+        this.purchasePriceService = purchasePriceService;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.path = Path.of(path);
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.syncMaxBatchSize = syncMaxBatchSize;
+    }
+
+    @PostConstruct
+    void open() {
+        if (!enabled) {
+            return;
+        }
+        // Un lot refusé par la synchronisation resterait en tête du journal et bloquerait la vidange
+        if (batchSize < 1 || batchSize > syncMaxBatchSize) {
+            throw new IllegalStateException("app.ingestion.wal.batch-size must be between 1 and app.sync.max-batch-size ("
+                    + syncMaxBatchSize + "), was " + batchSize);
+        }
+        try {
+            appendLog = AppendLog.open(path, capacity);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot open the ingestion log " + path, e);
+        }
+        log.info("Ingestion log {} opened with {} production(s) to recover", path, appendLog.pending());
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        if (appendLog != null) {
+            synchronized (appendLog) {
+                appendLog.close();
+            }
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public boolean offer(ProductionDTO productionDTO) {
+        if (Objects.isNull(productionDTO)) {throw new IllegalArgumentException("Production cannot be null");}
+        if (Objects.nonNull(productionDTO.getId())) {throw new IllegalArgumentException("Id must be null");}
+        if (Objects.isNull(productionDTO.getPlantationId())) {throw new IllegalArgumentException("Plantation id cannot be null");}
+        if (productionDTO.getProductionInKg() == null || productionDTO.getProductionInKg() <= 0) {
+            throw new IllegalArgumentException("Production en kg doit être positive et non nulle");
+        }
+        if (!enabled) {
+            return false;
+        }
+        // Vérifié avant l'accusé de réception : le journal ne doit contenir que des productions enregistrables
+        if (!plantationRepository.existsById(productionDTO.getPlantationId())) {
+            throw new IllegalArgumentException("Plantation does not exist");
+        }
+        try {
+            purchasePriceService.findPricePerKg(CropType.MAIS, productionDTO.getYear());
+        } catch (IllegalStateException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+        if (productionDTO.getIdempotencyKey() == null || productionDTO.getIdempotencyKey().isBlank()) {
+            productionDTO.setIdempotencyKey(UUID.randomUUID().toString());
+        }
+
+        byte[] payload;
+        try {
+            payload = objectMapper.writeValueAsBytes(productionDTO);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Production cannot be serialized", e);
+        }
+        boolean appended;
+        synchronized (appendLog) {
+            appended = appendLog.append(payload);
+        }
+        if (!appended) {
+            log.warn("Ingestion log is full, production {} recorded synchronously",
+                    productionDTO.getIdempotencyKey());
+        }
+        return appended;
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.ingestion.wal.drain-interval-ms:500}")
+    public int drain() {
+        if (!enabled) {
+            return 0;
+        }
+        synchronized (drainLock) {
+            int drained = 0;
+            while (true) {
+                AppendLog.Batch batch;
+                synchronized (appendLog) {
+                    batch = appendLog.read(batchSize);
+                }
+                if (batch.isEmpty()) {
+                    break;
+                }
+
+                List<ProductionDTO> productions = decode(batch.payloads());
+                try {
+                    if (!productions.isEmpty()) {
+                        report(productionSyncService.sync(productions));
+                    }
+                } catch (RuntimeException e) {
+                    // Le lot reste dans le journal et sera rejoué au prochain passage
+                    lastError = e.getMessage();
+                    log.error("Ingestion of {} production(s) failed, retrying later: {}",
+                            productions.size(), e.getMessage());
+                    break;
+                }
+
+                synchronized (appendLog) {
+                    appendLog.commit(batch.end());
+                }
+                drained += batch.payloads().size();
+                lastDrainAt = LocalDateTime.now();
+                lastError = null;
+            }
+            if (drained > 0) {
+                log.debug("Drained {} production(s) from the ingestion log", drained);
+            }
+            return drained;
+        }
+    }
+
+    @Override
+    public IngestionStatusDTO status() {
+        IngestionStatusDTO.IngestionStatusDTOBuilder status = IngestionStatusDTO.builder()
+                .enabled(enabled)
+                .lastDrainAt(lastDrainAt)
+                .lastError(lastError)
+                .rejectedProductions(rejectedProductions)
+                .lastRejection(lastRejection);
+        if (enabled) {
+            synchronized (appendLog) {
+                status.pendingProductions(appendLog.pending())
+                        .usedBytes(appendLog.usedBytes())
+                        .capacityBytes(appendLog.capacity());
+            }
+        }
+        return status.build();
+    }
+
+    private List<ProductionDTO> decode(List<byte[]> payloads) {
+        List<ProductionDTO> productions = new ArrayList<>(payloads.size());
+        for (byte[] payload : payloads) {
+            try {
+                productions.add(objectMapper.readValue(payload, ProductionDTO.class));
+            } catch (IOException e) {
+                reject("Unreadable production: " + e.getMessage());
+                log.error("Unreadable production removed from the ingestion log: {}",
+                        new String(payload, StandardCharsets.UTF_8));
+            }
+        }
+        return productions;
+    }
+
+    private void report(List<ProductionSyncResultDTO> results) {
+        for (ProductionSyncResultDTO result : results) {
+            if (result.getStatus() == SyncStatus.REJECTED) {
+                reject(result.getIdempotencyKey() + ": " + result.getMessage());
+                log.error("Queued production {} rejected: {}",
+                        result.getIdempotencyKey(), result.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Counts a production taken out of the log without being recorded. Only called by the
+     * drain, under its lock.
+     */
+    private void reject(String reason) {
+        rejectedProductions++;
+        lastRejection = reason;
+    }
+}
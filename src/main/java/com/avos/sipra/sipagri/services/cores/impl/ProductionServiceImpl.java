@@ -1,23 +1,30 @@
 package com.avos.sipra.sipagri.services.cores.impl;
 
-import com.avos.sipra.sipagri.entities.Plantation;
 import com.avos.sipra.sipagri.entities.Production;
+import com.avos.sipra.sipagri.entities.ProductionArchive;
 import com.avos.sipra.sipagri.enums.PlantationStatus;
+import com.avos.sipra.sipagri.enums.SyncEntityType;
 import com.avos.sipra.sipagri.repositories.PlantationRepository;
+import com.avos.sipra.sipagri.repositories.ProductionArchiveRepository;
 import com.avos.sipra.sipagri.repositories.ProductionRepository;
 import com.avos.sipra.sipagri.services.cores.CalculationService;
 import com.avos.sipra.sipagri.services.cores.ProductionService;
+import com.avos.sipra.sipagri.services.cores.RepaymentLedgerService;
+import com.avos.sipra.sipagri.services.cores.SyncService;
 import com.avos.sipra.sipagri.services.dtos.PaginationResponseDTO;
 import com.avos.sipra.sipagri.services.dtos.ProductionDTO;
 import com.avos.sipra.sipagri.services.mappers.ProductionMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Objects;
-import java.util.Optional;
+import java.util.*;
+import java.util.function.Supplier;
 
 /**
  * Implementation of the ProductionService interface for handling operations
@@ -30,55 +37,119 @@ import java.util.Optional;
  * - Perform partial updates to production entities.
  * - Apply business-specific calculations through the CalculationService.
  * - Handle relationships between Production and Plantation entities.
+ * - Keep the repayment balance of the affected plantations up to date.
  */
+@Slf4j
 @Service
 public class ProductionServiceImpl implements ProductionService{
     private final ProductionMapper productionMapper;
     private final ProductionRepository productionRepository;
+    private final ProductionArchiveRepository productionArchiveRepository;
     private final CalculationService calculationService;
     private final PlantationRepository plantationRepository;
+    private final RepaymentLedgerService repaymentLedgerService;
+    private final SyncService syncService;
+    private final PlantationLockRegistry plantationLocks;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxWriteAttempts;
 
    public ProductionServiceImpl(ProductionMapper productionMapper,
                                   ProductionRepository productionRepository,
-                                 CalculationService calculationService, PlantationRepository plantationRepository) {
+                                 ProductionArchiveRepository productionArchiveRepository,
+                                 CalculationService calculationService, PlantationRepository plantationRepository,
+                                 RepaymentLedgerService repaymentLedgerService, SyncService syncService,
+                                 PlantationLockRegistry plantationLocks, TransactionTemplate transactionTemplate,
+                                 @Value("${app.production.max-write-attempts:3}") int maxWriteAttempts) {
         this.productionMapper = productionMapper;
         this.productionRepository = productionRepository;
+        this.productionArchiveRepository = productionArchiveRepository;
         this.calculationService = calculationService;
         this.plantationRepository = plantationRepository;
+        this.repaymentLedgerService = repaymentLedgerService;
+        this.syncService = syncService;
+        this.plantationLocks = plantationLocks;
+        this.transactionTemplate = transactionTemplate;
+        this.maxWriteAttempts = maxWriteAttempts;
     }
 
 
     /**
      * Saves a production record by performing necessary calculations, converting the DTO to an entity,
      * persisting it in the database, and maintaining the relationship with its associated plantation.
+     * <p>
+     * The whole recording runs in one transaction with a fixed number of statements: the
+     * plantation and kit figures are read once through its repayment balance, the balance
+     * and the plantation status are advanced by two bulk updates, and the production itself
+     * is inserted by the single flush at commit. The plantation is never loaded.
+     * <p>
+     * Recordings of the same plantation are serialized on this node by a per-plantation lock
+     * held until the transaction has committed, so each one is priced against the balance
+     * including the previous ones. A recording from another node is detected by the version
+     * of the balance, and the whole transaction is then retried (see {@link #writeLocked}).
      *
      * @param productionDTO the production data transfer object containing information to be saved
      * @return the saved production data transfer object with updated and calculated values
      */
     @Override
     public ProductionDTO save(ProductionDTO productionDTO) {
+        return writeLocked(plantationIds(null, productionDTO.getPlantationId()), () -> record(productionDTO));
+    }
+
+    /**
+     * Runs a write of productions in its own transaction, under the locks of the plantations
+     * whose balance it changes, and retries the whole transaction when a balance was changed
+     * by another node.
+     * <p>
+     * The locks are taken in ascending order of the plantation identifiers, so two writes
+     * moving productions between the same plantations in opposite directions cannot
+     * deadlock, and released in the reverse order once the transaction has ended.
+     *
+     * @param plantationIds the plantations whose balance the write changes
+     * @param write the write, run again on each attempt
+     * @return the result of the write
+     */
+    private ProductionDTO writeLocked(Collection<Long> plantationIds, Supplier<ProductionDTO> write) {
+        // Les verrous sont pris hors transaction pour être tenus jusqu'après la validation
+        Deque<PlantationLockRegistry.Handle> handles = new ArrayDeque<>();
+        try {
+            for (Long plantationId : new TreeSet<>(plantationIds)) {
+                handles.push(plantationLocks.acquire(plantationId));
+            }
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    return transactionTemplate.execute(status -> write.get());
+                } catch (OptimisticLockingFailureException e) {
+                    if (attempt >= maxWriteAttempts) {
+                        throw e;
+                    }
+                    log.debug("Balance of plantation(s) {} changed concurrently, retrying ({}/{})", plantationIds, attempt, maxWriteAttempts);
+                }
+            }
+        } finally {
+            while (!handles.isEmpty()) {
+                handles.pop().close();
+            }
+        }
+    }
+
+    private ProductionDTO record(ProductionDTO productionDTO) {
         productionDTO = calculationService.calculateProductionValues(productionDTO);
         if (productionDTO.getCreatedAt() == null) {
             productionDTO.setCreatedAt(java.time.LocalDateTime.now());
         }
         Production production = productionMapper.toEntity(productionDTO);
-        production = productionRepository.save(production);
-
-        // Calcul mustBePaid après sauvegarde si on a plantationId
-        if (productionDTO.getPlantationId() != null) {
-            ProductionDTO finalDTO = productionMapper.toDTO(production);
-            finalDTO = calculationService.calculateMustBePaid(finalDTO, productionDTO.getPlantationId());
 
-            if (!Objects.equals(finalDTO.getMustBePaid(), production.getMustBePaid())) {
-                production.setMustBePaid(finalDTO.getMustBePaid());
-                production = productionRepository.save(production);
+        // mustBePaid est déjà calculé sur le solde du registre : il suffit d'y ajouter cet achat
+        Long plantationId = productionDTO.getPlantationId();
+        if (plantationId != null) {
+            production.setPlantation(plantationRepository.getReferenceById(plantationId));
+            if (production.getPurchasePrice() != null) {
+                repaymentLedgerService.recordPurchase(plantationId, production.getPurchasePrice());
             }
-
-            Plantation plantation = plantationRepository.getReferenceById(production.getPlantation().getId());
-            plantation.setStatus(PlantationStatus.INACTIVE);
-            plantationRepository.save(plantation);
+            plantationRepository.updateStatus(plantationId, PlantationStatus.INACTIVE);
         }
 
+        production = productionRepository.save(production);
         return productionMapper.toDTO(production);
     }
 
@@ -86,6 +157,9 @@ public class ProductionServiceImpl implements ProductionService{
      * Updates an existing production entity with the provided production data.
      * Validates that the production ID is not null and the record exists.
      * Recalculates associated values before saving the updated entity.
+     * <p>
+     * Like a recording, the update runs in one transaction under the locks of the previous
+     * and new plantations, both balances being recomputed before they are released.
      *
      * @param productionDTO the production data transfer object containing updated data
      * @return the updated production data transfer object after persistence
@@ -100,15 +174,20 @@ public class ProductionServiceImpl implements ProductionService{
             throw new IllegalArgumentException("Production does not exist");
         }
 
-        // Recalculer les valeurs basées sur productionInKg
-        productionDTO = calculationService.calculateProductionValues(productionDTO);
+        // Les soldes de l'ancienne et de la nouvelle plantation sont verrouillés, comme pour un enregistrement
+        Long previousPlantationId = productionRepository.findPlantationIdById(productionDTO.getId()).orElse(null);
+        return writeLocked(plantationIds(previousPlantationId, productionDTO.getPlantationId()), () -> {
+            // Recalculer les valeurs basées sur productionInKg
+            ProductionDTO calculatedProductionDTO = calculationService.calculateProductionValues(productionDTO);
 
-        // Conversion en entité et sauvegarde
-        Production production = productionMapper.toEntity(productionDTO);
-        production.setUpdatedAt(java.time.LocalDateTime.now());
-        production = productionRepository.save(production);
+            // Conversion en entité et sauvegarde
+            Production production = productionMapper.toEntity(calculatedProductionDTO);
+            production.setUpdatedAt(java.time.LocalDateTime.now());
+            production = productionRepository.save(production);
 
-        return productionMapper.toDTO(production);
+            refreshLedgers(previousPlantationId, calculatedProductionDTO.getPlantationId());
+            return productionMapper.toDTO(production);
+        });
     }
 
     /**
@@ -117,13 +196,20 @@ public class ProductionServiceImpl implements ProductionService{
      * @param id the unique identifier of the production record to be deleted
      */
     @Override
+    @Transactional
     public void delete(Long id) {
+        Optional<Long> plantationId = productionRepository.findPlantationIdById(id);
+        syncService.recordDeletion(SyncEntityType.PRODUCTION, id);
         productionRepository.deleteById(id);
+        plantationId.ifPresent(value -> refreshLedgers(value, null));
     }
 
     /**
      * Retrieves a single production record by its ID.
      * Throws an exception if the production with the given ID does not exist.
+     * <p>
+     * A production of a closed season is no longer in the hot table: it is then read from
+     * the archive, where it kept its id.
      *
      * @param id the unique identifier of the production to be retrieved
      * @return the ProductionDTO representing the retrieved production
@@ -135,6 +221,10 @@ public class ProductionServiceImpl implements ProductionService{
         if (productionOptional.isPresent()) {
             return productionMapper.toDTO(productionOptional.get());
         }
+        Optional<ProductionArchive> archived = productionArchiveRepository.findById(id);
+        if (archived.isPresent()) {
+            return productionMapper.toDTO(archived.get());
+        }
         throw new IllegalArgumentException("Production with ID " + id + " does not exist");
     }
 
@@ -193,6 +283,21 @@ public class ProductionServiceImpl implements ProductionService{
         return getProductionDTOPaginationResponseDTO(page);
     }
 
+    /**
+     * Searches the productions of a supervisor by plantation name or production amount.
+     *
+     * @param pageable the pagination and sorting information
+     * @param params the text searched in the plantation name or the production in kilograms
+     * @param supervisorId the supervisor whose productions are searched
+     * @return a PaginationResponseDTO containing the paginated list of ProductionDTOs and metadata
+     */
+    @Override
+    public PaginationResponseDTO<ProductionDTO> findAllPagedByParams(Pageable pageable, String params, Long supervisorId) {
+        final Page<Production> page = productionRepository.searchBySupervisor(pageable, params, supervisorId);
+
+        return getProductionDTOPaginationResponseDTO(page);
+    }
+
     /**
      * Finds and retrieves a paginated list of ProductionDTO objects that are associated with a specific supervisor ID.
      * This method fetches all production data corresponding to the plantations overseen by the supervisor.
@@ -231,7 +336,8 @@ public class ProductionServiceImpl implements ProductionService{
     /**
      * Partially updates a production entity based on the provided ProductionDTO.
      * This method recalculates production values if necessary and updates
-     * only specified fields, leaving others unchanged.
+     * only specified fields, leaving others unchanged. It is locked and transactional as
+     * {@link #update(ProductionDTO)}.
      *
      * @param productionDTO The data transfer object containing the partial updates
      *                       and the ID of the production entity to be updated.
@@ -248,21 +354,53 @@ public class ProductionServiceImpl implements ProductionService{
             throw new IllegalArgumentException("Production does not exist");
         }
 
-        Optional<Production> productionOptional = productionRepository.findById(productionDTO.getId());
-        if (productionOptional.isPresent()) {
+        // Sans plantation dans la requête, la production reste sur la sienne
+        Long previousPlantationId = productionRepository.findPlantationIdById(productionDTO.getId()).orElse(null);
+        Long plantationId = productionDTO.getPlantationId() != null ? productionDTO.getPlantationId() : previousPlantationId;
+        return writeLocked(plantationIds(previousPlantationId, plantationId), () -> {
+            Optional<Production> productionOptional = productionRepository.findById(productionDTO.getId());
+            if (productionOptional.isEmpty()) {
+                throw new IllegalArgumentException("Production with ID " + productionDTO.getId() + " does not exist");
+            }
             Production existingProduction = productionOptional.get();
+            Long currentPlantationId = existingProduction.getPlantation() != null
+                    ? existingProduction.getPlantation().getId() : null;
 
             // Recalculer les valeurs si productionInKg a changé
-            if (productionDTO.getProductionInKg() != null) {
-                productionDTO = calculationService.calculateProductionValues(productionDTO);
-            }
+            ProductionDTO changes = productionDTO.getProductionInKg() != null
+                    ? calculationService.calculateProductionValues(productionDTO) : productionDTO;
 
             // Effectuer la mise à jour partielle
-            Production production = productionMapper.partialUpdate(existingProduction, productionDTO);
+            Production production = productionMapper.partialUpdate(existingProduction, changes);
             production = productionRepository.save(production);
+
+            refreshLedgers(currentPlantationId,
+                    production.getPlantation() != null ? production.getPlantation().getId() : null);
             return productionMapper.toDTO(production);
+        });
+    }
+
+    /**
+     * Recomputes the repayment balance of the plantations a production was and is attached to.
+     * Unlike a new production, an update or a deletion changes an amount already counted,
+     * so the balance is recomputed from the productions rather than incremented.
+     */
+    private void refreshLedgers(Long previousPlantationId, Long plantationId) {
+        repaymentLedgerService.refresh(plantationIds(previousPlantationId, plantationId));
+    }
+
+    /**
+     * @return the plantations a production was and is attached to, without null nor duplicate
+     */
+    private static Set<Long> plantationIds(Long previousPlantationId, Long plantationId) {
+        Set<Long> plantationIds = new HashSet<>();
+        if (previousPlantationId != null) {
+            plantationIds.add(previousPlantationId);
+        }
+        if (plantationId != null) {
+            plantationIds.add(plantationId);
         }
-        throw new IllegalArgumentException("Production with ID " + productionDTO.getId() + " does not exist");
+        return plantationIds;
     }
 
     /**
@@ -275,4 +413,18 @@ public class ProductionServiceImpl implements ProductionService{
     public Boolean existsById(Long id) {
         return productionRepository.existsById(id);
     }
+
+    /**
+     * Checks whether a production is managed by a supervisor, without loading it. The
+     * archive is only queried for a production missing from the hot table.
+     *
+     * @param id the unique identifier of the production
+     * @param supervisorId the identifier of the supervisor
+     * @return true if the production exists and its plantation is managed by the supervisor
+     */
+    @Override
+    public boolean isOwnedBy(Long id, Long supervisorId) {
+        return productionRepository.existsByIdAndPlantation_Planter_Supervisor_Id(id, supervisorId)
+                || (!productionRepository.existsById(id) && productionArchiveRepository.existsOwnedBy(id, supervisorId));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,299 @@
+package com.avos.sipra.sipagri.services.cores.impl;
+
+import com.avos.sipra.sipagri.entities.Production;
+import com.avos.sipra.sipagri.enums.CropType;
+import com.avos.sipra.sipagri.enums.PlantationStatus;
+import com.avos.sipra.sipagri.enums.SyncStatus;
+import com.avos.sipra.sipagri.repositories.PlantationRepository;
+import com.avos.sipra.sipagri.repositories.ProductionArchiveRepository;
+import com.avos.sipra.sipagri.repositories.ProductionRepository;
+import com.avos.sipra.sipagri.services.cores.CalculationService;
+import com.avos.sipra.sipagri.services.cores.ProductionSyncService;
+import com.avos.sipra.sipagri.services.cores.PurchasePriceService;
+import com.avos.sipra.sipagri.services.cores.RepaymentLedgerService;
+import com.avos.sipra.sipagri.services.cores.SeasonArchiveService;
+import com.avos.sipra.sipagri.services.dtos.ProductionDTO;
+import com.avos.sipra.sipagri.services.dtos.ProductionSyncResultDTO;
+import com.avos.sipra.sipagri.services.mappers.ProductionMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Records batches of productions synchronized by field agents.
+ * <p>
+ * A batch costs a constant number of reads whatever its size: the plantations and their
+ * supervisor are looked up with one {@code IN} query, the idempotency keys not found in the
+ * in-memory {@link IdempotencyKeyStore} with another, and the repayment balances with a third while the
+ * prices are computed in one {@link CalculationService#calculateProductionValues(Collection)}
+ * call. The productions are then inserted through JDBC batching at commit, with one ledger
+ * increment per plantation and one bulk status update.
+ * <p>
+ * A key is scoped to the supervisor of the plantation: the same key sent for the plantations
+ * of two supervisors records two productions, and a replay never reports the production of
+ * another supervisor. Two concurrent replays of the same key are stopped by the unique index
+ * on the supervisor and the key: the losing batch fails as a whole and reports every record
+ * as a duplicate when replayed.
+ * <p>
+ * A replay of a production of a closed season finds its key in the archive: the keys still
+ * unknown are looked up there with one more query, only for the productions harvested in an
+ * archived season, so the synchronization of the current season never reads the archive.
+ */
+@Slf4j
+@Service
+public class ProductionSyncServiceImpl implements ProductionSyncService {
+    private static final int MAX_KEY_LENGTH = 64;
+
+    private final ProductionMapper productionMapper;
+    private final ProductionRepository productionRepository;
+    private final ProductionArchiveRepository productionArchiveRepository;
+    private final SeasonArchiveService seasonArchiveService;
+    private final PlantationRepository plantationRepository;
+    private final CalculationService calculationService;
+    private final PurchasePriceService purchasePriceService;
+    private final RepaymentLedgerService repaymentLedgerService;
+    private final int maxBatchSize;
+    private final IdempotencyKeyStore keyStore;
+
+    public ProductionSyncServiceImpl(ProductionMapper productionMapper,
+                                     ProductionRepository productionRepository,
+                                     ProductionArchiveRepository productionArchiveRepository,
+                                     SeasonArchiveService seasonArchiveService,
+                                     PlantationRepository plantationRepository,
+                                     CalculationService calculationService,
+                                     PurchasePriceService purchasePriceService,
+                                     RepaymentLedgerService repaymentLedgerService,
+                                     @Value("${app.sync.max-batch-size:500}") int maxBatchSize,
+                                     @Value("${app.sync.idempotency-cache-size:10000}") int idempotencyCacheSize) {
+        this.productionMapper = productionMapper;
+        this.productionRepository = productionRepository;
+        this.productionArchiveRepository = productionArchiveRepository;
+        this.seasonArchiveService = seasonArchiveService;
+        this.plantationRepository = plantationRepository;
+        this.calculationService = calculationService;
+        this.purchasePriceService = purchasePriceService;
+        this.repaymentLedgerService = repaymentLedgerService;
+        this.maxBatchSize = maxBatchSize;
+        this.keyStore = new IdempotencyKeyStore(idempotencyCacheSize);
+    }
+
+    @Override
+    @Transactional
+    public List<ProductionSyncResultDTO> sync(List<ProductionDTO> productionDTOs) {
+        if (Objects.isNull(productionDTOs)) {throw new IllegalArgumentException("Productions cannot be null");}
+        if (productionDTOs.size() > maxBatchSize) {
+            throw new IllegalArgumentException("A batch cannot exceed " + maxBatchSize + " productions");
+        }
+
+        ProductionSyncResultDTO[] results = new ProductionSyncResultDTO[productionDTOs.size()];
+        IdempotencyKeyStore.Key[] scopedKeys = new IdempotencyKeyStore.Key[productionDTOs.size()];
+
+        // Validation unitaire, puis superviseur de chaque plantation : une requête pour tout le lot
+        Set<Long> plantationIds = new HashSet<>();
+        for (int i = 0; i < productionDTOs.size(); i++) {
+            ProductionDTO productionDTO = productionDTOs.get(i);
+            String error = validate(productionDTO);
+            if (error != null) {
+                results[i] = result(productionDTO == null ? null : productionDTO.getIdempotencyKey(), SyncStatus.REJECTED, null, error);
+            } else {
+                plantationIds.add(productionDTO.getPlantationId());
+            }
+        }
+        Map<Long, Long> supervisorByPlantation = new HashMap<>();
+        if (!plantationIds.isEmpty()) {
+            for (Object[] row : plantationRepository.findSupervisorIds(plantationIds)) {
+                supervisorByPlantation.put((Long) row[0], (Long) row[1]);
+            }
+        }
+
+        // Seule la première occurrence d'une clé d'un même superviseur dans le lot est traitée
+        Map<IdempotencyKeyStore.Key, Integer> firstIndexByKey = new HashMap<>();
+        List<Integer> candidates = new ArrayList<>();
+        for (int i = 0; i < productionDTOs.size(); i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            ProductionDTO productionDTO = productionDTOs.get(i);
+            if (!supervisorByPlantation.containsKey(productionDTO.getPlantationId())) {
+                results[i] = result(productionDTO.getIdempotencyKey(), SyncStatus.REJECTED, null, "Plantation does not exist");
+                continue;
+            }
+            scopedKeys[i] = new IdempotencyKeyStore.Key(
+                    supervisorByPlantation.get(productionDTO.getPlantationId()), productionDTO.getIdempotencyKey());
+            if (firstIndexByKey.putIfAbsent(scopedKeys[i], i) == null) {
+                candidates.add(i);
+            }
+        }
+
+        // Clés déjà enregistrées : d'abord en mémoire, puis en une requête
+        Map<IdempotencyKeyStore.Key, Long> recorded = new HashMap<>();
+        Set<String> unknownKeys = new HashSet<>();
+        for (int i : candidates) {
+            Long id = keyStore.get(scopedKeys[i]);
+            if (id != null) {
+                recorded.put(scopedKeys[i], id);
+            } else {
+                unknownKeys.add(scopedKeys[i].key());
+            }
+        }
+        if (!unknownKeys.isEmpty()) {
+            Map<IdempotencyKeyStore.Key, Long> found = new HashMap<>();
+            for (Object[] row : productionRepository.findIdsByIdempotencyKeys(unknownKeys)) {
+                found.put(new IdempotencyKeyStore.Key((Long) row[0], (String) row[1]), (Long) row[2]);
+            }
+            // Clés encore inconnues d'une saison close : la production a pu être archivée depuis
+            Set<String> archivedKeys = new HashSet<>();
+            for (int i : candidates) {
+                if (!recorded.containsKey(scopedKeys[i]) && !found.containsKey(scopedKeys[i])
+                        && isArchivedSeason(productionDTOs.get(i).getYear())) {
+                    archivedKeys.add(scopedKeys[i].key());
+                }
+            }
+            if (!archivedKeys.isEmpty()) {
+                for (Object[] row : productionArchiveRepository.findIdsByIdempotencyKeys(archivedKeys)) {
+                    found.put(new IdempotencyKeyStore.Key((Long) row[0], (String) row[1]), (Long) row[2]);
+                }
+            }
+            keyStore.putAll(found);
+            recorded.putAll(found);
+        }
+
+        List<Integer> accepted = new ArrayList<>();
+        for (int i : candidates) {
+            if (recorded.containsKey(scopedKeys[i])) {
+                results[i] = result(scopedKeys[i].key(), SyncStatus.DUPLICATE, recorded.get(scopedKeys[i]), null);
+            } else {
+                accepted.add(i);
+            }
+        }
+
+        if (!accepted.isEmpty()) {
+            persist(productionDTOs, scopedKeys, accepted, results);
+        }
+
+        // Les doublons internes au lot reprennent le résultat de la première occurrence
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == null) {
+                String key = scopedKeys[i].key();
+                ProductionSyncResultDTO first = results[firstIndexByKey.get(scopedKeys[i])];
+                results[i] = first.getStatus() == SyncStatus.REJECTED
+                        ? result(key, SyncStatus.REJECTED, null, first.getMessage())
+                        : result(key, SyncStatus.DUPLICATE, first.getProductionId(), null);
+            }
+        }
+
+        log.debug("Synchronized {} production(s), {} created", results.length, accepted.size());
+        return Arrays.asList(results);
+    }
+
+    private void persist(List<ProductionDTO> productionDTOs, IdempotencyKeyStore.Key[] scopedKeys,
+                         List<Integer> accepted, ProductionSyncResultDTO[] results) {
+        List<ProductionDTO> toRecord = new ArrayList<>(accepted.size());
+        for (int i : accepted) {
+            toRecord.add(productionDTOs.get(i));
+        }
+        toRecord = calculationService.calculateProductionValues(toRecord);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Production> productions = new ArrayList<>(toRecord.size());
+        Map<Long, Double> purchasesByPlantation = new LinkedHashMap<>();
+        for (int k = 0; k < toRecord.size(); k++) {
+            ProductionDTO productionDTO = toRecord.get(k);
+            if (productionDTO.getCreatedAt() == null) {
+                productionDTO.setCreatedAt(now);
+            }
+            Production production = productionMapper.toEntity(productionDTO);
+            production.setPlantation(plantationRepository.getReferenceById(productionDTO.getPlantationId()));
+            production.setIdempotencySupervisorId(scopedKeys[accepted.get(k)].supervisorId());
+            productions.add(production);
+            purchasesByPlantation.merge(productionDTO.getPlantationId(), productionDTO.getPurchasePrice(), Double::sum);
+        }
+
+        purchasesByPlantation.forEach(repaymentLedgerService::recordPurchase);
+        plantationRepository.updateStatusByIds(purchasesByPlantation.keySet(), PlantationStatus.INACTIVE);
+        List<Production> saved = productionRepository.saveAll(productions);
+
+        Map<IdempotencyKeyStore.Key, Long> created = new HashMap<>();
+        for (int k = 0; k < accepted.size(); k++) {
+            Production production = saved.get(k);
+            results[accepted.get(k)] = result(production.getIdempotencyKey(), SyncStatus.CREATED, production.getId(), null);
+            created.put(scopedKeys[accepted.get(k)], production.getId());
+        }
+        rememberAfterCommit(created);
+    }
+
+    /**
+     * Adds the created keys to the store once the transaction has committed, so that a
+     * rolled back batch is never reported as a duplicate when replayed.
+     */
+    private void rememberAfterCommit(Map<IdempotencyKeyStore.Key, Long> created) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            keyStore.putAll(created);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                keyStore.putAll(created);
+            }
+        });
+    }
+
+    /**
+     * @return true if a production harvested on this date may have been moved to the archive
+     */
+    private boolean isArchivedSeason(Date harvestDate) {
+        if (harvestDate == null) {
+            return false;
+        }
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTime(harvestDate);
+        return seasonArchiveService.coversArchive(calendar.get(Calendar.YEAR));
+    }
+
+    /**
+     * @return the reason the production is rejected, or null when it can be recorded
+     */
+    private String validate(ProductionDTO productionDTO) {
+        if (productionDTO == null) {
+            return "Production cannot be null";
+        }
+        String key = productionDTO.getIdempotencyKey();
+        if (key == null || key.isBlank()) {
+            return "Idempotency key cannot be null";
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            return "Idempotency key cannot exceed " + MAX_KEY_LENGTH + " characters";
+        }
+        if (productionDTO.getId() != null) {
+            return "Id must be null";
+        }
+        if (productionDTO.getPlantationId() == null) {
+            return "Plantation id cannot be null";
+        }
+        if (productionDTO.getProductionInKg() == null || productionDTO.getProductionInKg() <= 0) {
+            return "Production en kg doit être positive et non nulle";
+        }
+        try {
+            purchasePriceService.findPricePerKg(CropType.MAIS, productionDTO.getYear());
+        } catch (IllegalStateException e) {
+            return e.getMessage();
+        }
+        return null;
+    }
+
+    private static ProductionSyncResultDTO result(String key, SyncStatus status, Long productionId, String message) {
+        return ProductionSyncResultDTO.builder()
+                .idempotencyKey(key)
+                .status(status)
+                .productionId(productionId)
+                .message(message)
+                .build();
+    }
+}
@@ -0,0 +1,280 @@
+package com.avos.sipra.sipagri.services.cores.impl;
+
+import com.avos.sipra.sipagri.entities.PurchasePrice;
+import com.avos.sipra.sipagri.enums.CropType;
+import com.avos.sipra.sipagri.repositories.ParamsRepository;
+import com.avos.sipra.sipagri.repositories.PurchasePriceRepository;
+import com.avos.sipra.sipagri.services.cores.PurchasePriceService;
+import com.avos.sipra.sipagri.services.dtos.PaginationResponseDTO;
+import com.avos.sipra.sipagri.services.dtos.PurchasePriceDTO;
+import com.avos.sipra.sipagri.services.mappers.PurchasePriceMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+
+/**
+ * Manages the purchase price history and serves prices from memory.
+ * <p>
+ * The whole history is loaded into an immutable {@link PurchasePriceTable}. Every write
+ * rebuilds the table once its transaction has committed and publishes it by replacing a
+ * single volatile reference, so readers never see a partially built table, nor a price
+ * that was rolled back, and never take a lock. The table is also refreshed periodically
+ * to pick up changes made through other application nodes.
+ * <p>
+ * A new price locks the open price of its crop before closing it, so concurrent new
+ * prices of the same crop are serialized, on this node and on the others.
+ */
+@Slf4j
+@Service
+public class PurchasePriceServiceImpl implements PurchasePriceService {
+    /**
+     * Legacy parameter holding the single corn price used before the price history
+     * existed. Only read while loading the table, when no corn price has been recorded.
+     */
+    private static final String LEGACY_PRICE_PARAM = "PRIX_ACHAT_MAIS";
+
+    private final PurchasePriceMapper purchasePriceMapper;
+    private final PurchasePriceRepository purchasePriceRepository;
+    private final ParamsRepository paramsRepository;
+
+    /**
+     * Snapshot of the price history currently used for lookups.
+     */
+    private volatile PurchasePriceTable table = PurchasePriceTable.EMPTY;
+
+    public PurchasePriceServiceImpl(PurchasePriceMapper purchasePriceMapper,
+                                    PurchasePriceRepository purchasePriceRepository,
+                                    ParamsRepository paramsRepository) {
+        this.purchasePriceMapper = purchasePriceMapper;
+        this.purchasePriceRepository = purchasePriceRepository;
+        this.paramsRepository = paramsRepository;
+    }
+
+    @PostConstruct
+    void init() {
+        reload();
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.pricing.refresh-interval-ms:300000}",
+            initialDelayString = "${app.pricing.refresh-interval-ms:300000}")
+    public void reload() {
+        List<PurchasePrice> prices = new ArrayList<>(purchasePriceRepository.findAll());
+        if (prices.stream().noneMatch(price -> price.getCrop() == CropType.MAIS)) {
+            legacyCornPrice().ifPresent(prices::add);
+        }
+        try {
+            table = PurchasePriceTable.of(prices);
+            log.debug("Purchase price table reloaded with {} period(s)", prices.size());
+        } catch (IllegalArgumentException e) {
+            log.error("Purchase price table not reloaded: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public double findPricePerKg(CropType crop, Date date) {
+        LocalDate day = toLocalDate(date);
+        Double price = table.priceAt(crop, day);
+        if (price == null) {
+            throw new IllegalStateException("Aucun prix d'achat " + crop + " en vigueur au " + day);
+        }
+        return price;
+    }
+
+    @Override
+    @Transactional
+    public PurchasePriceDTO save(PurchasePriceDTO purchasePriceDTO) {
+        validate(purchasePriceDTO);
+        PurchasePrice purchasePrice = purchasePriceMapper.toEntity(purchasePriceDTO);
+
+        List<PurchasePrice> toSave = new ArrayList<>();
+        Long ignoredId = purchasePrice.getId();
+        if (ignoredId == null) {
+            // Un nouveau prix clôt le prix ouvert en cours à sa date d'effet, verrouillé jusqu'à la validation
+            Optional<PurchasePrice> open = purchasePriceRepository.findOpenForUpdate(purchasePrice.getCrop())
+                    .filter(price -> price.getEffectiveFrom().isBefore(purchasePrice.getEffectiveFrom()));
+            if (open.isPresent()) {
+                if (purchasePrice.getEffectiveTo() != null) {
+                    // Un prix borné scinde le prix ouvert, qui reprend à sa date de fin
+                    toSave.add(PurchasePrice.builder()
+                            .crop(open.get().getCrop())
+                            .pricePerKg(open.get().getPricePerKg())
+                            .effectiveFrom(purchasePrice.getEffectiveTo())
+                            .build());
+                }
+                open.get().setEffectiveTo(purchasePrice.getEffectiveFrom());
+                toSave.add(open.get());
+                ignoredId = open.get().getId();
+            }
+        }
+        checkNoOverlap(purchasePrice, ignoredId);
+        toSave.add(purchasePrice);
+
+        List<PurchasePrice> saved = purchasePriceRepository.saveAll(toSave);
+        reloadAfterCommit();
+        return purchasePriceMapper.toDTO(saved.get(saved.size() - 1));
+    }
+
+    @Override
+    @Transactional
+    public PurchasePriceDTO update(PurchasePriceDTO purchasePriceDTO) {
+        if (Objects.isNull(purchasePriceDTO.getId())) {throw new IllegalArgumentException("Id cannot be null");}
+        if (Boolean.FALSE.equals(existsById(purchasePriceDTO.getId()))) {throw new IllegalArgumentException("Purchase price cannot be null");}
+        return save(purchasePriceDTO);
+    }
+
+    @Override
+    @Transactional
+    public void delete(Long id) {
+        purchasePriceRepository.deleteById(id);
+        reloadAfterCommit();
+    }
+
+    @Override
+    public PurchasePriceDTO findOne(Long id) {
+        Optional<PurchasePrice> purchasePrice = purchasePriceRepository.findById(id);
+        if (purchasePrice.isPresent()) {
+            return purchasePriceMapper.toDTO(purchasePrice.get());
+        }
+        throw new NullPointerException("Purchase price does not exist");
+    }
+
+    @Override
+    public List<PurchasePriceDTO> findAll() {
+        List<PurchasePriceDTO> purchasePriceDTOS = new ArrayList<>();
+        for (PurchasePrice purchasePrice : purchasePriceRepository.findAll()) {
+            purchasePriceDTOS.add(purchasePriceMapper.toDTO(purchasePrice));
+        }
+        return purchasePriceDTOS;
+    }
+
+    @Override
+    @Transactional
+    public PurchasePriceDTO partialUpdate(PurchasePriceDTO purchasePriceDTO) {
+        if (Objects.isNull(purchasePriceDTO.getId())) {throw new IllegalArgumentException("Id cannot be null");}
+        Optional<PurchasePrice> purchasePriceOptional = purchasePriceRepository.findById(purchasePriceDTO.getId());
+        if (purchasePriceOptional.isPresent()) {
+            PurchasePrice purchasePrice = purchasePriceMapper.partialUpdate(purchasePriceOptional.get(), purchasePriceDTO);
+            validate(purchasePriceMapper.toDTO(purchasePrice));
+            checkNoOverlap(purchasePrice, purchasePrice.getId());
+            purchasePrice = purchasePriceRepository.save(purchasePrice);
+            reloadAfterCommit();
+            return purchasePriceMapper.toDTO(purchasePrice);
+        }
+        throw new NullPointerException("Purchase price does not exist");
+    }
+
+    @Override
+    public Boolean existsById(Long id) {
+        return purchasePriceRepository.existsById(id);
+    }
+
+    @Override
+    public PaginationResponseDTO<PurchasePriceDTO> findAllPaged(Pageable pageable) {
+        final Page<PurchasePrice> page = purchasePriceRepository.findAll(pageable);
+
+        return getPurchasePriceDTOPaginationResponseDTO(page);
+    }
+
+    @Override
+    public PaginationResponseDTO<PurchasePriceDTO> findAllPagedByParams(Pageable pageable, String params) {
+        final Page<PurchasePrice> page = purchasePriceRepository.findPurchasePricesByCrop(pageable, CropType.valueOf(params));
+
+        return getPurchasePriceDTOPaginationResponseDTO(page);
+    }
+
+    private PaginationResponseDTO<PurchasePriceDTO> getPurchasePriceDTOPaginationResponseDTO(Page<PurchasePrice> page) {
+        final int currentPage = page.getNumber();
+        final int totalPages = page.getTotalPages();
+        final int totalElements = (int) page.getTotalElements();
+
+        List<PurchasePriceDTO> purchasePriceDTOS = new ArrayList<>();
+        for (PurchasePrice purchasePrice : page.getContent()) {
+            purchasePriceDTOS.add(purchasePriceMapper.toDTO(purchasePrice));
+        }
+
+        return new PaginationResponseDTO<>(currentPage, totalPages, totalElements, purchasePriceDTOS);
+    }
+
+    /**
+     * Rebuilds the table once the transaction has committed, so that it is read with the
+     * write included and a rolled back write is never published.
+     */
+    private void reloadAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            reload();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                reload();
+            }
+        });
+    }
+
+    private void validate(PurchasePriceDTO purchasePriceDTO) {
+        if (purchasePriceDTO.getCrop() == null) {
+            throw new IllegalArgumentException("Crop cannot be null");
+        }
+        if (purchasePriceDTO.getPricePerKg() == null || purchasePriceDTO.getPricePerKg() <= 0) {
+            throw new IllegalArgumentException("Le prix par kg doit être positif et non nul");
+        }
+        if (purchasePriceDTO.getEffectiveFrom() == null) {
+            throw new IllegalArgumentException("Effective from date cannot be null");
+        }
+        if (purchasePriceDTO.getEffectiveTo() != null
+                && !purchasePriceDTO.getEffectiveTo().isAfter(purchasePriceDTO.getEffectiveFrom())) {
+            throw new IllegalArgumentException("La date de fin doit être postérieure à la date de début");
+        }
+    }
+
+    /**
+     * Rejects a period overlapping another price of the same crop.
+     *
+     * @param ignoredId the price excluded from the check: the price being updated, or the
+     *                  open price being closed by a new one
+     */
+    private void checkNoOverlap(PurchasePrice purchasePrice, Long ignoredId) {
+        if (purchasePriceRepository.existsOverlapping(purchasePrice.getCrop(),
+                purchasePrice.getEffectiveFrom(), purchasePrice.getEffectiveTo(), ignoredId)) {
+            throw new IllegalArgumentException("Un prix d'achat " + purchasePrice.getCrop() + " existe déjà sur cette période");
+        }
+    }
+
+    private Optional<PurchasePrice> legacyCornPrice() {
+        return paramsRepository.findByName(LEGACY_PRICE_PARAM).flatMap(params -> {
+            try {
+                return Optional.of(PurchasePrice.builder()
+                        .crop(CropType.MAIS)
+                        .pricePerKg(Double.parseDouble(params.getValue()))
+                        .effectiveFrom(LocalDate.EPOCH)
+                        .build());
+            } catch (NumberFormatException | NullPointerException e) {
+                log.error("Paramètre {} invalide: {}", LEGACY_PRICE_PARAM, params.getValue());
+                return Optional.empty();
+            }
+        });
+    }
+
+    private static LocalDate toLocalDate(Date date) {
+        if (date == null) {
+            return LocalDate.now();
+        }
+        if (date instanceof java.sql.Date sqlDate) {
+            // java.sql.Date ne supporte pas toInstant()
+            return sqlDate.toLocalDate();
+        }
+        return date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+}
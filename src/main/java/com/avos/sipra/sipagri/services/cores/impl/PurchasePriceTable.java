@@ -0,0 +1,101 @@
+package com.avos.sipra.sipagri.services.cores.impl;
+
+import com.avos.sipra.sipagri.entities.PurchasePrice;
+import com.avos.sipra.sipagri.enums.CropType;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Immutable lookup structure over the purchase price history.
+ * <p>
+ * For each crop the non-overlapping periods are stored in parallel arrays sorted by
+ * start day, so resolving the price of a date is a binary search without allocation.
+ * Instances are never modified: a change in the history builds a new table which is
+ * published by replacing the reference held by the service.
+ */
+final class PurchasePriceTable {
+    static final PurchasePriceTable EMPTY = new PurchasePriceTable(new EnumMap<>(CropType.class));
+
+    private final Map<CropType, Periods> periodsByCrop;
+
+    private PurchasePriceTable(Map<CropType, Periods> periodsByCrop) {
+        this.periodsByCrop = periodsByCrop;
+    }
+
+    /**
+     * Builds a table from the given prices.
+     *
+     * @param prices the price history, in any order
+     * @return the lookup table
+     * @throws IllegalArgumentException if two periods of the same crop overlap
+     */
+    static PurchasePriceTable of(Collection<PurchasePrice> prices) {
+        Map<CropType, List<PurchasePrice>> grouped = new EnumMap<>(CropType.class);
+        for (PurchasePrice price : prices) {
+            grouped.computeIfAbsent(price.getCrop(), crop -> new ArrayList<>()).add(price);
+        }
+
+        Map<CropType, Periods> periodsByCrop = new EnumMap<>(CropType.class);
+        for (Map.Entry<CropType, List<PurchasePrice>> entry : grouped.entrySet()) {
+            List<PurchasePrice> sorted = new ArrayList<>(entry.getValue());
+            sorted.sort(Comparator.comparing(PurchasePrice::getEffectiveFrom));
+            periodsByCrop.put(entry.getKey(), Periods.of(entry.getKey(), sorted));
+        }
+        return new PurchasePriceTable(periodsByCrop);
+    }
+
+    /**
+     * Returns the price per kilogram in force at the given day, or null if none.
+     */
+    Double priceAt(CropType crop, LocalDate day) {
+        Periods periods = periodsByCrop.get(crop);
+        if (periods == null) {
+            return null;
+        }
+        long epochDay = day.toEpochDay();
+        int index = Arrays.binarySearch(periods.from, epochDay);
+        if (index < 0) {
+            // Dernière période commençant avant la date
+            index = -index - 2;
+        }
+        if (index < 0 || epochDay >= periods.to[index]) {
+            return null;
+        }
+        return periods.price[index];
+    }
+
+    private static long toEpochDay(LocalDate date) {
+        return date == null ? Long.MAX_VALUE : date.toEpochDay();
+    }
+
+    /**
+     * Periods of one crop, as parallel arrays sorted by start day. End days are
+     * exclusive; open-ended periods end at {@link Long#MAX_VALUE}.
+     */
+    private static final class Periods {
+        private final long[] from;
+        private final long[] to;
+        private final double[] price;
+
+        private Periods(int size) {
+            this.from = new long[size];
+            this.to = new long[size];
+            this.price = new double[size];
+        }
+
+        private static Periods of(CropType crop, List<PurchasePrice> sorted) {
+            Periods periods = new Periods(sorted.size());
+            for (int i = 0; i < sorted.size(); i++) {
+                PurchasePrice price = sorted.get(i);
+                periods.from[i] = price.getEffectiveFrom().toEpochDay();
+                periods.to[i] = toEpochDay(price.getEffectiveTo());
+                periods.price[i] = price.getPricePerKg();
+                if (i > 0 && periods.from[i] < periods.to[i - 1]) {
+                    throw new IllegalArgumentException("Périodes de prix d'achat qui se chevauchent pour " + crop);
+                }
+            }
+            return periods;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.avos.sipra.sipagri.services.cores.impl;
+
+import com.avos.sipra.sipagri.entities.RepaymentLedger;
+import com.avos.sipra.sipagri.repositories.RepaymentLedgerRepository;
+import com.avos.sipra.sipagri.services.cores.RepaymentLedgerService;
+import com.avos.sipra.sipagri.services.dtos.RepaymentLedgerDTO;
+import com.avos.sipra.sipagri.services.mappers.RepaymentLedgerMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.util.*;
+
+/**
+ * Maintains the per-plantation repayment balances.
+ * <p>
+ * A new production only advances the balance of its plantation with an atomic
+ * increment, guarded by the version of the balance it was priced against. Updates and
+ * deletions of productions, as well as kit changes, recompute the affected balances from
+ * the source tables in a single statement, and all balances are rebuilt periodically in
+ * one set-based pass to repair any drift. On Oracle the rebuild holds an exclusive lock on
+ * the table, so no balance is written while it is replaced; other databases, such as the
+ * H2 of the tests, have no equivalent statement and rebuild without it.
+ */
+@Slf4j
+@Service
+public class RepaymentLedgerServiceImpl implements RepaymentLedgerService {
+    private final RepaymentLedgerRepository repaymentLedgerRepository;
+    private final RepaymentLedgerMapper repaymentLedgerMapper;
+
+    /**
+     * Whether the database accepts {@code LOCK TABLE ... IN EXCLUSIVE MODE}, i.e. is Oracle.
+     */
+    private final boolean tableLockSupported;
+
+    public RepaymentLedgerServiceImpl(RepaymentLedgerRepository repaymentLedgerRepository,
+                                      RepaymentLedgerMapper repaymentLedgerMapper,
+                                      DataSource dataSource) {
+        this.repaymentLedgerRepository = repaymentLedgerRepository;
+        this.repaymentLedgerMapper = repaymentLedgerMapper;
+        this.tableLockSupported = isOracle(dataSource);
+    }
+
+    private static boolean isOracle(DataSource dataSource) {
+        try {
+            String productName = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+            return DatabaseDriver.fromProductName(productName) == DatabaseDriver.ORACLE;
+        } catch (MetaDataAccessException e) {
+            log.warn("Database product unknown, the ledger rebuild will not lock the table", e);
+            return false;
+        }
+    }
+
+    @Override
+    @Transactional
+    public RepaymentLedgerDTO findByPlantationId(Long plantationId) {
+        if (Objects.isNull(plantationId)) {throw new IllegalArgumentException("Plantation id cannot be null");}
+        Optional<RepaymentLedger> repaymentLedger = repaymentLedgerRepository.findById(plantationId);
+        if (repaymentLedger.isEmpty() && repaymentLedgerRepository.insertMissing(List.of(plantationId)) > 0) {
+            repaymentLedger = repaymentLedgerRepository.findById(plantationId);
+        }
+        return repaymentLedger.map(repaymentLedgerMapper::toDTO).orElse(null);
+    }
+
+    @Override
+    @Transactional
+    public Map<Long, RepaymentLedgerDTO> findByPlantationIds(Collection<Long> plantationIds) {
+        Map<Long, RepaymentLedgerDTO> ledgers = new HashMap<>();
+        if (plantationIds == null || plantationIds.isEmpty()) {
+            return ledgers;
+        }
+        for (RepaymentLedger repaymentLedger : repaymentLedgerRepository.findAllById(plantationIds)) {
+            ledgers.put(repaymentLedger.getPlantationId(), repaymentLedgerMapper.toDTO(repaymentLedger));
+        }
+
+        // Les soldes manquants sont créés en une instruction puis relus
+        if (ledgers.size() < plantationIds.size()) {
+            List<Long> missing = plantationIds.stream().filter(id -> !ledgers.containsKey(id)).toList();
+            if (repaymentLedgerRepository.insertMissing(missing) > 0) {
+                for (RepaymentLedger repaymentLedger : repaymentLedgerRepository.findAllById(missing)) {
+                    ledgers.put(repaymentLedger.getPlantationId(), repaymentLedgerMapper.toDTO(repaymentLedger));
+                }
+            }
+        }
+        return ledgers;
+    }
+
+    @Override
+    @Transactional
+    public void recordPurchase(Long plantationId, double delta) {
+        if (Objects.isNull(plantationId)) {throw new IllegalArgumentException("Plantation id cannot be null");}
+        // Solde lu plus tôt dans la transaction : servi par le contexte de persistance, sans requête
+        Optional<RepaymentLedger> repaymentLedger = repaymentLedgerRepository.findById(plantationId);
+        if (repaymentLedger.isEmpty()) {
+            // Pas encore de solde : il est créé à partir des productions déjà enregistrées, sans celle-ci, puis relu
+            repaymentLedgerRepository.insertMissing(List.of(plantationId));
+            repaymentLedger = repaymentLedgerRepository.findById(plantationId);
+            if (repaymentLedger.isEmpty()) {
+                return;
+            }
+        }
+        if (repaymentLedgerRepository.addPurchase(plantationId, delta, repaymentLedger.get().getVersion()) == 0) {
+            throw new OptimisticLockingFailureException("Repayment balance of plantation " + plantationId + " changed concurrently");
+        }
+    }
+
+    @Override
+    @Transactional
+    public void refresh(Collection<Long> plantationIds) {
+        if (plantationIds == null || plantationIds.isEmpty()) {
+            return;
+        }
+        repaymentLedgerRepository.insertMissing(plantationIds);
+        repaymentLedgerRepository.recompute(plantationIds);
+    }
+
+    @Override
+    @Transactional
+    public void refreshKitDebt(Long kitId) {
+        if (Objects.isNull(kitId)) {throw new IllegalArgumentException("Kit id cannot be null");}
+        int updated = repaymentLedgerRepository.recomputeKitDebt(kitId);
+        log.debug("Kit debt refreshed for {} plantation(s) of kit {}", updated, kitId);
+    }
+
+    @Override
+    @Transactional
+    public int refreshKitDebtByProduct(Long productId) {
+        if (Objects.isNull(productId)) {throw new IllegalArgumentException("Product id cannot be null");}
+        return repaymentLedgerRepository.recomputeKitDebtByProduct(productId);
+    }
+
+    @Override
+    @Transactional
+    @Scheduled(cron = "${app.ledger.rebuild-cron:0 30 2 * * *}")
+    public int rebuild() {
+        if (tableLockSupported) {
+            // Les productions concurrentes attendent la fin de la reconstruction, puis échouent sur la version et sont rejouées
+            repaymentLedgerRepository.lockTable();
+        }
+        repaymentLedgerRepository.deleteAllInBatch();
+        int rebuilt = repaymentLedgerRepository.insertAll();
+        log.info("Repayment ledger rebuilt for {} plantation(s)", rebuilt);
+        return rebuilt;
+    }
+}
@@ -0,0 +1,72 @@
+package com.avos.sipra.sipagri.services.cores.impl;
+
+import com.avos.sipra.sipagri.repositories.SchedulerLockRepository;
+import com.avos.sipra.sipagri.services.cores.SchedulerLockService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Takes and releases the job locks each in its own short transaction, committed at once,
+ * so that the other nodes see the lock while the job runs.
+ */
+@Slf4j
+@Service
+public class SchedulerLockServiceImpl implements SchedulerLockService {
+    private final SchedulerLockRepository schedulerLockRepository;
+    private final TransactionTemplate lockTransaction;
+
+    /**
+     * Identifies this node in the locks it holds: process id and host name.
+     */
+    private final String nodeName = ManagementFactory.getRuntimeMXBean().getName();
+
+    public SchedulerLockServiceImpl(SchedulerLockRepository schedulerLockRepository,
+                                    PlatformTransactionManager transactionManager) {
+        this.schedulerLockRepository = schedulerLockRepository;
+        this.lockTransaction = new TransactionTemplate(transactionManager);
+        this.lockTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public boolean runExclusively(String name, Duration lockAtMostFor, Runnable job) {
+        if (Objects.isNull(name)) {throw new IllegalArgumentException("Lock name cannot be null");}
+        if (!tryLock(name, lockAtMostFor)) {
+            log.debug("Job {} skipped: held by another node", name);
+            return false;
+        }
+        try {
+            job.run();
+            return true;
+        } finally {
+            lockTransaction.executeWithoutResult(status ->
+                    schedulerLockRepository.release(name, LocalDateTime.now(), nodeName));
+        }
+    }
+
+    private boolean tryLock(String name, Duration lockAtMostFor) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime until = now.plus(lockAtMostFor);
+        Integer taken = lockTransaction.execute(status ->
+                schedulerLockRepository.takeExpired(name, now, until, nodeName));
+        if (taken != null && taken > 0) {
+            return true;
+        }
+        try {
+            // Premier passage du job : la ligne du verrou est créée, un seul noeud y parvient
+            Integer inserted = lockTransaction.execute(status ->
+                    schedulerLockRepository.insertTaken(name, now, until, nodeName));
+            return inserted != null && inserted > 0;
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.avos.sipra.sipagri.services.cores.impl;
+
+import com.avos.sipra.sipagri.repositories.ProductionArchiveRepository;
+import com.avos.sipra.sipagri.repositories.ProductionRepository;
+import com.avos.sipra.sipagri.repositories.SeasonSummaryRepository;
+import com.avos.sipra.sipagri.services.cores.SeasonArchiveService;
+import com.avos.sipra.sipagri.services.dtos.SeasonArchiveReportDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Closes seasons with three set-based statements: the season totals are merged into the
+ * summaries per plantation, the productions are copied into the archive, then deleted from
+ * the hot table. The copy and the deletion select the same rows, and the transaction is
+ * rolled back if their counts differ.
+ * <p>
+ * Repayment balances are unchanged by the move: they add the purchases of the summaries to
+ * those of the hot table.
+ */
+@Slf4j
+@Service
+public class SeasonArchiveServiceImpl implements SeasonArchiveService {
+    private final ProductionRepository productionRepository;
+    private final ProductionArchiveRepository productionArchiveRepository;
+    private final SeasonSummaryRepository seasonSummaryRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int hotSeasons;
+
+    public SeasonArchiveServiceImpl(ProductionRepository productionRepository,
+                                    ProductionArchiveRepository productionArchiveRepository,
+                                    SeasonSummaryRepository seasonSummaryRepository,
+                                    TransactionTemplate transactionTemplate,
+                                    @Value("${app.archive.hot-seasons:2}") int hotSeasons) {
+        if (hotSeasons < 1) {throw new IllegalArgumentException("At least one season must stay in the hot table");}
+        this.productionRepository = productionRepository;
+        this.productionArchiveRepository = productionArchiveRepository;
+        this.seasonSummaryRepository = seasonSummaryRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.hotSeasons = hotSeasons;
+    }
+
+    @Override
+    public int firstHotSeason() {
+        return LocalDate.now().getYear() - hotSeasons + 1;
+    }
+
+    @Override
+    public boolean coversArchive(Integer season) {
+        return season == null || season < firstHotSeason();
+    }
+
+    @Override
+    @Transactional
+    public SeasonArchiveReportDTO closeSeason(int season) {
+        if (season >= firstHotSeason()) {
+            throw new IllegalArgumentException("Season " + season + " is not closed yet");
+        }
+        Date from = java.sql.Date.valueOf(LocalDate.of(season, 1, 1));
+        Date to = java.sql.Date.valueOf(LocalDate.of(season + 1, 1, 1));
+
+        // Les totaux sont calculés avant que les lignes ne quittent la table chaude
+        int summaries = seasonSummaryRepository.mergeFromHot(season, from, to);
+        int archived = productionArchiveRepository.copyFromHot(from, to);
+        int deleted = productionRepository.deleteHarvestedBetween(from, to);
+        if (archived != deleted) {
+            throw new IllegalStateException("Season " + season + ": " + archived + " production(s) archived but "
+                    + deleted + " removed");
+        }
+
+        log.info("Season {} closed: {} production(s) archived, {} summary(ies) written", season, archived, summaries);
+        return SeasonArchiveReportDTO.builder()
+                .season(season)
+                .archivedProductions(archived)
+                .summaries(summaries)
+                .build();
+    }
+
+    @Override
+    @Scheduled(cron = "${app.archive.cron:0 0 3 1 * *}")
+    public List<SeasonArchiveReportDTO> closeEndedSeasons() {
+        int firstHotSeason = firstHotSeason();
+        List<SeasonArchiveReportDTO> reports = new ArrayList<>();
+        for (Integer season : productionRepository.findDistinctYears()) {
+            if (season != null && season < firstHotSeason) {
+                reports.add(transactionTemplate.execute(status -> closeSeason(season)));
+            }
+        }
+        return reports;
+    }
+}
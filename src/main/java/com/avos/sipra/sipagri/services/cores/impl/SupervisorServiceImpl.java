@@ -2,11 +2,13 @@ package com.avos.sipra.sipagri.services.cores.impl;
 
 import com.avos.sipra.sipagri.entities.Supervisor;
 import com.avos.sipra.sipagri.enums.SupervisorProfile;
+import com.avos.sipra.sipagri.events.SupervisorChangedEvent;
 import com.avos.sipra.sipagri.repositories.SupervisorRepository;
 import com.avos.sipra.sipagri.services.cores.SupervisorService;
 import com.avos.sipra.sipagri.services.dtos.PaginationResponseDTO;
 import com.avos.sipra.sipagri.services.dtos.SupervisorDTO;
 import com.avos.sipra.sipagri.services.mappers.SupervisorMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -40,16 +42,24 @@ public class SupervisorServiceImpl implements SupervisorService {
      * Used as a dependency in the SupervisorServiceImpl class to handle persistence operations.
      */
     private final SupervisorRepository supervisorRepository;
+    /**
+     * Publisher of the {@link SupervisorChangedEvent} revoking the tokens issued before a
+     * supervisor was modified or deleted.
+     */
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Constructs a new instance of SupervisorServiceImpl with the specified dependencies.
      *
      * @param supervisorMapper the mapper responsible for converting between Supervisor entities and DTOs
      * @param supervisorRepository the repository responsible for managing Supervisor entities
+     * @param eventPublisher the publisher notifying the changes of supervisors
      */
-    public SupervisorServiceImpl(SupervisorMapper supervisorMapper, SupervisorRepository supervisorRepository) {
+    public SupervisorServiceImpl(SupervisorMapper supervisorMapper, SupervisorRepository supervisorRepository,
+                                 ApplicationEventPublisher eventPublisher) {
         this.supervisorRepository = supervisorRepository;
         this.supervisorMapper = supervisorMapper;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -62,7 +72,12 @@ public class SupervisorServiceImpl implements SupervisorService {
     @Override
     public SupervisorDTO save(SupervisorDTO supervisorDTO) {
         Supervisor supervisor = supervisorMapper.toEntity(supervisorDTO);
+        boolean existing = supervisor.getId() != null;
         supervisor = supervisorRepository.save(supervisor);
+        if (existing) {
+            // Profil ou mot de passe modifié : les jetons déjà émis ne sont plus acceptés
+            eventPublisher.publishEvent(new SupervisorChangedEvent(supervisor.getId()));
+        }
         return supervisorMapper.toDTO(supervisor);
     }
 
@@ -89,6 +104,7 @@ public class SupervisorServiceImpl implements SupervisorService {
     @Override
     public void delete(Long id) {
         supervisorRepository.deleteById(id);
+        eventPublisher.publishEvent(new SupervisorChangedEvent(id));
     }
 
     /**
@@ -216,6 +232,7 @@ public class SupervisorServiceImpl implements SupervisorService {
         if (supervisorOptional.isPresent()) {
             Supervisor supervisor = supervisorMapper.partialUpdate(supervisorOptional.get(), supervisorDTO);
             supervisor = supervisorRepository.save(supervisor);
+            eventPublisher.publishEvent(new SupervisorChangedEvent(supervisor.getId()));
             return supervisorMapper.toDTO(supervisor);
         }
         return null;
@@ -0,0 +1,157 @@
+package com.avos.sipra.sipagri.services.cores.impl;
+
+import com.avos.sipra.sipagri.entities.SyncTombstone;
+import com.avos.sipra.sipagri.enums.SyncEntityType;
+import com.avos.sipra.sipagri.repositories.KitRepository;
+import com.avos.sipra.sipagri.repositories.ParamsRepository;
+import com.avos.sipra.sipagri.repositories.PlantationRepository;
+import com.avos.sipra.sipagri.repositories.PlanterRepository;
+import com.avos.sipra.sipagri.repositories.ProductionRepository;
+import com.avos.sipra.sipagri.repositories.SyncTombstoneRepository;
+import com.avos.sipra.sipagri.services.cores.SyncService;
+import com.avos.sipra.sipagri.services.dtos.SyncResponseDTO;
+import com.avos.sipra.sipagri.services.mappers.KitMapper;
+import com.avos.sipra.sipagri.services.mappers.ParamsMapper;
+import com.avos.sipra.sipagri.services.mappers.ProductionMapper;
+import com.avos.sipra.sipagri.services.mappers.SyncMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+
+/**
+ * Serves the delta synchronization from the {@code updated_at} indexes.
+ * <p>
+ * The watermark is the modification time up to which the client is known to be up to
+ * date, sent back as an opaque Base64 token. Each synchronization reads the records
+ * modified after it with one indexed query per record type, plus the tombstones of the
+ * deletions. The next watermark is read from the database clock, which also stamps the
+ * {@code updated_at} columns and the tombstones, so that a clock skew between the
+ * application nodes and the database cannot skip a change. It is taken before the reads
+ * and moved back by a safety overlap, so that rows committed late by concurrent
+ * transactions are not skipped; the few records sent twice are simply upserted again by
+ * the client.
+ */
+@Slf4j
+@Service
+public class SyncServiceImpl implements SyncService {
+    /**
+     * Watermark of a first synchronization: every record is newer.
+     */
+    private static final LocalDateTime ORIGIN = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final PlanterRepository planterRepository;
+    private final PlantationRepository plantationRepository;
+    private final ProductionRepository productionRepository;
+    private final KitRepository kitRepository;
+    private final ParamsRepository paramsRepository;
+    private final SyncTombstoneRepository syncTombstoneRepository;
+    private final SyncMapper syncMapper;
+    private final ProductionMapper productionMapper;
+    private final KitMapper kitMapper;
+    private final ParamsMapper paramsMapper;
+    private final long watermarkOverlapMs;
+
+    public SyncServiceImpl(PlanterRepository planterRepository,
+                           PlantationRepository plantationRepository,
+                           ProductionRepository productionRepository,
+                           KitRepository kitRepository,
+                           ParamsRepository paramsRepository,
+                           SyncTombstoneRepository syncTombstoneRepository,
+                           SyncMapper syncMapper,
+                           ProductionMapper productionMapper,
+                           KitMapper kitMapper,
+                           ParamsMapper paramsMapper,
+                           @Value("${app.sync.watermark-overlap-ms:5000}") long watermarkOverlapMs) {
+        this.planterRepository = planterRepository;
+        this.plantationRepository = plantationRepository;
+        this.productionRepository = productionRepository;
+        this.kitRepository = kitRepository;
+        this.paramsRepository = paramsRepository;
+        this.syncTombstoneRepository = syncTombstoneRepository;
+        this.syncMapper = syncMapper;
+        this.productionMapper = productionMapper;
+        this.kitMapper = kitMapper;
+        this.paramsMapper = paramsMapper;
+        this.watermarkOverlapMs = watermarkOverlapMs;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public SyncResponseDTO changesSince(String token, Long supervisorId) {
+        LocalDateTime since = decode(token);
+        // Le prochain filigrane est pris avant les lectures, à l'horloge de la base qui date les lignes
+        LocalDateTime next = syncTombstoneRepository.currentTimestamp().minusNanos(watermarkOverlapMs * 1_000_000);
+
+        Map<SyncEntityType, List<Long>> deleted = new EnumMap<>(SyncEntityType.class);
+        for (SyncTombstone tombstone : syncTombstoneRepository.findRecordedSince(since, supervisorId)) {
+            deleted.computeIfAbsent(tombstone.getEntityType(), type -> new ArrayList<>()).add(tombstone.getEntityId());
+        }
+
+        SyncResponseDTO response = SyncResponseDTO.builder()
+                .token(encode(next.isAfter(since) ? next : since))
+                .planters(planterRepository.findChangedSince(since, supervisorId).stream().map(syncMapper::toDTO).toList())
+                .plantations(plantationRepository.findChangedSince(since, supervisorId).stream().map(syncMapper::toDTO).toList())
+                .productions(productionRepository.findChangedSince(since, supervisorId).stream().map(productionMapper::toDTO).toList())
+                .kits(kitRepository.findChangedSince(since).stream().map(kitMapper::toDTO).toList())
+                .params(paramsRepository.findChangedSince(since).stream().map(paramsMapper::toDTO).toList())
+                .deleted(deleted)
+                .build();
+        log.debug("Sync since {} for supervisor {}: {} planter(s), {} plantation(s), {} production(s), {} deletion type(s)",
+                since, supervisorId, response.getPlanters().size(), response.getPlantations().size(),
+                response.getProductions().size(), deleted.size());
+        return response;
+    }
+
+    @Override
+    @Transactional
+    public void recordDeletion(SyncEntityType entityType, Long id) {
+        if (Objects.isNull(entityType)) {throw new IllegalArgumentException("Entity type cannot be null");}
+        if (Objects.isNull(id)) {throw new IllegalArgumentException("Id cannot be null");}
+        switch (entityType) {
+            case PLANTER -> syncTombstoneRepository.insertForPlanter(id);
+            case PLANTATION -> syncTombstoneRepository.insertForPlantation(id);
+            case PRODUCTION -> syncTombstoneRepository.insertForProduction(id);
+            // Kits et paramètres sont partagés par tous les superviseurs
+            case KIT, PARAMS -> syncTombstoneRepository.insertShared(entityType.name(), id);
+        }
+    }
+
+    @Override
+    @Transactional
+    public void recordDeletions(SyncEntityType entityType, Collection<Long> ids) {
+        if (Objects.isNull(entityType)) {throw new IllegalArgumentException("Entity type cannot be null");}
+        if (ids == null || ids.isEmpty()) {
+            return;
+        }
+        switch (entityType) {
+            // Les enregistrements supprimés en cascade par la base ont aussi leur pierre tombale
+            case PLANTER -> syncTombstoneRepository.insertForPlanters(ids);
+            case PLANTATION -> syncTombstoneRepository.insertForPlantations(ids);
+            default -> ids.forEach(id -> recordDeletion(entityType, id));
+        }
+    }
+
+    static String encode(LocalDateTime watermark) {
+        long millis = watermark.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(Long.toString(millis).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    static LocalDateTime decode(String token) {
+        if (token == null || token.isBlank()) {
+            return ORIGIN;
+        }
+        try {
+            long millis = Long.parseLong(new String(Base64.getUrlDecoder().decode(token), StandardCharsets.US_ASCII));
+            return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid sync token");
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.avos.sipra.sipagri.services.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * State of the production ingestion log: the backlog not yet recorded in the database and
+ * the outcome of the last drain.
+ * <p>
+ * {@code rejectedProductions} counts the queued productions removed from the log without
+ * being recorded since the start, and {@code lastRejection} gives the reason of the last one.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IngestionStatusDTO {
+    private boolean enabled;
+
+    private int pendingProductions;
+
+    private long usedBytes;
+
+    private long capacityBytes;
+
+    private LocalDateTime lastDrainAt;
+
+    private String lastError;
+
+    private long rejectedProductions;
+
+    private String lastRejection;
+}
@@ -0,0 +1,36 @@
+package com.avos.sipra.sipagri.services.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Report of a kit repricing triggered by a product price change.
+ * <p>
+ * The kit values only cover the active plantations whose kit contains the product,
+ * before and after the repricing.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class KitRepricingReportDTO {
+    private Long productId;
+
+    private Double previousPrice;
+
+    private Double price;
+
+    private Integer updatedKitProducts;
+
+    private Integer updatedKits;
+
+    private Long affectedActivePlantations;
+
+    private Double activeKitValueBefore;
+
+    private Double activeKitValueAfter;
+
+    private Double activeKitValueDelta;
+}
@@ -25,6 +25,8 @@ public class ProductionDTO {
 
     private Date year;
 
+    private String idempotencyKey;
+
     private LocalDateTime createdAt;
 
     private LocalDateTime updatedAt;
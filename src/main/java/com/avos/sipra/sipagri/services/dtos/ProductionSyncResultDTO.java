@@ -0,0 +1,27 @@
+package com.avos.sipra.sipagri.services.dtos;
+
+import com.avos.sipra.sipagri.enums.SyncStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one production of a batch synchronization, returned in the order of the request.
+ * <p>
+ * {@code productionId} identifies the created production, or the one already recorded under
+ * the same key for a duplicate. {@code message} explains a rejection.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductionSyncResultDTO {
+    private String idempotencyKey;
+
+    private SyncStatus status;
+
+    private Long productionId;
+
+    private String message;
+}
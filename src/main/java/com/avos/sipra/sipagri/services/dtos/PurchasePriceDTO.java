@@ -0,0 +1,36 @@
+package com.avos.sipra.sipagri.services.dtos;
+
+import com.avos.sipra.sipagri.enums.CropType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Data Transfer Object representing a {@code PurchasePrice} for API requests/responses.
+ * <p>
+ * {@code effectiveFrom} is inclusive, {@code effectiveTo} is exclusive and may be null
+ * for the price currently in force.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PurchasePriceDTO {
+    private Long id;
+
+    private CropType crop;
+
+    private Double pricePerKg;
+
+    private LocalDate effectiveFrom;
+
+    private LocalDate effectiveTo;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+}
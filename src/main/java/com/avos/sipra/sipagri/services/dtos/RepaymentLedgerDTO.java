@@ -0,0 +1,28 @@
+package com.avos.sipra.sipagri.services.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object representing the repayment balance of a plantation.
+ * <p>
+ * {@code outstanding} is the part of the kit debt not yet covered by purchases, never
+ * negative; {@code repaid} is true once purchases cover the whole kit debt.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RepaymentLedgerDTO {
+    private Long plantationId;
+
+    private Double kitDebt;
+
+    private Double cumulativePurchase;
+
+    private Double outstanding;
+
+    private Boolean repaid;
+}
@@ -0,0 +1,22 @@
+package com.avos.sipra.sipagri.services.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of the closing of a season: the number of productions moved to the archive and
+ * of per-plantation summaries written for them.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeasonArchiveReportDTO {
+    private Integer season;
+
+    private int archivedProductions;
+
+    private int summaries;
+}
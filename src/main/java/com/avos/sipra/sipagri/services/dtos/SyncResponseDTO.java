@@ -0,0 +1,37 @@
+package com.avos.sipra.sipagri.services.dtos;
+
+import com.avos.sipra.sipagri.enums.SyncEntityType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records changed since the watermark of a delta synchronization.
+ * <p>
+ * Records are flat: planters come without their plantations, plantations without their
+ * productions and with only the identifier of their kit. {@code deleted} lists the
+ * identifiers deleted by type. {@code token} is the watermark to send on the next call.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncResponseDTO {
+    private String token;
+
+    private List<PlanterDTO> planters;
+
+    private List<PlantationDTO> plantations;
+
+    private List<ProductionDTO> productions;
+
+    private List<KitDTO> kits;
+
+    private List<ParamsDTO> params;
+
+    private Map<SyncEntityType, List<Long>> deleted;
+}
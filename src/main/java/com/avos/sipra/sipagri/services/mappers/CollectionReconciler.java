@@ -0,0 +1,114 @@
+package com.avos.sipra.sipagri.services.mappers;
+
+import lombok.extern.log4j.Log4j2;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Applies the requested state of a child collection to a managed one, in place.
+ * <p>
+ * Children are matched by identifier through a hash map: the requested children that
+ * already exist are updated field by field, those without identifier are created, and the
+ * existing children missing from the request are removed. The collection instance is kept,
+ * so Hibernate only issues statements for the children that actually changed instead of
+ * deleting and reinserting the whole collection.
+ */
+@Log4j2
+final class CollectionReconciler {
+
+    private CollectionReconciler() {
+    }
+
+    /**
+     * Reconciles {@code current} with {@code requested}.
+     *
+     * @param current the managed collection, may be null
+     * @param requested the complete requested state of the collection
+     * @param entityId the identifier of a child entity
+     * @param dtoId the identifier of a requested child, null for a new one
+     * @param update applies a requested child to the matching entity
+     * @param create builds the entity of a new child, already attached to its parent
+     * @return the reconciled collection: {@code current}, or a new list if it was null
+     */
+    static <E, D> List<E> reconcile(List<E> current,
+                                    Collection<D> requested,
+                                    Function<E, Long> entityId,
+                                    Function<D, Long> dtoId,
+                                    BiConsumer<E, D> update,
+                                    Function<D, E> create) {
+        List<E> children = current != null ? current : new ArrayList<>();
+
+        Map<Long, D> requestedById = new HashMap<>();
+        for (D dto : requested) {
+            Long id = dtoId.apply(dto);
+            if (id != null) {
+                requestedById.put(id, dto);
+            }
+        }
+
+        // Supprimer les enfants absents de la requête, mettre à jour les autres
+        Set<Long> matched = new HashSet<>();
+        Iterator<E> iterator = children.iterator();
+        while (iterator.hasNext()) {
+            E child = iterator.next();
+            Long id = entityId.apply(child);
+            if (id == null) {
+                continue;
+            }
+            D dto = requestedById.get(id);
+            if (dto == null) {
+                iterator.remove();
+            } else {
+                update.accept(child, dto);
+                matched.add(id);
+            }
+        }
+
+        // Ajouter les nouveaux enfants
+        for (D dto : requested) {
+            Long id = dtoId.apply(dto);
+            if (id == null) {
+                children.add(create.apply(dto));
+            } else if (!matched.contains(id)) {
+                log.warn("Child with ID {} is not part of the collection, ignored", id);
+            }
+        }
+        return children;
+    }
+
+    /**
+     * Lists the children {@link #reconcile} would remove from {@code current}, so that their
+     * removal can be recorded before the collection is changed.
+     *
+     * @param current the managed collection, may be null
+     * @param requested the complete requested state of the collection
+     * @param entityId the identifier of a child entity
+     * @param dtoId the identifier of a requested child, null for a new one
+     * @return the identifiers of the existing children missing from the request
+     */
+    static <E, D> List<Long> removedIds(List<E> current,
+                                        Collection<D> requested,
+                                        Function<E, Long> entityId,
+                                        Function<D, Long> dtoId) {
+        if (current == null || current.isEmpty()) {
+            return List.of();
+        }
+        Set<Long> requestedIds = new HashSet<>();
+        for (D dto : requested) {
+            Long id = dtoId.apply(dto);
+            if (id != null) {
+                requestedIds.add(id);
+            }
+        }
+        List<Long> removed = new ArrayList<>();
+        for (E child : current) {
+            Long id = entityId.apply(child);
+            if (id != null && !requestedIds.contains(id)) {
+                removed.add(id);
+            }
+        }
+        return removed;
+    }
+}
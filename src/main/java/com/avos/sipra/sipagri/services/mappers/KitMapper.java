@@ -1,7 +1,9 @@
 package com.avos.sipra.sipagri.services.mappers;
 
 import com.avos.sipra.sipagri.entities.Kit;
+import com.avos.sipra.sipagri.entities.KitProduct;
 import com.avos.sipra.sipagri.services.dtos.KitDTO;
+import com.avos.sipra.sipagri.services.dtos.KitProductDTO;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -51,9 +53,13 @@ public class KitMapper {
             kit.setTotalCost(kitDTO.getTotalCost());
         }
         if (kitDTO.getKitProducts() != null) {
-            kit.setKitProducts(kitDTO.getKitProducts().stream()
-                .map(kitProductMapper::toEntity)
-                .toList());
+            kit.setKitProducts(CollectionReconciler.reconcile(
+                kit.getKitProducts(),
+                kitDTO.getKitProducts(),
+                KitProduct::getId,
+                KitProductDTO::getId,
+                kitProductMapper::partialUpdate,
+                kitProductMapper::toEntity));
         }
         return kit;
     }
@@ -1,5 +1,6 @@
 package com.avos.sipra.sipagri.services.mappers;
 
+import com.avos.sipra.sipagri.entities.Kit;
 import com.avos.sipra.sipagri.entities.Plantation;
 import com.avos.sipra.sipagri.entities.Production;
 import com.avos.sipra.sipagri.entities.Planter;
@@ -11,7 +12,6 @@ import lombok.extern.log4j.Log4j2;
 import org.springframework.stereotype.Component;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Log4j2
 @Component
@@ -42,9 +42,9 @@ public class PlantationMapper {
                 .sector(plantationDTO.getSector())
                 .farmedArea(plantationDTO.getFarmedArea());
 
-        // Mapper le kit si présent
-        if (plantationDTO.getKit() != null) {
-            builder.kit(kitMapper.toEntity(plantationDTO.getKit()));
+        // Référencer le kit par son identifiant : le kit partagé n'est jamais fusionné
+        if (plantationDTO.getKit() != null && plantationDTO.getKit().getId() != null) {
+            builder.kit(kitReference(plantationDTO.getKit().getId()));
         }
 
         // Créer une référence au planteur si l'ID est fourni
@@ -130,7 +130,10 @@ public class PlantationMapper {
             plantation.setSector(plantationDTO.getSector());
         }
         if (plantationDTO.getKit() != null) {
-            plantation.setKit(kitMapper.toEntity(plantationDTO.getKit()));
+            Long kitId = plantationDTO.getKit().getId();
+            if (kitId != null && (plantation.getKit() == null || !kitId.equals(plantation.getKit().getId()))) {
+                plantation.setKit(kitReference(kitId));
+            }
             plantation.setStatus(PlantationStatus.ACTIVE);
         }
         if (plantationDTO.getCreatedAt() != null) {
@@ -152,49 +155,52 @@ public class PlantationMapper {
         return plantation;
     }
 
+    /**
+     * Crée une référence à un kit existant, portant uniquement son identifiant
+     * @param kitId l'identifiant du kit
+     * @return la référence au kit
+     */
+    private Kit kitReference(Long kitId) {
+        Kit kit = new Kit();
+        kit.setId(kitId);
+        return kit;
+    }
+
+    /**
+     * Liste les productions que {@link #partialUpdate} retirera de la plantation
+     * @param plantation l'entité à mettre à jour
+     * @param plantationDTO le DTO contenant les nouvelles données
+     * @return les identifiants des productions absentes du DTO, vide si le DTO ne porte pas de productions
+     */
+    public List<Long> removedProductionIds(Plantation plantation, PlantationDTO plantationDTO) {
+        if (plantation == null || plantationDTO == null || plantationDTO.getProductions() == null) {
+            return List.of();
+        }
+        return CollectionReconciler.removedIds(
+                plantation.getProductions(),
+                plantationDTO.getProductions(),
+                Production::getId,
+                ProductionDTO::getId);
+    }
+
     /**
      * Met à jour la liste des productions d'une plantation
-     * Ajoute les nouvelles productions et met à jour les existantes
+     * Ajoute les nouvelles productions, met à jour les existantes et retire les autres,
+     * en appariant les productions par identifiant
      * @param plantation la plantation à mettre à jour
      * @param productionDTOs la liste des DTOs de production
      */
     private void updateProductions(Plantation plantation, List<ProductionDTO> productionDTOs) {
-        if (plantation.getProductions() == null) {
-            plantation.setProductions(new ArrayList<>());
-        }
-
-        // Récupérer les IDs des productions dans la requête
-        Set<Long> requestedIds = productionDTOs.stream()
-                .map(ProductionDTO::getId)
-                .filter(Objects::nonNull)
-                .collect(Collectors.toSet());
-
-        // Supprimer les productions qui ne sont plus dans la requête
-        plantation.getProductions().removeIf(p ->
-                p.getId() != null && !requestedIds.contains(p.getId())
-        );
-
-        // Ajouter ou mettre à jour les productions
-        for (ProductionDTO dto : productionDTOs) {
-            if (dto.getId() != null) {
-                // Mise à jour d'une production existante
-                Optional<Production> existingProduction = plantation.getProductions().stream()
-                        .filter(p -> p.getId() != null && p.getId().equals(dto.getId()))
-                        .findFirst();
-
-                if (existingProduction.isPresent()) {
-                    productionMapper.partialUpdate(existingProduction.get(), dto);
-                } else {
-                    // La production existe en BD, mais pas dans la liste actuelle
-                    log.warn("Production avec ID {} introuvable dans la plantation {}",
-                            dto.getId(), plantation.getId());
-                }
-            } else {
-                // Nouvelle production
-                Production newProduction = productionMapper.toEntity(dto);
-                newProduction.setPlantation(plantation);
-                plantation.getProductions().add(newProduction);
-            }
-        }
+        plantation.setProductions(CollectionReconciler.reconcile(
+                plantation.getProductions(),
+                productionDTOs,
+                Production::getId,
+                ProductionDTO::getId,
+                productionMapper::partialUpdate,
+                dto -> {
+                    Production newProduction = productionMapper.toEntity(dto);
+                    newProduction.setPlantation(plantation);
+                    return newProduction;
+                }));
     }
-}
\ No newline at end of file
+}
@@ -1,9 +1,16 @@
 package com.avos.sipra.sipagri.services.mappers;
 
+import com.avos.sipra.sipagri.entities.Plantation;
 import com.avos.sipra.sipagri.entities.Planter;
+import com.avos.sipra.sipagri.services.dtos.PlantationDTO;
 import com.avos.sipra.sipagri.services.dtos.PlanterDTO;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 @Component
 /**
  * Mapper responsible for converting between {@link com.avos.sipra.sipagri.entities.Planter}
@@ -120,10 +127,64 @@ public class PlanterMapper {
             planter.setSupervisor(supervisorMapper.toEntity(planterDTO.getSupervisor()));
         }
         if (planterDTO.getPlantations() != null) {
-            planter.setPlantations(planterDTO.getPlantations().stream()
-                .map(plantationMapper::toEntity)
-                .toList());
+            planter.setPlantations(CollectionReconciler.reconcile(
+                planter.getPlantations(),
+                planterDTO.getPlantations(),
+                Plantation::getId,
+                PlantationDTO::getId,
+                plantationMapper::partialUpdate,
+                dto -> {
+                    Plantation plantation = plantationMapper.toEntity(dto);
+                    plantation.setPlanter(planter);
+                    return plantation;
+                }));
         }
         return planter;
     }
+
+    /**
+     * Lists the plantations {@link #partialUpdate} removes from a planter.
+     *
+     * @param planter the managed planter
+     * @param planterDTO the requested changes
+     * @return the identifiers of the plantations missing from the DTO, empty if it carries none
+     */
+    public List<Long> removedPlantationIds(Planter planter, PlanterDTO planterDTO) {
+        if (planter == null || planterDTO == null || planterDTO.getPlantations() == null) {
+            return List.of();
+        }
+        return CollectionReconciler.removedIds(
+                planter.getPlantations(),
+                planterDTO.getPlantations(),
+                Plantation::getId,
+                PlantationDTO::getId);
+    }
+
+    /**
+     * Lists the productions {@link #partialUpdate} removes from the plantations a planter keeps.
+     *
+     * @param planter the managed planter
+     * @param planterDTO the requested changes
+     * @return the identifiers of the removed productions, empty if the DTO carries no plantations
+     */
+    public List<Long> removedProductionIds(Planter planter, PlanterDTO planterDTO) {
+        if (planter == null || planterDTO == null || planterDTO.getPlantations() == null
+                || planter.getPlantations() == null) {
+            return List.of();
+        }
+        Map<Long, PlantationDTO> requestedById = new HashMap<>();
+        for (PlantationDTO plantationDTO : planterDTO.getPlantations()) {
+            if (plantationDTO.getId() != null) {
+                requestedById.put(plantationDTO.getId(), plantationDTO);
+            }
+        }
+        List<Long> removed = new ArrayList<>();
+        for (Plantation plantation : planter.getPlantations()) {
+            PlantationDTO plantationDTO = requestedById.get(plantation.getId());
+            if (plantationDTO != null) {
+                removed.addAll(plantationMapper.removedProductionIds(plantation, plantationDTO));
+            }
+        }
+        return removed;
+    }
 }
@@ -1,6 +1,7 @@
 package com.avos.sipra.sipagri.services.mappers;
 
 import com.avos.sipra.sipagri.entities.Production;
+import com.avos.sipra.sipagri.entities.ProductionArchive;
 import com.avos.sipra.sipagri.entities.Plantation;
 import com.avos.sipra.sipagri.services.dtos.ProductionDTO;
 import org.springframework.stereotype.Component;
@@ -17,11 +18,26 @@ public class ProductionMapper {
                 .purchasePrice(production.getPurchasePrice())
                 .mustBePaid(production.getMustBePaid())
                 .year(production.getYear())
+                .idempotencyKey(production.getIdempotencyKey())
                 .createdAt(production.getCreatedAt())
                 .updatedAt(production.getUpdatedAt())
                 .build();
     }
 
+    public ProductionDTO toDTO(ProductionArchive productionArchive) {
+        return ProductionDTO.builder()
+                .id(productionArchive.getId())
+                .plantationId(productionArchive.getPlantationId())
+                .productionInKg(productionArchive.getProductionInKg())
+                .purchasePrice(productionArchive.getPurchasePrice())
+                .mustBePaid(productionArchive.getMustBePaid())
+                .year(productionArchive.getYear())
+                .idempotencyKey(productionArchive.getIdempotencyKey())
+                .createdAt(productionArchive.getCreatedAt())
+                .updatedAt(productionArchive.getUpdatedAt())
+                .build();
+    }
+
     public Production toEntity(ProductionDTO productionDTO) {
         Production.ProductionBuilder builder = Production.builder()
                 .id(productionDTO.getId())
@@ -30,7 +46,8 @@ public class ProductionMapper {
                 .mustBePaid(productionDTO.getMustBePaid())
                 .updatedAt(productionDTO.getUpdatedAt())
                 .createdAt(productionDTO.getCreatedAt())
-                .year(productionDTO.getYear());
+                .year(productionDTO.getYear())
+                .idempotencyKey(productionDTO.getIdempotencyKey());
 
         // Créer une référence plantation si nécessaire
         if (productionDTO.getPlantationId() != null) {
@@ -0,0 +1,48 @@
+package com.avos.sipra.sipagri.services.mappers;
+
+import com.avos.sipra.sipagri.entities.PurchasePrice;
+import com.avos.sipra.sipagri.services.dtos.PurchasePriceDTO;
+import org.springframework.stereotype.Component;
+
+@Component
+public class PurchasePriceMapper {
+    public PurchasePriceDTO toDTO(PurchasePrice purchasePrice) {
+        return PurchasePriceDTO.builder()
+                .id(purchasePrice.getId())
+                .crop(purchasePrice.getCrop())
+                .pricePerKg(purchasePrice.getPricePerKg())
+                .effectiveFrom(purchasePrice.getEffectiveFrom())
+                .effectiveTo(purchasePrice.getEffectiveTo())
+                .createdAt(purchasePrice.getCreatedAt())
+                .updatedAt(purchasePrice.getUpdatedAt())
+                .build();
+    }
+
+    public PurchasePrice toEntity(PurchasePriceDTO purchasePriceDTO) {
+        return PurchasePrice.builder()
+                .id(purchasePriceDTO.getId())
+                .crop(purchasePriceDTO.getCrop())
+                .pricePerKg(purchasePriceDTO.getPricePerKg())
+                .effectiveFrom(purchasePriceDTO.getEffectiveFrom())
+                .effectiveTo(purchasePriceDTO.getEffectiveTo())
+                .createdAt(purchasePriceDTO.getCreatedAt())
+                .updatedAt(purchasePriceDTO.getUpdatedAt())
+                .build();
+    }
+
+    public PurchasePrice partialUpdate(PurchasePrice purchasePrice, PurchasePriceDTO purchasePriceDTO) {
+        if (purchasePriceDTO.getCrop() != null) {
+            purchasePrice.setCrop(purchasePriceDTO.getCrop());
+        }
+        if (purchasePriceDTO.getPricePerKg() != null) {
+            purchasePrice.setPricePerKg(purchasePriceDTO.getPricePerKg());
+        }
+        if (purchasePriceDTO.getEffectiveFrom() != null) {
+            purchasePrice.setEffectiveFrom(purchasePriceDTO.getEffectiveFrom());
+        }
+        if (purchasePriceDTO.getEffectiveTo() != null) {
+            purchasePrice.setEffectiveTo(purchasePriceDTO.getEffectiveTo());
+        }
+        return purchasePrice;
+    }
+}
@@ -0,0 +1,20 @@
+package com.avos.sipra.sipagri.services.mappers;
+
+import com.avos.sipra.sipagri.entities.RepaymentLedger;
+import com.avos.sipra.sipagri.services.dtos.RepaymentLedgerDTO;
+import org.springframework.stereotype.Component;
+
+@Component
+public class RepaymentLedgerMapper {
+    public RepaymentLedgerDTO toDTO(RepaymentLedger repaymentLedger) {
+        double kitDebt = repaymentLedger.getKitDebt() == null ? 0 : repaymentLedger.getKitDebt();
+        double cumulativePurchase = repaymentLedger.getCumulativePurchase() == null ? 0 : repaymentLedger.getCumulativePurchase();
+        return RepaymentLedgerDTO.builder()
+                .plantationId(repaymentLedger.getPlantationId())
+                .kitDebt(kitDebt)
+                .cumulativePurchase(cumulativePurchase)
+                .outstanding(Math.max(0, kitDebt - cumulativePurchase))
+                .repaid(cumulativePurchase >= kitDebt)
+                .build();
+    }
+}
@@ -0,0 +1,60 @@
+package com.avos.sipra.sipagri.services.mappers;
+
+import com.avos.sipra.sipagri.entities.Plantation;
+import com.avos.sipra.sipagri.entities.Planter;
+import com.avos.sipra.sipagri.services.dtos.KitDTO;
+import com.avos.sipra.sipagri.services.dtos.PlantationDTO;
+import com.avos.sipra.sipagri.services.dtos.PlanterDTO;
+import org.springframework.stereotype.Component;
+
+/**
+ * Maps the records of a delta synchronization to flat DTOs.
+ * <p>
+ * Unlike {@link PlanterMapper} and {@link PlantationMapper}, child collections are left out
+ * and the kit of a plantation is reduced to its identifier: the client receives every
+ * changed record in its own list and rebuilds the relations from the identifiers.
+ */
+@Component
+public class SyncMapper {
+
+    private final SupervisorMapper supervisorMapper;
+
+    SyncMapper(SupervisorMapper supervisorMapper) {
+        this.supervisorMapper = supervisorMapper;
+    }
+
+    public PlanterDTO toDTO(Planter planter) {
+        return PlanterDTO.builder()
+                .id(planter.getId())
+                .uidPlanter(planter.getUidPlanter())
+                .firstname(planter.getFirstname())
+                .lastname(planter.getLastname())
+                .birthday(planter.getBirthday())
+                .childrenNumber(planter.getChildrenNumber())
+                .maritalStatus(planter.getMaritalStatus())
+                .gender(planter.getGender())
+                .phoneNumber(planter.getPhoneNumber())
+                .village(planter.getVillage())
+                .supervisor(planter.getSupervisor() != null ? supervisorMapper.toDTO(planter.getSupervisor()) : null)
+                .paymentMethod(planter.getPaymentMethod())
+                .createdAt(planter.getCreatedAt())
+                .updatedAt(planter.getUpdatedAt())
+                .build();
+    }
+
+    public PlantationDTO toDTO(Plantation plantation) {
+        return PlantationDTO.builder()
+                .id(plantation.getId())
+                .name(plantation.getName())
+                .description(plantation.getDescription())
+                .gpsLocation(plantation.getGpsLocation())
+                .farmedArea(plantation.getFarmedArea())
+                .status(plantation.getStatus())
+                .sector(plantation.getSector())
+                .planterId(plantation.getPlanter() != null ? plantation.getPlanter().getId() : null)
+                .kit(plantation.getKit() != null ? KitDTO.builder().id(plantation.getKit().getId()).build() : null)
+                .createdAt(plantation.getCreatedAt())
+                .updatedAt(plantation.getUpdatedAt())
+                .build();
+    }
+}
@@ -1,9 +1,15 @@
 package com.avos.sipra.sipagri.controllers;
 
+import com.avos.sipra.sipagri.enums.SupervisorProfile;
+import com.avos.sipra.sipagri.security.JwtPrincipal;
+import com.avos.sipra.sipagri.security.SupervisorContext;
 import com.avos.sipra.sipagri.security.TestSecurityConfig;
 import com.avos.sipra.sipagri.services.cores.PlantationService;
+import com.avos.sipra.sipagri.services.cores.PlanterService;
+import com.avos.sipra.sipagri.services.cores.SupervisorService;
 import com.avos.sipra.sipagri.services.dtos.PaginationResponseDTO;
 import com.avos.sipra.sipagri.services.dtos.PlantationDTO;
+import com.avos.sipra.sipagri.services.mappers.SupervisorMapper;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,20 +19,25 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
-import org.springframework.data.domain.Pageable;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
 
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @ActiveProfiles("test")
-@Import(TestSecurityConfig.class)
+@Import({TestSecurityConfig.class, SupervisorContext.class, SupervisorMapper.class})
 @WebMvcTest(PlantationController.class)
 class PlantationControllerTest {
 
@@ -36,6 +47,12 @@ class PlantationControllerTest {
     @MockBean
     private PlantationService plantationService;
 
+    @MockBean
+    private PlanterService planterService;
+
+    @MockBean
+    private SupervisorService supervisorService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -188,4 +205,100 @@ class PlantationControllerTest {
         mockMvc.perform(delete("/api/v1/plantations?id=1"))
                 .andExpect(status().isNotFound());
     }
+
+    // ---------- supervisor scoping ----------
+
+    @Test
+    void getAll_ShouldOnlyListTheSupervisorsPlantations() throws Exception {
+        Mockito.when(plantationService.findAllPagedPlantationByPlanterSupervisor(any(Pageable.class), eq(7L)))
+                .thenReturn(new PaginationResponseDTO<>(0, 1, 1, List.of(plantationDTO)));
+
+        mockMvc.perform(get("/api/v1/plantations").with(supervisor(7L)))
+                .andExpect(status().isOk());
+
+        Mockito.verify(plantationService, never()).findAllPaged(any(Pageable.class));
+    }
+
+    @Test
+    void getPlantation_ShouldReturnNotFound_WhenAnotherSupervisorManagesIt() throws Exception {
+        Mockito.when(plantationService.isOwnedBy(1L, 7L)).thenReturn(false);
+
+        mockMvc.perform(get("/api/v1/plantations/1").with(supervisor(7L)))
+                .andExpect(status().isNotFound());
+
+        Mockito.verify(plantationService, never()).findOne(1L);
+    }
+
+    @Test
+    void getPlantation_ShouldReturnPlantation_WhenTheSupervisorManagesIt() throws Exception {
+        Mockito.when(plantationService.isOwnedBy(1L, 7L)).thenReturn(true);
+        Mockito.when(plantationService.findOne(1L)).thenReturn(plantationDTO);
+
+        mockMvc.perform(get("/api/v1/plantations/1").with(supervisor(7L)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(1L));
+    }
+
+    @Test
+    void searchPlantations_ShouldIgnoreAnotherSupervisorsId() throws Exception {
+        Mockito.when(plantationService.findAllPagedByParams(any(Pageable.class), eq("Bonoua"), eq(7L)))
+                .thenReturn(new PaginationResponseDTO<>(0, 1, 1, List.of(plantationDTO)));
+
+        mockMvc.perform(get("/api/v1/plantations/search?search=Bonoua&supervisorId=9").with(supervisor(7L)))
+                .andExpect(status().isOk());
+
+        Mockito.verify(plantationService, never()).findAllPagedByParams(any(Pageable.class), eq("Bonoua"), eq(9L));
+    }
+
+    @Test
+    void deletePlantations_ShouldOnlyDeleteTheSupervisorsPlantations() throws Exception {
+        Mockito.when(plantationService.deleteAll(List.of(1L, 2L), 7L)).thenReturn(1);
+
+        mockMvc.perform(delete("/api/v1/plantations?ids=1,2").with(supervisor(7L)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted").value(1));
+    }
+
+    @Test
+    void changeKit_ShouldReturnNotFound_WhenAnotherSupervisorManagesThePlantation() throws Exception {
+        Mockito.when(plantationService.isOwnedBy(1L, 7L)).thenReturn(false);
+
+        mockMvc.perform(put("/api/v1/plantations/1/kit/2").with(supervisor(7L)))
+                .andExpect(status().isNotFound());
+
+        Mockito.verify(plantationService, never()).changeKit(1L, 2L);
+    }
+
+    @Test
+    void createPlantation_ShouldReturnNotFound_WhenAnotherSupervisorManagesThePlanter() throws Exception {
+        plantationDTO.setId(null);
+        plantationDTO.setPlanterId(4L);
+        Mockito.when(planterService.isOwnedBy(4L, 7L)).thenReturn(false);
+
+        mockMvc.perform(post("/api/v1/plantations").with(supervisor(7L))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(plantationDTO)))
+                .andExpect(status().isNotFound());
+
+        Mockito.verify(plantationService, never()).save(any());
+    }
+
+    @Test
+    void patchPlantation_ShouldReturnNotFound_WhenMovingItToAnotherSupervisorsPlanter() throws Exception {
+        plantationDTO.setPlanterId(4L);
+        Mockito.when(plantationService.isOwnedBy(1L, 7L)).thenReturn(true);
+        Mockito.when(planterService.isOwnedBy(4L, 7L)).thenReturn(false);
+
+        mockMvc.perform(patch("/api/v1/plantations").with(supervisor(7L))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(plantationDTO)))
+                .andExpect(status().isNotFound());
+
+        Mockito.verify(plantationService, never()).partialUpdate(any());
+    }
+
+    private static RequestPostProcessor supervisor(Long supervisorId) {
+        JwtPrincipal principal = new JwtPrincipal(supervisorId, "agent@sipra.ci", SupervisorProfile.SUPERVISOR);
+        return authentication(new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
 }
@@ -1,9 +1,14 @@
 package com.avos.sipra.sipagri.controllers;
 
+import com.avos.sipra.sipagri.enums.SupervisorProfile;
+import com.avos.sipra.sipagri.security.JwtPrincipal;
+import com.avos.sipra.sipagri.security.SupervisorContext;
 import com.avos.sipra.sipagri.security.TestSecurityConfig;
 import com.avos.sipra.sipagri.services.cores.PlanterService;
+import com.avos.sipra.sipagri.services.cores.SupervisorService;
 import com.avos.sipra.sipagri.services.dtos.PaginationResponseDTO;
 import com.avos.sipra.sipagri.services.dtos.PlanterDTO;
+import com.avos.sipra.sipagri.services.mappers.SupervisorMapper;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,20 +17,25 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
-import org.springframework.data.domain.Pageable;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
 
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @ActiveProfiles("test")
-@Import(TestSecurityConfig.class)
+@Import({TestSecurityConfig.class, SupervisorContext.class, SupervisorMapper.class})
 @WebMvcTest(PlanterController.class)
 class PlanterControllerTest {
 
@@ -35,6 +45,9 @@ class PlanterControllerTest {
     @MockBean
     private PlanterService planterService;
 
+    @MockBean
+    private SupervisorService supervisorService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -96,6 +109,16 @@ class PlanterControllerTest {
                 .andExpect(jsonPath("$.id").value(1L));
     }
 
+    @Test
+    void getPlanterById_ShouldEscapeTheStoredStrings() throws Exception {
+        planterDTO.setFirstname("<script>alert('x')</script>");
+        Mockito.when(planterService.findOne(1L)).thenReturn(planterDTO);
+
+        mockMvc.perform(get("/api/v1/planters/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.firstname").value("&lt;script&gt;alert(&#x27;x&#x27;)&lt;&#x2F;script&gt;"));
+    }
+
     @Test
     void getPlanterById_ShouldReturnNotFound_WhenNotExists() throws Exception {
         Mockito.when(planterService.findOne(1L)).thenReturn(null);
@@ -169,7 +192,7 @@ class PlanterControllerTest {
 
     @Test
     void deletePlanter_ShouldReturnOk_WhenExists() throws Exception {
-        Mockito.when(planterService.findOne(1L)).thenReturn(planterDTO);
+        Mockito.when(planterService.existsById(1L)).thenReturn(true);
         doNothing().when(planterService).delete(1L);
 
         mockMvc.perform(delete("/api/v1/planters/1"))
@@ -180,9 +203,107 @@ class PlanterControllerTest {
 
     @Test
     void deletePlanter_ShouldReturnNotFound_WhenNotExists() throws Exception {
-        Mockito.when(planterService.findOne(1L)).thenReturn(null);
+        Mockito.when(planterService.existsById(1L)).thenReturn(false);
 
         mockMvc.perform(delete("/api/v1/planters/1"))
                 .andExpect(status().isNotFound());
     }
+
+    @Test
+    void deletePlanters_ShouldDeleteTheRequestedIds() throws Exception {
+        Mockito.when(planterService.deleteAll(List.of(1L, 2L), null)).thenReturn(2);
+
+        mockMvc.perform(delete("/api/v1/planters?ids=1,2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted").value(2));
+    }
+
+    @Test
+    void deletePlantersByFilter_ShouldDeleteTheMatchingPlanters() throws Exception {
+        Mockito.when(planterService.deleteByFilter(4L, "Bonoua")).thenReturn(3);
+
+        mockMvc.perform(delete("/api/v1/planters?supervisorId=4&village=Bonoua"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted").value(3));
+    }
+
+    // ---------- supervisor scoping ----------
+
+    @Test
+    void getPlanters_ShouldOnlyListTheSupervisorsPlanters() throws Exception {
+        Mockito.when(planterService.findPlanterBySupervisor(any(Pageable.class), eq(7L)))
+                .thenReturn(new PaginationResponseDTO<>(0, 1, 1, List.of(planterDTO)));
+
+        mockMvc.perform(get("/api/v1/planters").with(supervisor(7L)))
+                .andExpect(status().isOk());
+
+        Mockito.verify(planterService, never()).findAllPaged(any(Pageable.class));
+    }
+
+    @Test
+    void getAllPlanters_ShouldIgnoreAnotherSupervisorsId() throws Exception {
+        Mockito.when(planterService.findAll(7L)).thenReturn(List.of(planterDTO));
+
+        mockMvc.perform(get("/api/v1/planters/all?supervisorId=9").with(supervisor(7L)))
+                .andExpect(status().isOk());
+
+        Mockito.verify(planterService, never()).findAll(9L);
+    }
+
+    @Test
+    void searchPlanters_ShouldOnlySearchTheSupervisorsPlanters() throws Exception {
+        Mockito.when(planterService.findAllPagedByParams(any(Pageable.class), eq("Kouadio"), eq(7L)))
+                .thenReturn(new PaginationResponseDTO<>(0, 1, 1, List.of(planterDTO)));
+
+        mockMvc.perform(get("/api/v1/planters/search?search=Kouadio").with(supervisor(7L)))
+                .andExpect(status().isOk());
+
+        Mockito.verify(planterService, never()).findAllPagedByParams(any(Pageable.class), eq("Kouadio"));
+    }
+
+    @Test
+    void getPlanterById_ShouldReturnNotFound_WhenAnotherSupervisorManagesIt() throws Exception {
+        Mockito.when(planterService.isOwnedBy(1L, 7L)).thenReturn(false);
+
+        mockMvc.perform(get("/api/v1/planters/1").with(supervisor(7L)))
+                .andExpect(status().isNotFound());
+
+        Mockito.verify(planterService, never()).findOne(1L);
+    }
+
+    @Test
+    void deletePlanter_ShouldReturnNotFound_WhenAnotherSupervisorManagesIt() throws Exception {
+        Mockito.when(planterService.existsById(1L)).thenReturn(true);
+        Mockito.when(planterService.isOwnedBy(1L, 7L)).thenReturn(false);
+
+        mockMvc.perform(delete("/api/v1/planters/1").with(supervisor(7L)))
+                .andExpect(status().isNotFound());
+
+        Mockito.verify(planterService, never()).delete(1L);
+    }
+
+    @Test
+    void deletePlanters_ShouldOnlyDeleteTheSupervisorsPlanters() throws Exception {
+        Mockito.when(planterService.deleteAll(List.of(1L, 2L), 7L)).thenReturn(1);
+
+        mockMvc.perform(delete("/api/v1/planters?ids=1,2").with(supervisor(7L)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted").value(1));
+    }
+
+    @Test
+    void deletePlantersByFilter_ShouldIgnoreAnotherSupervisorsId() throws Exception {
+        Mockito.when(planterService.deleteByFilter(7L, null)).thenReturn(3);
+
+        mockMvc.perform(delete("/api/v1/planters?supervisorId=9").with(supervisor(7L)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted").value(3));
+
+        Mockito.verify(planterService, never()).deleteByFilter(9L, null);
+    }
+
+    private static RequestPostProcessor supervisor(Long supervisorId) {
+        JwtPrincipal principal = new JwtPrincipal(supervisorId, "agent@sipra.ci", SupervisorProfile.SUPERVISOR);
+        return authentication(new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
 }
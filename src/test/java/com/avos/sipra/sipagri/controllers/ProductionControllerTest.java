@@ -1,9 +1,17 @@
 package com.avos.sipra.sipagri.controllers;
 
+import com.avos.sipra.sipagri.enums.SupervisorProfile;
+import com.avos.sipra.sipagri.security.JwtPrincipal;
+import com.avos.sipra.sipagri.security.SupervisorContext;
 import com.avos.sipra.sipagri.security.TestSecurityConfig;
+import com.avos.sipra.sipagri.services.cores.PlantationService;
+import com.avos.sipra.sipagri.services.cores.ProductionIngestionService;
 import com.avos.sipra.sipagri.services.cores.ProductionService;
+import com.avos.sipra.sipagri.services.cores.ProductionSyncService;
+import com.avos.sipra.sipagri.services.cores.SupervisorService;
 import com.avos.sipra.sipagri.services.dtos.PaginationResponseDTO;
 import com.avos.sipra.sipagri.services.dtos.ProductionDTO;
+import com.avos.sipra.sipagri.services.mappers.SupervisorMapper;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,20 +20,25 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
-import org.springframework.data.domain.Pageable;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
 
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @ActiveProfiles("test")
-@Import(TestSecurityConfig.class)
+@Import({TestSecurityConfig.class, SupervisorContext.class, SupervisorMapper.class})
 @WebMvcTest(ProductionController.class)
 class ProductionControllerTest {
 
@@ -35,6 +48,18 @@ class ProductionControllerTest {
     @MockBean
     private ProductionService productionService;
 
+    @MockBean
+    private ProductionSyncService productionSyncService;
+
+    @MockBean
+    private ProductionIngestionService productionIngestionService;
+
+    @MockBean
+    private PlantationService plantationService;
+
+    @MockBean
+    private SupervisorService supervisorService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -169,7 +194,7 @@ class ProductionControllerTest {
 
     @Test
     void delete_ShouldReturnOk_WhenExists() throws Exception {
-        Mockito.when(productionService.findOne(1L)).thenReturn(productionDTO);
+        Mockito.when(productionService.existsById(1L)).thenReturn(true);
         doNothing().when(productionService).delete(1L);
 
         mockMvc.perform(delete("/api/v1/productions/1"))
@@ -180,9 +205,115 @@ class ProductionControllerTest {
 
     @Test
     void delete_ShouldReturnNotFound_WhenNotExists() throws Exception {
-        Mockito.when(productionService.findOne(1L)).thenReturn(null);
+        Mockito.when(productionService.existsById(1L)).thenReturn(false);
 
         mockMvc.perform(delete("/api/v1/productions/1"))
                 .andExpect(status().isNotFound());
+
+        Mockito.verify(productionService, never()).delete(1L);
+    }
+
+    // ---------- supervisor scoping ----------
+
+    @Test
+    void findProductions_ShouldOnlyListTheSupervisorsProductions() throws Exception {
+        Mockito.when(productionService.findProductionByPlantationPlanterSupervisor(any(Pageable.class), eq(7L)))
+                .thenReturn(new PaginationResponseDTO<>(0, 1, 1, List.of(productionDTO)));
+
+        mockMvc.perform(get("/api/v1/productions").with(supervisor(7L)))
+                .andExpect(status().isOk());
+
+        Mockito.verify(productionService, never()).findAllPaged(any(Pageable.class));
+    }
+
+    @Test
+    void findProductionsBySupervisor_ShouldIgnoreAnotherSupervisorsId() throws Exception {
+        Mockito.when(productionService.findProductionByPlantationPlanterSupervisor(any(Pageable.class), eq(7L)))
+                .thenReturn(new PaginationResponseDTO<>(0, 1, 1, List.of(productionDTO)));
+
+        mockMvc.perform(get("/api/v1/productions/by_supervisor?supervisorId=9").with(supervisor(7L)))
+                .andExpect(status().isOk());
+
+        Mockito.verify(productionService, never()).findProductionByPlantationPlanterSupervisor(any(Pageable.class), eq(9L));
+    }
+
+    @Test
+    void searchProductions_ShouldOnlySearchTheSupervisorsProductions() throws Exception {
+        Mockito.when(productionService.findAllPagedByParams(any(Pageable.class), eq("Bonoua"), eq(7L)))
+                .thenReturn(new PaginationResponseDTO<>(0, 1, 1, List.of(productionDTO)));
+
+        mockMvc.perform(get("/api/v1/productions/search?search=Bonoua").with(supervisor(7L)))
+                .andExpect(status().isOk());
+
+        Mockito.verify(productionService, never()).findAllPagedByParams(any(Pageable.class), eq("Bonoua"));
+    }
+
+    @Test
+    void findById_ShouldReturnNotFound_WhenAnotherSupervisorManagesIt() throws Exception {
+        Mockito.when(productionService.isOwnedBy(1L, 7L)).thenReturn(false);
+
+        mockMvc.perform(get("/api/v1/productions/1").with(supervisor(7L)))
+                .andExpect(status().isNotFound());
+
+        Mockito.verify(productionService, never()).findOne(1L);
+    }
+
+    @Test
+    void delete_ShouldReturnNotFound_WhenAnotherSupervisorManagesIt() throws Exception {
+        Mockito.when(productionService.isOwnedBy(1L, 7L)).thenReturn(false);
+
+        mockMvc.perform(delete("/api/v1/productions/1").with(supervisor(7L)))
+                .andExpect(status().isNotFound());
+
+        Mockito.verify(productionService, never()).delete(1L);
+    }
+
+    @Test
+    void save_ShouldReturnNotFound_WhenAnotherSupervisorManagesThePlantation() throws Exception {
+        ProductionDTO foreign = ProductionDTO.builder().plantationId(3L).productionInKg(10.0).build();
+        Mockito.when(plantationService.isOwnedBy(3L, 7L)).thenReturn(false);
+
+        mockMvc.perform(post("/api/v1/productions").with(supervisor(7L))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(foreign)))
+                .andExpect(status().isNotFound());
+
+        Mockito.verify(productionService, never()).save(any());
+        Mockito.verify(productionIngestionService, never()).offer(any());
+    }
+
+    @Test
+    void saveBatch_ShouldRejectTheWholeBatch_WhenOnePlantationIsAnotherSupervisors() throws Exception {
+        List<ProductionDTO> batch = List.of(
+                ProductionDTO.builder().idempotencyKey("a").plantationId(2L).productionInKg(10.0).build(),
+                ProductionDTO.builder().idempotencyKey("b").plantationId(3L).productionInKg(10.0).build());
+        Mockito.when(plantationService.isOwnedBy(2L, 7L)).thenReturn(true);
+        Mockito.when(plantationService.isOwnedBy(3L, 7L)).thenReturn(false);
+
+        mockMvc.perform(post("/api/v1/productions/batch").with(supervisor(7L))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batch)))
+                .andExpect(status().isNotFound());
+
+        Mockito.verify(productionSyncService, never()).sync(any());
+    }
+
+    @Test
+    void patch_ShouldReturnNotFound_WhenMovingAProductionToAnotherSupervisorsPlantation() throws Exception {
+        ProductionDTO moved = ProductionDTO.builder().id(1L).plantationId(3L).build();
+        Mockito.when(productionService.isOwnedBy(1L, 7L)).thenReturn(true);
+        Mockito.when(plantationService.isOwnedBy(3L, 7L)).thenReturn(false);
+
+        mockMvc.perform(patch("/api/v1/productions").with(supervisor(7L))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(moved)))
+                .andExpect(status().isNotFound());
+
+        Mockito.verify(productionService, never()).partialUpdate(any());
+    }
+
+    private static RequestPostProcessor supervisor(Long supervisorId) {
+        JwtPrincipal principal = new JwtPrincipal(supervisorId, "agent@sipra.ci", SupervisorProfile.SUPERVISOR);
+        return authentication(new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
     }
 }
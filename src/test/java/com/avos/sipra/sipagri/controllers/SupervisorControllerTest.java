@@ -1,9 +1,14 @@
 package com.avos.sipra.sipagri.controllers;
 
+import com.avos.sipra.sipagri.enums.SupervisorProfile;
+import com.avos.sipra.sipagri.security.JwtPrincipal;
+import com.avos.sipra.sipagri.security.SupervisorContext;
 import com.avos.sipra.sipagri.security.TestSecurityConfig;
+import com.avos.sipra.sipagri.security.TokenRevocationService;
 import com.avos.sipra.sipagri.services.cores.SupervisorService;
 import com.avos.sipra.sipagri.services.dtos.PaginationResponseDTO;
 import com.avos.sipra.sipagri.services.dtos.SupervisorDTO;
+import com.avos.sipra.sipagri.services.mappers.SupervisorMapper;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,18 +19,23 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
 
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @ActiveProfiles("test")
-@Import(TestSecurityConfig.class)
+@Import({TestSecurityConfig.class, SupervisorContext.class, SupervisorMapper.class})
 @WebMvcTest(SupervisorController.class)
 class SupervisorControllerTest {
 
@@ -35,6 +45,9 @@ class SupervisorControllerTest {
     @MockBean
     private SupervisorService supervisorService;
 
+    @MockBean
+    private TokenRevocationService tokenRevocationService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -185,4 +198,39 @@ class SupervisorControllerTest {
         mockMvc.perform(delete("/api/v1/supervisors/1"))
                 .andExpect(status().isNotFound());
     }
+
+    // ---------- revokeTokens ----------
+
+    @Test
+    void revokeTokens_ShouldRevokeTheTokensOfTheSupervisor_ForAnAdministrator() throws Exception {
+        Mockito.when(supervisorService.existsById(2L)).thenReturn(true);
+
+        mockMvc.perform(post("/api/v1/supervisors/2/revoke-tokens").with(as(SupervisorProfile.ADMINISTRATOR)))
+                .andExpect(status().isNoContent());
+
+        verify(tokenRevocationService).revokeIssuedBefore(2L);
+    }
+
+    @Test
+    void revokeTokens_ShouldReturnNotFound_WhenSupervisorNotExists() throws Exception {
+        Mockito.when(supervisorService.existsById(2L)).thenReturn(false);
+
+        mockMvc.perform(post("/api/v1/supervisors/2/revoke-tokens").with(as(SupervisorProfile.SUPER_ADMIN)))
+                .andExpect(status().isNotFound());
+
+        verify(tokenRevocationService, never()).revokeIssuedBefore(any());
+    }
+
+    @Test
+    void revokeTokens_ShouldReturnForbidden_ForASupervisor() throws Exception {
+        mockMvc.perform(post("/api/v1/supervisors/2/revoke-tokens").with(as(SupervisorProfile.SUPERVISOR)))
+                .andExpect(status().isForbidden());
+
+        verify(tokenRevocationService, never()).revokeIssuedBefore(any());
+    }
+
+    private static RequestPostProcessor as(SupervisorProfile profile) {
+        JwtPrincipal principal = new JwtPrincipal(1L, "admin@sipra.ci", profile);
+        return authentication(new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
 }
@@ -0,0 +1,87 @@
+package com.avos.sipra.sipagri.repositories;
+
+import com.avos.sipra.sipagri.entities.RepaymentLedger;
+import com.avos.sipra.sipagri.services.cores.impl.RepaymentLedgerServiceImpl;
+import com.avos.sipra.sipagri.services.mappers.RepaymentLedgerMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RepaymentLedgerRepositoryTest {
+    private static final Long PLANTATION_ID = 900L;
+
+    @Autowired
+    private RepaymentLedgerRepository repaymentLedgerRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @AfterEach
+    void tearDown() {
+        repaymentLedgerRepository.deleteById(PLANTATION_ID);
+    }
+
+    @Test
+    void shouldLoseNoPurchase_WhenThirtyTwoWritersShareABalance() throws Exception {
+        int writers = 32;
+        int purchasesPerWriter = 20;
+        repaymentLedgerRepository.save(RepaymentLedger.builder()
+                .plantationId(PLANTATION_ID).kitDebt(0.0).cumulativePurchase(0.0).build());
+        RepaymentLedgerServiceImpl repaymentLedgerService =
+                new RepaymentLedgerServiceImpl(repaymentLedgerRepository, new RepaymentLedgerMapper(), dataSource);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        // Chaque écrivain a sa propre transaction et rejoue, comme l'enregistrement d'une production, sur conflit de version
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < writers; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < purchasesPerWriter; i++) {
+                    while (true) {
+                        try {
+                            transactionTemplate.executeWithoutResult(
+                                    status -> repaymentLedgerService.recordPurchase(PLANTATION_ID, 100.0));
+                            break;
+                        } catch (OptimisticLockingFailureException e) {
+                            // Solde modifié entre la lecture et l'incrément : nouvelle tentative
+                        }
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        RepaymentLedger ledger = repaymentLedgerRepository.findById(PLANTATION_ID).orElseThrow();
+        assertEquals(writers * purchasesPerWriter * 100.0, ledger.getCumulativePurchase());
+        assertEquals(Long.valueOf(writers * purchasesPerWriter), ledger.getVersion());
+    }
+}
@@ -0,0 +1,28 @@
+package com.avos.sipra.sipagri.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BCryptStrengthCalibratorTest {
+
+    // ---------- strengthFor ----------
+
+    @Test
+    void strengthFor_ShouldDoubleTheWorkPerStrengthUpToTheTarget() {
+        long base = Duration.ofMillis(40).toNanos();
+
+        assertEquals(11, BCryptStrengthCalibrator.strengthFor(base, Duration.ofMillis(150)));
+        assertEquals(12, BCryptStrengthCalibrator.strengthFor(base, Duration.ofMillis(160)));
+    }
+
+    @Test
+    void strengthFor_ShouldStayWithinBounds() {
+        assertEquals(BCryptStrengthCalibrator.MIN_STRENGTH,
+                BCryptStrengthCalibrator.strengthFor(Duration.ofMillis(500).toNanos(), Duration.ofMillis(150)));
+        assertEquals(BCryptStrengthCalibrator.MAX_STRENGTH,
+                BCryptStrengthCalibrator.strengthFor(Duration.ofNanos(1).toNanos(), Duration.ofMillis(150)));
+    }
+}
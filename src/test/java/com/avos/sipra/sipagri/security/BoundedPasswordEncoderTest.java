@@ -0,0 +1,79 @@
+package com.avos.sipra.sipagri.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedPasswordEncoderTest {
+
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        encoder.shutdown();
+    }
+
+    // ---------- encode / matches ----------
+
+    @Test
+    void encode_ShouldDelegateToTheHashingThreads() {
+        encoder = new BoundedPasswordEncoder(new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                return Thread.currentThread().getName() + ":" + rawPassword;
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return encodedPassword.endsWith(":" + rawPassword);
+            }
+        }, 1, 1);
+
+        String encoded = encoder.encode("secret");
+
+        assertTrue(encoded.startsWith("password-hashing-"), encoded);
+        assertTrue(encoder.matches("secret", encoded));
+    }
+
+    @Test
+    void matches_ShouldRejectAtOnce_WhenThreadsAndQueueAreFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        encoder = new BoundedPasswordEncoder(new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                return rawPassword.toString();
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return true;
+            }
+        }, 1, 1);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            Future<Boolean> running = callers.submit(() -> encoder.matches("a", "a"));
+            Future<Boolean> queued = callers.submit(() -> encoder.matches("b", "b"));
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (encoder.queued() < 1 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+
+            assertThrows(RejectedExecutionException.class, () -> encoder.matches("c", "c"));
+
+            release.countDown();
+            assertTrue(running.get(5, TimeUnit.SECONDS));
+            assertTrue(queued.get(5, TimeUnit.SECONDS));
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+}
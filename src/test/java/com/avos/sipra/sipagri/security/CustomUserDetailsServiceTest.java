@@ -0,0 +1,82 @@
+package com.avos.sipra.sipagri.security;
+
+import com.avos.sipra.sipagri.entities.Supervisor;
+import com.avos.sipra.sipagri.enums.SupervisorProfile;
+import com.avos.sipra.sipagri.repositories.SupervisorRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CustomUserDetailsServiceTest {
+
+    @Mock
+    private SupervisorRepository supervisorRepository;
+
+    @Mock
+    private UserDetailsCache userDetailsCache;
+
+    private CustomUserDetailsService customUserDetailsService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        customUserDetailsService = new CustomUserDetailsService(supervisorRepository, userDetailsCache);
+    }
+
+    // ---------- updatePassword ----------
+
+    @Test
+    void updatePassword_ShouldStoreTheUpgradedHashAndInvalidateTheCache() {
+        String oldHash = new BCryptPasswordEncoder(4).encode("secret");
+        String newHash = new BCryptPasswordEncoder(5).encode("secret");
+        Supervisor supervisor = Supervisor.builder().id(1L).email("agent@sipra.ci").password(oldHash).build();
+        when(supervisorRepository.findByEmail("agent@sipra.ci")).thenReturn(Optional.of(supervisor));
+
+        UserDetails updated = customUserDetailsService.updatePassword(CustomUserDetails.of(supervisor), newHash);
+
+        assertEquals(newHash, updated.getPassword());
+        assertEquals(newHash, supervisor.getPassword());
+        verify(userDetailsCache).invalidate(1L);
+        assertFalse(new BCryptPasswordEncoder(5).upgradeEncoding(newHash));
+        assertTrue(new BCryptPasswordEncoder(5).upgradeEncoding(oldHash));
+    }
+
+    @Test
+    void updatePassword_ShouldThrowException_WhenSupervisorIsGone() {
+        Supervisor supervisor = Supervisor.builder().id(1L).email("agent@sipra.ci").build();
+        when(supervisorRepository.findByEmail("agent@sipra.ci")).thenReturn(Optional.empty());
+
+        assertThrows(UsernameNotFoundException.class,
+                () -> customUserDetailsService.updatePassword(CustomUserDetails.of(supervisor), "hash"));
+        verifyNoInteractions(userDetailsCache);
+    }
+
+    // ---------- CustomUserDetails ----------
+
+    @Test
+    void userDetails_ShouldGrantTheAuthoritiesOfTheTokenPrincipal() {
+        CustomUserDetails userDetails = new CustomUserDetails(1L, "agent@sipra.ci", "hash", SupervisorProfile.ADMINISTRATOR);
+        JwtPrincipal principal = new JwtPrincipal(1L, "agent@sipra.ci", SupervisorProfile.ADMINISTRATOR);
+
+        assertEquals(principal.getAuthorities(), userDetails.getAuthorities());
+        assertEquals("ROLE_ADMINISTRATOR", userDetails.getAuthorities().iterator().next().getAuthority());
+    }
+
+    @Test
+    void userDetails_ShouldNotPrintThePasswordHash() {
+        String hash = new BCryptPasswordEncoder(4).encode("secret");
+        CustomUserDetails userDetails = new CustomUserDetails(1L, "agent@sipra.ci", hash, SupervisorProfile.SUPERVISOR);
+
+        assertFalse(userDetails.toString().contains(hash));
+        assertTrue(userDetails.toString().contains("agent@sipra.ci"));
+    }
+}
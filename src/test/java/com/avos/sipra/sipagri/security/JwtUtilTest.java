@@ -0,0 +1,155 @@
+package com.avos.sipra.sipagri.security;
+
+import com.avos.sipra.sipagri.enums.SupervisorProfile;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtUtilTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef0123456789abcdef";
+
+    private JwtUtil jwtUtil;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secretKey", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "verifiedCacheSize", 2);
+        ReflectionTestUtils.setField(jwtUtil, "ttlMinutes", 60L);
+        ReflectionTestUtils.setField(jwtUtil, "statelessTtlMinutes", 15L);
+        jwtUtil.init();
+    }
+
+    // ---------- parseToken ----------
+
+    @Test
+    void parseToken_ShouldReturnTheClaimsOfAGeneratedToken() {
+        String token = jwtUtil.generateToken("agent@sipra.ci");
+
+        Claims claims = jwtUtil.parseToken(token);
+
+        assertEquals("agent@sipra.ci", claims.getSubject());
+    }
+
+    @Test
+    void parseToken_ShouldServeAVerifiedTokenFromTheCache() {
+        String token = jwtUtil.generateToken("agent@sipra.ci");
+
+        Claims first = jwtUtil.parseToken(token);
+        Claims second = jwtUtil.parseToken(token);
+
+        assertSame(first, second);
+        assertEquals(1, jwtUtil.verifiedCount());
+    }
+
+    @Test
+    void parseToken_ShouldDropTheTokensExpiringFirst_WhenFull() {
+        String first = token("a@sipra.ci", 60_000);
+        String second = token("b@sipra.ci", 30_000);
+        String third = token("c@sipra.ci", 90_000);
+
+        Claims firstClaims = jwtUtil.parseToken(first);
+        Claims secondClaims = jwtUtil.parseToken(second);
+        Claims thirdClaims = jwtUtil.parseToken(third);
+
+        assertEquals(2, jwtUtil.verifiedCount());
+        assertSame(firstClaims, jwtUtil.parseToken(first));
+        assertSame(thirdClaims, jwtUtil.parseToken(third));
+        assertNotSame(secondClaims, jwtUtil.parseToken(second));
+    }
+
+    @Test
+    void parseToken_ShouldReject_WhenSignatureIsTampered() {
+        String token = jwtUtil.generateToken("agent@sipra.ci");
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertThrows(JwtException.class, () -> jwtUtil.parseToken(tampered));
+        assertEquals(0, jwtUtil.verifiedCount());
+    }
+
+    @Test
+    void parseToken_ShouldReject_WhenTokenIsExpired() {
+        String token = token("agent@sipra.ci", -1_000);
+
+        assertThrows(ExpiredJwtException.class, () -> jwtUtil.parseToken(token));
+    }
+
+    @Test
+    void parseToken_ShouldEvictACachedToken_WhenItExpires() throws InterruptedException {
+        String token = token("agent@sipra.ci", 2_000);
+        jwtUtil.parseToken(token);
+        assertEquals(1, jwtUtil.verifiedCount());
+
+        Thread.sleep(2_100);
+
+        assertThrows(ExpiredJwtException.class, () -> jwtUtil.parseToken(token));
+        assertEquals(0, jwtUtil.verifiedCount());
+    }
+
+    // ---------- validateToken ----------
+
+    @Test
+    void validateToken_ShouldCheckTheSubjectAgainstTheUser() {
+        String token = jwtUtil.generateToken("agent@sipra.ci");
+        UserDetails owner = new User("agent@sipra.ci", "x", List.of());
+        UserDetails other = new User("other@sipra.ci", "x", List.of());
+
+        assertTrue(jwtUtil.validateToken(token, owner));
+        assertFalse(jwtUtil.validateToken(jwtUtil.parseToken(token), other));
+        assertFalse(jwtUtil.validateToken("not.a.token", owner));
+    }
+
+    // ---------- generateToken ----------
+
+    @Test
+    void generateToken_ShouldCarryTheSupervisorClaims() {
+        String token = jwtUtil.generateToken(7L, "agent@sipra.ci", SupervisorProfile.SUPERVISOR);
+
+        Claims claims = jwtUtil.parseToken(token);
+        JwtPrincipal principal = JwtPrincipal.fromClaims(claims);
+
+        assertNotNull(claims.getId());
+        assertEquals(new JwtPrincipal(7L, "agent@sipra.ci", SupervisorProfile.SUPERVISOR), principal);
+        assertEquals("ROLE_SUPERVISOR", principal.getAuthorities().iterator().next().getAuthority());
+    }
+
+    @Test
+    void generateToken_ShouldUseTheShortLifetime_WhenStateless() {
+        ReflectionTestUtils.setField(jwtUtil, "stateless", true);
+
+        Claims claims = jwtUtil.parseToken(jwtUtil.generateToken(7L, "agent@sipra.ci", SupervisorProfile.ADMINISTRATOR));
+
+        long lifetime = claims.getExpiration().getTime() - claims.getIssuedAt().getTime();
+        assertEquals(15 * 60_000L, lifetime);
+    }
+
+    @Test
+    void fromClaims_ShouldReturnNull_WhenTokenHasNoSupervisorClaims() {
+        assertNull(JwtPrincipal.fromClaims(jwtUtil.parseToken(jwtUtil.generateToken("agent@sipra.ci"))));
+    }
+
+    private static String token(String subject, long validityMs) {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .setSubject(subject)
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + validityMs))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)
+                .compact();
+    }
+}
@@ -0,0 +1,72 @@
+package com.avos.sipra.sipagri.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginThrottleTest {
+
+    private LoginThrottle loginThrottle;
+
+    @BeforeEach
+    void setUp() {
+        loginThrottle = new LoginThrottle(3, 60, 2, 900);
+    }
+
+    // ---------- tryAttempt ----------
+
+    @Test
+    void tryAttempt_ShouldRejectAnAddressOverItsLimit() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, loginThrottle.tryAttempt("agent" + i + "@sipra.ci", "10.0.0.1"));
+        }
+
+        long retryAfter = loginThrottle.tryAttempt("other@sipra.ci", "10.0.0.1");
+
+        assertTrue(retryAfter > 0 && retryAfter <= 61, "Retry after: " + retryAfter);
+        assertEquals(0, loginThrottle.tryAttempt("other@sipra.ci", "10.0.0.2"));
+    }
+
+    @Test
+    void tryAttempt_ShouldRejectAnAccountAfterRepeatedFailures() {
+        loginThrottle.recordFailure("agent@sipra.ci", "10.0.0.1");
+        loginThrottle.recordFailure("Agent@Sipra.ci ", "10.0.0.1");
+
+        assertTrue(loginThrottle.tryAttempt("agent@sipra.ci", "10.0.0.1") > 0);
+        assertEquals(0, loginThrottle.tryAttempt("other@sipra.ci", "10.0.0.1"));
+    }
+
+    @Test
+    void tryAttempt_ShouldNotLockTheAccountOutFromOtherAddresses() {
+        loginThrottle.recordFailure("agent@sipra.ci", "10.0.0.66");
+        loginThrottle.recordFailure("agent@sipra.ci", "10.0.0.66");
+
+        assertTrue(loginThrottle.tryAttempt("agent@sipra.ci", "10.0.0.66") > 0);
+        assertEquals(0, loginThrottle.tryAttempt("agent@sipra.ci", "10.0.0.1"));
+    }
+
+    @Test
+    void recordSuccess_ShouldClearTheFailuresOfTheAccount() {
+        loginThrottle.recordFailure("agent@sipra.ci", "10.0.0.1");
+        loginThrottle.recordSuccess("agent@sipra.ci", "10.0.0.1");
+        loginThrottle.recordFailure("agent@sipra.ci", "10.0.0.1");
+
+        assertEquals(0, loginThrottle.tryAttempt("agent@sipra.ci", "10.0.0.1"));
+    }
+
+    // ---------- SlidingWindowCounter ----------
+
+    @Test
+    void slidingWindow_ShouldForgetEventsOutsideTheWindow() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(2, 1_000);
+
+        assertEquals(0, counter.acquire("key", 0));
+        assertEquals(0, counter.acquire("key", 500));
+        assertEquals(500, counter.acquire("key", 500));
+        assertEquals(0, counter.acquire("key", 1_000));
+
+        counter.prune(3_000);
+        assertEquals(0, counter.size());
+    }
+}
@@ -0,0 +1,111 @@
+package com.avos.sipra.sipagri.security;
+
+import com.avos.sipra.sipagri.enums.SupervisorProfile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitInterceptorTest {
+
+    private RateLimitInterceptor rateLimitInterceptor;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitProperties properties = new RateLimitProperties(true, Duration.ofMinutes(10), Map.of(
+                "listing", new RateLimitProperties.Route(List.of("/api/v1/*/all"), 2, 0.001)));
+        rateLimitInterceptor = new RateLimitInterceptor(properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private static void authenticate(Long supervisorId) {
+        JwtPrincipal principal = new JwtPrincipal(supervisorId, "agent" + supervisorId + "@sipra.ci", SupervisorProfile.SUPERVISOR);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    private MockHttpServletResponse call(String path) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        rateLimitInterceptor.preHandle(new MockHttpServletRequest("GET", path), response, new Object());
+        return response;
+    }
+
+    // ---------- preHandle ----------
+
+    @Test
+    void preHandle_ShouldRejectASupervisorOverItsBucket() throws Exception {
+        authenticate(1L);
+
+        assertEquals(200, call("/api/v1/planters/all").getStatus());
+        assertEquals(200, call("/api/v1/kits/all").getStatus());
+        MockHttpServletResponse rejected = call("/api/v1/planters/all");
+
+        assertEquals(429, rejected.getStatus());
+        assertNotNull(rejected.getHeader("Retry-After"));
+        assertTrue(Long.parseLong(rejected.getHeader("Retry-After")) >= 1);
+    }
+
+    @Test
+    void preHandle_ShouldNotShareBucketsBetweenSupervisors() throws Exception {
+        authenticate(1L);
+        call("/api/v1/planters/all");
+        call("/api/v1/planters/all");
+
+        authenticate(2L);
+
+        assertEquals(200, call("/api/v1/planters/all").getStatus());
+        assertEquals(2, rateLimitInterceptor.bucketCount());
+    }
+
+    @Test
+    void preHandle_ShouldIgnoreOtherRoutesAndAnonymousRequests() throws Exception {
+        authenticate(1L);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(200, call("/api/v1/planters/1").getStatus());
+        }
+
+        SecurityContextHolder.clearContext();
+        for (int i = 0; i < 5; i++) {
+            assertEquals(200, call("/api/v1/planters/all").getStatus());
+        }
+        assertEquals(0, rateLimitInterceptor.bucketCount());
+    }
+
+    // ---------- TokenBucket ----------
+
+    @Test
+    void tokenBucket_ShouldRefillOverTime() {
+        TokenBucket bucket = new TokenBucket(1, 2, 0);
+
+        assertEquals(0, bucket.tryConsume(0));
+        long wait = bucket.tryConsume(0);
+        assertTrue(wait >= 499_000_000L && wait <= 501_000_000L, "Wait: " + wait);
+        assertEquals(0, bucket.tryConsume(600_000_000L));
+    }
+
+    @Test
+    void evictIdle_ShouldDropInactiveBuckets() {
+        RateLimiter rateLimiter = new RateLimiter();
+        RateLimitProperties.Route route = new RateLimitProperties.Route(List.of("/x"), 1, 1);
+        rateLimiter.tryAcquire(1L, "listing", route, 0);
+
+        for (int i = 0; i < 16; i++) {
+            rateLimiter.evictIdle(1_000, 10_000);
+        }
+
+        assertEquals(0, rateLimiter.size());
+    }
+}
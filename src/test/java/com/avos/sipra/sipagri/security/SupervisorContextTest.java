@@ -0,0 +1,95 @@
+package com.avos.sipra.sipagri.security;
+
+import com.avos.sipra.sipagri.enums.SupervisorProfile;
+import com.avos.sipra.sipagri.services.cores.SupervisorService;
+import com.avos.sipra.sipagri.services.dtos.SupervisorDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class SupervisorContextTest {
+
+    @Mock
+    private SupervisorService supervisorService;
+
+    private SupervisorContext supervisorContext;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        supervisorContext = new SupervisorContext(supervisorService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private static void authenticate(Object principal) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, List.of()));
+    }
+
+    // ---------- scope ----------
+
+    @Test
+    void scope_ShouldForceASupervisorToItsOwnRecords() {
+        authenticate(new JwtPrincipal(7L, "agent@sipra.ci", SupervisorProfile.SUPERVISOR));
+
+        assertEquals(7L, supervisorContext.scope(9L));
+        assertEquals(7L, supervisorContext.scope(null));
+    }
+
+    @Test
+    void scope_ShouldKeepTheRequestedSupervisor_ForAnAdministrator() {
+        authenticate(new JwtPrincipal(1L, "admin@sipra.ci", SupervisorProfile.ADMINISTRATOR));
+
+        assertEquals(9L, supervisorContext.scope(9L));
+        assertNull(supervisorContext.scope(null));
+    }
+
+    @Test
+    void scope_ShouldKeepTheRequestedSupervisor_WhenNotAuthenticated() {
+        assertFalse(supervisorContext.isAuthenticated());
+        assertEquals(9L, supervisorContext.scope(9L));
+    }
+
+    // ---------- getSupervisor ----------
+
+    @Test
+    void getSupervisor_ShouldLoadTheSupervisorOncePerRequest_WhenStateless() {
+        SupervisorDTO supervisorDTO = SupervisorDTO.builder().id(7L).email("agent@sipra.ci").build();
+        when(supervisorService.findOne(7L)).thenReturn(supervisorDTO);
+        authenticate(new JwtPrincipal(7L, "agent@sipra.ci", SupervisorProfile.SUPERVISOR));
+
+        assertSame(supervisorDTO, supervisorContext.getSupervisor());
+        assertSame(supervisorDTO, supervisorContext.getSupervisor());
+
+        verify(supervisorService, times(1)).findOne(7L);
+    }
+
+    @Test
+    void getSupervisor_ShouldReadTheSupervisorOnce_WhenAuthenticatedFromUserDetails() {
+        SupervisorDTO supervisorDTO = SupervisorDTO.builder().id(7L).email("agent@sipra.ci").build();
+        when(supervisorService.findOne(7L)).thenReturn(supervisorDTO);
+        authenticate(new CustomUserDetails(7L, "agent@sipra.ci", "hash", SupervisorProfile.SUPERVISOR));
+
+        assertEquals(7L, supervisorContext.getSupervisorId());
+        assertEquals(SupervisorProfile.SUPERVISOR, supervisorContext.getProfile());
+        verify(supervisorService, never()).findOne(any());
+
+        assertSame(supervisorDTO, supervisorContext.getSupervisor());
+        assertSame(supervisorDTO, supervisorContext.getSupervisor());
+        verify(supervisorService, times(1)).findOne(7L);
+    }
+}
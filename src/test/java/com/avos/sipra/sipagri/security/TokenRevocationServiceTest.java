@@ -0,0 +1,197 @@
+package com.avos.sipra.sipagri.security;
+
+import com.avos.sipra.sipagri.entities.RevokedToken;
+import com.avos.sipra.sipagri.entities.TokenNotBefore;
+import com.avos.sipra.sipagri.events.SupervisorChangedEvent;
+import com.avos.sipra.sipagri.repositories.RevokedTokenRepository;
+import com.avos.sipra.sipagri.repositories.TokenNotBeforeRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class TokenRevocationServiceTest {
+
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Mock
+    private TokenNotBeforeRepository tokenNotBeforeRepository;
+
+    @Mock
+    private UserDetailsCache userDetailsCache;
+
+    private TokenRevocationService tokenRevocationService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        tokenRevocationService = new TokenRevocationService(60, 100, 5_000, revokedTokenRepository,
+                tokenNotBeforeRepository, userDetailsCache);
+    }
+
+    private static Claims claims(String jti, Long supervisorId, long validityMs) {
+        long now = System.currentTimeMillis();
+        Claims claims = Jwts.claims()
+                .setId(jti)
+                .setSubject("agent@sipra.ci")
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + validityMs));
+        claims.put(JwtUtil.SUPERVISOR_ID_CLAIM, supervisorId);
+        return claims;
+    }
+
+    // ---------- revoke ----------
+
+    @Test
+    void revoke_ShouldPersistAndRejectTheToken() {
+        Claims revoked = claims("jti-1", 1L, 60_000);
+
+        tokenRevocationService.revoke(revoked);
+
+        ArgumentCaptor<RevokedToken> captor = ArgumentCaptor.forClass(RevokedToken.class);
+        verify(revokedTokenRepository).save(captor.capture());
+        assertEquals("jti-1", captor.getValue().getJti());
+        assertEquals(1L, captor.getValue().getSupervisorId());
+        assertTrue(tokenRevocationService.isRevoked(revoked));
+        assertFalse(tokenRevocationService.isRevoked(claims("jti-2", 1L, 60_000)));
+    }
+
+    @Test
+    void revoke_ShouldThrowException_WhenTokenHasNoIdentifier() {
+        assertThrows(IllegalArgumentException.class, () -> tokenRevocationService.revoke(claims(null, 1L, 60_000)));
+        verifyNoInteractions(revokedTokenRepository);
+    }
+
+    // ---------- sync ----------
+
+    @Test
+    void sync_ShouldLoadTheRevocationsOfTheOtherNodes() {
+        when(revokedTokenRepository.findActiveSince(any(), any())).thenReturn(List.of(RevokedToken.builder()
+                .jti("jti-remote")
+                .expiresAt(LocalDateTime.now().plusMinutes(10))
+                .revokedAt(LocalDateTime.now())
+                .build()));
+
+        tokenRevocationService.sync();
+
+        assertTrue(tokenRevocationService.isRevoked(claims("jti-remote", 2L, 60_000)));
+        assertEquals(1, tokenRevocationService.revokedCount());
+    }
+
+    @Test
+    void sync_ShouldLoadTheNotBeforeTimesOfTheOtherNodes() {
+        Date issuedAt = Date.from(Instant.now().minusSeconds(30));
+        when(tokenNotBeforeRepository.findUpdatedSince(any())).thenReturn(List.of(TokenNotBefore.builder()
+                .supervisorId(3L)
+                .notBefore(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build()));
+
+        tokenRevocationService.sync();
+
+        assertTrue(tokenRevocationService.isRevoked(3L, issuedAt));
+        assertFalse(tokenRevocationService.isRevoked(4L, issuedAt));
+    }
+
+    @Test
+    void sync_ShouldInvalidateTheCachedUserDetails_OnlyWhenTheNotBeforeTimeMoves() {
+        when(tokenNotBeforeRepository.findUpdatedSince(any())).thenReturn(List.of(TokenNotBefore.builder()
+                .supervisorId(3L)
+                .notBefore(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build()));
+
+        tokenRevocationService.sync();
+        tokenRevocationService.sync();
+
+        verify(userDetailsCache, times(1)).invalidate(3L);
+    }
+
+    // ---------- isRevoked ----------
+
+    @Test
+    void isRevoked_ShouldAcceptTokens_WhenSupervisorNeverChanged() {
+        assertFalse(tokenRevocationService.isRevoked(1L, new Date()));
+    }
+
+    @Test
+    void isRevoked_ShouldRejectTokensIssuedBeforeTheChange() {
+        Date issuedAt = Date.from(Instant.now().minusSeconds(30));
+
+        tokenRevocationService.onSupervisorChanged(new SupervisorChangedEvent(1L));
+
+        assertTrue(tokenRevocationService.isRevoked(1L, issuedAt));
+        assertFalse(tokenRevocationService.isRevoked(2L, issuedAt));
+    }
+
+    @Test
+    void isRevoked_ShouldAcceptTheLoginFollowingTheChange_InTheSameSecond() {
+        tokenRevocationService.onSupervisorChanged(new SupervisorChangedEvent(1L));
+
+        // Jeton émis juste après le changement, dans la même seconde, comme par la reconnexion
+        assertFalse(tokenRevocationService.isRevoked(1L, new Date()));
+        assertTrue(tokenRevocationService.isRevoked(1L, Date.from(Instant.now().minusSeconds(1))));
+    }
+
+    @Test
+    void revokeIssuedBefore_ShouldPersistTheNotBeforeTime() {
+        tokenRevocationService.revokeIssuedBefore(1L);
+
+        verify(tokenNotBeforeRepository).raise(eq(1L), any(), any());
+    }
+
+    @Test
+    void isRevoked_ShouldAcceptTokensIssuedAfterTheChange() {
+        tokenRevocationService.revokeIssuedBefore(1L);
+
+        assertFalse(tokenRevocationService.isRevoked(1L, Date.from(Instant.now().plusSeconds(2))));
+    }
+
+    // ---------- prune ----------
+
+    @Test
+    void prune_ShouldDropTheIdentifiersOfExpiredTokens() {
+        tokenRevocationService.revoke(claims("jti-expired", 1L, -1_000));
+        tokenRevocationService.revoke(claims("jti-active", 1L, 60_000));
+
+        tokenRevocationService.prune();
+
+        verify(revokedTokenRepository).deleteExpired(any());
+        assertEquals(1, tokenRevocationService.revokedCount());
+        assertTrue(tokenRevocationService.isRevoked(claims("jti-active", 1L, 60_000)));
+    }
+
+    @Test
+    void prune_ShouldKeepRecentRevocations() {
+        tokenRevocationService.revokeIssuedBefore(1L);
+
+        tokenRevocationService.prune();
+
+        assertEquals(1, tokenRevocationService.size());
+    }
+
+    @Test
+    void prune_ShouldDropRevocationsOlderThanTheTokenLifetime() {
+        TokenRevocationService noRetention = new TokenRevocationService(-1, 100, 5_000, revokedTokenRepository,
+                tokenNotBeforeRepository, userDetailsCache);
+        noRetention.revokeIssuedBefore(1L);
+
+        noRetention.prune();
+
+        assertEquals(0, noRetention.size());
+    }
+}
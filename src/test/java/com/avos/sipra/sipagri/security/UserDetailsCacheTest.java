@@ -0,0 +1,141 @@
+package com.avos.sipra.sipagri.security;
+
+import com.avos.sipra.sipagri.enums.SupervisorProfile;
+import com.avos.sipra.sipagri.events.SupervisorChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserDetailsCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private UserDetailsCache userDetailsCache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        userDetailsCache = new UserDetailsCache(300, 2, meterRegistry);
+        loads = new AtomicInteger();
+    }
+
+    private final Function<String, CustomUserDetails> loader = email -> {
+        loads.incrementAndGet();
+        return details(email.length() * 1L, email);
+    };
+
+    private static CustomUserDetails details(Long id, String email) {
+        return new CustomUserDetails(id, email, "hash", SupervisorProfile.SUPERVISOR);
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("sipagri.user.details.cache").tag("result", result).counter().count();
+    }
+
+    // ---------- get ----------
+
+    @Test
+    void get_ShouldLoadOnceAndServeTheNextCallsFromTheCache() {
+        CustomUserDetails first = userDetailsCache.get("a@sipra.ci", loader);
+        CustomUserDetails second = userDetailsCache.get("a@sipra.ci", loader);
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        assertEquals(1.0, count("hit"));
+        assertEquals(1.0, count("miss"));
+    }
+
+    @Test
+    void get_ShouldCoalesceConcurrentMissesForTheSameEmail() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Function<String, CustomUserDetails> slowLoader = email -> {
+            loading.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return loader.apply(email);
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<CustomUserDetails> first = executor.submit(() -> userDetailsCache.get("a@sipra.ci", slowLoader));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            Future<CustomUserDetails> second = executor.submit(() -> userDetailsCache.get("a@sipra.ci", slowLoader));
+            Future<CustomUserDetails> third = executor.submit(() -> userDetailsCache.get("a@sipra.ci", slowLoader));
+            release.countDown();
+
+            assertSame(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS));
+            assertSame(first.get(), third.get(5, TimeUnit.SECONDS));
+            assertEquals(1, loads.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void get_ShouldNotCacheAFailedLoad() {
+        Function<String, CustomUserDetails> failing = email -> {
+            throw new UsernameNotFoundException("Utilisateur non trouvé");
+        };
+
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsCache.get("a@sipra.ci", failing));
+        assertEquals(0, userDetailsCache.size());
+        assertNotNull(userDetailsCache.get("a@sipra.ci", loader));
+    }
+
+    @Test
+    void get_ShouldReloadAnExpiredEntry() {
+        UserDetailsCache expiring = new UserDetailsCache(0, 2, meterRegistry);
+
+        expiring.get("a@sipra.ci", loader);
+        expiring.get("a@sipra.ci", loader);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_ShouldStayWithinItsMaximumSize() {
+        userDetailsCache.get("a@sipra.ci", loader);
+        userDetailsCache.get("bb@sipra.ci", loader);
+        userDetailsCache.get("ccc@sipra.ci", loader);
+
+        assertEquals(2, userDetailsCache.size());
+        assertEquals(2.0, meterRegistry.get("sipagri.user.details.cache.size").gauge().value());
+    }
+
+    // ---------- invalidate ----------
+
+    @Test
+    void onSupervisorChanged_ShouldDropTheEntriesOfTheSupervisor() {
+        userDetailsCache.get("a@sipra.ci", loader);
+        userDetailsCache.get("bb@sipra.ci", loader);
+        long supervisorId = "a@sipra.ci".length();
+
+        userDetailsCache.onSupervisorChanged(new SupervisorChangedEvent(supervisorId));
+
+        assertEquals(1, userDetailsCache.size());
+        userDetailsCache.get("a@sipra.ci", loader);
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void invalidate_ShouldNotCacheALoadThatOverlapsIt() {
+        Function<String, CustomUserDetails> overlapping = email -> {
+            userDetailsCache.invalidate(99L);
+            return loader.apply(email);
+        };
+
+        userDetailsCache.get("a@sipra.ci", overlapping);
+
+        assertEquals(0, userDetailsCache.size());
+    }
+}
@@ -0,0 +1,97 @@
+package com.avos.sipra.sipagri.security;
+
+import com.avos.sipra.sipagri.annotations.XSSProtected;
+import com.avos.sipra.sipagri.services.dtos.KitDTO;
+import com.avos.sipra.sipagri.services.dtos.KitProductDTO;
+import com.avos.sipra.sipagri.services.dtos.ProductDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class XSSResponseBodyAdviceTest {
+
+    private final XSSResponseBodyAdvice advice = new XSSResponseBodyAdvice();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @XSSProtected
+    Object protectedEndpoint() {
+        return null;
+    }
+
+    Object openEndpoint() {
+        return null;
+    }
+
+    @XSSProtected
+    static class ProtectedController {
+        Object readEndpoint() {
+            return null;
+        }
+    }
+
+    private static MethodParameter returnType(String method) throws NoSuchMethodException {
+        return new MethodParameter(XSSResponseBodyAdviceTest.class.getDeclaredMethod(method), -1);
+    }
+
+    private String writeJson(Object body) throws Exception {
+        Object written = advice.beforeBodyWrite(body, returnType("protectedEndpoint"), MediaType.APPLICATION_JSON,
+                MappingJackson2HttpMessageConverter.class, null, null);
+        return objectMapper.writeValueAsString(written);
+    }
+
+    // ---------- supports ----------
+
+    @Test
+    void supports_ShouldOnlyApplyToProtectedEndpoints() throws Exception {
+        assertTrue(advice.supports(returnType("protectedEndpoint"), MappingJackson2HttpMessageConverter.class));
+        assertFalse(advice.supports(returnType("openEndpoint"), MappingJackson2HttpMessageConverter.class));
+    }
+
+    @Test
+    void supports_ShouldApplyToEveryEndpointOfAProtectedController() throws Exception {
+        MethodParameter readEndpoint = new MethodParameter(ProtectedController.class.getDeclaredMethod("readEndpoint"), -1);
+
+        assertTrue(advice.supports(readEndpoint, MappingJackson2HttpMessageConverter.class));
+    }
+
+    // ---------- beforeBodyWrite ----------
+
+    @Test
+    void beforeBodyWrite_ShouldEscapeEveryStringOfTheGraphOnce() throws Exception {
+        ProductDTO product = ProductDTO.builder().name("<b>Engrais & co</b>").build();
+        KitDTO kit = KitDTO.builder()
+                .name("Kit \"A\"")
+                .kitProducts(List.of(KitProductDTO.builder().product(product).build()))
+                .build();
+
+        String json = writeJson(kit);
+
+        assertTrue(json.contains("\"Kit &quot;A&quot;\""), json);
+        assertTrue(json.contains("&lt;b&gt;Engrais &amp; co&lt;&#x2F;b&gt;"), json);
+        assertEquals("<b>Engrais & co</b>", product.getName());
+    }
+
+    @Test
+    void beforeBodyWrite_ShouldEscapeCollectionsAndMaps() throws Exception {
+        String json = writeJson(Map.of("items", List.of("it's", "a/b")));
+
+        assertEquals("{\"items\":[\"it&#x27;s\",\"a&#x2F;b\"]}", json);
+    }
+
+    @Test
+    void beforeBodyWrite_ShouldEscapePlainTextBodies() throws Exception {
+        Object written = advice.beforeBodyWrite("<script>&", returnType("protectedEndpoint"), MediaType.TEXT_PLAIN,
+                StringHttpMessageConverter.class, null, null);
+
+        assertEquals("&lt;script&gt;&amp;", written);
+        assertSame("plain", HtmlCharacterEscapes.escape("plain"));
+    }
+}
@@ -0,0 +1,126 @@
+package com.avos.sipra.sipagri.services.cores;
+
+import com.avos.sipra.sipagri.enums.CropType;
+import com.avos.sipra.sipagri.repositories.ProductionRepository;
+import com.avos.sipra.sipagri.services.dtos.ProductionDTO;
+import com.avos.sipra.sipagri.services.dtos.RepaymentLedgerDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CalculationServiceTest {
+
+    @Mock
+    private PurchasePriceService purchasePriceService;
+
+    @Mock
+    private RepaymentLedgerService repaymentLedgerService;
+
+    @Mock
+    private ProductionRepository productionRepository;
+
+    @InjectMocks
+    private CalculationService calculationService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(purchasePriceService.findPricePerKg(eq(CropType.MAIS), any())).thenReturn(100.0);
+    }
+
+    private static RepaymentLedgerDTO ledger(Long plantationId, double kitDebt, double cumulativePurchase) {
+        return RepaymentLedgerDTO.builder()
+                .plantationId(plantationId)
+                .kitDebt(kitDebt)
+                .cumulativePurchase(cumulativePurchase)
+                .build();
+    }
+
+    // ---------- SINGLE ----------
+    @Test
+    void calculateProductionValues_shouldAddPurchaseToPlantationBalance() {
+        ProductionDTO production = ProductionDTO.builder().plantationId(1L).productionInKg(10.0).build();
+        when(repaymentLedgerService.findByPlantationIds(Set.of(1L))).thenReturn(Map.of(1L, ledger(1L, 3000.0, 2500.0)));
+
+        ProductionDTO result = calculationService.calculateProductionValues(production);
+
+        assertEquals(1000.0, result.getPurchasePrice());
+        assertTrue(result.getMustBePaid());
+        verifyNoInteractions(productionRepository);
+    }
+
+    @Test
+    void calculateMustBePaid_shouldReplaceStoredValueOfUpdatedProduction() {
+        ProductionDTO production = ProductionDTO.builder().id(7L).purchasePrice(600.0).build();
+        List<Object[]> stored = new ArrayList<>();
+        stored.add(new Object[]{7L, 1L, 1000.0});
+        when(productionRepository.findPlantationAndPurchasePriceByIds(Set.of(7L))).thenReturn(stored);
+        when(repaymentLedgerService.findByPlantationIds(Set.of(1L))).thenReturn(Map.of(1L, ledger(1L, 3000.0, 3000.0)));
+
+        ProductionDTO result = calculationService.calculateMustBePaid(production, null);
+
+        // 3000 - 1000 + 600 < 3000
+        assertFalse(result.getMustBePaid());
+    }
+
+    @Test
+    void calculateMustBePaid_shouldBeFalse_whenPlantationHasNoBalance() {
+        ProductionDTO production = ProductionDTO.builder().purchasePrice(5000.0).build();
+
+        ProductionDTO result = calculationService.calculateMustBePaid(production, 4L);
+
+        assertFalse(result.getMustBePaid());
+    }
+
+    // ---------- BATCH ----------
+    @Test
+    void calculateProductionValues_batch_shouldAccumulatePurchasesWithOneQueryPerKind() {
+        List<ProductionDTO> productions = new ArrayList<>();
+        productions.add(ProductionDTO.builder().plantationId(1L).productionInKg(10.0).build());
+        productions.add(ProductionDTO.builder().plantationId(1L).productionInKg(5.0).build());
+        productions.add(ProductionDTO.builder().plantationId(2L).productionInKg(50.0).build());
+        productions.add(ProductionDTO.builder().id(7L).productionInKg(30.0).build());
+
+        List<Object[]> stored = new ArrayList<>();
+        stored.add(new Object[]{7L, 3L, 400.0});
+        when(productionRepository.findPlantationAndPurchasePriceByIds(Set.of(7L))).thenReturn(stored);
+        when(repaymentLedgerService.findByPlantationIds(Set.of(1L, 2L, 3L))).thenReturn(Map.of(
+                1L, ledger(1L, 3000.0, 1500.0),
+                3L, ledger(3L, 1000.0, 900.0)));
+
+        List<ProductionDTO> results = calculationService.calculateProductionValues(productions);
+
+        assertEquals(4, results.size());
+        assertEquals(1000.0, results.get(0).getPurchasePrice());
+        assertFalse(results.get(0).getMustBePaid());
+        assertTrue(results.get(1).getMustBePaid());
+        assertFalse(results.get(2).getMustBePaid());
+        assertTrue(results.get(3).getMustBePaid());
+        verify(productionRepository, times(1)).findPlantationAndPurchasePriceByIds(anyCollection());
+        verify(repaymentLedgerService, times(1)).findByPlantationIds(anyCollection());
+    }
+
+    @Test
+    void calculateProductionValues_batch_shouldRejectNonPositiveProduction() {
+        List<ProductionDTO> productions = List.of(ProductionDTO.builder().plantationId(1L).productionInKg(0.0).build());
+
+        assertThrows(IllegalArgumentException.class, () -> calculationService.calculateProductionValues(productions));
+        verifyNoInteractions(repaymentLedgerService, productionRepository);
+    }
+
+    @Test
+    void calculateProductionValues_batch_shouldReturnEmptyList_whenNothingToCompute() {
+        assertTrue(calculationService.calculateProductionValues(List.of()).isEmpty());
+        verifyNoInteractions(repaymentLedgerService, productionRepository);
+    }
+}
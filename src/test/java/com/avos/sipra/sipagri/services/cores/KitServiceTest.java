@@ -1,6 +1,7 @@
 package com.avos.sipra.sipagri.services.cores;
 
 import com.avos.sipra.sipagri.entities.Kit;
+import com.avos.sipra.sipagri.enums.SyncEntityType;
 import com.avos.sipra.sipagri.repositories.KitRepository;
 import com.avos.sipra.sipagri.services.cores.impl.KitServiceImpl;
 import com.avos.sipra.sipagri.services.dtos.*;
@@ -15,7 +16,9 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -31,6 +34,12 @@ class KitServiceTest {
     @Mock
     private ProductService productService;
 
+    @Mock
+    private RepaymentLedgerService repaymentLedgerService;
+
+    @Mock
+    private SyncService syncService;
+
     @InjectMocks
     private KitServiceImpl kitService;
 
@@ -68,7 +77,7 @@ class KitServiceTest {
     // ---------- SAVE ----------
     @Test
     void save_shouldCalculateTotalCost() {
-        when(productService.findOne(productDTO.getId())).thenReturn(productDTO);
+        when(productService.findAllById(Set.of(productDTO.getId()))).thenReturn(Map.of(productDTO.getId(), productDTO));
         when(kitMapper.toEntity(kitDTO)).thenReturn(kit);
         when(kitRepository.save(kit)).thenReturn(kit);
         when(kitMapper.toDTO(kit)).thenReturn(kitDTO);
@@ -77,15 +86,49 @@ class KitServiceTest {
 
         assertNotNull(result);
         assertEquals(500.0, kitProductDTO.getTotalCost());
-        verify(productService, times(1)).findOne(productDTO.getId());
+        verify(productService, times(1)).findAllById(Set.of(productDTO.getId()));
         verify(kitRepository, times(1)).save(kit);
     }
 
+    @Test
+    void saveAll_shouldResolveProductsOfAllKitsWithOneQuery() {
+        ProductDTO seed = ProductDTO.builder().id(11L).price(40.0).build();
+        KitProductDTO seedLine = KitProductDTO.builder().product(seed).quantity(10).build();
+        KitProductDTO fertilizerLine = KitProductDTO.builder().product(productDTO).quantity(2).build();
+        KitDTO first = KitDTO.builder().name("Kit A").kitProducts(List.of(kitProductDTO, seedLine)).build();
+        KitDTO second = KitDTO.builder().name("Kit B").kitProducts(List.of(fertilizerLine)).build();
+        Kit firstKit = new Kit();
+        Kit secondKit = new Kit();
+
+        when(productService.findAllById(Set.of(10L, 11L))).thenReturn(Map.of(10L, productDTO, 11L, seed));
+        when(kitMapper.toEntity(first)).thenReturn(firstKit);
+        when(kitMapper.toEntity(second)).thenReturn(secondKit);
+        when(kitRepository.saveAll(List.of(firstKit, secondKit))).thenReturn(List.of(firstKit, secondKit));
+        when(kitMapper.toDTO(any(Kit.class))).thenReturn(kitDTO);
+
+        List<KitDTO> result = kitService.saveAll(List.of(first, second));
+
+        assertEquals(2, result.size());
+        assertEquals(900.0, firstKit.getTotalCost());
+        assertEquals(200.0, secondKit.getTotalCost());
+        verify(productService, times(1)).findAllById(anyCollection());
+        verify(productService, never()).findOne(any());
+        verify(kitRepository, never()).save(any());
+    }
+
+    @Test
+    void saveAll_shouldRejectUnknownProduct() {
+        when(productService.findAllById(Set.of(10L))).thenReturn(Map.of());
+
+        assertThrows(IllegalArgumentException.class, () -> kitService.saveAll(List.of(kitDTO)));
+        verifyNoInteractions(kitRepository);
+    }
+
     // ---------- UPDATE ----------
     @Test
     void update_ok() {
         when(kitRepository.existsById(1L)).thenReturn(true);
-        when(productService.findOne(productDTO.getId())).thenReturn(productDTO);
+        when(productService.findAllById(Set.of(productDTO.getId()))).thenReturn(Map.of(productDTO.getId(), productDTO));
         when(kitMapper.toEntity(kitDTO)).thenReturn(kit);
         when(kitRepository.save(kit)).thenReturn(kit);
         when(kitMapper.toDTO(kit)).thenReturn(kitDTO);
@@ -112,6 +155,7 @@ class KitServiceTest {
     @Test
     void delete_ok() {
         kitService.delete(1L);
+        verify(syncService).recordDeletion(SyncEntityType.KIT, 1L);
         verify(kitRepository, times(1)).deleteById(1L);
     }
 
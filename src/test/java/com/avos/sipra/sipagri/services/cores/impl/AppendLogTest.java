@@ -0,0 +1,149 @@
+package com.avos.sipra.sipagri.services.cores.impl;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AppendLogTest {
+
+    @TempDir
+    Path directory;
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> strings(AppendLog.Batch batch) {
+        return batch.payloads().stream().map(payload -> new String(payload, StandardCharsets.UTF_8)).toList();
+    }
+
+    // ---------- append / read / commit ----------
+
+    @Test
+    void read_ShouldReturnRecordsInAppendOrder_UntilCommitted() throws Exception {
+        try (AppendLog log = AppendLog.open(directory.resolve("wal.log"), 4096)) {
+            log.append(bytes("a"));
+            log.append(bytes("b"));
+            log.append(bytes("c"));
+
+            AppendLog.Batch first = log.read(2);
+            assertEquals(List.of("a", "b"), strings(first));
+            assertEquals(List.of("a", "b"), strings(log.read(2)));
+
+            log.commit(first.end());
+
+            assertEquals(List.of("c"), strings(log.read(10)));
+            assertEquals(1, log.pending());
+        }
+    }
+
+    @Test
+    void commit_ShouldRewindTheLog_WhenEveryRecordIsConsumed() throws Exception {
+        try (AppendLog log = AppendLog.open(directory.resolve("wal.log"), 4096)) {
+            log.append(bytes("a"));
+            log.commit(log.read(10).end());
+
+            assertEquals(0, log.usedBytes());
+            assertEquals(0, log.pending());
+            assertTrue(log.read(10).isEmpty());
+        }
+    }
+
+    @Test
+    void append_ShouldKeepAccepting_WhenTheReaderLagsBehindWithoutEverCatchingUp() throws Exception {
+        try (AppendLog log = AppendLog.open(directory.resolve("wal.log"), 256)) {
+            log.append(bytes("r0"));
+            // Le lecteur garde toujours un enregistrement de retard : la fin du journal n'est jamais atteinte
+            for (int i = 1; i < 200; i++) {
+                assertTrue(log.append(bytes("r" + i)), "record " + i + " refused");
+                AppendLog.Batch batch = log.read(1);
+                assertEquals(List.of("r" + (i - 1)), strings(batch));
+                log.commit(batch.end());
+            }
+            assertEquals(1, log.pending());
+        }
+    }
+
+    @Test
+    void open_ShouldRecoverTheRecordsLeft_AfterACompaction() throws Exception {
+        Path path = directory.resolve("wal.log");
+        try (AppendLog log = AppendLog.open(path, 256)) {
+            for (int i = 0; i < 10; i++) {
+                log.append(bytes("record-" + i));
+            }
+            log.commit(log.read(8).end());
+        }
+
+        try (AppendLog log = AppendLog.open(path, 256)) {
+            assertEquals(List.of("record-8", "record-9"), strings(log.read(10)));
+            assertEquals(2, log.pending());
+        }
+    }
+
+    @Test
+    void append_ShouldReturnFalse_WhenLogIsFull() throws Exception {
+        try (AppendLog log = AppendLog.open(directory.resolve("wal.log"), 64)) {
+            assertTrue(log.append(new byte[30]));
+            assertFalse(log.append(new byte[30]));
+            assertEquals(1, log.pending());
+        }
+    }
+
+    // ---------- recovery ----------
+
+    @Test
+    void open_ShouldRecoverUncommittedRecords_AfterRestart() throws Exception {
+        Path path = directory.resolve("wal.log");
+        try (AppendLog log = AppendLog.open(path, 4096)) {
+            log.append(bytes("a"));
+            log.append(bytes("b"));
+            log.commit(log.read(1).end());
+        }
+
+        try (AppendLog log = AppendLog.open(path, 4096)) {
+            assertEquals(1, log.pending());
+            assertEquals(List.of("b"), strings(log.read(10)));
+        }
+    }
+
+    @Test
+    void open_ShouldNotReplayOldRecords_AfterTheLogWasRewound() throws Exception {
+        Path path = directory.resolve("wal.log");
+        try (AppendLog log = AppendLog.open(path, 4096)) {
+            log.append(bytes("a long first record"));
+            log.commit(log.read(10).end());
+            log.append(bytes("b"));
+        }
+
+        try (AppendLog log = AppendLog.open(path, 4096)) {
+            assertEquals(List.of("b"), strings(log.read(10)));
+        }
+    }
+
+    @Test
+    void open_ShouldDiscardATornRecord_WhenItsChecksumDoesNotMatch() throws Exception {
+        Path path = directory.resolve("wal.log");
+        try (AppendLog log = AppendLog.open(path, 4096)) {
+            log.append(bytes("a"));
+            log.append(bytes("b"));
+        }
+        // Corrompt le contenu du second enregistrement (en-tete 16 + enregistrement 9 + en-tete 8)
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.seek(16 + 9 + 8);
+            file.write('x');
+        }
+
+        try (AppendLog log = AppendLog.open(path, 4096)) {
+            assertEquals(1, log.pending());
+            assertEquals(List.of("a"), strings(log.read(10)));
+            assertTrue(log.append(bytes("c")));
+            assertEquals(List.of("a", "c"), strings(log.read(10)));
+        }
+    }
+}
@@ -15,7 +15,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.Date;
@@ -38,7 +38,7 @@ class AuthServiceImplTest {
     private PasswordResetTokenRepository tokenRepository;
 
     @Mock
-    private BCryptPasswordEncoder bCryptPasswordEncoder;
+    private PasswordEncoder passwordEncoder;
 
     @InjectMocks
     private AuthServiceImpl authService;
@@ -78,14 +78,14 @@ class AuthServiceImplTest {
     void registerUser_ShouldEncryptPasswordAndSaveUser() {
         // Given
         String encryptedPassword = "encryptedPassword";
-        when(bCryptPasswordEncoder.encode("plainPassword")).thenReturn(encryptedPassword);
+        when(passwordEncoder.encode("plainPassword")).thenReturn(encryptedPassword);
         when(supervisorService.save(any(SupervisorDTO.class))).thenReturn(supervisorDTO);
 
         // When
         SupervisorDTO result = authService.registerUser(supervisorDTO);
 
         // Then
-        verify(bCryptPasswordEncoder).encode("plainPassword");
+        verify(passwordEncoder).encode("plainPassword");
         verify(supervisorService).save(supervisorDTO);
         assertEquals(encryptedPassword, supervisorDTO.getPassword());
         assertNotNull(result);
@@ -199,14 +199,14 @@ class AuthServiceImplTest {
         // Given
         String newPassword = "newPassword123";
         String encryptedPassword = "encryptedNewPassword";
-        when(bCryptPasswordEncoder.encode(newPassword)).thenReturn(encryptedPassword);
+        when(passwordEncoder.encode(newPassword)).thenReturn(encryptedPassword);
         when(supervisorService.save(any(SupervisorDTO.class))).thenReturn(supervisorDTO);
 
         // When
         authService.changeUserPassword(supervisorDTO, newPassword);
 
         // Then
-        verify(bCryptPasswordEncoder).encode(newPassword);
+        verify(passwordEncoder).encode(newPassword);
         verify(supervisorService).save(supervisorDTO);
         assertEquals(encryptedPassword, supervisorDTO.getPassword());
     }
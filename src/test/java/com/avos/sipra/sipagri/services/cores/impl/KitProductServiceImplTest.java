@@ -19,7 +19,9 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -80,7 +82,7 @@ class KitProductServiceImplTest {
         kitProductDTO.setTotalCost(null);
 
         when(kitProductMapper.toEntity(kitProductDTO)).thenReturn(kitProduct);
-        when(productService.findOne(productDTO.getId())).thenReturn(productDTO);
+        when(productService.findAllById(Set.of(productDTO.getId()))).thenReturn(Map.of(productDTO.getId(), productDTO));
         when(kitProductRepository.save(any())).thenReturn(kitProduct);
         when(kitProductMapper.toDTO(kitProduct)).thenReturn(kitProductDTO);
 
@@ -88,7 +90,8 @@ class KitProductServiceImplTest {
 
         assertNotNull(result);
         assertEquals(500.0, result.getTotalCost());
-        verify(productService, times(1)).findOne(productDTO.getId());
+        verify(productService, times(1)).findAllById(Set.of(productDTO.getId()));
+        verify(productService, never()).findOne(any());
         verify(kitProductRepository, times(1)).save(any());
     }
 
@@ -99,9 +102,19 @@ class KitProductServiceImplTest {
         kitProductDTO.setQuantity(null); // pas de quantité
 
         when(kitProductMapper.toEntity(kitProductDTO)).thenReturn(kitProduct);
-        when(productService.findOne(productDTO.getId())).thenReturn(null);
 
         assertThrows(IllegalArgumentException.class, () -> kitProductService.save(kitProductDTO));
+        verify(kitProductRepository, never()).save(any());
+    }
+
+    @Test
+    void save_shouldThrow_whenProductDoesNotExist() {
+        kitProductDTO.setTotalCost(null);
+
+        when(productService.findAllById(Set.of(productDTO.getId()))).thenReturn(Map.of());
+
+        assertThrows(IllegalArgumentException.class, () -> kitProductService.save(kitProductDTO));
+        verify(kitProductRepository, never()).save(any());
     }
 
     // ---------- UPDATE ----------
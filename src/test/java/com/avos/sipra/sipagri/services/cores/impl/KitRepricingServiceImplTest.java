@@ -0,0 +1,86 @@
+package com.avos.sipra.sipagri.services.cores.impl;
+
+import com.avos.sipra.sipagri.enums.PlantationStatus;
+import com.avos.sipra.sipagri.repositories.KitProductRepository;
+import com.avos.sipra.sipagri.repositories.KitRepository;
+import com.avos.sipra.sipagri.repositories.PlantationRepository;
+import com.avos.sipra.sipagri.services.cores.RepaymentLedgerService;
+import com.avos.sipra.sipagri.services.dtos.KitRepricingReportDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class KitRepricingServiceImplTest {
+
+    @Mock
+    private KitProductRepository kitProductRepository;
+
+    @Mock
+    private KitRepository kitRepository;
+
+    @Mock
+    private PlantationRepository plantationRepository;
+
+    @Mock
+    private RepaymentLedgerService repaymentLedgerService;
+
+    @InjectMocks
+    private KitRepricingServiceImpl kitRepricingService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    private static List<Object[]> row(long count, double value) {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{count, value});
+        return rows;
+    }
+
+    // ---------- REPRICE ----------
+    @Test
+    void repriceProduct_shouldUpdateLinesKitsAndBalancesThenReportImpact() {
+        when(plantationRepository.sumKitValueByStatusAndProduct(PlantationStatus.ACTIVE, 5L))
+                .thenReturn(row(4, 100000.0), row(4, 112000.0));
+        when(kitProductRepository.repriceByProduct(5L, 2000.0)).thenReturn(6);
+        when(kitRepository.recomputeTotalCostsByProduct(5L)).thenReturn(3);
+
+        KitRepricingReportDTO report = kitRepricingService.repriceProduct(5L, 1500.0, 2000.0);
+
+        assertEquals(6, report.getUpdatedKitProducts());
+        assertEquals(3, report.getUpdatedKits());
+        assertEquals(4L, report.getAffectedActivePlantations());
+        assertEquals(12000.0, report.getActiveKitValueDelta());
+        InOrder inOrder = inOrder(kitProductRepository, kitRepository, repaymentLedgerService);
+        inOrder.verify(kitProductRepository).repriceByProduct(5L, 2000.0);
+        inOrder.verify(kitRepository).recomputeTotalCostsByProduct(5L);
+        inOrder.verify(repaymentLedgerService).refreshKitDebtByProduct(5L);
+    }
+
+    @Test
+    void repriceProduct_shouldSkipKits_whenProductIsInNoKit() {
+        when(plantationRepository.sumKitValueByStatusAndProduct(PlantationStatus.ACTIVE, 5L)).thenReturn(row(0, 0.0));
+        when(kitProductRepository.repriceByProduct(5L, 2000.0)).thenReturn(0);
+
+        KitRepricingReportDTO report = kitRepricingService.repriceProduct(5L, 1500.0, 2000.0);
+
+        assertEquals(0, report.getUpdatedKits());
+        verifyNoInteractions(kitRepository, repaymentLedgerService);
+    }
+
+    @Test
+    void repriceProduct_shouldRejectNegativePrice() {
+        assertThrows(IllegalArgumentException.class, () -> kitRepricingService.repriceProduct(5L, 1500.0, -1));
+        verifyNoInteractions(kitProductRepository, kitRepository);
+    }
+}
@@ -0,0 +1,78 @@
+package com.avos.sipra.sipagri.services.cores.impl;
+
+import com.avos.sipra.sipagri.repositories.PasswordResetTokenRepository;
+import com.avos.sipra.sipagri.services.cores.SchedulerLockService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class PasswordResetTokenPurgeServiceImplTest {
+
+    @Mock
+    private PasswordResetTokenRepository passwordResetTokenRepository;
+
+    @Mock
+    private SchedulerLockService schedulerLockService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private PasswordResetTokenPurgeServiceImpl purgeService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        purgeService = new PasswordResetTokenPurgeServiceImpl(passwordResetTokenRepository, schedulerLockService,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), meterRegistry, 100, 10);
+    }
+
+    private void lockAvailable(boolean available) {
+        when(schedulerLockService.runExclusively(eq(PasswordResetTokenPurgeServiceImpl.LOCK_NAME), any(), any()))
+                .thenAnswer(invocation -> {
+                    if (available) {
+                        invocation.getArgument(2, Runnable.class).run();
+                    }
+                    return available;
+                });
+    }
+
+    // ---------- purgeExpired ----------
+
+    @Test
+    void purgeExpired_ShouldDeleteInBatchesUntilAPartialOne() {
+        lockAvailable(true);
+        when(passwordResetTokenRepository.deleteExpiredBatch(any(), eq(100))).thenReturn(100, 100, 42);
+
+        int deleted = purgeService.purgeExpired();
+
+        assertEquals(242, deleted);
+        verify(passwordResetTokenRepository, times(3)).deleteExpiredBatch(any(), eq(100));
+        assertEquals(242.0, meterRegistry.get("sipagri.password.reset.tokens.purged").counter().count());
+        assertEquals(1, meterRegistry.get("sipagri.password.reset.tokens.purge").timer().count());
+    }
+
+    @Test
+    void purgeExpired_ShouldSkip_WhenAnotherNodeRunsIt() {
+        lockAvailable(false);
+
+        assertEquals(-1, purgeService.purgeExpired());
+
+        verifyNoInteractions(passwordResetTokenRepository);
+        assertEquals(1.0, meterRegistry.get("sipagri.password.reset.tokens.purge.skipped").counter().count());
+    }
+
+    @Test
+    void constructor_ShouldThrowException_WhenBatchSizeIsNotPositive() {
+        assertThrows(IllegalArgumentException.class, () -> new PasswordResetTokenPurgeServiceImpl(
+                passwordResetTokenRepository, schedulerLockService,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), meterRegistry, 0, 10));
+    }
+}
@@ -1,14 +1,21 @@
 package com.avos.sipra.sipagri.services.cores.impl;
 
+import com.avos.sipra.sipagri.entities.Kit;
 import com.avos.sipra.sipagri.entities.Plantation;
+import com.avos.sipra.sipagri.enums.SyncEntityType;
 import com.avos.sipra.sipagri.services.cores.CalculationService;
+import com.avos.sipra.sipagri.services.cores.RepaymentLedgerService;
+import com.avos.sipra.sipagri.services.cores.SyncService;
 import com.avos.sipra.sipagri.services.dtos.PaginationResponseDTO;
+import com.avos.sipra.sipagri.services.dtos.KitDTO;
 import com.avos.sipra.sipagri.services.dtos.PlantationDTO;
 import com.avos.sipra.sipagri.services.dtos.ProductionDTO;
 import com.avos.sipra.sipagri.services.mappers.PlantationMapper;
+import com.avos.sipra.sipagri.repositories.KitRepository;
 import com.avos.sipra.sipagri.repositories.PlantationRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
@@ -33,6 +40,15 @@ class PlantationServiceImplTest {
     @Mock
     private CalculationService calculationService;
 
+    @Mock
+    private KitRepository kitRepository;
+
+    @Mock
+    private RepaymentLedgerService repaymentLedgerService;
+
+    @Mock
+    private SyncService syncService;
+
     @InjectMocks
     private PlantationServiceImpl plantationService;
 
@@ -60,24 +76,36 @@ class PlantationServiceImplTest {
     @Test
     void save_shouldCallCalculationServiceAndSave() {
         when(plantationMapper.toEntity(plantationDTO)).thenReturn(plantation);
-        when(calculationService.calculateProductionValues(productionDTO)).thenReturn(productionDTO);
+        when(calculationService.calculateProductionValues(List.of(productionDTO))).thenReturn(List.of(productionDTO));
         when(plantationRepository.save(plantation)).thenReturn(plantation);
         when(plantationMapper.toDTO(plantation)).thenReturn(plantationDTO);
 
         PlantationDTO result = plantationService.save(plantationDTO);
 
         assertNotNull(result);
-        verify(calculationService, times(1)).calculateProductionValues(productionDTO);
+        verify(calculationService, times(1)).calculateProductionValues(List.of(productionDTO));
+        verify(calculationService, never()).calculateProductionValues(any(ProductionDTO.class));
         verify(plantationRepository, times(1)).save(plantation);
         verify(plantationMapper, times(1)).toDTO(plantation);
     }
 
+    @Test
+    void save_shouldThrow_whenKitHasNoId() {
+        plantationDTO.setKit(KitDTO.builder().build());
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> plantationService.save(plantationDTO));
+
+        assertEquals("Kit id cannot be null", exception.getMessage());
+        verify(plantationRepository, never()).save(any());
+    }
+
     // ---------- UPDATE ----------
     @Test
     void update_ok() {
         when(plantationRepository.existsById(1L)).thenReturn(true);
         when(plantationMapper.toEntity(plantationDTO)).thenReturn(plantation);
-        when(calculationService.calculateProductionValues(productionDTO)).thenReturn(productionDTO);
+        when(calculationService.calculateProductionValues(List.of(productionDTO))).thenReturn(List.of(productionDTO));
         when(plantationRepository.save(plantation)).thenReturn(plantation);
         when(plantationMapper.toDTO(plantation)).thenReturn(plantationDTO);
 
@@ -103,7 +131,9 @@ class PlantationServiceImplTest {
     @Test
     void delete_ok() {
         plantationService.delete(1L);
-        verify(plantationRepository, times(1)).deleteById(1L);
+        verify(syncService).recordDeletions(SyncEntityType.PLANTATION, List.of(1L));
+        verify(plantationRepository, times(1)).deleteByIds(List.of(1L));
+        verify(plantationRepository, never()).deleteById(any());
     }
 
     // ---------- FIND ONE ----------
@@ -174,7 +204,7 @@ class PlantationServiceImplTest {
     void partialUpdate_ok() {
         when(plantationRepository.existsById(1L)).thenReturn(true);
         when(plantationRepository.findById(1L)).thenReturn(Optional.of(plantation));
-        when(calculationService.calculateProductionValues(productionDTO)).thenReturn(productionDTO);
+        when(calculationService.calculateProductionValues(List.of(productionDTO))).thenReturn(List.of(productionDTO));
         when(plantationMapper.partialUpdate(plantation, plantationDTO)).thenReturn(plantation);
         when(plantationRepository.save(plantation)).thenReturn(plantation);
         when(plantationMapper.toDTO(plantation)).thenReturn(plantationDTO);
@@ -185,6 +215,60 @@ class PlantationServiceImplTest {
         assertEquals(1L, result.getId());
     }
 
+    @Test
+    void partialUpdate_shouldRecordRemovedProductions_beforeTheyAreRemoved() {
+        when(plantationRepository.existsById(1L)).thenReturn(true);
+        when(plantationRepository.findById(1L)).thenReturn(Optional.of(plantation));
+        when(calculationService.calculateProductionValues(List.of(productionDTO))).thenReturn(List.of(productionDTO));
+        when(plantationMapper.removedProductionIds(plantation, plantationDTO)).thenReturn(List.of(5L));
+        when(plantationMapper.partialUpdate(plantation, plantationDTO)).thenReturn(plantation);
+        when(plantationRepository.save(plantation)).thenReturn(plantation);
+
+        plantationService.partialUpdate(plantationDTO);
+
+        InOrder inOrder = inOrder(syncService, plantationMapper);
+        inOrder.verify(syncService).recordDeletions(SyncEntityType.PRODUCTION, List.of(5L));
+        inOrder.verify(plantationMapper).partialUpdate(plantation, plantationDTO);
+    }
+
+    @Test
+    void partialUpdate_shouldNotRefreshLedger_whenNeitherKitNorProductionsChange() {
+        plantation.setKit(Kit.builder().id(3L).build());
+        plantationDTO.setProductions(null);
+        plantationDTO.setName("Parcelle nord");
+        when(plantationRepository.existsById(1L)).thenReturn(true);
+        when(plantationRepository.findById(1L)).thenReturn(Optional.of(plantation));
+        when(plantationMapper.partialUpdate(plantation, plantationDTO)).thenReturn(plantation);
+        when(plantationRepository.save(plantation)).thenReturn(plantation);
+
+        plantationService.partialUpdate(plantationDTO);
+
+        verifyNoInteractions(kitRepository, repaymentLedgerService);
+    }
+
+    @Test
+    void partialUpdate_shouldReferenceTheNewKitAndRefreshLedger_whenKitChanges() {
+        Kit previous = Kit.builder().id(3L).build();
+        Kit reference = Kit.builder().id(4L).build();
+        plantation.setKit(previous);
+        plantationDTO.setProductions(null);
+        plantationDTO.setKit(KitDTO.builder().id(4L).build());
+        when(plantationRepository.existsById(1L)).thenReturn(true);
+        when(plantationRepository.findById(1L)).thenReturn(Optional.of(plantation));
+        when(plantationMapper.partialUpdate(plantation, plantationDTO)).thenAnswer(invocation -> {
+            plantation.setKit(Kit.builder().id(4L).build());
+            return plantation;
+        });
+        when(kitRepository.existsById(4L)).thenReturn(true);
+        when(kitRepository.getReferenceById(4L)).thenReturn(reference);
+        when(plantationRepository.save(plantation)).thenReturn(plantation);
+
+        plantationService.partialUpdate(plantationDTO);
+
+        assertSame(reference, plantation.getKit());
+        verify(repaymentLedgerService).refresh(List.of(1L));
+    }
+
     @Test
     void partialUpdate_shouldThrow_whenIdNull() {
         plantationDTO.setId(null);
@@ -197,6 +281,41 @@ class PlantationServiceImplTest {
         assertThrows(IllegalArgumentException.class, () -> plantationService.partialUpdate(plantationDTO));
     }
 
+    @Test
+    void partialUpdate_shouldThrow_whenKitHasNoId() {
+        plantationDTO.setKit(KitDTO.builder().build());
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> plantationService.partialUpdate(plantationDTO));
+
+        assertEquals("Kit id cannot be null", exception.getMessage());
+        verify(plantationRepository, never()).save(any());
+    }
+
+    // ---------- CHANGE KIT ----------
+    @Test
+    void changeKit_shouldAssignAReferenceAndRefreshLedger() {
+        Kit reference = Kit.builder().id(4L).build();
+        when(plantationRepository.findById(1L)).thenReturn(Optional.of(plantation));
+        when(kitRepository.existsById(4L)).thenReturn(true);
+        when(kitRepository.getReferenceById(4L)).thenReturn(reference);
+
+        plantationService.changeKit(1L, 4L);
+
+        assertSame(reference, plantation.getKit());
+        verify(repaymentLedgerService).refresh(List.of(1L));
+        verify(plantationMapper).toDTO(plantation);
+    }
+
+    @Test
+    void changeKit_shouldThrow_whenKitDoesNotExist() {
+        when(plantationRepository.findById(1L)).thenReturn(Optional.of(plantation));
+        when(kitRepository.existsById(4L)).thenReturn(false);
+
+        assertThrows(IllegalArgumentException.class, () -> plantationService.changeKit(1L, 4L));
+        verifyNoInteractions(repaymentLedgerService);
+    }
+
     // ---------- EXISTS ----------
     @Test
     void existsById_ok() {
@@ -1,7 +1,9 @@
 package com.avos.sipra.sipagri.services.cores.impl;
 
 import com.avos.sipra.sipagri.entities.Planter;
+import com.avos.sipra.sipagri.enums.SyncEntityType;
 import com.avos.sipra.sipagri.repositories.PlanterRepository;
+import com.avos.sipra.sipagri.services.cores.SyncService;
 import com.avos.sipra.sipagri.services.dtos.PaginationResponseDTO;
 import com.avos.sipra.sipagri.services.dtos.PlanterDTO;
 import com.avos.sipra.sipagri.services.mappers.PlanterMapper;
@@ -16,6 +18,7 @@ import org.springframework.data.domain.PageRequest;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -28,6 +31,12 @@ class PlanterServiceImplTest {
     @Mock
     private PlanterRepository planterRepository;
 
+    @Mock
+    private PlanterUidGenerator planterUidGenerator;
+
+    @Mock
+    private SyncService syncService;
+
     @InjectMocks
     private PlanterServiceImpl planterService;
 
@@ -51,6 +60,7 @@ class PlanterServiceImplTest {
     @Test
     void save_shouldReturnDTO() {
         when(planterMapper.toEntity(planterDTO)).thenReturn(planter);
+        when(planterUidGenerator.nextUid(anyInt(), any(), any())).thenReturn("25-SIPAGRI0001PV");
         when(planterRepository.save(planter)).thenReturn(planter);
         when(planterMapper.toDTO(planter)).thenReturn(planterDTO);
 
@@ -58,6 +68,7 @@ class PlanterServiceImplTest {
 
         assertNotNull(result);
         assertEquals(1L, result.getId());
+        assertEquals("25-SIPAGRI0001PV", planter.getUidPlanter());
         verify(planterRepository, times(1)).save(planter);
     }
 
@@ -92,7 +103,36 @@ class PlanterServiceImplTest {
     @Test
     void delete_ok() {
         planterService.delete(1L);
-        verify(planterRepository, times(1)).deleteById(1L);
+        verify(syncService).recordDeletions(SyncEntityType.PLANTER, List.of(1L));
+        verify(planterRepository, times(1)).deleteByIds(List.of(1L));
+        verify(planterRepository, never()).deleteById(any());
+    }
+
+    @Test
+    void deleteAll_shouldDeleteByBatchesOfAThousand() {
+        List<Long> ids = LongStream.rangeClosed(1, 2500).boxed().toList();
+        when(planterRepository.deleteByIds(anyList())).thenAnswer(invocation -> invocation.<List<Long>>getArgument(0).size());
+
+        int deleted = planterService.deleteAll(ids);
+
+        assertEquals(2500, deleted);
+        verify(syncService, times(3)).recordDeletions(eq(SyncEntityType.PLANTER), anyList());
+        verify(planterRepository, times(3)).deleteByIds(anyList());
+    }
+
+    @Test
+    void deleteByFilter_shouldDeleteTheMatchingPlanters() {
+        when(planterRepository.findIdsByFilter(4L, "Bonoua")).thenReturn(List.of(7L, 8L));
+        when(planterRepository.deleteByIds(List.of(7L, 8L))).thenReturn(2);
+
+        assertEquals(2, planterService.deleteByFilter(4L, " Bonoua "));
+        verify(syncService).recordDeletions(SyncEntityType.PLANTER, List.of(7L, 8L));
+    }
+
+    @Test
+    void deleteByFilter_shouldThrow_whenNoFilterIsGiven() {
+        assertThrows(IllegalArgumentException.class, () -> planterService.deleteByFilter(null, " "));
+        verifyNoInteractions(planterRepository);
     }
 
     // ---------- FIND ONE ----------
@@ -0,0 +1,102 @@
+package com.avos.sipra.sipagri.services.cores.impl;
+
+import com.avos.sipra.sipagri.entities.PlanterUidCounter;
+import com.avos.sipra.sipagri.repositories.PlanterRepository;
+import com.avos.sipra.sipagri.repositories.PlanterUidCounterRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PlanterUidGeneratorTest {
+
+    @Mock
+    private PlanterUidCounterRepository counterRepository;
+
+    @Mock
+    private PlanterRepository planterRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private PlanterUidCounter counter;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        counter = new PlanterUidCounter(2025, 1L);
+        when(counterRepository.findForUpdate(2025)).thenReturn(Optional.of(counter));
+        when(counterRepository.save(any(PlanterUidCounter.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    // ---------- NEXT UID ----------
+    @Test
+    void nextUid_shouldKeepExistingFormat() {
+        PlanterUidGenerator generator = new PlanterUidGenerator(counterRepository, planterRepository, transactionManager, 5);
+
+        assertEquals("25-SIPAGRI0001PV", generator.nextUid(2025, "Paul", "Vavoua"));
+        assertEquals("25-SIPAGRI0002AD", generator.nextUid(2025, "Awa", "Daloa"));
+    }
+
+    @Test
+    void nextNumber_shouldReserveOneBlockPerBlockSizeNumbers() {
+        PlanterUidGenerator generator = new PlanterUidGenerator(counterRepository, planterRepository, transactionManager, 3);
+
+        for (long expected = 1; expected <= 7; expected++) {
+            assertEquals(expected, generator.nextNumber(2025));
+        }
+
+        verify(counterRepository, times(3)).findForUpdate(2025);
+        assertEquals(10L, counter.getNextValue());
+    }
+
+    @Test
+    void nextNumber_shouldSeedNewYearFromExistingUids() {
+        PlanterUidGenerator generator = new PlanterUidGenerator(counterRepository, planterRepository, transactionManager, 10);
+        when(counterRepository.findForUpdate(2026)).thenReturn(Optional.empty());
+        when(planterRepository.findUidsByRegistrationYear(2026))
+                .thenReturn(List.of("26-SIPAGRI0004KB", "26-SIPAGRI0012AD"));
+        when(counterRepository.saveAndFlush(any(PlanterUidCounter.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        assertEquals(13L, generator.nextNumber(2026));
+    }
+
+    @Test
+    void nextNumber_shouldNeverReturnDuplicatesUnderConcurrency() throws InterruptedException {
+        PlanterUidGenerator generator = new PlanterUidGenerator(counterRepository, planterRepository, transactionManager, 7);
+        Set<Long> numbers = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+
+        for (int i = 0; i < 16; i++) {
+            executor.submit(() -> {
+                for (int j = 0; j < 100; j++) {
+                    numbers.add(generator.nextNumber(2025));
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(1600, numbers.size());
+    }
+
+    // ---------- PARSE ----------
+    @Test
+    void parseNumber_shouldIgnoreMalformedUids() {
+        assertEquals(42L, PlanterUidGenerator.parseNumber("25-SIPAGRI0042KB"));
+        assertEquals(0L, PlanterUidGenerator.parseNumber("legacy"));
+        assertEquals(0L, PlanterUidGenerator.parseNumber(null));
+    }
+}
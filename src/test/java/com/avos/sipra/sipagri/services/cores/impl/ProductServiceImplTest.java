@@ -2,6 +2,8 @@ package com.avos.sipra.sipagri.services.cores.impl;
 
 import com.avos.sipra.sipagri.entities.Product;
 import com.avos.sipra.sipagri.repositories.ProductRepository;
+import com.avos.sipra.sipagri.services.cores.KitRepricingService;
+import com.avos.sipra.sipagri.services.dtos.KitRepricingReportDTO;
 import com.avos.sipra.sipagri.services.dtos.PaginationResponseDTO;
 import com.avos.sipra.sipagri.services.dtos.ProductDTO;
 import com.avos.sipra.sipagri.services.mappers.ProductMapper;
@@ -31,6 +33,9 @@ class ProductServiceImplTest {
     @Mock
     private ProductMapper productMapper;
 
+    @Mock
+    private KitRepricingService kitRepricingService;
+
     @InjectMocks
     private ProductServiceImpl productService;
 
@@ -171,6 +176,55 @@ class ProductServiceImplTest {
         assertThrows(IllegalArgumentException.class, () -> productService.partialUpdate(productDTO));
     }
 
+    @Test
+    void partialUpdate_shouldRepriceKits_whenPriceChanges() {
+        ProductDTO changed = ProductDTO.builder().id(1L).price(18000.0).build();
+        when(productRepository.existsById(1L)).thenReturn(true);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(productMapper.partialUpdate(product, changed)).thenAnswer(invocation -> {
+            product.setPrice(18000.0);
+            return product;
+        });
+        when(productRepository.save(product)).thenReturn(product);
+        when(productMapper.toDTO(product)).thenReturn(changed);
+
+        productService.partialUpdate(changed);
+
+        verify(kitRepricingService, times(1)).repriceProduct(1L, 15000.0, 18000.0);
+    }
+
+    @Test
+    void partialUpdate_shouldNotReprice_whenPriceUnchanged() {
+        when(productRepository.existsById(productDTO.getId())).thenReturn(true);
+        when(productRepository.findById(productDTO.getId())).thenReturn(Optional.of(product));
+        when(productMapper.partialUpdate(product, productDTO)).thenReturn(product);
+        when(productRepository.save(product)).thenReturn(product);
+        when(productMapper.toDTO(product)).thenReturn(productDTO);
+
+        productService.partialUpdate(productDTO);
+
+        verifyNoInteractions(kitRepricingService);
+    }
+
+    @Test
+    void updatePrice_shouldSavePriceAndReturnReport() {
+        KitRepricingReportDTO report = KitRepricingReportDTO.builder().productId(1L).updatedKits(3).build();
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(kitRepricingService.repriceProduct(1L, 15000.0, 16000.0)).thenReturn(report);
+
+        KitRepricingReportDTO result = productService.updatePrice(1L, 16000.0);
+
+        assertEquals(report, result);
+        assertEquals(16000.0, product.getPrice());
+        verify(productRepository).save(product);
+    }
+
+    @Test
+    void updatePrice_shouldThrow_whenPriceIsNegative() {
+        assertThrows(IllegalArgumentException.class, () -> productService.updatePrice(1L, -1.0));
+        verifyNoInteractions(kitRepricingService);
+    }
+
     @Test
     void existsById_ok() {
         when(productRepository.existsById(1L)).thenReturn(true);
@@ -0,0 +1,171 @@
+package com.avos.sipra.sipagri.services.cores.impl;
+
+import com.avos.sipra.sipagri.enums.SyncStatus;
+import com.avos.sipra.sipagri.repositories.PlantationRepository;
+import com.avos.sipra.sipagri.services.cores.ProductionSyncService;
+import com.avos.sipra.sipagri.services.cores.PurchasePriceService;
+import com.avos.sipra.sipagri.services.dtos.IngestionStatusDTO;
+import com.avos.sipra.sipagri.services.dtos.ProductionDTO;
+import com.avos.sipra.sipagri.services.dtos.ProductionSyncResultDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ProductionIngestionServiceImplTest {
+
+    @Mock
+    private ProductionSyncService productionSyncService;
+
+    @Mock
+    private PlantationRepository plantationRepository;
+
+    @Mock
+    private PurchasePriceService purchasePriceService;
+
+    @TempDir
+    Path directory;
+
+    private ProductionIngestionServiceImpl ingestionService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ingestionService = new ProductionIngestionServiceImpl(productionSyncService, plantationRepository,
+                purchasePriceService, new ObjectMapper().findAndRegisterModules(), true,
+                directory.resolve("wal.log").toString(), 4096, 2, 500);
+        ingestionService.open();
+
+        when(plantationRepository.existsById(1L)).thenReturn(true);
+
+        when(productionSyncService.sync(anyList())).thenAnswer(invocation -> invocation.<List<ProductionDTO>>getArgument(0)
+                .stream()
+                .map(p -> ProductionSyncResultDTO.builder().idempotencyKey(p.getIdempotencyKey()).status(SyncStatus.CREATED).build())
+                .toList());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        ingestionService.close();
+    }
+
+    private static ProductionDTO production(double kg) {
+        return ProductionDTO.builder().plantationId(1L).productionInKg(kg).build();
+    }
+
+    // ---------- open ----------
+
+    @Test
+    void open_ShouldFail_WhenTheBatchSizeExceedsTheSyncMaximum() {
+        ProductionIngestionServiceImpl oversized = new ProductionIngestionServiceImpl(productionSyncService,
+                plantationRepository, purchasePriceService, new ObjectMapper(), true,
+                directory.resolve("oversized.log").toString(), 4096, 501, 500);
+
+        assertThrows(IllegalStateException.class, oversized::open);
+    }
+
+    // ---------- offer ----------
+
+    @Test
+    void offer_ShouldQueueProductionWithAGeneratedKey() {
+        ProductionDTO productionDTO = production(10.0);
+
+        assertTrue(ingestionService.offer(productionDTO));
+
+        assertNotNull(productionDTO.getIdempotencyKey());
+        assertEquals(1, ingestionService.status().getPendingProductions());
+        verifyNoInteractions(productionSyncService);
+    }
+
+    @Test
+    void offer_ShouldThrowException_WhenProductionIsInvalid() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> ingestionService.offer(production(0.0)));
+
+        assertEquals("Production en kg doit être positive et non nulle", exception.getMessage());
+    }
+
+    @Test
+    void offer_ShouldThrowException_WhenThePlantationDoesNotExist() {
+        when(plantationRepository.existsById(1L)).thenReturn(false);
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> ingestionService.offer(production(10.0)));
+
+        assertEquals("Plantation does not exist", exception.getMessage());
+        assertEquals(0, ingestionService.status().getPendingProductions());
+    }
+
+    @Test
+    void offer_ShouldThrowException_WhenNoPriceApplies() {
+        when(purchasePriceService.findPricePerKg(any(), any()))
+                .thenThrow(new IllegalStateException("Aucun prix d'achat MAIS en vigueur"));
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> ingestionService.offer(production(10.0)));
+
+        assertEquals("Aucun prix d'achat MAIS en vigueur", exception.getMessage());
+        assertEquals(0, ingestionService.status().getPendingProductions());
+    }
+
+    // ---------- drain ----------
+
+    @Test
+    void drain_ShouldRecordQueuedProductionsByBatches() {
+        ingestionService.offer(production(1.0));
+        ingestionService.offer(production(2.0));
+        ingestionService.offer(production(3.0));
+
+        assertEquals(3, ingestionService.drain());
+
+        verify(productionSyncService, times(2)).sync(anyList());
+        IngestionStatusDTO status = ingestionService.status();
+        assertEquals(0, status.getPendingProductions());
+        assertNotNull(status.getLastDrainAt());
+    }
+
+    @Test
+    void drain_ShouldKeepTheBatchInTheLog_WhenTheDatabaseFails() {
+        ProductionDTO productionDTO = production(1.0);
+        ingestionService.offer(productionDTO);
+        when(productionSyncService.sync(anyList())).thenThrow(new IllegalStateException("Base indisponible"));
+
+        assertEquals(0, ingestionService.drain());
+        assertEquals(1, ingestionService.status().getPendingProductions());
+        assertEquals("Base indisponible", ingestionService.status().getLastError());
+
+        reset(productionSyncService);
+        when(productionSyncService.sync(anyList())).thenReturn(List.of());
+        assertEquals(1, ingestionService.drain());
+        verify(productionSyncService).sync(argThat(batch -> batch.size() == 1
+                && batch.get(0).getIdempotencyKey().equals(productionDTO.getIdempotencyKey())));
+    }
+
+    @Test
+    void drain_ShouldCountTheRejectedProductions() {
+        ProductionDTO productionDTO = production(1.0);
+        ingestionService.offer(productionDTO);
+        when(productionSyncService.sync(anyList())).thenReturn(List.of(ProductionSyncResultDTO.builder()
+                .idempotencyKey(productionDTO.getIdempotencyKey())
+                .status(SyncStatus.REJECTED)
+                .message("Plantation does not exist")
+                .build()));
+
+        assertEquals(1, ingestionService.drain());
+
+        IngestionStatusDTO status = ingestionService.status();
+        assertEquals(0, status.getPendingProductions());
+        assertEquals(1, status.getRejectedProductions());
+        assertEquals(productionDTO.getIdempotencyKey() + ": Plantation does not exist", status.getLastRejection());
+    }
+}
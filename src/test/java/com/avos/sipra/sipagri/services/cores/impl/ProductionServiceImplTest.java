@@ -2,29 +2,49 @@ package com.avos.sipra.sipagri.services.cores.impl;
 
 import com.avos.sipra.sipagri.entities.Plantation;
 import com.avos.sipra.sipagri.entities.Production;
+import com.avos.sipra.sipagri.entities.ProductionArchive;
+import com.avos.sipra.sipagri.enums.PlantationStatus;
+import com.avos.sipra.sipagri.enums.SyncEntityType;
 import com.avos.sipra.sipagri.repositories.PlantationRepository;
+import com.avos.sipra.sipagri.repositories.ProductionArchiveRepository;
 import com.avos.sipra.sipagri.repositories.ProductionRepository;
 import com.avos.sipra.sipagri.services.cores.CalculationService;
+import com.avos.sipra.sipagri.services.cores.RepaymentLedgerService;
+import com.avos.sipra.sipagri.services.cores.SyncService;
 import com.avos.sipra.sipagri.services.dtos.PaginationResponseDTO;
 import com.avos.sipra.sipagri.services.dtos.ProductionDTO;
 import com.avos.sipra.sipagri.services.mappers.ProductionMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
@@ -36,47 +56,62 @@ class ProductionServiceImplTest {
     @Mock
     private ProductionRepository productionRepository;
 
+    @Mock
+    private ProductionArchiveRepository productionArchiveRepository;
+
     @Mock
     private CalculationService calculationService;
 
     @Mock
     private PlantationRepository plantationRepository;
 
-    @InjectMocks
+    @Mock
+    private RepaymentLedgerService repaymentLedgerService;
+
+    @Mock
+    private SyncService syncService;
+
+    private final PlantationLockRegistry plantationLocks = new PlantationLockRegistry();
+
     private ProductionServiceImpl productionService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        productionService = new ProductionServiceImpl(productionMapper, productionRepository, productionArchiveRepository, calculationService,
+                plantationRepository, repaymentLedgerService, syncService, plantationLocks,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), 3);
     }
 
     @Test
     void save_ShouldSaveProductionAndUpdatePlantation_WhenValidProductionDTO() {
         ProductionDTO productionDTO = ProductionDTO.builder().plantationId(1L).build();
-        ProductionDTO calculatedProductionDTO = ProductionDTO.builder().plantationId(1L).build();
+        ProductionDTO calculatedProductionDTO = ProductionDTO.builder().plantationId(1L).purchasePrice(1500.0).build();
         Production production = new Production();
+        production.setPurchasePrice(1500.0);
         Production savedProduction = new Production();
+        savedProduction.setPurchasePrice(1500.0);
         Plantation plantation = new Plantation();
         plantation.setId(1L);
-        plantation.setProductions(new ArrayList<>());
-        savedProduction.setPlantation(plantation);
-        production.setPlantation(plantation);
 
         when(calculationService.calculateProductionValues(productionDTO)).thenReturn(calculatedProductionDTO);
         when(productionMapper.toEntity(calculatedProductionDTO)).thenReturn(production);
         when(productionRepository.save(production)).thenReturn(savedProduction);
         when(productionMapper.toDTO(savedProduction)).thenReturn(calculatedProductionDTO);
-        when(calculationService.calculateMustBePaid(calculatedProductionDTO, 1L)).thenReturn(calculatedProductionDTO);
-        when(plantationRepository.getReferenceById(anyLong())).thenReturn(plantation);
+        when(plantationRepository.getReferenceById(1L)).thenReturn(plantation);
 
         ProductionDTO result = productionService.save(productionDTO);
 
         ArgumentCaptor<Production> productionCaptor = ArgumentCaptor.forClass(Production.class);
         verify(productionRepository, times(1)).save(productionCaptor.capture());
-        verify(plantationRepository).save(plantation);
+        assertSame(plantation, productionCaptor.getValue().getPlantation());
+        verify(plantationRepository).updateStatus(1L, PlantationStatus.INACTIVE);
+        verify(plantationRepository, never()).save(any(Plantation.class));
+        verify(plantationRepository, never()).findById(anyLong());
+        verify(repaymentLedgerService).recordPurchase(1L, 1500.0);
+        verify(calculationService, never()).calculateMustBePaid(any(), any());
 
         assertEquals(calculatedProductionDTO, result);
-        assertEquals(1, plantation.getProductions().size());
     }
 
     @Test
@@ -94,10 +129,114 @@ class ProductionServiceImplTest {
         ProductionDTO result = productionService.save(productionDTO);
 
         verify(plantationRepository, never()).getReferenceById(anyLong());
-        verify(plantationRepository, never()).save(any(Plantation.class));
+        verify(plantationRepository, never()).updateStatus(anyLong(), any());
+        verify(repaymentLedgerService, never()).recordPurchase(anyLong(), anyDouble());
         assertEquals(calculatedProductionDTO, result);
     }
 
+    @Test
+    void save_ShouldPriceEachRecordingAgainstThePreviousOnes_WhenSixtyFourWritersShareAPlantation() throws Exception {
+        int writers = 64;
+        int recordingsPerWriter = 10;
+        int plantations = 4;
+        double kitDebt = 5000.0;
+        Map<Long, AtomicLong> balances = new ConcurrentHashMap<>();
+        for (long id = 0; id < plantations; id++) {
+            balances.put(id, new AtomicLong());
+        }
+        Queue<Production> recorded = new ConcurrentLinkedQueue<>();
+
+        // Solde lu puis incrémenté séparément, comme en base : une écriture concurrente fausserait mustBePaid
+        when(calculationService.calculateProductionValues(any(ProductionDTO.class))).thenAnswer(invocation -> {
+            ProductionDTO productionDTO = invocation.getArgument(0);
+            long seen = balances.get(productionDTO.getPlantationId()).get();
+            Thread.yield();
+            productionDTO.setPurchasePrice(100.0);
+            productionDTO.setMustBePaid(seen + 100 >= kitDebt);
+            return productionDTO;
+        });
+        doAnswer(invocation -> balances.get(invocation.<Long>getArgument(0)).addAndGet(Math.round(invocation.<Double>getArgument(1))))
+                .when(repaymentLedgerService).recordPurchase(anyLong(), anyDouble());
+        when(productionMapper.toEntity(any(ProductionDTO.class))).thenAnswer(invocation -> {
+            ProductionDTO productionDTO = invocation.getArgument(0);
+            Production production = new Production();
+            production.setPurchasePrice(productionDTO.getPurchasePrice());
+            production.setMustBePaid(productionDTO.getMustBePaid());
+            return production;
+        });
+        when(productionRepository.save(any(Production.class))).thenAnswer(invocation -> {
+            recorded.add(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+        when(plantationRepository.getReferenceById(anyLong())).thenAnswer(invocation -> {
+            Plantation plantation = new Plantation();
+            plantation.setId(invocation.getArgument(0));
+            return plantation;
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < writers; t++) {
+            long plantationId = t % plantations;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < recordingsPerWriter; i++) {
+                    productionService.save(ProductionDTO.builder().plantationId(plantationId).productionInKg(1.0).build());
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // 160 enregistrements par plantation : le kit est remboursé à partir du 50e
+        int perPlantation = writers * recordingsPerWriter / plantations;
+        for (AtomicLong balance : balances.values()) {
+            assertEquals(perPlantation * 100L, balance.get());
+        }
+        assertEquals(writers * recordingsPerWriter, recorded.size());
+        assertEquals(plantations * (perPlantation - 49), recorded.stream().filter(Production::getMustBePaid).count());
+        assertEquals(0, plantationLocks.size());
+    }
+
+    @Test
+    void save_ShouldRetryTheWholeRecording_WhenBalanceChangedConcurrently() {
+        ProductionDTO productionDTO = ProductionDTO.builder().plantationId(1L).purchasePrice(1500.0).build();
+        Production production = new Production();
+        production.setPurchasePrice(1500.0);
+        when(calculationService.calculateProductionValues(productionDTO)).thenReturn(productionDTO);
+        when(productionMapper.toEntity(productionDTO)).thenReturn(production);
+        when(productionRepository.save(production)).thenReturn(production);
+        doThrow(new OptimisticLockingFailureException("Balance changed")).doNothing()
+                .when(repaymentLedgerService).recordPurchase(1L, 1500.0);
+
+        productionService.save(productionDTO);
+
+        verify(calculationService, times(2)).calculateProductionValues(productionDTO);
+        verify(productionRepository, times(1)).save(production);
+    }
+
+    @Test
+    void save_ShouldThrowException_WhenBalanceKeepsChanging() {
+        ProductionDTO productionDTO = ProductionDTO.builder().plantationId(1L).purchasePrice(1500.0).build();
+        Production production = new Production();
+        production.setPurchasePrice(1500.0);
+        when(calculationService.calculateProductionValues(productionDTO)).thenReturn(productionDTO);
+        when(productionMapper.toEntity(productionDTO)).thenReturn(production);
+        doThrow(new OptimisticLockingFailureException("Balance changed"))
+                .when(repaymentLedgerService).recordPurchase(1L, 1500.0);
+
+        assertThrows(OptimisticLockingFailureException.class, () -> productionService.save(productionDTO));
+
+        verify(calculationService, times(3)).calculateProductionValues(productionDTO);
+        verify(productionRepository, never()).save(any(Production.class));
+        assertEquals(0, plantationLocks.size());
+    }
+
     @Test
     void update_ShouldThrowException_WhenIdIsNull() {
         ProductionDTO productionDTO = ProductionDTO.builder().id(null).build();
@@ -136,13 +275,63 @@ class ProductionServiceImplTest {
         assertEquals(updatedProductionDTO, result);
     }
 
+    @Test
+    void update_ShouldHoldBothPlantationLocks_WhenPlantationChanges() {
+        ProductionDTO productionDTO = ProductionDTO.builder().id(1L).plantationId(3L).build();
+        Production entity = new Production();
+
+        when(productionRepository.existsById(1L)).thenReturn(true);
+        when(productionRepository.findPlantationIdById(1L)).thenReturn(Optional.of(5L));
+        when(calculationService.calculateProductionValues(productionDTO)).thenReturn(productionDTO);
+        when(productionMapper.toEntity(productionDTO)).thenReturn(entity);
+        when(productionRepository.save(entity)).thenAnswer(invocation -> {
+            assertEquals(2, plantationLocks.size());
+            return entity;
+        });
+
+        productionService.update(productionDTO);
+
+        verify(repaymentLedgerService).refresh(Set.of(3L, 5L));
+        assertEquals(0, plantationLocks.size());
+    }
+
+    @Test
+    void update_ShouldRetryTheWholeUpdate_WhenBalanceChangedConcurrently() {
+        ProductionDTO productionDTO = ProductionDTO.builder().id(1L).plantationId(3L).build();
+        Production entity = new Production();
+
+        when(productionRepository.existsById(1L)).thenReturn(true);
+        when(productionRepository.findPlantationIdById(1L)).thenReturn(Optional.of(3L));
+        when(calculationService.calculateProductionValues(productionDTO)).thenReturn(productionDTO);
+        when(productionMapper.toEntity(productionDTO)).thenReturn(entity);
+        when(productionRepository.save(entity)).thenReturn(entity);
+        doThrow(new OptimisticLockingFailureException("Balance changed")).doNothing()
+                .when(repaymentLedgerService).refresh(Set.of(3L));
+
+        productionService.update(productionDTO);
+
+        verify(productionRepository, times(2)).save(entity);
+        assertEquals(0, plantationLocks.size());
+    }
+
     @Test
     void delete_ShouldDeleteProduction() {
         productionService.delete(1L);
 
+        verify(syncService).recordDeletion(SyncEntityType.PRODUCTION, 1L);
         verify(productionRepository).deleteById(1L);
     }
 
+    @Test
+    void delete_ShouldRefreshPlantationBalance_WhenProductionHasPlantation() {
+        when(productionRepository.findPlantationIdById(1L)).thenReturn(Optional.of(3L));
+
+        productionService.delete(1L);
+
+        verify(productionRepository).deleteById(1L);
+        verify(repaymentLedgerService).refresh(Set.of(3L));
+    }
+
     @Test
     void findOne_ShouldReturnProduction_WhenProductionExists() {
         Production production = new Production();
@@ -156,6 +345,29 @@ class ProductionServiceImplTest {
         assertEquals(productionDTO, result);
     }
 
+    @Test
+    void findOne_ShouldReadTheArchive_WhenProductionIsNoLongerInTheHotTable() {
+        ProductionArchive archived = ProductionArchive.builder().id(1L).plantationId(3L).productionInKg(10.0).build();
+        ProductionDTO productionDTO = new ProductionDTO();
+
+        when(productionRepository.findById(1L)).thenReturn(Optional.empty());
+        when(productionArchiveRepository.findById(1L)).thenReturn(Optional.of(archived));
+        when(productionMapper.toDTO(archived)).thenReturn(productionDTO);
+
+        assertSame(productionDTO, productionService.findOne(1L));
+    }
+
+    @Test
+    void isOwnedBy_ShouldCheckTheArchive_OnlyWhenProductionIsNotInTheHotTable() {
+        when(productionRepository.existsById(1L)).thenReturn(false);
+        when(productionArchiveRepository.existsOwnedBy(1L, 7L)).thenReturn(true);
+        when(productionRepository.existsById(2L)).thenReturn(true);
+
+        assertTrue(productionService.isOwnedBy(1L, 7L));
+        assertFalse(productionService.isOwnedBy(2L, 7L));
+        verify(productionArchiveRepository, never()).existsOwnedBy(2L, 7L);
+    }
+
     @Test
     void findOne_ShouldThrowException_WhenProductionDoesNotExist() {
         when(productionRepository.findById(1L)).thenReturn(Optional.empty());
@@ -244,4 +456,27 @@ class ProductionServiceImplTest {
 
         assertEquals(updatedProductionDTO, result);
     }
+
+    @Test
+    void partialUpdate_ShouldLockCurrentPlantation_WhenNoPlantationGiven() {
+        ProductionDTO productionDTO = ProductionDTO.builder().id(1L).build();
+        Plantation plantation = new Plantation();
+        plantation.setId(4L);
+        Production existingProduction = new Production();
+        existingProduction.setPlantation(plantation);
+
+        when(productionRepository.existsById(1L)).thenReturn(true);
+        when(productionRepository.findPlantationIdById(1L)).thenReturn(Optional.of(4L));
+        when(productionRepository.findById(1L)).thenReturn(Optional.of(existingProduction));
+        when(productionMapper.partialUpdate(existingProduction, productionDTO)).thenReturn(existingProduction);
+        when(productionRepository.save(existingProduction)).thenAnswer(invocation -> {
+            assertEquals(1, plantationLocks.size());
+            return existingProduction;
+        });
+
+        productionService.partialUpdate(productionDTO);
+
+        verify(repaymentLedgerService).refresh(Set.of(4L));
+        assertEquals(0, plantationLocks.size());
+    }
 }
\ No newline at end of file
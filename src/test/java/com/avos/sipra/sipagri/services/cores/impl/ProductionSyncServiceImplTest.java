@@ -0,0 +1,231 @@
+package com.avos.sipra.sipagri.services.cores.impl;
+
+import com.avos.sipra.sipagri.entities.Plantation;
+import com.avos.sipra.sipagri.entities.Production;
+import com.avos.sipra.sipagri.enums.PlantationStatus;
+import com.avos.sipra.sipagri.enums.SyncStatus;
+import com.avos.sipra.sipagri.repositories.PlantationRepository;
+import com.avos.sipra.sipagri.repositories.ProductionArchiveRepository;
+import com.avos.sipra.sipagri.repositories.ProductionRepository;
+import com.avos.sipra.sipagri.services.cores.CalculationService;
+import com.avos.sipra.sipagri.services.cores.PurchasePriceService;
+import com.avos.sipra.sipagri.services.cores.RepaymentLedgerService;
+import com.avos.sipra.sipagri.services.cores.SeasonArchiveService;
+import com.avos.sipra.sipagri.services.dtos.ProductionDTO;
+import com.avos.sipra.sipagri.services.dtos.ProductionSyncResultDTO;
+import com.avos.sipra.sipagri.services.mappers.ProductionMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ProductionSyncServiceImplTest {
+
+    @Mock
+    private ProductionRepository productionRepository;
+
+    @Mock
+    private ProductionArchiveRepository productionArchiveRepository;
+
+    @Mock
+    private SeasonArchiveService seasonArchiveService;
+
+    @Mock
+    private PlantationRepository plantationRepository;
+
+    @Mock
+    private CalculationService calculationService;
+
+    @Mock
+    private PurchasePriceService purchasePriceService;
+
+    @Mock
+    private RepaymentLedgerService repaymentLedgerService;
+
+    private ProductionSyncServiceImpl productionSyncService;
+
+    private final AtomicLong sequence = new AtomicLong(100);
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        productionSyncService = new ProductionSyncServiceImpl(new ProductionMapper(), productionRepository,
+                productionArchiveRepository, seasonArchiveService, plantationRepository, calculationService, purchasePriceService, repaymentLedgerService, 3, 100);
+
+        when(purchasePriceService.findPricePerKg(any(), any())).thenReturn(200.0);
+        when(calculationService.calculateProductionValues(anyCollection())).thenAnswer(invocation -> {
+            List<ProductionDTO> productions = new ArrayList<>(invocation.<Collection<ProductionDTO>>getArgument(0));
+            productions.forEach(p -> p.setPurchasePrice(p.getProductionInKg() * 200.0));
+            return productions;
+        });
+        when(plantationRepository.getReferenceById(anyLong())).thenAnswer(invocation -> {
+            Plantation plantation = new Plantation();
+            plantation.setId(invocation.getArgument(0));
+            return plantation;
+        });
+        when(productionRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Production> productions = invocation.getArgument(0);
+            productions.forEach(p -> p.setId(sequence.incrementAndGet()));
+            return productions;
+        });
+    }
+
+    private static ProductionDTO production(String key, Long plantationId, double kg) {
+        return ProductionDTO.builder().idempotencyKey(key).plantationId(plantationId).productionInKg(kg).build();
+    }
+
+    /**
+     * @return the rows of plantations managed by supervisor 5
+     */
+    private static List<Object[]> plantations(Long... plantationIds) {
+        List<Object[]> rows = new ArrayList<>();
+        for (Long plantationId : plantationIds) {
+            rows.add(new Object[]{plantationId, 5L});
+        }
+        return rows;
+    }
+
+    // ---------- sync ----------
+
+    @Test
+    void sync_ShouldCreateProductionsInOneBatch_WhenKeysAreNew() {
+        when(productionRepository.findIdsByIdempotencyKeys(anyCollection())).thenReturn(List.of());
+        when(plantationRepository.findSupervisorIds(anyCollection())).thenReturn(plantations(1L, 2L));
+
+        List<ProductionSyncResultDTO> results = productionSyncService.sync(List.of(
+                production("a", 1L, 10.0), production("b", 1L, 5.0), production("c", 2L, 1.0)));
+
+        assertEquals(List.of(SyncStatus.CREATED, SyncStatus.CREATED, SyncStatus.CREATED),
+                results.stream().map(ProductionSyncResultDTO::getStatus).toList());
+        assertEquals(List.of(101L, 102L, 103L), results.stream().map(ProductionSyncResultDTO::getProductionId).toList());
+        verify(calculationService, times(1)).calculateProductionValues(anyCollection());
+        verify(productionRepository, times(1)).saveAll(anyList());
+        verify(repaymentLedgerService).recordPurchase(1L, 3000.0);
+        verify(repaymentLedgerService).recordPurchase(2L, 200.0);
+        verify(plantationRepository).updateStatusByIds(argThat(ids -> ids.containsAll(List.of(1L, 2L))), eq(PlantationStatus.INACTIVE));
+    }
+
+    @Test
+    void sync_ShouldReportDuplicates_WhenKeysAreAlreadyRecordedOrRepeatedInTheBatch() {
+        List<Object[]> known = new ArrayList<>();
+        known.add(new Object[]{5L, "a", 7L});
+        when(productionRepository.findIdsByIdempotencyKeys(anyCollection())).thenReturn(known);
+        when(plantationRepository.findSupervisorIds(anyCollection())).thenReturn(plantations(1L));
+
+        List<ProductionSyncResultDTO> results = productionSyncService.sync(List.of(
+                production("a", 1L, 10.0), production("b", 1L, 5.0), production("b", 1L, 5.0)));
+
+        assertEquals(SyncStatus.DUPLICATE, results.get(0).getStatus());
+        assertEquals(7L, results.get(0).getProductionId());
+        assertEquals(SyncStatus.CREATED, results.get(1).getStatus());
+        assertEquals(SyncStatus.DUPLICATE, results.get(2).getStatus());
+        assertEquals(results.get(1).getProductionId(), results.get(2).getProductionId());
+        verify(repaymentLedgerService).recordPurchase(1L, 1000.0);
+    }
+
+    @Test
+    void sync_ShouldCreateProduction_WhenKeyWasRecordedForAnotherSupervisor() {
+        List<Object[]> known = new ArrayList<>();
+        known.add(new Object[]{6L, "a", 7L});
+        when(productionRepository.findIdsByIdempotencyKeys(anyCollection())).thenReturn(known);
+        when(plantationRepository.findSupervisorIds(anyCollection())).thenReturn(plantations(1L));
+
+        List<ProductionSyncResultDTO> results = productionSyncService.sync(List.of(production("a", 1L, 10.0)));
+
+        assertEquals(SyncStatus.CREATED, results.get(0).getStatus());
+        assertNotEquals(7L, results.get(0).getProductionId());
+        verify(productionRepository).saveAll(argThat((List<Production> productions) ->
+                Long.valueOf(5L).equals(productions.get(0).getIdempotencySupervisorId())));
+    }
+
+    @Test
+    void sync_ShouldReportDuplicate_WhenProductionOfAClosedSeasonWasArchived() {
+        List<Object[]> archived = new ArrayList<>();
+        archived.add(new Object[]{5L, "a", 7L});
+        when(productionRepository.findIdsByIdempotencyKeys(anyCollection())).thenReturn(List.of());
+        when(productionArchiveRepository.findIdsByIdempotencyKeys(anyCollection())).thenReturn(archived);
+        when(plantationRepository.findSupervisorIds(anyCollection())).thenReturn(plantations(1L));
+        when(seasonArchiveService.coversArchive(2022)).thenReturn(true);
+        ProductionDTO replayed = production("a", 1L, 10.0);
+        replayed.setYear(java.sql.Date.valueOf("2022-06-15"));
+
+        List<ProductionSyncResultDTO> results = productionSyncService.sync(List.of(replayed, production("b", 1L, 5.0)));
+
+        assertEquals(SyncStatus.DUPLICATE, results.get(0).getStatus());
+        assertEquals(7L, results.get(0).getProductionId());
+        assertEquals(SyncStatus.CREATED, results.get(1).getStatus());
+        // Seule la clé de la saison close est cherchée dans l'archive
+        verify(productionArchiveRepository).findIdsByIdempotencyKeys(Set.of("a"));
+    }
+
+    @Test
+    void sync_ShouldNotReadTheArchive_WhenProductionsAreOfAnOpenSeason() {
+        when(productionRepository.findIdsByIdempotencyKeys(anyCollection())).thenReturn(List.of());
+        when(plantationRepository.findSupervisorIds(anyCollection())).thenReturn(plantations(1L));
+
+        productionSyncService.sync(List.of(production("a", 1L, 10.0)));
+
+        verifyNoInteractions(productionArchiveRepository);
+    }
+
+    @Test
+    void sync_ShouldAnswerReplaysFromMemory_WhenBatchWasAlreadyRecorded() {
+        when(productionRepository.findIdsByIdempotencyKeys(anyCollection())).thenReturn(List.of());
+        when(plantationRepository.findSupervisorIds(anyCollection())).thenReturn(plantations(1L));
+        List<ProductionSyncResultDTO> first = productionSyncService.sync(List.of(production("a", 1L, 10.0)));
+
+        List<ProductionSyncResultDTO> replay = productionSyncService.sync(List.of(production("a", 1L, 10.0)));
+
+        assertEquals(SyncStatus.DUPLICATE, replay.get(0).getStatus());
+        assertEquals(first.get(0).getProductionId(), replay.get(0).getProductionId());
+        verify(productionRepository, times(1)).findIdsByIdempotencyKeys(anyCollection());
+        verify(productionRepository, times(1)).saveAll(anyList());
+    }
+
+    @Test
+    void sync_ShouldRejectInvalidProductionsIndividually() {
+        when(productionRepository.findIdsByIdempotencyKeys(anyCollection())).thenReturn(List.of());
+        when(plantationRepository.findSupervisorIds(anyCollection())).thenReturn(plantations(1L));
+
+        List<ProductionSyncResultDTO> results = productionSyncService.sync(List.of(
+                production(null, 1L, 10.0), production("b", 9L, 5.0), production("c", 1L, 0.0)));
+
+        assertEquals(List.of(SyncStatus.REJECTED, SyncStatus.REJECTED, SyncStatus.REJECTED),
+                results.stream().map(ProductionSyncResultDTO::getStatus).toList());
+        assertEquals("Idempotency key cannot be null", results.get(0).getMessage());
+        assertEquals("Plantation does not exist", results.get(1).getMessage());
+        verify(productionRepository, never()).saveAll(anyList());
+        verify(repaymentLedgerService, never()).recordPurchase(anyLong(), anyDouble());
+    }
+
+    @Test
+    void sync_ShouldRejectProduction_WhenNoPriceIsInForce() {
+        when(purchasePriceService.findPricePerKg(any(), any())).thenThrow(new IllegalStateException("Aucun prix"));
+
+        List<ProductionSyncResultDTO> results = productionSyncService.sync(List.of(production("a", 1L, 10.0)));
+
+        assertEquals(SyncStatus.REJECTED, results.get(0).getStatus());
+        assertEquals("Aucun prix", results.get(0).getMessage());
+        verify(calculationService, never()).calculateProductionValues(anyCollection());
+    }
+
+    @Test
+    void sync_ShouldThrowException_WhenBatchIsTooLarge() {
+        List<ProductionDTO> productions = List.of(production("a", 1L, 1.0), production("b", 1L, 1.0),
+                production("c", 1L, 1.0), production("d", 1L, 1.0));
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> productionSyncService.sync(productions));
+
+        assertEquals("A batch cannot exceed 3 productions", exception.getMessage());
+    }
+}
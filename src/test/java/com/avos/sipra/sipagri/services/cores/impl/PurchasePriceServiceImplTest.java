@@ -0,0 +1,186 @@
+package com.avos.sipra.sipagri.services.cores.impl;
+
+import com.avos.sipra.sipagri.entities.Params;
+import com.avos.sipra.sipagri.entities.PurchasePrice;
+import com.avos.sipra.sipagri.enums.CropType;
+import com.avos.sipra.sipagri.repositories.ParamsRepository;
+import com.avos.sipra.sipagri.repositories.PurchasePriceRepository;
+import com.avos.sipra.sipagri.services.dtos.PurchasePriceDTO;
+import com.avos.sipra.sipagri.services.mappers.PurchasePriceMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PurchasePriceServiceImplTest {
+
+    @Mock
+    private PurchasePriceRepository purchasePriceRepository;
+
+    @Mock
+    private ParamsRepository paramsRepository;
+
+    private PurchasePriceServiceImpl purchasePriceService;
+
+    private final List<PurchasePrice> stored = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        stored.add(price(1L, 100.0, LocalDate.of(2023, 1, 1), LocalDate.of(2024, 3, 1)));
+        stored.add(price(2L, 120.0, LocalDate.of(2024, 3, 1), null));
+        when(purchasePriceRepository.findAll()).thenAnswer(invocation -> new ArrayList<>(stored));
+
+        purchasePriceService = new PurchasePriceServiceImpl(new PurchasePriceMapper(), purchasePriceRepository, paramsRepository);
+        purchasePriceService.init();
+    }
+
+    // ---------- FIND PRICE ----------
+    @Test
+    void findPricePerKg_shouldUsePriceInForceAtHarvestDate() {
+        assertEquals(100.0, purchasePriceService.findPricePerKg(CropType.MAIS, java.sql.Date.valueOf("2024-02-29")));
+        assertEquals(120.0, purchasePriceService.findPricePerKg(CropType.MAIS, java.sql.Date.valueOf("2024-03-01")));
+        assertEquals(120.0, purchasePriceService.findPricePerKg(CropType.MAIS, null));
+    }
+
+    @Test
+    void findPricePerKg_shouldThrow_whenNoPriceInForce() {
+        java.sql.Date date = java.sql.Date.valueOf("2022-12-31");
+
+        assertThrows(IllegalStateException.class, () -> purchasePriceService.findPricePerKg(CropType.MAIS, date));
+    }
+
+    @Test
+    void findPricePerKg_shouldNotHitDatabase() {
+        clearInvocations(purchasePriceRepository, paramsRepository);
+
+        purchasePriceService.findPricePerKg(CropType.MAIS, java.sql.Date.valueOf("2023-06-15"));
+
+        verifyNoInteractions(purchasePriceRepository, paramsRepository);
+    }
+
+    @Test
+    void reload_shouldFallBackOnLegacyParam_whenNoHistory() {
+        stored.clear();
+        when(paramsRepository.findByName("PRIX_ACHAT_MAIS"))
+                .thenReturn(Optional.of(Params.builder().name("PRIX_ACHAT_MAIS").value("90").build()));
+
+        purchasePriceService.reload();
+
+        assertEquals(90.0, purchasePriceService.findPricePerKg(CropType.MAIS, java.sql.Date.valueOf("2020-01-01")));
+    }
+
+    // ---------- SAVE ----------
+    @Test
+    void save_shouldCloseOpenPriceAndSwapTable() {
+        PurchasePrice open = stored.get(1);
+        when(purchasePriceRepository.findOpenForUpdate(CropType.MAIS)).thenReturn(Optional.of(open));
+        when(purchasePriceRepository.existsOverlapping(CropType.MAIS, LocalDate.of(2025, 1, 1), null, 2L)).thenReturn(false);
+        when(purchasePriceRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<PurchasePrice> prices = invocation.getArgument(0);
+            prices.get(1).setId(3L);
+            stored.add(prices.get(1));
+            return prices;
+        });
+
+        PurchasePriceDTO result = purchasePriceService.save(PurchasePriceDTO.builder()
+                .crop(CropType.MAIS).pricePerKg(150.0).effectiveFrom(LocalDate.of(2025, 1, 1)).build());
+
+        assertEquals(3L, result.getId());
+        assertEquals(LocalDate.of(2025, 1, 1), open.getEffectiveTo());
+        assertEquals(120.0, purchasePriceService.findPricePerKg(CropType.MAIS, java.sql.Date.valueOf("2024-12-31")));
+        assertEquals(150.0, purchasePriceService.findPricePerKg(CropType.MAIS, java.sql.Date.valueOf("2025-01-01")));
+    }
+
+    @Test
+    void save_shouldSplitOpenPrice_whenNewPriceIsBounded() {
+        PurchasePrice open = stored.get(1);
+        when(purchasePriceRepository.findOpenForUpdate(CropType.MAIS)).thenReturn(Optional.of(open));
+        when(purchasePriceRepository.existsOverlapping(CropType.MAIS, LocalDate.of(2025, 1, 1), LocalDate.of(2025, 4, 1), 2L))
+                .thenReturn(false);
+        when(purchasePriceRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<PurchasePrice> prices = invocation.getArgument(0);
+            prices.get(0).setId(3L);
+            prices.get(2).setId(4L);
+            stored.add(prices.get(0));
+            stored.add(prices.get(2));
+            return prices;
+        });
+
+        PurchasePriceDTO result = purchasePriceService.save(PurchasePriceDTO.builder()
+                .crop(CropType.MAIS).pricePerKg(150.0)
+                .effectiveFrom(LocalDate.of(2025, 1, 1)).effectiveTo(LocalDate.of(2025, 4, 1)).build());
+
+        assertEquals(4L, result.getId());
+        assertEquals(LocalDate.of(2025, 1, 1), open.getEffectiveTo());
+        assertEquals(120.0, purchasePriceService.findPricePerKg(CropType.MAIS, java.sql.Date.valueOf("2024-12-31")));
+        assertEquals(150.0, purchasePriceService.findPricePerKg(CropType.MAIS, java.sql.Date.valueOf("2025-03-31")));
+        assertEquals(120.0, purchasePriceService.findPricePerKg(CropType.MAIS, java.sql.Date.valueOf("2025-04-01")));
+    }
+
+    @Test
+    void save_shouldPublishTable_onlyAfterCommit() {
+        when(purchasePriceRepository.findOpenForUpdate(CropType.MAIS)).thenReturn(Optional.of(stored.get(1)));
+        when(purchasePriceRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<PurchasePrice> prices = invocation.getArgument(0);
+            prices.get(1).setId(3L);
+            stored.add(prices.get(1));
+            return prices;
+        });
+        java.sql.Date newYear = java.sql.Date.valueOf("2025-01-01");
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            purchasePriceService.save(PurchasePriceDTO.builder()
+                    .crop(CropType.MAIS).pricePerKg(150.0).effectiveFrom(LocalDate.of(2025, 1, 1)).build());
+
+            // Tant que la transaction n'est pas validée, la table en mémoire reste l'ancienne
+            assertEquals(120.0, purchasePriceService.findPricePerKg(CropType.MAIS, newYear));
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(150.0, purchasePriceService.findPricePerKg(CropType.MAIS, newYear));
+    }
+
+    @Test
+    void save_shouldThrow_whenPeriodOverlaps() {
+        when(purchasePriceRepository.existsOverlapping(any(), any(), any(), any())).thenReturn(true);
+        PurchasePriceDTO dto = PurchasePriceDTO.builder()
+                .crop(CropType.MAIS).pricePerKg(110.0)
+                .effectiveFrom(LocalDate.of(2023, 6, 1)).effectiveTo(LocalDate.of(2023, 9, 1)).build();
+
+        assertThrows(IllegalArgumentException.class, () -> purchasePriceService.save(dto));
+        verify(purchasePriceRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void save_shouldThrow_whenPeriodIsEmpty() {
+        PurchasePriceDTO dto = PurchasePriceDTO.builder()
+                .crop(CropType.MAIS).pricePerKg(110.0)
+                .effectiveFrom(LocalDate.of(2023, 6, 1)).effectiveTo(LocalDate.of(2023, 6, 1)).build();
+
+        assertThrows(IllegalArgumentException.class, () -> purchasePriceService.save(dto));
+    }
+
+    private static PurchasePrice price(Long id, double pricePerKg, LocalDate from, LocalDate to) {
+        return PurchasePrice.builder()
+                .id(id)
+                .crop(CropType.MAIS)
+                .pricePerKg(pricePerKg)
+                .effectiveFrom(from)
+                .effectiveTo(to)
+                .build();
+    }
+}
@@ -0,0 +1,160 @@
+package com.avos.sipra.sipagri.services.cores.impl;
+
+import com.avos.sipra.sipagri.entities.RepaymentLedger;
+import com.avos.sipra.sipagri.repositories.RepaymentLedgerRepository;
+import com.avos.sipra.sipagri.services.dtos.RepaymentLedgerDTO;
+import com.avos.sipra.sipagri.services.mappers.RepaymentLedgerMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RepaymentLedgerServiceImplTest {
+
+    @Mock
+    private RepaymentLedgerRepository repaymentLedgerRepository;
+
+    @Mock
+    private DataSource dataSource;
+
+    private RepaymentLedgerServiceImpl repaymentLedgerService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        repaymentLedgerService = new RepaymentLedgerServiceImpl(repaymentLedgerRepository, new RepaymentLedgerMapper(), dataSource);
+    }
+
+    private RepaymentLedgerServiceImpl serviceOn(String databaseProductName) throws Exception {
+        Connection connection = mock(Connection.class);
+        DatabaseMetaData metaData = mock(DatabaseMetaData.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.getMetaData()).thenReturn(metaData);
+        when(metaData.getDatabaseProductName()).thenReturn(databaseProductName);
+        return new RepaymentLedgerServiceImpl(repaymentLedgerRepository, new RepaymentLedgerMapper(), dataSource);
+    }
+
+    // ---------- READ ----------
+    @Test
+    void findByPlantationId_shouldComputeOutstandingAmount() {
+        when(repaymentLedgerRepository.findById(1L)).thenReturn(Optional.of(new RepaymentLedger(1L, 3000.0, 1200.0, 0L)));
+
+        RepaymentLedgerDTO result = repaymentLedgerService.findByPlantationId(1L);
+
+        assertEquals(1800.0, result.getOutstanding());
+        assertFalse(result.getRepaid());
+        verify(repaymentLedgerRepository, never()).insertMissing(any());
+    }
+
+    @Test
+    void findByPlantationId_shouldReturnNull_whenPlantationDoesNotExist() {
+        when(repaymentLedgerRepository.findById(9L)).thenReturn(Optional.empty());
+        when(repaymentLedgerRepository.insertMissing(List.of(9L))).thenReturn(0);
+
+        assertNull(repaymentLedgerService.findByPlantationId(9L));
+    }
+
+    @Test
+    void findByPlantationIds_shouldCreateOnlyMissingBalances() {
+        when(repaymentLedgerRepository.findAllById(Set.of(1L, 2L)))
+                .thenReturn(List.of(new RepaymentLedger(1L, 1000.0, 1500.0, 0L)));
+        when(repaymentLedgerRepository.insertMissing(List.of(2L))).thenReturn(1);
+        when(repaymentLedgerRepository.findAllById(List.of(2L)))
+                .thenReturn(List.of(new RepaymentLedger(2L, 500.0, 0.0, 0L)));
+
+        Map<Long, RepaymentLedgerDTO> result = repaymentLedgerService.findByPlantationIds(Set.of(1L, 2L));
+
+        assertEquals(2, result.size());
+        assertTrue(result.get(1L).getRepaid());
+        assertEquals(0.0, result.get(1L).getOutstanding());
+        assertEquals(500.0, result.get(2L).getOutstanding());
+    }
+
+    // ---------- WRITE ----------
+    @Test
+    void recordPurchase_shouldIncrementExistingBalance_atTheVersionRead() {
+        when(repaymentLedgerRepository.findById(1L)).thenReturn(Optional.of(new RepaymentLedger(1L, 3000.0, 1200.0, 4L)));
+        when(repaymentLedgerRepository.addPurchase(1L, 250.0, 4L)).thenReturn(1);
+
+        repaymentLedgerService.recordPurchase(1L, 250.0);
+
+        verify(repaymentLedgerRepository).addPurchase(1L, 250.0, 4L);
+        verify(repaymentLedgerRepository, never()).insertMissing(any());
+    }
+
+    @Test
+    void recordPurchase_shouldCreateBalanceThenAddPurchase_whenMissing() {
+        when(repaymentLedgerRepository.findById(1L))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(new RepaymentLedger(1L, 3000.0, 1200.0, 0L)));
+        when(repaymentLedgerRepository.addPurchase(1L, 250.0, 0L)).thenReturn(1);
+
+        repaymentLedgerService.recordPurchase(1L, 250.0);
+
+        InOrder inOrder = inOrder(repaymentLedgerRepository);
+        inOrder.verify(repaymentLedgerRepository).insertMissing(List.of(1L));
+        inOrder.verify(repaymentLedgerRepository).addPurchase(1L, 250.0, 0L);
+    }
+
+    @Test
+    void recordPurchase_shouldDoNothing_whenPlantationUnknown() {
+        when(repaymentLedgerRepository.findById(1L)).thenReturn(Optional.empty());
+
+        repaymentLedgerService.recordPurchase(1L, 250.0);
+
+        verify(repaymentLedgerRepository).insertMissing(List.of(1L));
+        verify(repaymentLedgerRepository, never()).addPurchase(anyLong(), anyDouble(), anyLong());
+    }
+
+    @Test
+    void recordPurchase_shouldThrowException_whenBalanceChangedSinceRead() {
+        when(repaymentLedgerRepository.findById(1L)).thenReturn(Optional.of(new RepaymentLedger(1L, 3000.0, 1200.0, 4L)));
+        when(repaymentLedgerRepository.addPurchase(1L, 250.0, 4L)).thenReturn(0);
+
+        assertThrows(OptimisticLockingFailureException.class, () -> repaymentLedgerService.recordPurchase(1L, 250.0));
+    }
+
+    @Test
+    void refresh_shouldDoNothing_whenNoPlantation() {
+        repaymentLedgerService.refresh(Set.of());
+
+        verifyNoInteractions(repaymentLedgerRepository);
+    }
+
+    @Test
+    void rebuild_shouldReplaceAllBalancesUnderATableLock_onOracle() throws Exception {
+        repaymentLedgerService = serviceOn("Oracle");
+        when(repaymentLedgerRepository.insertAll()).thenReturn(42);
+
+        assertEquals(42, repaymentLedgerService.rebuild());
+
+        InOrder inOrder = inOrder(repaymentLedgerRepository);
+        inOrder.verify(repaymentLedgerRepository).lockTable();
+        inOrder.verify(repaymentLedgerRepository).deleteAllInBatch();
+        inOrder.verify(repaymentLedgerRepository).insertAll();
+    }
+
+    @Test
+    void rebuild_shouldNotLockTable_onOtherDatabases() throws Exception {
+        repaymentLedgerService = serviceOn("H2");
+        when(repaymentLedgerRepository.insertAll()).thenReturn(3);
+
+        assertEquals(3, repaymentLedgerService.rebuild());
+
+        verify(repaymentLedgerRepository, never()).lockTable();
+        verify(repaymentLedgerRepository).deleteAllInBatch();
+    }
+}
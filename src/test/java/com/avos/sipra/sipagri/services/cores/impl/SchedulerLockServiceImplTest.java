@@ -0,0 +1,84 @@
+package com.avos.sipra.sipagri.services.cores.impl;
+
+import com.avos.sipra.sipagri.repositories.SchedulerLockRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class SchedulerLockServiceImplTest {
+
+    @Mock
+    private SchedulerLockRepository schedulerLockRepository;
+
+    private SchedulerLockServiceImpl schedulerLockService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        schedulerLockService = new SchedulerLockServiceImpl(schedulerLockRepository, mock(PlatformTransactionManager.class));
+    }
+
+    // ---------- runExclusively ----------
+
+    @Test
+    void runExclusively_ShouldRunAndRelease_WhenExpiredLockIsTaken() {
+        when(schedulerLockRepository.takeExpired(eq("job"), any(), any(), any())).thenReturn(1);
+        AtomicBoolean ran = new AtomicBoolean();
+
+        assertTrue(schedulerLockService.runExclusively("job", Duration.ofMinutes(5), () -> ran.set(true)));
+
+        assertTrue(ran.get());
+        verify(schedulerLockRepository, never()).insertTaken(any(), any(), any(), any());
+        verify(schedulerLockRepository).release(eq("job"), any(), any());
+    }
+
+    @Test
+    void runExclusively_ShouldCreateTheLock_OnTheFirstRun() {
+        when(schedulerLockRepository.takeExpired(eq("job"), any(), any(), any())).thenReturn(0);
+        when(schedulerLockRepository.insertTaken(eq("job"), any(), any(), any())).thenReturn(1);
+
+        assertTrue(schedulerLockService.runExclusively("job", Duration.ofMinutes(5), () -> { }));
+    }
+
+    @Test
+    void runExclusively_ShouldSkip_WhenAnotherNodeHoldsTheLock() {
+        when(schedulerLockRepository.takeExpired(eq("job"), any(), any(), any())).thenReturn(0);
+        when(schedulerLockRepository.insertTaken(eq("job"), any(), any(), any())).thenReturn(0);
+        AtomicBoolean ran = new AtomicBoolean();
+
+        assertFalse(schedulerLockService.runExclusively("job", Duration.ofMinutes(5), () -> ran.set(true)));
+
+        assertFalse(ran.get());
+        verify(schedulerLockRepository, never()).release(any(), any(), any());
+    }
+
+    @Test
+    void runExclusively_ShouldSkip_WhenAnotherNodeCreatedTheLockFirst() {
+        when(schedulerLockRepository.takeExpired(eq("job"), any(), any(), any())).thenReturn(0);
+        when(schedulerLockRepository.insertTaken(eq("job"), any(), any(), any()))
+                .thenThrow(new DataIntegrityViolationException("pk_scheduler_locks"));
+
+        assertFalse(schedulerLockService.runExclusively("job", Duration.ofMinutes(5), () -> { }));
+    }
+
+    @Test
+    void runExclusively_ShouldRelease_WhenTheJobFails() {
+        when(schedulerLockRepository.takeExpired(eq("job"), any(), any(), any())).thenReturn(1);
+
+        assertThrows(IllegalStateException.class, () -> schedulerLockService.runExclusively("job", Duration.ofMinutes(5),
+                () -> {throw new IllegalStateException("failure");}));
+
+        verify(schedulerLockRepository).release(eq("job"), any(), any());
+    }
+}
@@ -0,0 +1,107 @@
+package com.avos.sipra.sipagri.services.cores.impl;
+
+import com.avos.sipra.sipagri.repositories.ProductionArchiveRepository;
+import com.avos.sipra.sipagri.repositories.ProductionRepository;
+import com.avos.sipra.sipagri.repositories.SeasonSummaryRepository;
+import com.avos.sipra.sipagri.services.dtos.SeasonArchiveReportDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SeasonArchiveServiceImplTest {
+
+    @Mock
+    private ProductionRepository productionRepository;
+
+    @Mock
+    private ProductionArchiveRepository productionArchiveRepository;
+
+    @Mock
+    private SeasonSummaryRepository seasonSummaryRepository;
+
+    private SeasonArchiveServiceImpl seasonArchiveService;
+
+    private final int currentSeason = LocalDate.now().getYear();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        seasonArchiveService = new SeasonArchiveServiceImpl(productionRepository, productionArchiveRepository,
+                seasonSummaryRepository, new TransactionTemplate(mock(PlatformTransactionManager.class)), 2);
+    }
+
+    // ---------- coversArchive ----------
+
+    @Test
+    void coversArchive_ShouldBeTrue_ForAllSeasonsAndClosedOnesOnly() {
+        assertEquals(currentSeason - 1, seasonArchiveService.firstHotSeason());
+        assertTrue(seasonArchiveService.coversArchive(null));
+        assertTrue(seasonArchiveService.coversArchive(currentSeason - 2));
+        assertFalse(seasonArchiveService.coversArchive(currentSeason - 1));
+        assertFalse(seasonArchiveService.coversArchive(currentSeason));
+    }
+
+    // ---------- closeSeason ----------
+
+    @Test
+    void closeSeason_ShouldSummarizeThenMoveTheSeason() {
+        int season = currentSeason - 3;
+        Date from = java.sql.Date.valueOf(LocalDate.of(season, 1, 1));
+        Date to = java.sql.Date.valueOf(LocalDate.of(season + 1, 1, 1));
+        when(seasonSummaryRepository.mergeFromHot(season, from, to)).thenReturn(4);
+        when(productionArchiveRepository.copyFromHot(from, to)).thenReturn(120);
+        when(productionRepository.deleteHarvestedBetween(from, to)).thenReturn(120);
+
+        SeasonArchiveReportDTO report = seasonArchiveService.closeSeason(season);
+
+        assertEquals(season, report.getSeason());
+        assertEquals(120, report.getArchivedProductions());
+        assertEquals(4, report.getSummaries());
+        InOrder inOrder = inOrder(seasonSummaryRepository, productionArchiveRepository, productionRepository);
+        inOrder.verify(seasonSummaryRepository).mergeFromHot(season, from, to);
+        inOrder.verify(productionArchiveRepository).copyFromHot(from, to);
+        inOrder.verify(productionRepository).deleteHarvestedBetween(from, to);
+    }
+
+    @Test
+    void closeSeason_ShouldThrowException_WhenSeasonIsStillHot() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> seasonArchiveService.closeSeason(currentSeason - 1));
+
+        assertEquals("Season " + (currentSeason - 1) + " is not closed yet", exception.getMessage());
+        verifyNoInteractions(seasonSummaryRepository, productionArchiveRepository);
+    }
+
+    @Test
+    void closeSeason_ShouldThrowException_WhenCopiedAndDeletedRowsDiffer() {
+        when(productionArchiveRepository.copyFromHot(any(), any())).thenReturn(10);
+        when(productionRepository.deleteHarvestedBetween(any(), any())).thenReturn(11);
+
+        assertThrows(IllegalStateException.class, () -> seasonArchiveService.closeSeason(currentSeason - 2));
+    }
+
+    // ---------- closeEndedSeasons ----------
+
+    @Test
+    void closeEndedSeasons_ShouldCloseOnlyTheSeasonsBeforeTheHotOnes() {
+        when(productionRepository.findDistinctYears())
+                .thenReturn(Arrays.asList(currentSeason, currentSeason - 1, currentSeason - 2, currentSeason - 5, null));
+
+        List<SeasonArchiveReportDTO> reports = seasonArchiveService.closeEndedSeasons();
+
+        assertEquals(List.of(currentSeason - 2, currentSeason - 5), reports.stream().map(SeasonArchiveReportDTO::getSeason).toList());
+        verify(seasonSummaryRepository, times(2)).mergeFromHot(anyInt(), any(), any());
+    }
+}
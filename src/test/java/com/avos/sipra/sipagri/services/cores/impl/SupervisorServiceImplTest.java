@@ -1,6 +1,7 @@
 package com.avos.sipra.sipagri.services.cores.impl;
 
 import com.avos.sipra.sipagri.entities.Supervisor;
+import com.avos.sipra.sipagri.events.SupervisorChangedEvent;
 import com.avos.sipra.sipagri.repositories.SupervisorRepository;
 import com.avos.sipra.sipagri.services.dtos.PaginationResponseDTO;
 import com.avos.sipra.sipagri.services.dtos.SupervisorDTO;
@@ -10,6 +11,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.*;
 
 import java.util.Collections;
@@ -27,6 +29,9 @@ class SupervisorServiceImplTest {
     @Mock
     private SupervisorMapper supervisorMapper;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private SupervisorServiceImpl supervisorService;
 
@@ -77,12 +82,26 @@ class SupervisorServiceImplTest {
 
         assertNotNull(result);
         verify(supervisorRepository).save(supervisor);
+        verify(eventPublisher).publishEvent(new SupervisorChangedEvent(1L));
+    }
+
+    @Test
+    void save_ShouldNotPublishAChange_WhenSupervisorIsNew() {
+        Supervisor created = new Supervisor();
+        when(supervisorMapper.toEntity(supervisorDTO)).thenReturn(created);
+        when(supervisorRepository.save(created)).thenReturn(supervisor);
+        when(supervisorMapper.toDTO(supervisor)).thenReturn(supervisorDTO);
+
+        supervisorService.save(supervisorDTO);
+
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
     void delete_ShouldCallRepositoryDelete() {
         supervisorService.delete(1L);
         verify(supervisorRepository).deleteById(1L);
+        verify(eventPublisher).publishEvent(new SupervisorChangedEvent(1L));
     }
 
     @Test
@@ -0,0 +1,145 @@
+package com.avos.sipra.sipagri.services.cores.impl;
+
+import com.avos.sipra.sipagri.entities.Plantation;
+import com.avos.sipra.sipagri.entities.SyncTombstone;
+import com.avos.sipra.sipagri.enums.SyncEntityType;
+import com.avos.sipra.sipagri.repositories.KitRepository;
+import com.avos.sipra.sipagri.repositories.ParamsRepository;
+import com.avos.sipra.sipagri.repositories.PlantationRepository;
+import com.avos.sipra.sipagri.repositories.PlanterRepository;
+import com.avos.sipra.sipagri.repositories.ProductionRepository;
+import com.avos.sipra.sipagri.repositories.SyncTombstoneRepository;
+import com.avos.sipra.sipagri.services.dtos.PlantationDTO;
+import com.avos.sipra.sipagri.services.dtos.SyncResponseDTO;
+import com.avos.sipra.sipagri.services.mappers.KitMapper;
+import com.avos.sipra.sipagri.services.mappers.ParamsMapper;
+import com.avos.sipra.sipagri.services.mappers.ProductionMapper;
+import com.avos.sipra.sipagri.services.mappers.SyncMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SyncServiceImplTest {
+
+    @Mock
+    private PlanterRepository planterRepository;
+
+    @Mock
+    private PlantationRepository plantationRepository;
+
+    @Mock
+    private ProductionRepository productionRepository;
+
+    @Mock
+    private KitRepository kitRepository;
+
+    @Mock
+    private ParamsRepository paramsRepository;
+
+    @Mock
+    private SyncTombstoneRepository syncTombstoneRepository;
+
+    @Mock
+    private SyncMapper syncMapper;
+
+    @Mock
+    private KitMapper kitMapper;
+
+    private SyncServiceImpl syncService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        syncService = new SyncServiceImpl(planterRepository, plantationRepository, productionRepository,
+                kitRepository, paramsRepository, syncTombstoneRepository, syncMapper,
+                new ProductionMapper(), kitMapper, new ParamsMapper(), 5000);
+        when(syncTombstoneRepository.currentTimestamp()).thenReturn(LocalDateTime.now());
+    }
+
+    // ---------- changesSince ----------
+
+    @Test
+    void changesSince_ShouldReadEverything_WhenTokenIsAbsent() {
+        syncService.changesSince(null, 4L);
+
+        LocalDateTime origin = LocalDateTime.of(1970, 1, 1, 0, 0);
+        verify(planterRepository).findChangedSince(origin, 4L);
+        verify(plantationRepository).findChangedSince(origin, 4L);
+        verify(productionRepository).findChangedSince(origin, 4L);
+        verify(kitRepository).findChangedSince(origin);
+        verify(paramsRepository).findChangedSince(origin);
+        verify(syncTombstoneRepository).findRecordedSince(origin, 4L);
+    }
+
+    @Test
+    void changesSince_ShouldQueryFromTheWatermark_WhenTokenIsReturnedByAPreviousSync() {
+        LocalDateTime watermark = LocalDateTime.of(2025, 6, 1, 8, 30);
+        String token = SyncServiceImpl.encode(watermark);
+
+        syncService.changesSince(token, 4L);
+
+        verify(planterRepository).findChangedSince(watermark, 4L);
+        verify(syncTombstoneRepository).findRecordedSince(watermark, 4L);
+    }
+
+    @Test
+    void changesSince_ShouldReturnAWatermarkBehindTheDatabaseTime() {
+        LocalDateTime databaseTime = LocalDateTime.of(2025, 6, 1, 8, 30);
+        when(syncTombstoneRepository.currentTimestamp()).thenReturn(databaseTime);
+
+        SyncResponseDTO response = syncService.changesSince(null, null);
+
+        assertEquals(databaseTime.minusSeconds(5), SyncServiceImpl.decode(response.getToken()));
+    }
+
+    @Test
+    void changesSince_ShouldMapChangesAndGroupDeletionsByType() {
+        Plantation plantation = new Plantation();
+        PlantationDTO plantationDTO = PlantationDTO.builder().id(2L).build();
+        when(plantationRepository.findChangedSince(any(), any())).thenReturn(List.of(plantation));
+        when(syncMapper.toDTO(plantation)).thenReturn(plantationDTO);
+        when(syncTombstoneRepository.findRecordedSince(any(), any())).thenReturn(List.of(
+                SyncTombstone.builder().entityType(SyncEntityType.PRODUCTION).entityId(7L).build(),
+                SyncTombstone.builder().entityType(SyncEntityType.PRODUCTION).entityId(8L).build(),
+                SyncTombstone.builder().entityType(SyncEntityType.KIT).entityId(1L).build()));
+
+        SyncResponseDTO response = syncService.changesSince(null, 4L);
+
+        assertEquals(List.of(plantationDTO), response.getPlantations());
+        assertEquals(Map.of(SyncEntityType.PRODUCTION, List.of(7L, 8L), SyncEntityType.KIT, List.of(1L)),
+                response.getDeleted());
+    }
+
+    @Test
+    void changesSince_ShouldThrowException_WhenTokenIsInvalid() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> syncService.changesSince("not a token", null));
+
+        assertEquals("Invalid sync token", exception.getMessage());
+    }
+
+    // ---------- recordDeletion ----------
+
+    @Test
+    void recordDeletion_ShouldResolveTheSupervisorInTheDatabase_WhenRecordIsScoped() {
+        syncService.recordDeletion(SyncEntityType.PRODUCTION, 5L);
+
+        verify(syncTombstoneRepository).insertForProduction(5L);
+        verify(syncTombstoneRepository, never()).save(any());
+    }
+
+    @Test
+    void recordDeletion_ShouldRecordASharedTombstone_WhenRecordIsAKit() {
+        syncService.recordDeletion(SyncEntityType.KIT, 3L);
+
+        verify(syncTombstoneRepository).insertShared("KIT", 3L);
+    }
+}
@@ -0,0 +1,86 @@
+package com.avos.sipra.sipagri.services.mappers;
+
+import com.avos.sipra.sipagri.entities.Production;
+import com.avos.sipra.sipagri.services.dtos.ProductionDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CollectionReconcilerTest {
+
+    private final ProductionMapper productionMapper = new ProductionMapper();
+
+    private List<Production> reconcile(List<Production> current, List<ProductionDTO> requested) {
+        return CollectionReconciler.reconcile(current, requested,
+                Production::getId, ProductionDTO::getId,
+                productionMapper::partialUpdate, productionMapper::toEntity);
+    }
+
+    // ---------- reconcile ----------
+
+    @Test
+    void reconcile_ShouldUpdateMatchedChildrenInPlace() {
+        Production kept = Production.builder().id(1L).productionInKg(100.0).purchasePrice(300.0).build();
+        List<Production> current = new ArrayList<>(List.of(kept));
+
+        List<Production> result = reconcile(current,
+                List.of(ProductionDTO.builder().id(1L).productionInKg(120.0).build()));
+
+        assertSame(current, result);
+        assertSame(kept, result.get(0));
+        assertEquals(120.0, kept.getProductionInKg());
+        assertEquals(300.0, kept.getPurchasePrice());
+    }
+
+    @Test
+    void reconcile_ShouldRemoveMissingChildrenAndAddNewOnes() {
+        Production kept = Production.builder().id(1L).build();
+        Production removed = Production.builder().id(2L).build();
+        List<Production> current = new ArrayList<>(List.of(kept, removed));
+
+        List<Production> result = reconcile(current, List.of(
+                ProductionDTO.builder().id(1L).build(),
+                ProductionDTO.builder().productionInKg(50.0).build()));
+
+        assertEquals(2, result.size());
+        assertSame(kept, result.get(0));
+        assertNull(result.get(1).getId());
+        assertEquals(50.0, result.get(1).getProductionInKg());
+    }
+
+    @Test
+    void reconcile_ShouldIgnoreUnknownIdentifiers() {
+        List<Production> current = new ArrayList<>(List.of(Production.builder().id(1L).build()));
+
+        List<Production> result = reconcile(current, List.of(
+                ProductionDTO.builder().id(1L).build(),
+                ProductionDTO.builder().id(9L).build()));
+
+        assertEquals(1, result.size());
+        assertEquals(1L, result.get(0).getId());
+    }
+
+    @Test
+    void reconcile_ShouldCreateTheCollection_WhenItIsNull() {
+        List<Production> result = reconcile(null, List.of(ProductionDTO.builder().productionInKg(10.0).build()));
+
+        assertEquals(1, result.size());
+    }
+
+    // ---------- removedIds ----------
+
+    @Test
+    void removedIds_ShouldListTheChildrenMissingFromTheRequest() {
+        List<Production> current = List.of(Production.builder().id(1L).build(), Production.builder().id(2L).build());
+
+        List<Long> removed = CollectionReconciler.removedIds(current, List.of(
+                        ProductionDTO.builder().id(1L).build(),
+                        ProductionDTO.builder().productionInKg(50.0).build()),
+                Production::getId, ProductionDTO::getId);
+
+        assertEquals(List.of(2L), removed);
+    }
+}